@@ -0,0 +1,105 @@
+package com.expensetracker.benchmark;
+
+import com.expensetracker.config.ColumnarExpenseMessageConverter;
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.ExpenseCategory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * CPU cost of encoding one page of expenses in each supported response format, with and without gzip.
+ * Bytes on the wire for every combination are printed once per trial, e.g.
+ * {@code json rows=10000 bytes=1402101 gzip=160923}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PageSerializationBenchmark {
+
+    @Param({"1000", "10000"})
+    public int rows;
+
+    @Param({"json", "columnar", "cbor"})
+    public String format;
+
+    private Page<Expense> page;
+    private ObjectMapper json;
+    private ObjectMapper cbor;
+    private ColumnarExpenseMessageConverter columnar;
+    private ByteArrayOutputStream buffer;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Random random = new Random(42);
+        ExpenseCategory[] categories = ExpenseCategory.values();
+        List<Expense> content = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            LocalDate date = LocalDate.of(2025, 1, 1).plusDays(random.nextInt(365));
+            Expense expense = new Expense(BigDecimal.valueOf(50 + random.nextInt(20_000), 2),
+                    categories[random.nextInt(categories.length)], "Expense number " + i, date);
+            expense.setId(i + 1L);
+            expense.setCreatedAt(LocalDateTime.of(date, LocalTime.NOON));
+            content.add(expense);
+        }
+        page = new PageImpl<>(content, PageRequest.of(0, rows), rows * 10L);
+        // Same builder defaults as the application's converters.
+        json = Jackson2ObjectMapperBuilder.json().featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+        cbor = Jackson2ObjectMapperBuilder.cbor().build();
+        columnar = new ColumnarExpenseMessageConverter(json.getFactory());
+        buffer = new ByteArrayOutputStream(rows * 200);
+
+        int plain = encode(false);
+        int gzip = encode(true);
+        System.out.printf(Locale.ROOT, "%n%s rows=%d bytes=%d gzip=%d%n", format, rows, plain, gzip);
+    }
+
+    @Benchmark
+    public int encode() throws IOException {
+        return encode(false);
+    }
+
+    @Benchmark
+    public int encodeGzip() throws IOException {
+        return encode(true);
+    }
+
+    private int encode(boolean gzip) throws IOException {
+        buffer.reset();
+        OutputStream out = gzip ? new GZIPOutputStream(buffer, 8192) : buffer;
+        switch (format) {
+            case "json" -> json.writeValue(out, page);
+            case "cbor" -> cbor.writeValue(out, page);
+            case "columnar" -> columnar.write(page, out);
+            default -> throw new IllegalArgumentException(format);
+        }
+        out.close();
+        return buffer.size();
+    }
+}
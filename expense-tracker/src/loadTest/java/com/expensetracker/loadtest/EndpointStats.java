@@ -0,0 +1,59 @@
+package com.expensetracker.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Latencies and outcomes for one workload operation. Every sample is kept, so percentiles are exact;
+ * a run at a few hundred requests per second stays well within a few megabytes.
+ */
+public class EndpointStats {
+
+    private final String name;
+    private long[] latencies = new long[1024];
+    private int count;
+    private long errors;
+
+    public EndpointStats(String name) {
+        this.name = name;
+    }
+
+    public synchronized void record(long latencyNanos, boolean success) {
+        if (count == latencies.length) {
+            latencies = Arrays.copyOf(latencies, count * 2);
+        }
+        latencies[count++] = latencyNanos;
+        if (!success) {
+            errors++;
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public synchronized Snapshot snapshot() {
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        return new Snapshot(name, count, errors, sorted);
+    }
+
+    public record Snapshot(String name, int count, long errors, long[] sortedLatencies) {
+
+        public double errorRate() {
+            return count == 0 ? 0 : (double) errors / count;
+        }
+
+        /** Latency in milliseconds at the given quantile (0..1), nearest-rank. */
+        public double percentileMillis(double quantile) {
+            if (count == 0) {
+                return 0;
+            }
+            int rank = (int) Math.ceil(quantile * count) - 1;
+            return sortedLatencies[Math.max(0, Math.min(rank, count - 1))] / 1_000_000.0;
+        }
+
+        public double maxMillis() {
+            return count == 0 ? 0 : sortedLatencies[count - 1] / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.expensetracker.loadtest;
+
+import com.expensetracker.PersonalExpenseTrackerApplication;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * End-to-end load test: boots the application on a random local port with a seeded dataset, drives the
+ * configured request mix at a fixed rate and fails when latency, error or throughput thresholds are
+ * breached. Run with {@code gradle loadTest}; see {@link LoadTestSettings} for the knobs.
+ * <p>
+ * With {@code loadtest.nodes} above one, further nodes are started in the same JVM against the same
+ * in-memory database, joined by the local invalidation bus, and requests are spread across all of them.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class ExpenseApiLoadTest {
+
+    private static final LoadTestSettings SETTINGS = LoadTestSettings.fromSystemProperties();
+    private static final LocalDate DATASET_END = LocalDate.of(2025, 12, 31);
+    private static final int DATASET_MONTHS = 36;
+    private static final String LOOPBACK = "127.0.0.1,0:0:0:0:0:0:0:1";
+
+    @DynamicPropertySource
+    static void dataset(DynamicPropertyRegistry registry) {
+        // The workload's virtual clients identify themselves by X-Client-Id, all from the loopback address.
+        registry.add("expense.rate-limit.trusted-proxies", () -> LOOPBACK);
+        registry.add("expense.generator.count", () -> SETTINGS.rows());
+        registry.add("expense.generator.seed", () -> SETTINGS.seed());
+        registry.add("expense.generator.tenants", () -> SETTINGS.tenants());
+        registry.add("expense.generator.months", () -> DATASET_MONTHS);
+        registry.add("expense.generator.end-date", DATASET_END::toString);
+        if (SETTINGS.nodes() > 1) {
+            registry.add("expense.cluster.bus", () -> "local");
+        }
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    void mixedWorkloadMeetsThresholds() throws Exception {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        List<ConfigurableApplicationContext> extraNodes = new ArrayList<>();
+        LoadDriver.Result result;
+        try {
+            List<URI> nodes = new ArrayList<>(List.of(URI.create("http://localhost:" + port)));
+            for (int i = 1; i < SETTINGS.nodes(); i++) {
+                ConfigurableApplicationContext node = startNode();
+                extraNodes.add(node);
+                nodes.add(URI.create("http://localhost:" + node.getEnvironment().getProperty("local.server.port")));
+            }
+            Workload workload = new Workload(nodes, SETTINGS.rows(), SETTINGS.tenants(), SETTINGS.seed(),
+                    DATASET_END.minusMonths(DATASET_MONTHS).plusDays(1), DATASET_MONTHS, SETTINGS.clients(), SETTINGS.mix());
+            LoadDriver driver = new LoadDriver(client, workload, SETTINGS.maxInFlight());
+
+            if (!SETTINGS.warmup().isZero()) {
+                driver.run(SETTINGS.rate(), SETTINGS.warmup());
+            }
+            result = driver.run(SETTINGS.rate(), SETTINGS.duration());
+        } finally {
+            extraNodes.forEach(ConfigurableApplicationContext::close);
+        }
+
+        List<String> violations = checkThresholds(result);
+        String report = format(result, violations);
+        System.out.println(report);
+        Files.createDirectories(SETTINGS.reportDir());
+        Files.writeString(SETTINGS.reportDir().resolve("summary.txt"), report);
+
+        assertThat(violations).as("load test thresholds").isEmpty();
+    }
+
+    // The dataset already exists, so the node's generator finds the table non-empty and skips.
+    private static ConfigurableApplicationContext startNode() {
+        return new SpringApplicationBuilder(PersonalExpenseTrackerApplication.class).run(
+                "--server.port=0",
+                "--spring.main.banner-mode=off",
+                "--expense.cluster.bus=local",
+                "--expense.rate-limit.trusted-proxies=" + LOOPBACK,
+                "--expense.generator.count=" + SETTINGS.rows(),
+                "--expense.generator.tenants=" + SETTINGS.tenants());
+    }
+
+    private List<String> checkThresholds(LoadDriver.Result result) {
+        List<String> violations = new ArrayList<>();
+        for (EndpointStats.Snapshot endpoint : result.endpoints().values()) {
+            double maxP99 = SETTINGS.maxP99Millis(endpoint.name());
+            if (endpoint.percentileMillis(0.99) > maxP99) {
+                violations.add(String.format(Locale.ROOT, "%s p99 %.1f ms > %.1f ms",
+                        endpoint.name(), endpoint.percentileMillis(0.99), maxP99));
+            }
+            if (SETTINGS.maxP999Millis() > 0 && endpoint.percentileMillis(0.999) > SETTINGS.maxP999Millis()) {
+                violations.add(String.format(Locale.ROOT, "%s p99.9 %.1f ms > %.1f ms",
+                        endpoint.name(), endpoint.percentileMillis(0.999), SETTINGS.maxP999Millis()));
+            }
+            if (endpoint.errorRate() > SETTINGS.maxErrorRate()) {
+                violations.add(String.format(Locale.ROOT, "%s error rate %.2f%% > %.2f%%",
+                        endpoint.name(), endpoint.errorRate() * 100, SETTINGS.maxErrorRate() * 100));
+            }
+        }
+        double achieved = result.throughput() / SETTINGS.rate();
+        if (achieved < SETTINGS.minThroughputRatio()) {
+            violations.add(String.format(Locale.ROOT, "throughput %.1f req/s is below %.0f%% of the %d req/s target",
+                    result.throughput(), SETTINGS.minThroughputRatio() * 100, SETTINGS.rate()));
+        }
+        return violations;
+    }
+
+    private String format(LoadDriver.Result result, List<String> violations) {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format(Locale.ROOT, "Load test: %d rows, %d tenants, %d nodes, seed %d, target %d req/s for %s%n",
+                SETTINGS.rows(), SETTINGS.tenants(), SETTINGS.nodes(), SETTINGS.seed(), SETTINGS.rate(), SETTINGS.duration()));
+        out.append(String.format(Locale.ROOT, "%-18s %8s %9s %9s %9s %9s %9s %8s%n",
+                "endpoint", "requests", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "errors"));
+        double seconds = result.duration().toNanos() / 1e9;
+        for (EndpointStats.Snapshot e : result.endpoints().values()) {
+            out.append(String.format(Locale.ROOT, "%-18s %8d %9.1f %9.2f %9.2f %9.2f %9.2f %7.2f%%%n",
+                    e.name(), e.count(), e.count() / seconds, e.percentileMillis(0.5), e.percentileMillis(0.99),
+                    e.percentileMillis(0.999), e.maxMillis(), e.errorRate() * 100));
+        }
+        out.append(String.format(Locale.ROOT, "total %d requests, %.1f req/s, %d rejected by client (max in flight)%n",
+                result.totalRequests(), result.throughput(), result.rejectedByClient()));
+        if (violations.isEmpty()) {
+            out.append("All thresholds met").append(System.lineSeparator());
+        } else {
+            violations.forEach(v -> out.append("THRESHOLD BREACHED: ").append(v).append(System.lineSeparator()));
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,91 @@
+package com.expensetracker.loadtest;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load generator: requests are released on a fixed schedule whether or not earlier ones
+ * have finished, and latency is measured from the scheduled start. A slow server therefore shows up as
+ * higher latency instead of silently lowering the offered rate (coordinated omission).
+ */
+public class LoadDriver {
+
+    private final HttpClient client;
+    private final Workload workload;
+    private final int maxInFlight;
+
+    public LoadDriver(HttpClient client, Workload workload, int maxInFlight) {
+        this.client = client;
+        this.workload = workload;
+        this.maxInFlight = maxInFlight;
+    }
+
+    public record Result(Duration duration, Map<String, EndpointStats.Snapshot> endpoints, long rejectedByClient) {
+
+        public long totalRequests() {
+            return endpoints.values().stream().mapToLong(EndpointStats.Snapshot::count).sum();
+        }
+
+        public double throughput() {
+            return totalRequests() / (duration.toNanos() / 1e9);
+        }
+    }
+
+    public Result run(int rate, Duration duration) throws InterruptedException {
+        Map<String, EndpointStats> stats = new TreeMap<>();
+        Semaphore permits = new Semaphore(maxInFlight);
+        long interval = 1_000_000_000L / rate;
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        long rejected = 0;
+
+        for (long i = 0; ; i++) {
+            long scheduled = start + i * interval;
+            if (scheduled >= end) {
+                break;
+            }
+            long wait = scheduled - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Workload.Request request = workload.next();
+            EndpointStats endpoint;
+            synchronized (stats) {
+                endpoint = stats.computeIfAbsent(request.name(), EndpointStats::new);
+            }
+            // Too many requests outstanding: count it as a failed request rather than queueing unboundedly.
+            if (!permits.tryAcquire()) {
+                endpoint.record(System.nanoTime() - scheduled, false);
+                rejected++;
+                continue;
+            }
+            client.sendAsync(request.httpRequest(), HttpResponse.BodyHandlers.ofString())
+                    .whenComplete((response, error) -> {
+                        long latency = System.nanoTime() - scheduled;
+                        boolean success = error == null && response.statusCode() < 400;
+                        if (success) {
+                            workload.onSuccess(request, response);
+                        }
+                        endpoint.record(latency, success);
+                        permits.release();
+                    });
+        }
+
+        if (!permits.tryAcquire(maxInFlight, 60, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("Requests still outstanding 60 s after the run ended");
+        }
+        permits.release(maxInFlight);
+
+        Map<String, EndpointStats.Snapshot> snapshots = new TreeMap<>();
+        synchronized (stats) {
+            stats.forEach((name, endpoint) -> snapshots.put(name, endpoint.snapshot()));
+        }
+        return new Result(duration, snapshots, rejected);
+    }
+}
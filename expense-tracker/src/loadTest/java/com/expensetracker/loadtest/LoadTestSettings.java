@@ -0,0 +1,74 @@
+package com.expensetracker.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Load test knobs, read from {@code loadtest.*} system properties. The Gradle task forwards
+ * {@code -Ploadtest.rate=500} style project properties, so everything can be set from the command line.
+ * The p99 limit can be overridden per operation, e.g. {@code -Ploadtest.max-p99-ms.category-summary=250}.
+ */
+public record LoadTestSettings(
+        long rows,
+        long seed,
+        int tenants,
+        int nodes,
+        int rate,
+        Duration warmup,
+        Duration duration,
+        int maxInFlight,
+        int clients,
+        Map<String, Integer> mix,
+        double maxP99Millis,
+        double maxP999Millis,
+        double maxErrorRate,
+        double minThroughputRatio,
+        Path reportDir) {
+
+    static final String DEFAULT_MIX = "list=20,list-sorted=5,deep-page=5,category=15,date-range=15,"
+            + "get=10,create=10,delete=5,summary=10,category-summary=5";
+
+    public static LoadTestSettings fromSystemProperties() {
+        return new LoadTestSettings(
+                Long.getLong("loadtest.rows", 100_000),
+                Long.getLong("loadtest.seed", 42),
+                Integer.getInteger("loadtest.tenants", 1),
+                Integer.getInteger("loadtest.nodes", 1),
+                Integer.getInteger("loadtest.rate", 50),
+                Duration.parse(System.getProperty("loadtest.warmup", "PT10S")),
+                Duration.parse(System.getProperty("loadtest.duration", "PT30S")),
+                Integer.getInteger("loadtest.max-in-flight", 256),
+                Integer.getInteger("loadtest.clients", 50),
+                parseMix(System.getProperty("loadtest.mix", DEFAULT_MIX)),
+                Double.parseDouble(System.getProperty("loadtest.max-p99-ms", "2000")),
+                Double.parseDouble(System.getProperty("loadtest.max-p999-ms", "0")),
+                Double.parseDouble(System.getProperty("loadtest.max-error-rate", "0.01")),
+                Double.parseDouble(System.getProperty("loadtest.min-throughput-ratio", "0.9")),
+                Path.of(System.getProperty("loadtest.report-dir", "build/reports/loadtest")));
+    }
+
+    public double maxP99Millis(String operation) {
+        String override = System.getProperty("loadtest.max-p99-ms." + operation);
+        return override == null ? maxP99Millis : Double.parseDouble(override);
+    }
+
+    static Map<String, Integer> parseMix(String mix) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected name=weight in loadtest.mix but got: " + entry);
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) {
+                weights.put(parts[0].trim(), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("loadtest.mix has no positive weights");
+        }
+        return weights;
+    }
+}
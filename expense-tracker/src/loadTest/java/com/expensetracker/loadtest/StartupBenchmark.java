@@ -0,0 +1,133 @@
+package com.expensetracker.loadtest;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Startup benchmark: launches the extracted boot jar in each run mode and measures the time from
+ * starting the process to the first successful {@code GET /api/expenses}. Run with
+ * {@code gradle startupBenchmark}, which builds the jar and the CDS archive first. Knobs are
+ * {@code startup.*} system properties, forwarded from {@code -Pstartup.runs=10} style project properties.
+ * <p>
+ * Every run is a fresh JVM on a free port with the same flags. Modes are interleaved so that drift on
+ * the machine affects them alike, and the first round is a discarded warm-up of the OS file cache.
+ */
+public final class StartupBenchmark {
+
+    private static final String JAVA = System.getProperty("startup.java", "java");
+    private static final String JAR = System.getProperty("startup.jar", "build/cds/PersonalExpenseTracker-0.0.1-SNAPSHOT.jar");
+    private static final String CDS_ARCHIVE = System.getProperty("startup.cds-archive", "build/cds/application.jsa");
+    private static final int RUNS = Integer.getInteger("startup.runs", 5);
+    private static final List<String> MODES = Arrays.stream(
+            System.getProperty("startup.modes", "default,fast-startup,fast-startup-aot-cds").split(","))
+            .map(String::trim).toList();
+    private static final Duration TIMEOUT = Duration.parse(System.getProperty("startup.timeout", "PT60S"));
+    private static final Path REPORT_DIR = Path.of(System.getProperty("startup.report-dir", "build/reports/startup"));
+
+    private static final HttpClient CLIENT = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(1))
+            .build();
+
+    private StartupBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Files.createDirectories(REPORT_DIR.resolve("logs"));
+        Map<String, List<Double>> millis = new LinkedHashMap<>();
+        MODES.forEach(mode -> millis.put(mode, new ArrayList<>()));
+        for (int round = 0; round <= RUNS; round++) {
+            for (String mode : MODES) {
+                double elapsed = measure(mode, REPORT_DIR.resolve("logs").resolve(mode + "-" + round + ".log"));
+                if (round > 0) {
+                    millis.get(mode).add(elapsed);
+                }
+            }
+        }
+        String report = format(millis);
+        System.out.println(report);
+        Files.writeString(REPORT_DIR.resolve("summary.txt"), report);
+    }
+
+    private static double measure(String mode, Path log) throws Exception {
+        int port = freePort();
+        ProcessBuilder builder = new ProcessBuilder(command(mode, port))
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile());
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/expenses"))
+                .timeout(Duration.ofSeconds(5))
+                .build();
+        long start = System.nanoTime();
+        Process process = builder.start();
+        try {
+            while (System.nanoTime() - start < TIMEOUT.toNanos()) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException(mode + " exited with " + process.exitValue() + "; see " + log);
+                }
+                try {
+                    if (CLIENT.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        return (System.nanoTime() - start) / 1e6;
+                    }
+                } catch (IOException ex) {
+                    // Not listening yet.
+                }
+                Thread.sleep(5);
+            }
+            throw new IllegalStateException(mode + " did not answer within " + TIMEOUT + "; see " + log);
+        } finally {
+            process.destroy();
+            if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private static List<String> command(String mode, int port) {
+        List<String> command = new ArrayList<>(List.of(JAVA));
+        switch (mode) {
+            case "default" -> command.addAll(List.of("-jar", JAR));
+            case "fast-startup" -> command.addAll(List.of("-jar", JAR, "--spring.profiles.active=fast-startup"));
+            case "fast-startup-aot-cds" -> command.addAll(List.of("-XX:SharedArchiveFile=" + CDS_ARCHIVE,
+                    "-Dspring.aot.enabled=true", "-jar", JAR, "--spring.profiles.active=fast-startup"));
+            default -> throw new IllegalArgumentException("Unknown startup.modes entry: " + mode);
+        }
+        command.addAll(List.of("--server.port=" + port, "--spring.main.banner-mode=off"));
+        return command;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static String format(Map<String, List<Double>> millis) {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format(Locale.ROOT, "Startup benchmark: time to first GET /api/expenses, %d runs per mode "
+                        + "after a warm-up round, Java %s, %d CPUs%n",
+                RUNS, System.getProperty("java.version"), Runtime.getRuntime().availableProcessors()));
+        out.append(String.format(Locale.ROOT, "%-22s %9s %9s %9s%n", "mode", "median ms", "min ms", "max ms"));
+        millis.forEach((mode, runs) -> {
+            List<Double> sorted = runs.stream().sorted().toList();
+            double median = sorted.size() % 2 == 1 ? sorted.get(sorted.size() / 2)
+                    : (sorted.get(sorted.size() / 2 - 1) + sorted.get(sorted.size() / 2)) / 2;
+            out.append(String.format(Locale.ROOT, "%-22s %9.0f %9.0f %9.0f%n",
+                    mode, median, sorted.get(0), sorted.get(sorted.size() - 1)));
+        });
+        return out.toString();
+    }
+}
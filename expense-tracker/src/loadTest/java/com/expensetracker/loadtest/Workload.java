@@ -0,0 +1,162 @@
+package com.expensetracker.loadtest;
+
+import com.expensetracker.model.ExpenseCategory;
+import com.expensetracker.service.SampleDataGenerator;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The production request mix: list pages with different filter shapes, lookups, creates, deletes and
+ * summaries, picked by weight from a seeded random stream. Deletes only remove expenses this workload
+ * created, so the seeded dataset stays stable for the whole run. With several tenants, lookups go to
+ * the tenant that owns the generated id and everything else to a random tenant. With several nodes,
+ * each request goes to a random one, as behind a round-robin load balancer.
+ * <p>
+ * {@link #next()} is called from the single dispatcher thread; responses arrive on client threads.
+ */
+public class Workload {
+
+    private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+    private static final ExpenseCategory[] CATEGORIES = ExpenseCategory.values();
+    private static final String TENANT_HEADER = "X-Tenant-Id";
+
+    private final List<URI> nodes;
+    private final long rows;
+    private final int tenants;
+    private final LocalDate firstDate;
+    private final int monthCount;
+    private final int clients;
+    private final Random random;
+    private final String[] names;
+    private final int[] cumulativeWeights;
+    private final Deque<Created> created = new ConcurrentLinkedDeque<>();
+
+    public Workload(List<URI> nodes, long rows, int tenants, long seed, LocalDate firstDate, int monthCount, int clients,
+                    Map<String, Integer> mix) {
+        this.nodes = List.copyOf(nodes);
+        this.rows = rows;
+        this.tenants = tenants;
+        this.firstDate = firstDate;
+        this.monthCount = monthCount;
+        this.clients = clients;
+        this.random = new Random(seed);
+        this.names = mix.keySet().toArray(String[]::new);
+        this.cumulativeWeights = new int[names.length];
+        int total = 0;
+        for (int i = 0; i < names.length; i++) {
+            total += mix.get(names[i]);
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    public record Request(String name, HttpRequest httpRequest) {
+    }
+
+    private record Created(long id, String tenant) {
+    }
+
+    public Request next() {
+        int pick = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        int index = 0;
+        while (pick >= cumulativeWeights[index]) {
+            index++;
+        }
+        return build(names[index]);
+    }
+
+    public void onSuccess(Request request, HttpResponse<String> response) {
+        if (request.name().equals("create")) {
+            Matcher matcher = ID.matcher(response.body());
+            if (matcher.find()) {
+                String tenant = request.httpRequest().headers().firstValue(TENANT_HEADER).orElse(null);
+                created.add(new Created(Long.parseLong(matcher.group(1)), tenant));
+            }
+        }
+    }
+
+    private Request build(String name) {
+        switch (name) {
+            case "list":
+                return get(name, "/api/expenses?page=" + random.nextInt(5) + "&size=20");
+            case "list-sorted":
+                return get(name, "/api/expenses?size=50&sort=amount,desc");
+            case "deep-page":
+                return get(name, "/api/expenses?size=20&page=" + (1000 + random.nextInt(2000)));
+            case "category":
+                return get(name, "/api/expenses?size=20&category=" + CATEGORIES[random.nextInt(CATEGORIES.length)]);
+            case "date-range": {
+                LocalDate start = randomMonth();
+                return get(name, "/api/expenses?size=20&startDate=" + start
+                        + "&endDate=" + start.plusMonths(1 + random.nextInt(3)).minusDays(1));
+            }
+            case "get": {
+                long id = 1 + (long) (random.nextDouble() * rows);
+                return new Request(name, request("/api/expenses/" + id, ownerOf(id)).GET().build());
+            }
+            case "create":
+                return new Request(name, request("/api/expenses", randomTenant())
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(String.format(
+                                "{\"amount\":%d.%02d,\"category\":\"%s\",\"description\":\"Load test\",\"date\":\"%s\"}",
+                                1 + random.nextInt(200), random.nextInt(100),
+                                CATEGORIES[random.nextInt(CATEGORIES.length)],
+                                randomMonth().plusDays(random.nextInt(28)))))
+                        .build());
+            case "delete": {
+                Created expense = created.pollFirst();
+                if (expense == null) {
+                    return build("get");
+                }
+                return new Request(name, request("/api/expenses/" + expense.id(), expense.tenant()).DELETE().build());
+            }
+            case "summary": {
+                LocalDate start = randomMonth();
+                return get(name, "/api/expenses/summary?startDate=" + start
+                        + "&endDate=" + start.plusMonths(3 + random.nextInt(10)).minusDays(1));
+            }
+            case "category-summary":
+                return get(name, "/api/expenses/category-summary");
+            case "percentiles":
+                return get(name, "/api/expenses/analytics/percentiles?groupBy=month");
+            default:
+                throw new IllegalArgumentException("Unknown workload operation: " + name);
+        }
+    }
+
+    private Request get(String name, String path) {
+        return new Request(name, request(path, randomTenant()).GET().build());
+    }
+
+    // Spread requests over a pool of virtual clients so per-client rate limits see realistic traffic.
+    private HttpRequest.Builder request(String path, String tenant) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(nodes.get(random.nextInt(nodes.size())).resolve(path))
+                .timeout(TIMEOUT)
+                .header("X-Client-Id", "loadtest-" + random.nextInt(clients));
+        return tenant == null ? builder : builder.header(TENANT_HEADER, tenant);
+    }
+
+    // Null for a single tenant, so the baseline run sends exactly what it did before tenants existed.
+    private String ownerOf(long id) {
+        return tenants <= 1 ? null : SampleDataGenerator.tenantFor(id, tenants);
+    }
+
+    private String randomTenant() {
+        return ownerOf(random.nextLong());
+    }
+
+    private LocalDate randomMonth() {
+        return firstDate.plusMonths(random.nextInt(monthCount));
+    }
+}
@@ -0,0 +1,168 @@
+package com.expensetracker.config;
+
+import com.expensetracker.model.Expense;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.springframework.core.ResolvableType;
+import org.springframework.data.domain.Page;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * Writes a page of expenses as columnar JSON ({@value #MEDIA_TYPE_VALUE}): one array per field instead
+ * of one object per row, so field names are sent once per page rather than once per expense.
+ * <pre>
+ * {"columns":{"id":[1,2],"amount":[15.5,45.2],"category":["FOOD","FOOD"],...},
+ *  "number":0,"size":20,"numberOfElements":2,"totalElements":127,"totalPages":7}
+ * </pre>
+ */
+public class ColumnarExpenseMessageConverter extends AbstractGenericHttpMessageConverter<Page<?>> {
+
+    public static final String MEDIA_TYPE_VALUE = "application/vnd.expense.columnar+json";
+    public static final MediaType MEDIA_TYPE = MediaType.parseMediaType(MEDIA_TYPE_VALUE);
+
+    private final JsonFactory jsonFactory;
+
+    public ColumnarExpenseMessageConverter(JsonFactory jsonFactory) {
+        super(MEDIA_TYPE);
+        this.jsonFactory = jsonFactory;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return Page.class.isAssignableFrom(clazz);
+    }
+
+    // Without the declared type the page's element type is unknown, so never.
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public List<MediaType> getSupportedMediaTypes(Class<?> clazz) {
+        return supports(clazz) ? getSupportedMediaTypes() : List.of();
+    }
+
+    // Only pages declared as Page<Expense> (a null media type is the producible-types probe); other
+    // pages get 406 for this media type instead of a cast failure while writing.
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return supports(clazz) && (mediaType == null || MEDIA_TYPE.equalsTypeAndSubtype(mediaType))
+                && type != null && ResolvableType.forType(type).as(Page.class).resolveGeneric(0) == Expense.class;
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected Page<?> readInternal(Class<? extends Page<?>> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Columnar JSON is a response-only format", inputMessage);
+    }
+
+    @Override
+    public Page<?> read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Columnar JSON is a response-only format", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(Page<?> page, Type type, HttpOutputMessage outputMessage) throws IOException {
+        write(page, outputMessage.getBody());
+    }
+
+    public void write(Page<?> page, OutputStream out) throws IOException {
+        @SuppressWarnings("unchecked")
+        List<Expense> rows = (List<Expense>) page.getContent();
+        try (JsonGenerator json = jsonFactory.createGenerator(out, JsonEncoding.UTF8)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            json.writeStartObject();
+            json.writeObjectFieldStart("columns");
+
+            json.writeArrayFieldStart("id");
+            for (Expense row : rows) {
+                json.writeNumber(row.getId());
+            }
+            json.writeEndArray();
+
+            json.writeArrayFieldStart("amount");
+            for (Expense row : rows) {
+                json.writeNumber(row.getAmount());
+            }
+            json.writeEndArray();
+
+            json.writeArrayFieldStart("currency");
+            for (Expense row : rows) {
+                json.writeString(row.getCurrency());
+            }
+            json.writeEndArray();
+
+            json.writeArrayFieldStart("category");
+            for (Expense row : rows) {
+                json.writeString(row.getCategory().name());
+            }
+            json.writeEndArray();
+
+            json.writeArrayFieldStart("description");
+            for (Expense row : rows) {
+                json.writeString(row.getDescription());
+            }
+            json.writeEndArray();
+
+            json.writeArrayFieldStart("date");
+            for (Expense row : rows) {
+                json.writeString(row.getDate().toString());
+            }
+            json.writeEndArray();
+
+            json.writeArrayFieldStart("createdAt");
+            for (Expense row : rows) {
+                if (row.getCreatedAt() == null) {
+                    json.writeNull();
+                } else {
+                    json.writeString(row.getCreatedAt().toString());
+                }
+            }
+            json.writeEndArray();
+
+            json.writeArrayFieldStart("tags");
+            for (Expense row : rows) {
+                json.writeStartArray();
+                for (String tag : row.getTags()) {
+                    json.writeString(tag);
+                }
+                json.writeEndArray();
+            }
+            json.writeEndArray();
+
+            json.writeArrayFieldStart("receiptHash");
+            for (Expense row : rows) {
+                json.writeString(row.getReceiptHash());
+            }
+            json.writeEndArray();
+
+            json.writeEndObject();
+            json.writeNumberField("number", page.getNumber());
+            json.writeNumberField("size", page.getSize());
+            json.writeNumberField("numberOfElements", page.getNumberOfElements());
+            json.writeNumberField("totalElements", page.getTotalElements());
+            json.writeNumberField("totalPages", page.getTotalPages());
+            json.writeEndObject();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.expensetracker.config;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import org.springframework.data.domain.Page;
+
+import java.util.Collection;
+import java.util.function.Supplier;
+
+/**
+ * Java Flight Recorder events for API requests, service calls and SQL statements. Each is recorded
+ * only when a recording has it enabled and it lasted at least its threshold; the defaults below apply
+ * to recordings started with {@code -XX:StartFlightRecording}, and
+ * {@link com.expensetracker.service.ProfilingService} sets its own. While no recording wants an event,
+ * emitting it costs one enabled check.
+ * <p>
+ * Filters are recorded as their shape, the names of the filters used, never their values.
+ */
+public final class FlightEvents {
+
+    // Rows of a statement whose count is not known, such as a query.
+    static final int UNKNOWN_ROWS = -1;
+
+    private FlightEvents() {
+    }
+
+    @Name("com.expensetracker.Request")
+    @Label("API Request")
+    @Category("Expense Tracker")
+    @Threshold("10 ms")
+    @StackTrace(false)
+    public static class Request extends Event {
+        @Label("Endpoint")
+        @Description("Method and path pattern")
+        String endpoint;
+
+        @Label("Filter")
+        @Description("Names of the query parameters")
+        String filter;
+
+        @Label("Tenant")
+        String tenant;
+
+        @Label("Status")
+        int status;
+
+        @Label("Rows")
+        int rows;
+    }
+
+    @Name("com.expensetracker.ServiceCall")
+    @Label("Service Call")
+    @Category("Expense Tracker")
+    @Threshold("5 ms")
+    @StackTrace(false)
+    public static class ServiceCall extends Event {
+        @Label("Method")
+        String method;
+
+        @Label("Filter")
+        String filter;
+
+        @Label("Rows")
+        int rows;
+    }
+
+    @Name("com.expensetracker.SqlStatement")
+    @Label("SQL Statement")
+    @Category("Expense Tracker")
+    @Threshold("1 ms")
+    @StackTrace(false)
+    public static class SqlStatement extends Event {
+        @Label("SQL")
+        String sql;
+
+        @Label("Parameters")
+        @Description("Types of the bound values")
+        String parameters;
+
+        @Label("Rows")
+        @Description("Rows updated; not known for queries")
+        int rows = UNKNOWN_ROWS;
+    }
+
+    /** Runs a service call, recording it as a {@link ServiceCall} with the rows of its result. */
+    public static <T> T service(String method, String filter, Supplier<T> call) {
+        ServiceCall event = new ServiceCall();
+        if (!event.isEnabled()) {
+            return call.get();
+        }
+        event.begin();
+        T result = call.get();
+        event.end();
+        if (event.shouldCommit()) {
+            event.method = method;
+            event.filter = filter;
+            event.rows = rows(result);
+            event.commit();
+        }
+        return result;
+    }
+
+    /** Rows in a page or collection; any other result is one row. */
+    static int rows(Object result) {
+        if (result instanceof Page<?> page) {
+            return page.getNumberOfElements();
+        }
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        return result == null ? 0 : 1;
+    }
+}
@@ -0,0 +1,82 @@
+package com.expensetracker.config;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Adaptive load shedding. Requests are turned away when too many are already in flight (globally, as a
+ * proxy for the request thread pool backing up, or per endpoint), and a growing share of requests is
+ * turned away while an endpoint's smoothed latency is above its limit. The share rises quickly while
+ * latency stays high and falls back slowly once it recovers, so the endpoint is not flapping between
+ * full load and none.
+ */
+public class LoadShedder {
+
+    // Shed probability in 1/1000 steps: +50 per slow completion, -10 per fast one, capped at 90%.
+    private static final int SHED_STEP_UP = 50;
+    private static final int SHED_STEP_DOWN = 10;
+    private static final int SHED_MAX = 900;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final ConcurrentHashMap<String, EndpointLoad> endpoints = new ConcurrentHashMap<>();
+
+    private static final class EndpointLoad {
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicLong latencyEwmaNanos = new AtomicLong();
+        final AtomicInteger shedPermille = new AtomicInteger();
+        final AtomicLong shed = new AtomicLong();
+    }
+
+    /**
+     * Admits the request, or returns false when it should be shed. Every admitted request must be
+     * followed by {@link #exit}.
+     */
+    public boolean tryEnter(String endpoint, int maxInFlight, int maxEndpointInFlight) {
+        EndpointLoad load = endpoints.computeIfAbsent(endpoint, k -> new EndpointLoad());
+        int shedPermille = load.shedPermille.get();
+        if (shedPermille > 0 && ThreadLocalRandom.current().nextInt(1000) < shedPermille) {
+            load.shed.incrementAndGet();
+            return false;
+        }
+        if (maxInFlight > 0 && inFlight.incrementAndGet() > maxInFlight) {
+            inFlight.decrementAndGet();
+            load.shed.incrementAndGet();
+            return false;
+        }
+        if (maxEndpointInFlight > 0 && load.inFlight.incrementAndGet() > maxEndpointInFlight) {
+            load.inFlight.decrementAndGet();
+            if (maxInFlight > 0) {
+                inFlight.decrementAndGet();
+            }
+            load.shed.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    public void exit(String endpoint, int maxInFlight, int maxEndpointInFlight, long latencyNanos, long maxLatencyNanos) {
+        EndpointLoad load = endpoints.get(endpoint);
+        if (maxInFlight > 0) {
+            inFlight.decrementAndGet();
+        }
+        if (maxEndpointInFlight > 0) {
+            load.inFlight.decrementAndGet();
+        }
+        if (maxLatencyNanos <= 0) {
+            return;
+        }
+        long ewma = load.latencyEwmaNanos.accumulateAndGet(latencyNanos, (old, sample) -> old + (sample - old) / 8);
+        if (ewma > maxLatencyNanos) {
+            load.shedPermille.accumulateAndGet(SHED_STEP_UP, (p, step) -> Math.min(SHED_MAX, p + step));
+        } else {
+            load.shedPermille.accumulateAndGet(SHED_STEP_DOWN, (p, step) -> Math.max(0, p - step));
+        }
+    }
+
+    public long getShedCount(String endpoint) {
+        EndpointLoad load = endpoints.get(endpoint);
+        return load == null ? 0 : load.shed.get();
+    }
+}
@@ -0,0 +1,141 @@
+package com.expensetracker.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Applies the per-client rate limit and load shedding rules to API requests. Rate-limited requests get
+ * {@code 429} and shed requests {@code 503}, both with a {@code Retry-After} header in seconds.
+ */
+@Component
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    private static final String ADMITTED = RateLimitInterceptor.class.getName() + ".admitted";
+    private static final String STARTED = RateLimitInterceptor.class.getName() + ".started";
+
+    @Autowired
+    private RateLimitProperties properties;
+
+    private final LoadShedder loadShedder = new LoadShedder();
+
+    private RateLimiter rateLimiter;
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    private final List<Limits> rules = new ArrayList<>();
+
+    private Limits defaults;
+
+    record Limits(String name, String pattern, String method, double rate, int burst, int maxInFlight, long maxLatencyNanos) {
+    }
+
+    @PostConstruct
+    void resolveRules() {
+        rateLimiter = new RateLimiter(properties.getMaxClients());
+        RateLimitProperties.Rule base = properties.getDefaults();
+        defaults = resolve("default", base, base);
+        for (Map.Entry<String, RateLimitProperties.Rule> entry : properties.getEndpoints().entrySet()) {
+            rules.add(resolve(entry.getKey(), entry.getValue(), base));
+        }
+    }
+
+    private static Limits resolve(String name, RateLimitProperties.Rule rule, RateLimitProperties.Rule base) {
+        double rate = rule.getRate() > 0 ? rule.getRate() : base.getRate();
+        int burst = rule.getBurst() > 0 ? rule.getBurst() : Math.max(base.getBurst(), 1);
+        int maxInFlight = rule.getMaxInFlight() > 0 ? rule.getMaxInFlight() : base.getMaxInFlight();
+        var maxLatency = rule.getMaxLatency() != null ? rule.getMaxLatency() : base.getMaxLatency();
+        return new Limits(name, rule.getPattern(), rule.getMethod(), rate, burst, maxInFlight,
+                maxLatency == null ? 0 : maxLatency.toNanos());
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        if (!properties.isEnabled() || "OPTIONS".equals(request.getMethod())) {
+            return true;
+        }
+        Limits limits = match(request);
+        if (limits.rate() > 0) {
+            long waitNanos = rateLimiter.tryAcquire(clientKey(request) + '|' + limits.name(), limits.rate(), limits.burst());
+            if (waitNanos > 0) {
+                reject(response, HttpStatus.TOO_MANY_REQUESTS, waitNanos, "Rate limit exceeded; retry later");
+                return false;
+            }
+        }
+        if (!loadShedder.tryEnter(limits.name(), properties.getMaxInFlight(), limits.maxInFlight())) {
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, properties.getShedRetryAfter().toNanos(),
+                    "Server is overloaded; retry later");
+            return false;
+        }
+        request.setAttribute(ADMITTED, limits);
+        request.setAttribute(STARTED, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(ADMITTED) instanceof Limits limits) {
+            long latency = System.nanoTime() - (long) request.getAttribute(STARTED);
+            loadShedder.exit(limits.name(), properties.getMaxInFlight(), limits.maxInFlight(), latency, limits.maxLatencyNanos());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${expense.rate-limit.sweep-interval:PT1M}")
+    public void sweepIdleClients() {
+        rateLimiter.sweep(System.nanoTime());
+    }
+
+    private Limits match(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (Limits rule : rules) {
+            if ((rule.method() == null || rule.method().equalsIgnoreCase(request.getMethod()))
+                    && rule.pattern() != null && pathMatcher.match(rule.pattern(), path)) {
+                return rule;
+            }
+        }
+        return defaults;
+    }
+
+    private String clientKey(HttpServletRequest request) {
+        List<String> trusted = properties.getTrustedProxies();
+        String remote = request.getRemoteAddr();
+        if (!trusted.contains(remote)) {
+            return remote;
+        }
+        String client = request.getHeader(properties.getClientHeader());
+        if (client != null && !client.isBlank()) {
+            return client;
+        }
+        // The nearest address the trusted proxies did not add themselves.
+        String forwarded = request.getHeader("X-Forwarded-For");
+        if (forwarded != null) {
+            String[] hops = forwarded.split(",");
+            for (int i = hops.length - 1; i >= 0; i--) {
+                String hop = hops[i].strip();
+                if (!hop.isEmpty() && !trusted.contains(hop)) {
+                    return hop;
+                }
+            }
+        }
+        return remote;
+    }
+
+    private static void reject(HttpServletResponse response, HttpStatus status, long retryAfterNanos, String message)
+            throws IOException {
+        response.setStatus(status.value());
+        response.setHeader("Retry-After", Long.toString(Math.max(1, (retryAfterNanos + 999_999_999L) / 1_000_000_000L)));
+        response.setContentType("text/plain");
+        response.getWriter().write(message);
+    }
+}
@@ -0,0 +1,167 @@
+package com.expensetracker.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rate limit and load shedding settings under {@code expense.rate-limit}. Endpoint rules are matched in
+ * the order they are declared; any limit an endpoint leaves unset (0) falls back to {@code defaults}.
+ */
+@ConfigurationProperties(prefix = "expense.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    // Requests are keyed by remote address. Only requests from these addresses (reverse proxies or
+    // gateways) are keyed by the client header, or failing that by X-Forwarded-For, since anyone else
+    // could send a fresh value with every request.
+    private List<String> trustedProxies = new ArrayList<>();
+
+    private String clientHeader = "X-Client-Id";
+
+    // Upper bound on tracked client buckets; idle ones are swept when it is reached.
+    private int maxClients = 100_000;
+
+    // Requests in flight across all endpoints before new ones are shed with 503.
+    private int maxInFlight = 0;
+
+    private Duration shedRetryAfter = Duration.ofSeconds(1);
+
+    private Rule defaults = new Rule();
+
+    private Map<String, Rule> endpoints = new LinkedHashMap<>();
+
+    public static class Rule {
+
+        // Ant-style path pattern and optional HTTP method; only used for endpoint rules.
+        private String pattern;
+        private String method;
+
+        // Sustained requests per second and burst size, per client.
+        private double rate;
+        private int burst;
+
+        // Requests in flight on this endpoint before new ones are shed.
+        private int maxInFlight;
+
+        // Smoothed latency above which a growing share of requests is shed; unset disables it.
+        private Duration maxLatency;
+
+        public String getPattern() {
+            return pattern;
+        }
+
+        public void setPattern(String pattern) {
+            this.pattern = pattern;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public void setMethod(String method) {
+            this.method = method;
+        }
+
+        public double getRate() {
+            return rate;
+        }
+
+        public void setRate(double rate) {
+            this.rate = rate;
+        }
+
+        public int getBurst() {
+            return burst;
+        }
+
+        public void setBurst(int burst) {
+            this.burst = burst;
+        }
+
+        public int getMaxInFlight() {
+            return maxInFlight;
+        }
+
+        public void setMaxInFlight(int maxInFlight) {
+            this.maxInFlight = maxInFlight;
+        }
+
+        public Duration getMaxLatency() {
+            return maxLatency;
+        }
+
+        public void setMaxLatency(Duration maxLatency) {
+            this.maxLatency = maxLatency;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public List<String> getTrustedProxies() {
+        return trustedProxies;
+    }
+
+    public void setTrustedProxies(List<String> trustedProxies) {
+        this.trustedProxies = trustedProxies;
+    }
+
+    public String getClientHeader() {
+        return clientHeader;
+    }
+
+    public void setClientHeader(String clientHeader) {
+        this.clientHeader = clientHeader;
+    }
+
+    public int getMaxClients() {
+        return maxClients;
+    }
+
+    public void setMaxClients(int maxClients) {
+        this.maxClients = maxClients;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public void setMaxInFlight(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+
+    public Duration getShedRetryAfter() {
+        return shedRetryAfter;
+    }
+
+    public void setShedRetryAfter(Duration shedRetryAfter) {
+        this.shedRetryAfter = shedRetryAfter;
+    }
+
+    public Rule getDefaults() {
+        return defaults;
+    }
+
+    public void setDefaults(Rule defaults) {
+        this.defaults = defaults;
+    }
+
+    public Map<String, Rule> getEndpoints() {
+        return endpoints;
+    }
+
+    public void setEndpoints(Map<String, Rule> endpoints) {
+        this.endpoints = endpoints;
+    }
+}
@@ -0,0 +1,62 @@
+package com.expensetracker.config;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token-bucket rate limiter implemented as GCRA (generic cell rate algorithm).
+ * <p>
+ * Each bucket is a single {@link AtomicLong} holding the theoretical arrival time of the next request,
+ * updated with a compare-and-set, so there are no locks; {@link ConcurrentHashMap} already stripes
+ * the bucket lookup. A bucket whose arrival time is in the past is indistinguishable from a fresh one,
+ * which is what lets idle clients be swept without losing state.
+ */
+public class RateLimiter {
+
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    private final int maxBuckets;
+
+    public RateLimiter(int maxBuckets) {
+        this.maxBuckets = maxBuckets;
+    }
+
+    /**
+     * Takes one token from the bucket for {@code key}. Returns 0 when the request is allowed, otherwise
+     * the number of nanoseconds until a token will be available.
+     */
+    public long tryAcquire(String key, double ratePerSecond, int burst) {
+        return tryAcquire(key, ratePerSecond, burst, System.nanoTime());
+    }
+
+    long tryAcquire(String key, double ratePerSecond, int burst, long now) {
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= maxBuckets) {
+                sweep(now);
+            }
+            bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(Long.MIN_VALUE));
+        }
+        long interval = (long) (1_000_000_000L / ratePerSecond);
+        long tolerance = interval * burst;
+        while (true) {
+            long arrival = bucket.get();
+            long next = Math.max(arrival, now) + interval;
+            if (next - now > tolerance) {
+                return next - now - tolerance;
+            }
+            if (bucket.compareAndSet(arrival, next)) {
+                return 0;
+            }
+        }
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    /** Drops buckets that have fully refilled. */
+    public void sweep(long now) {
+        buckets.values().removeIf(bucket -> bucket.get() <= now);
+    }
+}
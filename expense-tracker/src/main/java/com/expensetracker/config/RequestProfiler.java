@@ -0,0 +1,68 @@
+package com.expensetracker.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.util.TreeSet;
+
+/**
+ * Records API requests as {@link FlightEvents.Request} events: the handler's path pattern, the names
+ * of the query parameters, the status and the rows in the response body.
+ */
+@ControllerAdvice
+public class RequestProfiler implements HandlerInterceptor, ResponseBodyAdvice<Object> {
+
+    private static final String EVENT = RequestProfiler.class.getName() + ".event";
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        FlightEvents.Request event = new FlightEvents.Request();
+        if (event.isEnabled()) {
+            event.begin();
+            request.setAttribute(EVENT, event);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType contentType,
+                                  Class<? extends HttpMessageConverter<?>> converterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (request instanceof ServletServerHttpRequest servletRequest
+                && servletRequest.getServletRequest().getAttribute(EVENT) instanceof FlightEvents.Request event) {
+            event.rows = FlightEvents.rows(body);
+        }
+        return body;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (!(request.getAttribute(EVENT) instanceof FlightEvents.Request event)) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            event.endpoint = request.getMethod() + " " + (pattern != null ? pattern : request.getRequestURI());
+            event.filter = String.join(",", new TreeSet<>(request.getParameterMap().keySet()));
+            event.tenant = TenantContext.getTenantId();
+            event.status = response.getStatus();
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.expensetracker.config;
+
+import com.expensetracker.service.SnapshotService;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+@Configuration
+public class SnapshotConfig {
+
+    // Runs before DataInitializer, which only seeds an empty table.
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    CommandLineRunner restoreSnapshot(SnapshotService snapshotService) {
+        return args -> snapshotService.restoreIfEmpty();
+    }
+}
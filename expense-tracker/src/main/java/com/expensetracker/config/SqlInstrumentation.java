@@ -0,0 +1,237 @@
+package com.expensetracker.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Wraps the application's {@link DataSource} so every statement sent through JDBC, by Hibernate or
+ * by the JDBC repositories, is timed and recorded in the current {@link SqlStatementLog}.
+ * <p>
+ * A statement slower than {@code expense.sql.slow-threshold} is logged with the types of its bound
+ * values and, for queries, with the database's {@code EXPLAIN} plan, taken on the same connection
+ * with the same values. Only the JDBC calls themselves are timed; reading the rows is not. Statements
+ * are also recorded as {@link FlightEvents.SqlStatement} events.
+ */
+@Component
+public class SqlInstrumentation implements BeanPostProcessor {
+
+    private static final Logger log = LoggerFactory.getLogger(SqlInstrumentation.class);
+
+    private static final Set<String> EXECUTE_METHODS =
+            Set.of("execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    @Value("${expense.sql.instrumentation.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${expense.sql.slow-threshold:PT0.5S}")
+    private Duration slowThreshold = Duration.ofMillis(500);
+
+    @Value("${expense.sql.explain-slow:true}")
+    private boolean explainSlow = true;
+
+    private final LongAdder statements = new LongAdder();
+    private final LongAdder nanos = new LongAdder();
+    private final LongAdder slowStatements = new LongAdder();
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (enabled && bean instanceof DataSource dataSource && !Proxy.isProxyClass(bean.getClass())) {
+            return wrap(dataSource);
+        }
+        return bean;
+    }
+
+    /**
+     * Wraps a data source. A closeable one, such as a connection pool, stays closeable through the
+     * wrapper, so whoever holds the wrapped bean can still shut the pool down.
+     */
+    public DataSource wrap(DataSource dataSource) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            Object result = invoke(dataSource, proxy, method, args);
+            return result instanceof Connection connection ? proxy(Connection.class, new ConnectionHandler(connection)) : result;
+        };
+        if (dataSource instanceof AutoCloseable) {
+            return (DataSource) Proxy.newProxyInstance(SqlInstrumentation.class.getClassLoader(),
+                    new Class<?>[] {DataSource.class, AutoCloseable.class}, handler);
+        }
+        return proxy(DataSource.class, handler);
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("statements", statements.sum());
+        metrics.put("millis", nanos.sum() / 1_000_000);
+        metrics.put("slowStatements", slowStatements.sum());
+        metrics.put("slowThresholdMillis", slowThreshold.toMillis());
+        return metrics;
+    }
+
+    private void record(String sql, Map<Integer, Object> parameters, long elapsed, Connection connection) {
+        statements.increment();
+        nanos.add(elapsed);
+        String shape = shape(parameters);
+        SqlStatementLog current = SqlStatementLog.current();
+        if (current != null) {
+            current.record(sql, shape, elapsed);
+        }
+        if (elapsed >= slowThreshold.toNanos()) {
+            slowStatements.increment();
+            log.warn("Slow SQL ({} ms): {} {}{}", elapsed / 1_000_000, sql, shape, explain(sql, parameters, connection));
+        }
+    }
+
+    private static String shape(Map<Integer, Object> parameters) {
+        return parameters.isEmpty() ? "" : parameters.values().stream()
+                .map(value -> value == null ? "null" : value.getClass().getSimpleName())
+                .collect(Collectors.joining(", ", "[", "]"));
+    }
+
+    private String explain(String sql, Map<Integer, Object> parameters, Connection connection) {
+        String verb = sql.stripLeading().toLowerCase(Locale.ROOT);
+        if (!explainSlow || !(verb.startsWith("select") || verb.startsWith("with"))) {
+            return "";
+        }
+        try (PreparedStatement explain = connection.prepareStatement("EXPLAIN " + sql)) {
+            for (Map.Entry<Integer, Object> parameter : parameters.entrySet()) {
+                explain.setObject(parameter.getKey(), parameter.getValue());
+            }
+            StringBuilder plan = new StringBuilder("\nPlan:");
+            try (ResultSet rows = explain.executeQuery()) {
+                while (rows.next()) {
+                    plan.append('\n').append(rows.getString(1));
+                }
+            }
+            return plan.toString();
+        } catch (SQLException ex) {
+            return "\nPlan unavailable: " + ex.getMessage();
+        }
+    }
+
+    private final class ConnectionHandler implements InvocationHandler {
+
+        private final Connection connection;
+
+        private ConnectionHandler(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = SqlInstrumentation.invoke(connection, proxy, method, args);
+            String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : null;
+            return switch (method.getName()) {
+                case "createStatement" -> proxy(Statement.class,
+                        new StatementHandler((Statement) result, (Connection) proxy, connection, null));
+                case "prepareStatement" -> proxy(PreparedStatement.class,
+                        new StatementHandler((Statement) result, (Connection) proxy, connection, sql));
+                case "prepareCall" -> proxy(CallableStatement.class,
+                        new StatementHandler((Statement) result, (Connection) proxy, connection, sql));
+                default -> result;
+            };
+        }
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+
+        private final Statement statement;
+        private final Connection proxyConnection;
+        private final Connection connection;
+        private final String preparedSql;
+        private final Map<Integer, Object> parameters = new TreeMap<>();
+        // Statements added with Statement.addBatch(String); prepared batches reuse preparedSql.
+        private final List<String> batch = new ArrayList<>();
+
+        private StatementHandler(Statement statement, Connection proxyConnection, Connection connection, String preparedSql) {
+            this.statement = statement;
+            this.proxyConnection = proxyConnection;
+            this.connection = connection;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                parameters.put(index, name.equals("setNull") ? null : args[1]);
+            } else if (name.equals("clearParameters")) {
+                parameters.clear();
+            } else if (name.equals("addBatch") && args != null && args.length == 1) {
+                batch.add((String) args[0]);
+            } else if (name.equals("clearBatch")) {
+                batch.clear();
+            } else if (name.equals("getConnection")) {
+                return proxyConnection;
+            }
+            if (!EXECUTE_METHODS.contains(name)) {
+                return SqlInstrumentation.invoke(statement, proxy, method, args);
+            }
+            String sql = args != null && args.length > 0 && args[0] instanceof String text ? text
+                    : preparedSql != null ? preparedSql : String.join("; ", batch);
+            FlightEvents.SqlStatement event = new FlightEvents.SqlStatement();
+            event.begin();
+            long start = System.nanoTime();
+            Object result = null;
+            try {
+                result = SqlInstrumentation.invoke(statement, proxy, method, args);
+                return result;
+            } finally {
+                record(sql, parameters, System.nanoTime() - start, connection);
+                event.end();
+                if (event.shouldCommit()) {
+                    event.sql = sql;
+                    event.parameters = shape(parameters);
+                    event.rows = result instanceof Number rows ? rows.intValue() : FlightEvents.UNKNOWN_ROWS;
+                    event.commit();
+                }
+                if (name.endsWith("Batch")) {
+                    batch.clear();
+                }
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(SqlInstrumentation.class.getClassLoader(), new Class<?>[] {type}, handler);
+    }
+
+    private static Object invoke(Object target, Object proxy, Method method, Object[] args) throws Throwable {
+        // Pools and Hibernate compare connections and statements by identity.
+        if (method.getName().equals("equals") && method.getParameterCount() == 1) {
+            return proxy == args[0];
+        }
+        if (method.getName().equals("hashCode") && method.getParameterCount() == 0) {
+            return System.identityHashCode(proxy);
+        }
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getCause();
+        }
+    }
+}
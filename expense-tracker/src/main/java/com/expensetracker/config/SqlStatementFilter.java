@@ -0,0 +1,66 @@
+package com.expensetracker.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Records the SQL statements of every API request in a {@link SqlStatementLog}. A request that runs
+ * more than {@code expense.sql.request-budget} statements, or one statement at least
+ * {@code expense.sql.repeat-threshold} times, is logged with the statements it ran; every request's
+ * count is logged at debug level.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class SqlStatementFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(SqlStatementFilter.class);
+
+    @Value("${expense.sql.request-budget:20}")
+    private int requestBudget = 20;
+
+    @Value("${expense.sql.repeat-threshold:10}")
+    private int repeatThreshold = 10;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        SqlStatementLog statements = SqlStatementLog.begin();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            statements.end();
+            report(request, statements);
+        }
+    }
+
+    private void report(HttpServletRequest request, SqlStatementLog statements) {
+        List<SqlStatementLog.Statement> repeated = statements.getRepeated(repeatThreshold);
+        if (statements.getCount() > requestBudget) {
+            log.warn("{} {} ran more than {} SQL statements: {}", request.getMethod(), request.getRequestURI(),
+                    requestBudget, statements.describe());
+        } else if (!repeated.isEmpty()) {
+            log.warn("{} {} repeated a statement {} times, a likely N+1: {}", request.getMethod(), request.getRequestURI(),
+                    repeated.get(0).getExecutions(), statements.describe());
+        } else if (log.isDebugEnabled()) {
+            log.debug("{} {}: {} SQL statements in {} ms", request.getMethod(), request.getRequestURI(),
+                    statements.getCount(), statements.getMillis());
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.expensetracker.config;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * The SQL statements a request, or any block of code, sent to the database, as recorded by
+ * {@link SqlInstrumentation}. Statements are grouped by their SQL text, so a query repeated once per
+ * row of an earlier result (an N+1) shows up as one entry with many executions. A JDBC batch counts
+ * as one execution.
+ * <p>
+ * A log records the current thread between {@link #begin()} and {@link #end()}; logs begun inside
+ * one another each see the statements of the inner one. Work handed to another thread is recorded
+ * by running it with {@link #callWith}.
+ */
+public final class SqlStatementLog {
+
+    // Distinct statements kept per log; any beyond are still counted.
+    static final int MAX_STATEMENTS = 100;
+
+    private static final ThreadLocal<SqlStatementLog> CURRENT = new ThreadLocal<>();
+
+    private final SqlStatementLog parent;
+    private final Map<String, Statement> statements = new LinkedHashMap<>();
+    private int count;
+    private long nanos;
+
+    private SqlStatementLog(SqlStatementLog parent) {
+        this.parent = parent;
+    }
+
+    /** Starts a log on the current thread; close it with {@link #end()} in a finally block. */
+    public static SqlStatementLog begin() {
+        SqlStatementLog log = new SqlStatementLog(CURRENT.get());
+        CURRENT.set(log);
+        return log;
+    }
+
+    /** Stops recording into this log and resumes the one it was begun inside, if any. */
+    public void end() {
+        if (parent == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(parent);
+        }
+    }
+
+    public static SqlStatementLog current() {
+        return CURRENT.get();
+    }
+
+    /** Runs {@code action} recording into {@code log}, which may be null; for work done on another thread. */
+    public static <T> T callWith(SqlStatementLog log, Supplier<T> action) {
+        SqlStatementLog previous = CURRENT.get();
+        if (log == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(log);
+        }
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    void record(String sql, String parameters, long elapsedNanos) {
+        for (SqlStatementLog log = this; log != null; log = log.parent) {
+            log.add(sql, parameters, elapsedNanos);
+        }
+    }
+
+    private synchronized void add(String sql, String parameters, long elapsedNanos) {
+        count++;
+        nanos += elapsedNanos;
+        Statement statement = statements.get(sql);
+        if (statement == null) {
+            if (statements.size() >= MAX_STATEMENTS) {
+                return;
+            }
+            statement = new Statement(sql, parameters);
+            statements.put(sql, statement);
+        }
+        statement.executions++;
+        statement.nanos += elapsedNanos;
+    }
+
+    /** Statements executed, including repeats. */
+    public synchronized int getCount() {
+        return count;
+    }
+
+    public synchronized long getMillis() {
+        return nanos / 1_000_000;
+    }
+
+    /** Distinct statements in the order they first ran. */
+    public synchronized List<Statement> getStatements() {
+        List<Statement> copy = new ArrayList<>(statements.size());
+        statements.values().forEach(statement -> copy.add(statement.copy()));
+        return copy;
+    }
+
+    /** Statements that ran at least {@code executions} times, the usual sign of an N+1. */
+    public List<Statement> getRepeated(int executions) {
+        return getStatements().stream().filter(statement -> statement.getExecutions() >= executions).toList();
+    }
+
+    /** One line per distinct statement, for logs and test failures. */
+    public String describe() {
+        StringBuilder text = new StringBuilder();
+        text.append(getCount()).append(" statements in ").append(getMillis()).append(" ms");
+        for (Statement statement : getStatements()) {
+            text.append("\n  ").append(statement.getExecutions()).append("x ")
+                    .append(statement.getNanos() / 1_000_000).append(" ms  ").append(statement.getSql());
+            if (!statement.getParameters().isEmpty()) {
+                text.append("  ").append(statement.getParameters());
+            }
+        }
+        return text.toString();
+    }
+
+    public static final class Statement {
+
+        private final String sql;
+        // Types of the values bound the first time it ran, e.g. [Long, String].
+        private final String parameters;
+        private int executions;
+        private long nanos;
+
+        private Statement(String sql, String parameters) {
+            this.sql = sql;
+            this.parameters = parameters;
+        }
+
+        private Statement copy() {
+            Statement copy = new Statement(sql, parameters);
+            copy.executions = executions;
+            copy.nanos = nanos;
+            return copy;
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        public String getParameters() {
+            return parameters;
+        }
+
+        public int getExecutions() {
+            return executions;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.expensetracker.config;
+
+import com.expensetracker.service.ClusterService;
+import com.expensetracker.service.InvalidationBus;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Keeps the beans that must exist from the start eager when the fast-startup profile initializes the
+ * rest lazily. The cluster bus and its subscriber only receive remote changes once created, and
+ * nothing local asks for them before the first change. Beans with {@code @Scheduled} methods are
+ * already kept eager by Spring Boot.
+ */
+@Configuration
+public class StartupConfig {
+
+    @Bean
+    static LazyInitializationExcludeFilter eagerClusterBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(ClusterService.class, InvalidationBus.class);
+    }
+}
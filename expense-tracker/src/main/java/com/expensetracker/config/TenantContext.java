@@ -0,0 +1,58 @@
+package com.expensetracker.config;
+
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * The tenant the current thread works for. {@link TenantFilter} binds it per request from the
+ * {@code X-Tenant-Id} header; code running outside a request (startup, scheduled jobs) sees
+ * {@link #DEFAULT_TENANT}.
+ * <p>
+ * JPA reads and writes of {@code Expense} are scoped to this tenant by Hibernate. The JDBC bulk and
+ * partition repositories are not: they serve whole-table maintenance such as snapshots and archiving.
+ */
+public final class TenantContext {
+
+    public static final String DEFAULT_TENANT = "default";
+
+    public static final int MAX_LENGTH = 64;
+
+    private static final Pattern VALID = Pattern.compile("[A-Za-z0-9._-]{1," + MAX_LENGTH + "}");
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private TenantContext() {
+    }
+
+    public static String getTenantId() {
+        String tenantId = CURRENT.get();
+        return tenantId == null ? DEFAULT_TENANT : tenantId;
+    }
+
+    public static boolean isValid(String tenantId) {
+        return tenantId != null && VALID.matcher(tenantId).matches();
+    }
+
+    public static void setTenantId(String tenantId) {
+        CURRENT.set(tenantId);
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    /** Runs {@code action} for {@code tenantId}, e.g. from a background job. */
+    public static <T> T callAs(String tenantId, Supplier<T> action) {
+        String previous = CURRENT.get();
+        CURRENT.set(tenantId);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.expensetracker.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Binds the request's tenant from the {@code X-Tenant-Id} header; requests without one belong to
+ * {@link TenantContext#DEFAULT_TENANT}. Runs as a servlet filter, ahead of the open-in-view
+ * interceptor, so the Hibernate session of the request is opened for the right tenant.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class TenantFilter extends OncePerRequestFilter {
+
+    @Value("${expense.tenant.header:X-Tenant-Id}")
+    private String header = "X-Tenant-Id";
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String tenantId = request.getHeader(header);
+        if (tenantId == null || tenantId.isEmpty()) {
+            chain.doFilter(request, response);
+            return;
+        }
+        if (!TenantContext.isValid(tenantId)) {
+            response.setStatus(HttpStatus.BAD_REQUEST.value());
+            response.setContentType("text/plain");
+            response.getWriter().write(header + " must be 1 to " + TenantContext.MAX_LENGTH
+                    + " letters, digits, '.', '_' or '-'");
+            return;
+        }
+        TenantContext.setTenantId(tenantId);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            TenantContext.clear();
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.expensetracker.config;
+
+import org.hibernate.context.spi.CurrentTenantIdentifierResolver;
+
+/**
+ * Hands Hibernate the {@link TenantContext} tenant for every session it opens, which scopes each
+ * {@code @TenantId} entity query and stamps inserts. Registered through
+ * {@code spring.jpa.properties.hibernate.tenant_identifier_resolver}, so JPA test slices pick it up too.
+ */
+public class TenantIdentifierResolver implements CurrentTenantIdentifierResolver<String> {
+
+    @Override
+    public String resolveCurrentTenantIdentifier() {
+        return TenantContext.getTenantId();
+    }
+
+    // A request binds its tenant before its session opens and never switches it.
+    @Override
+    public boolean validateExistingCurrentSessions() {
+        return false;
+    }
+}
@@ -0,0 +1,149 @@
+package com.expensetracker.controller;
+
+import com.expensetracker.config.SqlInstrumentation;
+import com.expensetracker.model.ExpensePartition;
+import com.expensetracker.service.ClusterService;
+import com.expensetracker.service.DuplicateDetector;
+import com.expensetracker.service.ExpenseArchiveService;
+import com.expensetracker.service.ExpenseService;
+import com.expensetracker.service.FxRateService;
+import com.expensetracker.service.ProfilingService;
+import com.expensetracker.service.RecurringExpenseService;
+import com.expensetracker.service.SnapshotService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin")
+public class AdminController {
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private ExpenseArchiveService expenseArchiveService;
+
+    @Autowired
+    private ClusterService clusterService;
+
+    @Autowired
+    private FxRateService fxRateService;
+
+    @Autowired
+    private RecurringExpenseService recurringExpenseService;
+
+    @Autowired
+    private SnapshotService snapshotService;
+
+    @Autowired
+    private SqlInstrumentation sqlInstrumentation;
+
+    @Autowired
+    private ProfilingService profilingService;
+
+    @Autowired
+    private DuplicateDetector duplicateDetector;
+
+    @GetMapping("/partitions")
+    public List<ExpensePartition> getPartitions() {
+        return expenseService.getPartitions();
+    }
+
+    @GetMapping("/coalescing")
+    public Map<String, Object> getCoalescingMetrics() {
+        return expenseService.getCoalescingMetrics();
+    }
+
+    @GetMapping("/cluster")
+    public Map<String, Object> getClusterMetrics() {
+        return clusterService.getMetrics();
+    }
+
+    @GetMapping("/fx-cache")
+    public Map<String, Object> getFxCacheMetrics() {
+        return fxRateService.getCacheMetrics();
+    }
+
+    @GetMapping("/sql")
+    public Map<String, Object> getSqlMetrics() {
+        return sqlInstrumentation.getMetrics();
+    }
+
+    @GetMapping("/duplicates")
+    public Map<String, Object> getDuplicateDetectorStats() {
+        return duplicateDetector.getStats();
+    }
+
+    @GetMapping("/archive")
+    public List<Map<String, Object>> getArchiveSegments() {
+        return expenseArchiveService.getSegments();
+    }
+
+    @PostMapping("/archive")
+    public List<ExpensePartition> archive() {
+        return expenseArchiveService.archiveOlderThanHorizon();
+    }
+
+    @PostMapping("/recurring")
+    public Map<String, Object> materializeRecurring() {
+        return recurringExpenseService.materializeDue(LocalDate.now());
+    }
+
+    @PostMapping("/snapshot")
+    public Map<String, Object> snapshot() {
+        return snapshotService.writeSnapshot();
+    }
+
+    @GetMapping("/journal")
+    public Map<String, Object> getJournalStats() {
+        return snapshotService.getJournalStats();
+    }
+
+    @GetMapping("/journal/entries")
+    public List<Map<String, Object>> getJournalEntries(@RequestParam(defaultValue = "0") long after,
+                                                       @RequestParam(defaultValue = "100") int limit) {
+        return snapshotService.getJournalEntries(after, limit);
+    }
+
+    @PostMapping("/recording")
+    public Map<String, Object> startRecording(@RequestParam(required = false) Duration duration) {
+        return profilingService.start(duration);
+    }
+
+    @GetMapping("/recording")
+    public Map<String, Object> getRecording() {
+        return profilingService.getStatus();
+    }
+
+    @GetMapping("/recording/dump")
+    public ResponseEntity<Resource> dumpRecording() {
+        Path file = profilingService.dump();
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(file.getFileName().toString()).build().toString())
+                .body(new FileSystemResource(file));
+    }
+
+    @DeleteMapping("/recording")
+    public ResponseEntity<Void> closeRecording() {
+        profilingService.close();
+        return ResponseEntity.noContent().build();
+    }
+}
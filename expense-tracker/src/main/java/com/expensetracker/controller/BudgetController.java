@@ -0,0 +1,44 @@
+package com.expensetracker.controller;
+
+import com.expensetracker.model.Budget;
+import com.expensetracker.model.ExpenseCategory;
+import com.expensetracker.service.BudgetService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/budgets")
+public class BudgetController {
+
+    @Autowired
+    private BudgetService budgetService;
+
+    @GetMapping
+    public List<Budget> getBudgets() {
+        return budgetService.getBudgets();
+    }
+
+    @PutMapping("/{category}")
+    public Budget setBudget(@PathVariable ExpenseCategory category, @Valid @RequestBody Budget budget) {
+        return budgetService.setBudget(category, budget.getMonthlyLimit());
+    }
+
+    @DeleteMapping("/{category}")
+    public ResponseEntity<Void> deleteBudget(@PathVariable ExpenseCategory category) {
+        budgetService.deleteBudget(category);
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/status")
+    public List<Map<String, Object>> getStatus(
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth month) {
+        return budgetService.getStatus(month == null ? YearMonth.now() : month);
+    }
+}
@@ -2,7 +2,10 @@ package com.expensetracker.controller;
 
 import com.expensetracker.model.Expense;
 import com.expensetracker.model.ExpenseCategory;
+import com.expensetracker.service.DashboardService;
+import com.expensetracker.service.ExpenseAnalyticsService;
 import com.expensetracker.service.ExpenseService;
+import com.expensetracker.service.ExpenseTagIndex;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
 import com.expensetracker.exception.InvalidInputException;
@@ -27,27 +30,54 @@ public class ExpenseController {
     @Autowired
     private ExpenseService expenseService;
 
+    @Autowired
+    private ExpenseAnalyticsService expenseAnalyticsService;
+
+    @Autowired
+    private DashboardService dashboardService;
+
     @GetMapping
     public Page<Expense> getAllExpenses(
             @RequestParam(required = false) ExpenseCategory category,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) List<String> tags,
+            @RequestParam(required = false) List<String> anyTags,
+            @RequestParam(required = false) List<String> excludeTags,
             Pageable pageable) {
-        if (category != null) {
-            return expenseService.getExpensesByCategory(category, pageable);
-        } else if (startDate != null && endDate != null) {
-            return expenseService.getExpensesByDateRange(startDate, endDate, pageable);
-        } else {
-            return expenseService.getAllExpenses(pageable);
+        ExpenseTagIndex.TagFilter tagFilter = new ExpenseTagIndex.TagFilter(tags, anyTags, excludeTags);
+        if (!tagFilter.isEmpty()) {
+            return expenseService.getExpensesByTags(tagFilter, category, startDate, endDate, pageable);
         }
+        return expenseService.getExpenses(category, startDate, endDate, pageable);
+    }
+
+    @GetMapping("/tags")
+    public List<Map<String, Object>> getTags() {
+        return expenseService.getTagCounts();
     }
 
     @PostMapping
-    public ResponseEntity<Expense> createExpense(@Valid @RequestBody Expense expense) {
-        Expense createdExpense = expenseService.createExpense(expense);
+    public ResponseEntity<Expense> createExpense(
+            @Valid @RequestBody Expense expense,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        Expense createdExpense = idempotencyKey == null
+                ? expenseService.createExpense(expense)
+                : expenseService.createExpense(expense, idempotencyKey);
         return new ResponseEntity<>(createdExpense, HttpStatus.CREATED);
     }
 
+    /** Imports a batch such as a bank export; {@code duplicates} is {@code skip} (the default) or {@code flag}. */
+    @PostMapping("/import")
+    public Map<String, Object> importExpenses(
+            @RequestBody List<@Valid Expense> expenses,
+            @RequestParam(defaultValue = "skip") String duplicates) {
+        if (!duplicates.equals("skip") && !duplicates.equals("flag")) {
+            throw new InvalidInputException("duplicates must be 'skip' or 'flag'");
+        }
+        return expenseService.importExpenses(expenses, duplicates.equals("skip"));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<Expense> getExpenseById(@PathVariable Long id) {
         Expense expense = expenseService.getExpenseById(id);
@@ -63,13 +93,49 @@ public class ExpenseController {
     @GetMapping("/summary")
     public List<Map<String, Object>> getMonthlySummary(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
-        return expenseService.getMonthlySummary(startDate, endDate);
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) String reportCurrency) {
+        return expenseService.getMonthlySummary(startDate, endDate, reportCurrency);
     }
 
     @GetMapping("/category-summary")
-    public List<Map<String, Object>> getCategorySummary() {
-        return expenseService.getCategorySummary();
+    public List<Map<String, Object>> getCategorySummary(@RequestParam(required = false) String reportCurrency) {
+        return expenseService.getCategorySummary(reportCurrency);
+    }
+
+    @GetMapping("/dashboard")
+    public Map<String, Object> getDashboard(
+            @RequestParam(required = false) ExpenseCategory category,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) String reportCurrency,
+            Pageable pageable) {
+        return dashboardService.getDashboard(category, startDate, endDate, reportCurrency, pageable);
+    }
+
+    @GetMapping("/analytics/percentiles")
+    public List<Map<String, Object>> getAmountPercentiles(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "category") String groupBy) {
+        return expenseAnalyticsService.getAmountPercentiles(startDate, endDate, groupBy);
+    }
+
+    @GetMapping("/analytics/descriptions")
+    public Map<String, Object> getDescriptionStats(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) ExpenseCategory category,
+            @RequestParam(defaultValue = "10") int top) {
+        return expenseAnalyticsService.getDescriptionStats(startDate, endDate, category, top);
+    }
+
+    @GetMapping("/trends")
+    public Map<String, Object> getTrends(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOf,
+            @RequestParam(defaultValue = "12") int months,
+            @RequestParam(defaultValue = "3") int window) {
+        return expenseAnalyticsService.getTrends(asOf, months, window);
     }
 
     @ExceptionHandler(ResourceNotFoundException.class)
@@ -0,0 +1,39 @@
+package com.expensetracker.controller;
+
+import com.expensetracker.model.FxRate;
+import com.expensetracker.service.FxRateService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/fx-rates")
+public class FxRateController {
+
+    @Autowired
+    private FxRateService fxRateService;
+
+    @GetMapping
+    public List<FxRate> getRates(@RequestParam(required = false) String currency) {
+        return fxRateService.getRates(currency);
+    }
+
+    @PutMapping("/{currency}/{effectiveDate}")
+    public FxRate setRate(@PathVariable String currency,
+                          @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate effectiveDate,
+                          @Valid @RequestBody FxRate rate) {
+        return fxRateService.setRate(currency, effectiveDate, rate.getRate());
+    }
+
+    @DeleteMapping("/{currency}/{effectiveDate}")
+    public ResponseEntity<Void> deleteRate(@PathVariable String currency,
+                                           @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate effectiveDate) {
+        fxRateService.deleteRate(currency, effectiveDate);
+        return ResponseEntity.noContent().build();
+    }
+}
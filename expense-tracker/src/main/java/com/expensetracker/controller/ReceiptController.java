@@ -0,0 +1,113 @@
+package com.expensetracker.controller;
+
+import com.expensetracker.model.Expense;
+import com.expensetracker.service.ReceiptService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Upload and download of an expense's receipt. Uploads are the raw file as the request body.
+ * Downloads honour a single {@code Range} and, on Tomcat, hand large files to the connector's
+ * sendfile so their bytes go from the page cache to the socket without passing through the heap;
+ * elsewhere they are copied with {@link FileChannel#transferTo}.
+ */
+@RestController
+@RequestMapping("/api/expenses/{id}/receipt")
+public class ReceiptController {
+
+    // Smaller files are written directly, as Tomcat's own DefaultServlet does.
+    private static final long SENDFILE_MIN_BYTES = 48 * 1024;
+
+    @Autowired
+    private ReceiptService receiptService;
+
+    @PutMapping
+    public Expense uploadReceipt(@PathVariable Long id, HttpServletRequest request) throws IOException {
+        return receiptService.attach(id, request.getContentLengthLong(), request.getInputStream());
+    }
+
+    @DeleteMapping
+    public ResponseEntity<Void> deleteReceipt(@PathVariable Long id) {
+        receiptService.detach(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping
+    public void downloadReceipt(@PathVariable Long id, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        ReceiptService.Receipt receipt = receiptService.getReceipt(id);
+        // Stored files never change, so their hash is a strong validator.
+        String etag = "\"" + receipt.hash() + "\"";
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+        if (etag.equals(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+
+        long size = receipt.size();
+        long start = 0;
+        long end = size - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (range != null && (ifRange == null || ifRange.equals(etag))) {
+            try {
+                List<HttpRange> ranges = HttpRange.parseRanges(range);
+                // Several ranges are answered with the whole file, which RFC 9110 allows.
+                if (ranges.size() == 1) {
+                    start = ranges.get(0).getRangeStart(size);
+                    end = ranges.get(0).getRangeEnd(size);
+                    if (start >= size || start > end) {
+                        throw new IllegalArgumentException("Range starts past the end of the file");
+                    }
+                    response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+                }
+            } catch (IllegalArgumentException ex) {
+                response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                return;
+            }
+        }
+        long length = end - start + 1;
+        response.setContentType(receipt.contentType());
+        response.setContentLengthLong(length);
+
+        if (length >= SENDFILE_MIN_BYTES && Boolean.TRUE.equals(request.getAttribute("org.apache.tomcat.sendfile.support"))) {
+            request.setAttribute("org.apache.tomcat.sendfile.filename", receipt.file().toAbsolutePath().toString());
+            request.setAttribute("org.apache.tomcat.sendfile.start", start);
+            request.setAttribute("org.apache.tomcat.sendfile.end", end + 1);
+            return;
+        }
+        try (FileChannel file = FileChannel.open(receipt.file(), StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (position <= end) {
+                long sent = file.transferTo(position, end + 1 - position, out);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+            }
+        }
+    }
+}
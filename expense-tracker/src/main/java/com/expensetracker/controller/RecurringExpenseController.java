@@ -0,0 +1,40 @@
+package com.expensetracker.controller;
+
+import com.expensetracker.model.RecurringExpense;
+import com.expensetracker.service.RecurringExpenseService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/recurring-expenses")
+public class RecurringExpenseController {
+
+    @Autowired
+    private RecurringExpenseService recurringExpenseService;
+
+    @GetMapping
+    public Page<RecurringExpense> getRecurringExpenses(Pageable pageable) {
+        return recurringExpenseService.getRecurringExpenses(pageable);
+    }
+
+    @PostMapping
+    public ResponseEntity<RecurringExpense> createRecurringExpense(@Valid @RequestBody RecurringExpense recurring) {
+        return new ResponseEntity<>(recurringExpenseService.createRecurringExpense(recurring), HttpStatus.CREATED);
+    }
+
+    @GetMapping("/{id}")
+    public RecurringExpense getRecurringExpense(@PathVariable Long id) {
+        return recurringExpenseService.getRecurringExpense(id);
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteRecurringExpense(@PathVariable Long id) {
+        recurringExpenseService.deleteRecurringExpense(id);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,69 @@
+package com.expensetracker.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.TenantId;
+
+import java.math.BigDecimal;
+
+/** Monthly spending limit of one tenant for one category. */
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_budget_tenant_category", columnNames = {"tenant_id", "category"}))
+public class Budget {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @JsonIgnore
+    private Long id;
+
+    @TenantId
+    @JsonIgnore
+    @Column(name = "tenant_id", nullable = false, length = 64)
+    private String tenantId;
+
+    // Taken from the request path, so not validated as part of the body.
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private ExpenseCategory category;
+
+    @NotNull(message = "Monthly limit cannot be null")
+    @DecimalMin(value = "0.01", message = "Monthly limit must be positive")
+    @Digits(integer = 10, fraction = 2, message = "Monthly limit must have at most 2 decimal places")
+    @Column(name = "monthly_limit", nullable = false, precision = 12, scale = 2)
+    private BigDecimal monthlyLimit;
+
+    public Budget() {
+    }
+
+    public Budget(ExpenseCategory category, BigDecimal monthlyLimit) {
+        this.category = category;
+        this.monthlyLimit = monthlyLimit;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getTenantId() {
+        return tenantId;
+    }
+
+    public ExpenseCategory getCategory() {
+        return category;
+    }
+
+    public void setCategory(ExpenseCategory category) {
+        this.category = category;
+    }
+
+    public BigDecimal getMonthlyLimit() {
+        return monthlyLimit;
+    }
+
+    public void setMonthlyLimit(BigDecimal monthlyLimit) {
+        this.monthlyLimit = monthlyLimit;
+    }
+}
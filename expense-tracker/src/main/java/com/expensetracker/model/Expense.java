@@ -1,23 +1,50 @@
 package com.expensetracker.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.TenantId;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_expense_partition_date", columnList = "partition_month, date"),
+        @Index(name = "idx_expense_tenant_partition_date", columnList = "tenant_id, partition_month, date"),
+        @Index(name = "idx_expense_tenant_category", columnList = "tenant_id, category")
+})
 public class Expense {
 
+    /** Currency of expenses created without one. */
+    public static final String DEFAULT_CURRENCY = "USD";
+
+    public static final int MAX_TAGS = 10;
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    // Owning tenant; Hibernate fills it on insert and filters every query by it.
+    @TenantId
+    @JsonIgnore
+    @Column(name = "tenant_id", nullable = false, length = 64)
+    private String tenantId;
+
     @NotNull(message = "Amount cannot be null")
     private BigDecimal amount;
 
+    // ISO 4217 code of the amount.
+    @NotNull(message = "Currency cannot be null")
+    @Pattern(regexp = "[A-Z]{3}", message = "Currency must be a three-letter ISO 4217 code")
+    @Column(nullable = false, length = 3)
+    private String currency = DEFAULT_CURRENCY;
+
     @NotNull(message = "Category cannot be null")
     @Enumerated(EnumType.STRING)
     private ExpenseCategory category;
@@ -32,6 +59,23 @@ public class Expense {
     @CreationTimestamp
     private LocalDateTime createdAt;
 
+    // Free-form labels such as a project, client or trip, lower-cased and sorted; see ExpenseTagIndex.
+    @Size(max = MAX_TAGS, message = "An expense can have at most " + MAX_TAGS + " tags")
+    @Convert(converter = TagListConverter.class)
+    @Column(length = 400)
+    private List<@Pattern(regexp = "[a-z0-9][a-z0-9._-]{0,31}",
+            message = "Tags must be 1 to 32 letters, digits, '.', '_' or '-', starting with a letter or digit") String> tags = List.of();
+
+    // SHA-256 (hex) of the attached receipt in the receipt store; the file itself never enters the table.
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(name = "receipt_hash", length = 64)
+    private String receiptHash;
+
+    // Monthly partition key (yyyyMM) derived from date; range queries prune on it.
+    @JsonIgnore
+    @Column(name = "partition_month", nullable = false)
+    private int partitionMonth;
+
     public Expense() {
     }
 
@@ -53,6 +97,14 @@ public class Expense {
         this.id = id;
     }
 
+    public String getTenantId() {
+        return tenantId;
+    }
+
+    public void setTenantId(String tenantId) {
+        this.tenantId = tenantId;
+    }
+
     public BigDecimal getAmount() {
         return amount;
     }
@@ -61,6 +113,14 @@ public class Expense {
         this.amount = amount;
     }
 
+    public String getCurrency() {
+        return currency;
+    }
+
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+
     public ExpenseCategory getCategory() {
         return category;
     }
@@ -93,6 +153,34 @@ public class Expense {
         this.createdAt = createdAt;
     }
 
+    public List<String> getTags() {
+        return tags;
+    }
+
+    public void setTags(List<String> tags) {
+        this.tags = TagListConverter.normalize(tags);
+    }
+
+    public String getReceiptHash() {
+        return receiptHash;
+    }
+
+    public void setReceiptHash(String receiptHash) {
+        this.receiptHash = receiptHash;
+    }
+
+    public int getPartitionMonth() {
+        return partitionMonth;
+    }
+
+    @PrePersist
+    @PreUpdate
+    void assignPartition() {
+        if (date != null) {
+            partitionMonth = ExpensePartition.monthKey(date);
+        }
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
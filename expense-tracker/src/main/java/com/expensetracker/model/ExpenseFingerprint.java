@@ -0,0 +1,44 @@
+package com.expensetracker.model;
+
+import jakarta.persistence.*;
+
+/**
+ * The content fingerprint of an expense, for recognising the same transaction when a bank export is
+ * imported again. {@code fingerprint} combines a hash of the expense's date, amount, currency, category
+ * and normalized description with its occurrence among expenses of identical content (first, second,
+ * ...), so legitimately repeated transactions keep distinct fingerprints. The unique constraint makes
+ * two imports racing on the same transaction unable to both commit it.
+ * <p>
+ * Rows are written and read with JDBC by {@code ExpenseFingerprintRepository}; the entity defines the
+ * table.
+ */
+@Entity
+@Table(name = "expense_fingerprint", uniqueConstraints = @UniqueConstraint(
+        name = "uk_expense_fingerprint_tenant_fingerprint", columnNames = {"tenant_id", "fingerprint"}))
+public class ExpenseFingerprint {
+
+    @Id
+    @Column(name = "expense_id")
+    private Long expenseId;
+
+    @Column(name = "tenant_id", nullable = false, length = 64)
+    private String tenantId;
+
+    @Column(nullable = false)
+    private long fingerprint;
+
+    public ExpenseFingerprint() {
+    }
+
+    public Long getExpenseId() {
+        return expenseId;
+    }
+
+    public String getTenantId() {
+        return tenantId;
+    }
+
+    public long getFingerprint() {
+        return fingerprint;
+    }
+}
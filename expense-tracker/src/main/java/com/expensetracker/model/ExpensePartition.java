@@ -0,0 +1,23 @@
+package com.expensetracker.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+/**
+ * One monthly partition of the expense table, identified by its {@code yyyyMM} key.
+ */
+public record ExpensePartition(int month, long rows, BigDecimal total) {
+
+    public static int monthKey(LocalDate date) {
+        return date.getYear() * 100 + date.getMonthValue();
+    }
+
+    public static int monthKey(YearMonth month) {
+        return month.getYear() * 100 + month.getMonthValue();
+    }
+
+    public static YearMonth toYearMonth(int monthKey) {
+        return YearMonth.of(monthKey / 100, monthKey % 100);
+    }
+}
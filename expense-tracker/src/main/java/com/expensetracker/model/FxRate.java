@@ -0,0 +1,75 @@
+package com.expensetracker.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.NotNull;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Value of one unit of {@code currency} in the base currency ({@code expense.fx.base-currency}), in
+ * effect from {@code effectiveDate} until the currency's next rate. Rates are shared by all tenants.
+ */
+@Entity
+@Table(name = "fx_rate",
+        uniqueConstraints = @UniqueConstraint(name = "uk_fx_rate_currency_date", columnNames = {"currency", "effective_date"}))
+public class FxRate {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @JsonIgnore
+    private Long id;
+
+    // Currency and date are taken from the request path, so not validated as part of the body.
+    @Column(nullable = false, length = 3)
+    private String currency;
+
+    @Column(name = "effective_date", nullable = false)
+    private LocalDate effectiveDate;
+
+    @NotNull(message = "Rate cannot be null")
+    @DecimalMin(value = "0", inclusive = false, message = "Rate must be positive")
+    @Digits(integer = 11, fraction = 8, message = "Rate must have at most 8 decimal places")
+    @Column(nullable = false, precision = 19, scale = 8)
+    private BigDecimal rate;
+
+    public FxRate() {
+    }
+
+    public FxRate(String currency, LocalDate effectiveDate, BigDecimal rate) {
+        this.currency = currency;
+        this.effectiveDate = effectiveDate;
+        this.rate = rate;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+
+    public LocalDate getEffectiveDate() {
+        return effectiveDate;
+    }
+
+    public void setEffectiveDate(LocalDate effectiveDate) {
+        this.effectiveDate = effectiveDate;
+    }
+
+    public BigDecimal getRate() {
+        return rate;
+    }
+
+    public void setRate(BigDecimal rate) {
+        this.rate = rate;
+    }
+}
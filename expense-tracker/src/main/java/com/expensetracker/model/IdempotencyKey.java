@@ -0,0 +1,58 @@
+package com.expensetracker.model;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Remembers which expense a client-supplied {@code Idempotency-Key} produced.
+ * The key, prefixed with the tenant, is the primary key, so two nodes racing on the same key cannot
+ * both commit.
+ */
+@Entity
+@Table(name = "idempotency_key", indexes = @Index(name = "idx_idempotency_key_created_at", columnList = "created_at"))
+public class IdempotencyKey implements Persistable<String> {
+
+    @Id
+    @Column(name = "idempotency_key", length = 320)
+    private String key;
+
+    @Column(name = "expense_id", nullable = false)
+    private Long expenseId;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public IdempotencyKey() {
+    }
+
+    public IdempotencyKey(String key, Long expenseId, LocalDateTime createdAt) {
+        this.key = key;
+        this.expenseId = expenseId;
+        this.createdAt = createdAt;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public Long getExpenseId() {
+        return expenseId;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    @Override
+    public String getId() {
+        return key;
+    }
+
+    // Always INSERT, never merge: a duplicate key must surface as a constraint violation.
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+}
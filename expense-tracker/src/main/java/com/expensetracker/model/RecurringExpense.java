@@ -0,0 +1,162 @@
+package com.expensetracker.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.TenantId;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * An expense that repeats on a schedule, such as a subscription or a monthly bill. {@code nextDue} is
+ * the next day an occurrence is owed; it is null once the schedule has ended.
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_recurring_expense_next_due", columnList = "next_due"))
+public class RecurringExpense {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @TenantId
+    @JsonIgnore
+    @Column(name = "tenant_id", nullable = false, length = 64)
+    private String tenantId;
+
+    @NotNull(message = "Amount cannot be null")
+    private BigDecimal amount;
+
+    @NotNull(message = "Currency cannot be null")
+    @Pattern(regexp = "[A-Z]{3}", message = "Currency must be a three-letter ISO 4217 code")
+    @Column(nullable = false, length = 3)
+    private String currency = Expense.DEFAULT_CURRENCY;
+
+    @NotNull(message = "Category cannot be null")
+    @Enumerated(EnumType.STRING)
+    private ExpenseCategory category;
+
+    @NotNull(message = "Description cannot be null")
+    @Size(min = 1, max = 255, message = "Description must be between 1 and 255 characters")
+    private String description;
+
+    // An RRULE such as FREQ=MONTHLY;BYMONTHDAY=1, or a cron expression.
+    @NotNull(message = "Schedule cannot be null")
+    @Size(min = 1, max = 255, message = "Schedule must be between 1 and 255 characters")
+    private String schedule;
+
+    @NotNull(message = "Start date cannot be null")
+    @Column(name = "start_date", nullable = false)
+    private LocalDate startDate;
+
+    @Column(name = "end_date")
+    private LocalDate endDate;
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(name = "next_due")
+    private LocalDate nextDue;
+
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+
+    public RecurringExpense() {
+    }
+
+    public RecurringExpense(BigDecimal amount, ExpenseCategory category, String description, String schedule, LocalDate startDate) {
+        this.amount = amount;
+        this.category = category;
+        this.description = description;
+        this.schedule = schedule;
+        this.startDate = startDate;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTenantId() {
+        return tenantId;
+    }
+
+    public void setTenantId(String tenantId) {
+        this.tenantId = tenantId;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+
+    public ExpenseCategory getCategory() {
+        return category;
+    }
+
+    public void setCategory(ExpenseCategory category) {
+        this.category = category;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public String getSchedule() {
+        return schedule;
+    }
+
+    public void setSchedule(String schedule) {
+        this.schedule = schedule;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public void setStartDate(LocalDate startDate) {
+        this.startDate = startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public void setEndDate(LocalDate endDate) {
+        this.endDate = endDate;
+    }
+
+    public LocalDate getNextDue() {
+        return nextDue;
+    }
+
+    public void setNextDue(LocalDate nextDue) {
+        this.nextDue = nextDue;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,51 @@
+package com.expensetracker.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.TreeSet;
+
+/**
+ * Stores an expense's tags in one column, sorted and comma-separated; no tags is null. Tags are
+ * matched through the in-memory tag index rather than SQL, so the column only has to round-trip.
+ */
+@Converter
+public class TagListConverter implements AttributeConverter<List<String>, String> {
+
+    @Override
+    public String convertToDatabaseColumn(List<String> tags) {
+        return join(tags);
+    }
+
+    @Override
+    public List<String> convertToEntityAttribute(String column) {
+        return split(column);
+    }
+
+    /** Trims and lower-cases each tag, dropping blanks and duplicates, in sorted order. */
+    public static List<String> normalize(Collection<String> tags) {
+        if (tags == null || tags.isEmpty()) {
+            return List.of();
+        }
+        TreeSet<String> normalized = new TreeSet<>();
+        for (String tag : tags) {
+            if (tag != null && !tag.isBlank()) {
+                normalized.add(tag.strip().toLowerCase(Locale.ROOT));
+            }
+        }
+        return List.copyOf(normalized);
+    }
+
+    public static String join(List<String> tags) {
+        return tags == null || tags.isEmpty() ? null : String.join(",", tags);
+    }
+
+    public static List<String> split(String column) {
+        return column == null || column.isEmpty() ? List.of() : Arrays.stream(column.split(",")).filter(Objects::nonNull).toList();
+    }
+}
@@ -0,0 +1,606 @@
+package com.expensetracker.repository;
+
+import com.expensetracker.config.TenantContext;
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.ExpenseCategory;
+import com.expensetracker.model.ExpensePartition;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Immutable, memory-mapped file of expenses sorted by date and indexed by month and tenant.
+ * <p>
+ * Layout: {@code [int headerLength][header][month blocks]}. The header holds, per month and tenant,
+ * the row count, id and date bounds, per-category counts and totals, and the location of the block's
+ * deflate-compressed rows, and the currencies its rows use. Version 1 files predate tenants; their rows
+ * belong to the default tenant. Versions 1 and 2 predate currencies; their rows are in
+ * {@link Expense#DEFAULT_CURRENCY}, versions before 4 predate receipts and versions before 5 predate tags. From version 6 the header
+ * also records the {@link ExpenseJournal} sequence a snapshot covers. Summaries over whole months
+ * are answered from the header alone;
+ * rows are only inflated when a query needs them.
+ */
+public final class ArchiveSegment {
+
+    private static final int MAGIC = 0x45585347; // "EXSG"
+    private static final short VERSION = 6;
+    private static final int RECEIPT_HASH_BYTES = 32;
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final Path path;
+    private final long sizeInBytes;
+    private final List<MonthBlock> months;
+    private final long journalSequence;
+
+    private ArchiveSegment(Path path, long sizeInBytes, List<MonthBlock> months, long journalSequence) {
+        this.path = path;
+        this.sizeInBytes = sizeInBytes;
+        this.months = months;
+        this.journalSequence = journalSequence;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public long getSizeInBytes() {
+        return sizeInBytes;
+    }
+
+    public List<MonthBlock> getMonths() {
+        return months;
+    }
+
+    /** The last journal entry reflected in the rows; 0 for archive segments and older files. */
+    public long getJournalSequence() {
+        return journalSequence;
+    }
+
+    public long getRowCount() {
+        return months.stream().mapToLong(MonthBlock::getRowCount).sum();
+    }
+
+    /**
+     * Writes {@code rows} to {@code file} atomically (temp file, fsync, rename) and maps the result.
+     */
+    public static ArchiveSegment write(Path file, List<Expense> rows) throws IOException {
+        List<Expense> sorted = new ArrayList<>(rows);
+        sorted.sort(Comparator.comparing((Expense row) -> ExpensePartition.monthKey(row.getDate()))
+                .thenComparing(ArchiveSegment::tenantOf)
+                .thenComparing(Expense::getDate)
+                .thenComparing(Expense::getId));
+
+        Writer writer = writer(file);
+        int from = 0;
+        while (from < sorted.size()) {
+            int month = ExpensePartition.monthKey(sorted.get(from).getDate());
+            String tenantId = tenantOf(sorted.get(from));
+            int to = from;
+            while (to < sorted.size() && ExpensePartition.monthKey(sorted.get(to).getDate()) == month
+                    && tenantOf(sorted.get(to)).equals(tenantId)) {
+                to++;
+            }
+            writer.append(sorted.subList(from, to));
+            from = to;
+        }
+        return writer.finish();
+    }
+
+    /**
+     * Streaming writer: months are appended one at a time and only their compressed blocks are
+     * retained until {@link Writer#finish()}.
+     */
+    public static Writer writer(Path file) {
+        return new Writer(file);
+    }
+
+    public static ArchiveSegment open(Path file) throws IOException {
+        MappedByteBuffer buffer;
+        long size;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            size = channel.size();
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        int headerLength = buffer.getInt(0);
+        ByteBuffer header = buffer.slice(Integer.BYTES, headerLength);
+        if (header.getInt() != MAGIC) {
+            throw new IOException("Not an archive segment: " + file);
+        }
+        short version = header.getShort();
+        if (version < 1 || version > VERSION) {
+            throw new IOException("Unsupported archive segment version " + version + ": " + file);
+        }
+        int dataStart = Integer.BYTES + headerLength;
+        long journalSequence = version >= 6 ? header.getLong() : 0;
+        int monthCount = header.getInt();
+        List<MonthBlock> months = new ArrayList<>(monthCount);
+        for (int i = 0; i < monthCount; i++) {
+            months.add(MonthBlock.read(header, buffer, dataStart, version));
+        }
+        return new ArchiveSegment(file, size, Collections.unmodifiableList(months), journalSequence);
+    }
+
+    static String tenantOf(Expense row) {
+        return row.getTenantId() == null ? TenantContext.DEFAULT_TENANT : row.getTenantId();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer bytes) throws IOException {
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+    }
+
+    public static final class Writer {
+
+        private final Path file;
+        private final List<EncodedMonth> months = new ArrayList<>();
+        private long journalSequence;
+
+        private Writer(Path file) {
+            this.file = file;
+        }
+
+        /** Records that the rows reflect the journal up to and including {@code sequence}. */
+        public Writer journalSequence(long sequence) {
+            this.journalSequence = sequence;
+            return this;
+        }
+
+        /**
+         * Appends one tenant's rows of one month, sorted by date then id. Blocks must arrive in
+         * ascending month order, and by tenant within a month.
+         */
+        public Writer append(List<Expense> monthRows) {
+            if (monthRows.isEmpty()) {
+                return this;
+            }
+            int month = ExpensePartition.monthKey(monthRows.get(0).getDate());
+            String tenantId = tenantOf(monthRows.get(0));
+            if (!months.isEmpty()) {
+                EncodedMonth last = months.get(months.size() - 1);
+                if (last.month > month || (last.month == month && last.tenantId.compareTo(tenantId) >= 0)) {
+                    throw new IllegalArgumentException("Blocks must be appended in month, tenant order: " + month + "/" + tenantId);
+                }
+            }
+            months.add(EncodedMonth.encode(month, tenantId, monthRows));
+            return this;
+        }
+
+        /** Writes the segment atomically (temp file, fsync, rename) and maps the result. */
+        public ArchiveSegment finish() throws IOException {
+            ByteArrayOutputStream headerBytes = new ByteArrayOutputStream();
+            DataOutputStream header = new DataOutputStream(headerBytes);
+            header.writeInt(MAGIC);
+            header.writeShort(VERSION);
+            header.writeLong(journalSequence);
+            header.writeInt(months.size());
+            long offset = 0;
+            for (EncodedMonth month : months) {
+                month.writeHeader(header, offset);
+                offset += month.compressed.length;
+            }
+            header.flush();
+
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.WRITE)) {
+                ByteBuffer length = ByteBuffer.allocate(Integer.BYTES).putInt(0, headerBytes.size());
+                writeFully(channel, length);
+                writeFully(channel, ByteBuffer.wrap(headerBytes.toByteArray()));
+                for (EncodedMonth month : months) {
+                    writeFully(channel, ByteBuffer.wrap(month.compressed));
+                }
+                channel.force(true);
+            }
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            return open(file);
+        }
+    }
+
+    /**
+     * One tenant's month of a segment: header statistics plus a lazily inflated block of rows.
+     */
+    public static final class MonthBlock {
+
+        private final int month;
+        private final String tenantId;
+        private final int rowCount;
+        private final long minId;
+        private final long maxId;
+        private final LocalDate minDate;
+        private final LocalDate maxDate;
+        private final long[] categoryCounts;
+        private final BigDecimal[] categoryTotals;
+        private final List<String> currencies;
+        // Whether each row carries an index into currencies; rows written before version 3 do not.
+        private final boolean currencyIndexed;
+        // Whether each row ends with its receipt reference; rows written before version 4 do not.
+        private final boolean receiptTagged;
+        // Whether each row ends with its tags; rows written before version 5 do not.
+        private final boolean tagged;
+        private final ByteBuffer block;
+        private final int rawLength;
+
+        private MonthBlock(int month, String tenantId, int rowCount, long minId, long maxId, LocalDate minDate, LocalDate maxDate,
+                           long[] categoryCounts, BigDecimal[] categoryTotals, List<String> currencies, boolean currencyIndexed,
+                           boolean receiptTagged, boolean tagged, ByteBuffer block, int rawLength) {
+            this.month = month;
+            this.tenantId = tenantId;
+            this.rowCount = rowCount;
+            this.minId = minId;
+            this.maxId = maxId;
+            this.minDate = minDate;
+            this.maxDate = maxDate;
+            this.categoryCounts = categoryCounts;
+            this.categoryTotals = categoryTotals;
+            this.currencies = currencies;
+            this.currencyIndexed = currencyIndexed;
+            this.receiptTagged = receiptTagged;
+            this.tagged = tagged;
+            this.block = block;
+            this.rawLength = rawLength;
+        }
+
+        private static MonthBlock read(ByteBuffer header, ByteBuffer file, int dataStart, short version) {
+            int month = header.getInt();
+            String tenantId = TenantContext.DEFAULT_TENANT;
+            if (version >= 2) {
+                byte[] tenant = new byte[header.getShort() & 0xFFFF];
+                header.get(tenant);
+                tenantId = new String(tenant, StandardCharsets.UTF_8);
+            }
+            int rowCount = header.getInt();
+            long minId = header.getLong();
+            long maxId = header.getLong();
+            LocalDate minDate = LocalDate.ofEpochDay(header.getInt());
+            LocalDate maxDate = LocalDate.ofEpochDay(header.getInt());
+            long offset = header.getLong();
+            int length = header.getInt();
+            int rawLength = header.getInt();
+            ExpenseCategory[] categories = ExpenseCategory.values();
+            long[] counts = new long[categories.length];
+            BigDecimal[] totals = new BigDecimal[categories.length];
+            int present = header.get();
+            for (int i = 0; i < present; i++) {
+                int ordinal = header.get();
+                counts[ordinal] = header.getInt();
+                int scale = header.get();
+                byte[] unscaled = new byte[header.get()];
+                header.get(unscaled);
+                totals[ordinal] = new BigDecimal(new BigInteger(unscaled), scale);
+            }
+            List<String> currencies = List.of(Expense.DEFAULT_CURRENCY);
+            if (version >= 3) {
+                String[] codes = new String[header.get() & 0xFF];
+                for (int i = 0; i < codes.length; i++) {
+                    byte[] code = new byte[3];
+                    header.get(code);
+                    codes[i] = new String(code, StandardCharsets.US_ASCII);
+                }
+                currencies = List.of(codes);
+            }
+            ByteBuffer block = file.slice(Math.toIntExact(dataStart + offset), length);
+            return new MonthBlock(month, tenantId, rowCount, minId, maxId, minDate, maxDate, counts, totals, currencies,
+                    version >= 3, version >= 4, version >= 5, block, rawLength);
+        }
+
+        public int getMonth() {
+            return month;
+        }
+
+        public String getTenantId() {
+            return tenantId;
+        }
+
+        public int getRowCount() {
+            return rowCount;
+        }
+
+        public long getMinId() {
+            return minId;
+        }
+
+        public long getMaxId() {
+            return maxId;
+        }
+
+        public LocalDate getMinDate() {
+            return minDate;
+        }
+
+        public LocalDate getMaxDate() {
+            return maxDate;
+        }
+
+        public long getCount(ExpenseCategory category) {
+            return categoryCounts[category.ordinal()];
+        }
+
+        /** Currencies of the block's rows; totals add amounts as they are, whatever their currency. */
+        public List<String> getCurrencies() {
+            return currencies;
+        }
+
+        /** Category total, or {@code null} if the month has no rows in that category. */
+        public BigDecimal getTotal(ExpenseCategory category) {
+            return categoryTotals[category.ordinal()];
+        }
+
+        public BigDecimal getTotal() {
+            BigDecimal total = BigDecimal.ZERO;
+            for (BigDecimal categoryTotal : categoryTotals) {
+                if (categoryTotal != null) {
+                    total = total.add(categoryTotal);
+                }
+            }
+            return total;
+        }
+
+        /** Inflates the block and passes each row, in date order, to {@code action}. */
+        public void forEach(Consumer<Expense> action) {
+            ByteBuffer rows = ByteBuffer.wrap(inflate());
+            ExpenseCategory[] categories = ExpenseCategory.values();
+            long id = 0;
+            long epochDay = minDate.toEpochDay();
+            for (int i = 0; i < rowCount; i++) {
+                id += unzigzag(readVarLong(rows));
+                epochDay += readVarLong(rows);
+                ExpenseCategory category = categories[rows.get()];
+                String currency = currencyIndexed ? currencies.get(rows.get() & 0xFF) : currencies.get(0);
+                int scale = rows.get();
+                BigDecimal amount = BigDecimal.valueOf(unzigzag(readVarLong(rows)), scale);
+                byte[] description = new byte[(int) readVarLong(rows)];
+                rows.get(description);
+                LocalDateTime createdAt = null;
+                if (rows.get() != 0) {
+                    createdAt = EPOCH.plus(unzigzag(readVarLong(rows)), ChronoUnit.MICROS);
+                }
+                String receiptHash = null;
+                if (receiptTagged && rows.get() != 0) {
+                    byte[] hash = new byte[RECEIPT_HASH_BYTES];
+                    rows.get(hash);
+                    receiptHash = HexFormat.of().formatHex(hash);
+                }
+                List<String> tags = List.of();
+                if (tagged) {
+                    String[] read = new String[(int) readVarLong(rows)];
+                    for (int t = 0; t < read.length; t++) {
+                        byte[] tag = new byte[(int) readVarLong(rows)];
+                        rows.get(tag);
+                        read[t] = new String(tag, StandardCharsets.UTF_8);
+                    }
+                    tags = List.of(read);
+                }
+                Expense expense = new Expense(amount, category, new String(description, StandardCharsets.UTF_8),
+                        LocalDate.ofEpochDay(epochDay));
+                expense.setId(id);
+                expense.setTenantId(tenantId);
+                expense.setCurrency(currency);
+                expense.setCreatedAt(createdAt);
+                expense.setReceiptHash(receiptHash);
+                expense.setTags(tags);
+                action.accept(expense);
+            }
+        }
+
+        public List<Expense> readRows() {
+            List<Expense> rows = new ArrayList<>(rowCount);
+            forEach(rows::add);
+            return rows;
+        }
+
+        private byte[] inflate() {
+            Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(block.duplicate());
+                byte[] raw = new byte[rawLength];
+                int read = 0;
+                while (read < rawLength) {
+                    int n = inflater.inflate(raw, read, rawLength - read);
+                    if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                        throw new UncheckedIOException(new IOException("Truncated archive block for month " + month));
+                    }
+                    read += n;
+                }
+                return raw;
+            } catch (DataFormatException ex) {
+                throw new UncheckedIOException(new IOException("Corrupt archive block for month " + month, ex));
+            } finally {
+                inflater.end();
+            }
+        }
+    }
+
+    private static final class EncodedMonth {
+
+        private final int month;
+        private final String tenantId;
+        private final int rowCount;
+        private final long minId;
+        private final long maxId;
+        private final LocalDate minDate;
+        private final LocalDate maxDate;
+        private final long[] categoryCounts;
+        private final BigDecimal[] categoryTotals;
+        private final List<String> currencies;
+        private final int rawLength;
+        private final byte[] compressed;
+
+        private EncodedMonth(int month, String tenantId, List<Expense> rows, long[] categoryCounts, BigDecimal[] categoryTotals,
+                             List<String> currencies, int rawLength, byte[] compressed) {
+            this.month = month;
+            this.tenantId = tenantId;
+            this.rowCount = rows.size();
+            this.minId = rows.stream().mapToLong(Expense::getId).min().orElse(0);
+            this.maxId = rows.stream().mapToLong(Expense::getId).max().orElse(0);
+            this.minDate = rows.get(0).getDate();
+            this.maxDate = rows.get(rows.size() - 1).getDate();
+            this.categoryCounts = categoryCounts;
+            this.categoryTotals = categoryTotals;
+            this.currencies = currencies;
+            this.rawLength = rawLength;
+            this.compressed = compressed;
+        }
+
+        static EncodedMonth encode(int month, String tenantId, List<Expense> rows) {
+            int categoryCount = ExpenseCategory.values().length;
+            long[] counts = new long[categoryCount];
+            BigDecimal[] totals = new BigDecimal[categoryCount];
+            List<String> currencies = new ArrayList<>(1);
+            ByteArrayOutputStream raw = new ByteArrayOutputStream(rows.size() * 32);
+            long previousId = 0;
+            long previousDay = rows.get(0).getDate().toEpochDay();
+            for (Expense row : rows) {
+                int ordinal = row.getCategory().ordinal();
+                counts[ordinal]++;
+                totals[ordinal] = totals[ordinal] == null ? row.getAmount() : totals[ordinal].add(row.getAmount());
+
+                writeVarLong(raw, zigzag(row.getId() - previousId));
+                previousId = row.getId();
+                long day = row.getDate().toEpochDay();
+                writeVarLong(raw, day - previousDay);
+                previousDay = day;
+                raw.write(ordinal);
+                int currency = currencies.indexOf(row.getCurrency());
+                if (currency < 0) {
+                    if (row.getCurrency() == null || row.getCurrency().length() != 3 || currencies.size() == 255) {
+                        throw new IllegalArgumentException("Currency not supported by archive: " + row.getCurrency());
+                    }
+                    currency = currencies.size();
+                    currencies.add(row.getCurrency());
+                }
+                raw.write(currency);
+                BigInteger unscaled = row.getAmount().unscaledValue();
+                if (unscaled.bitLength() > 63) {
+                    throw new IllegalArgumentException("Amount out of range for archive: " + row.getAmount());
+                }
+                raw.write(row.getAmount().scale());
+                writeVarLong(raw, zigzag(unscaled.longValue()));
+                byte[] description = row.getDescription().getBytes(StandardCharsets.UTF_8);
+                writeVarLong(raw, description.length);
+                raw.writeBytes(description);
+                if (row.getCreatedAt() == null) {
+                    raw.write(0);
+                } else {
+                    raw.write(1);
+                    writeVarLong(raw, zigzag(ChronoUnit.MICROS.between(EPOCH, row.getCreatedAt())));
+                }
+                if (row.getReceiptHash() == null) {
+                    raw.write(0);
+                } else {
+                    raw.write(1);
+                    raw.writeBytes(HexFormat.of().parseHex(row.getReceiptHash()));
+                }
+                writeVarLong(raw, row.getTags().size());
+                for (String tag : row.getTags()) {
+                    byte[] encoded = tag.getBytes(StandardCharsets.UTF_8);
+                    writeVarLong(raw, encoded.length);
+                    raw.writeBytes(encoded);
+                }
+            }
+            byte[] bytes = raw.toByteArray();
+            return new EncodedMonth(month, tenantId, rows, counts, totals, currencies, bytes.length, deflate(bytes));
+        }
+
+        void writeHeader(DataOutputStream header, long offset) throws IOException {
+            header.writeInt(month);
+            byte[] tenant = tenantId.getBytes(StandardCharsets.UTF_8);
+            header.writeShort(tenant.length);
+            header.write(tenant);
+            header.writeInt(rowCount);
+            header.writeLong(minId);
+            header.writeLong(maxId);
+            header.writeInt(Math.toIntExact(minDate.toEpochDay()));
+            header.writeInt(Math.toIntExact(maxDate.toEpochDay()));
+            header.writeLong(offset);
+            header.writeInt(compressed.length);
+            header.writeInt(rawLength);
+            int present = 0;
+            for (long count : categoryCounts) {
+                present += count > 0 ? 1 : 0;
+            }
+            header.writeByte(present);
+            for (int ordinal = 0; ordinal < categoryCounts.length; ordinal++) {
+                if (categoryCounts[ordinal] > 0) {
+                    byte[] unscaled = categoryTotals[ordinal].unscaledValue().toByteArray();
+                    header.writeByte(ordinal);
+                    header.writeInt(Math.toIntExact(categoryCounts[ordinal]));
+                    header.writeByte(categoryTotals[ordinal].scale());
+                    header.writeByte(unscaled.length);
+                    header.write(unscaled);
+                }
+            }
+            header.writeByte(currencies.size());
+            for (String currency : currencies) {
+                header.write(currency.getBytes(StandardCharsets.US_ASCII));
+            }
+        }
+
+        private static byte[] deflate(byte[] raw) {
+            Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+            try {
+                deflater.setInput(raw);
+                deflater.finish();
+                ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 3));
+                byte[] buffer = new byte[8192];
+                while (!deflater.finished()) {
+                    out.write(buffer, 0, deflater.deflate(buffer));
+                }
+                return out.toByteArray();
+            } finally {
+                deflater.end();
+            }
+        }
+    }
+
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+}
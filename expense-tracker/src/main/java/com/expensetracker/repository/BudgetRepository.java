@@ -0,0 +1,15 @@
+package com.expensetracker.repository;
+
+import com.expensetracker.model.Budget;
+import com.expensetracker.model.ExpenseCategory;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface BudgetRepository extends JpaRepository<Budget, Long> {
+
+    List<Budget> findAllByOrderByCategory();
+
+    Optional<Budget> findByCategory(ExpenseCategory category);
+}
@@ -0,0 +1,347 @@
+package com.expensetracker.repository;
+
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.ExpenseCategory;
+import com.expensetracker.model.ExpensePartition;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+/**
+ * Read side of the cold-storage archive: every {@link ArchiveSegment} in {@code expense.archive.dir},
+ * indexed by month. Reads take the tenant explicitly and only see that tenant's blocks. Whole months
+ * answer counts and totals from segment headers; only months cut by a date bound are inflated.
+ * Archiving is off when no directory is configured.
+ */
+@Repository
+public class ExpenseArchiveRepository {
+
+    static final String SEGMENT_SUFFIX = ".seg";
+
+    @Value("${expense.archive.dir:}")
+    private String directory = "";
+
+    private final List<ArchiveSegment> segments = new CopyOnWriteArrayList<>();
+    private volatile NavigableMap<Integer, List<ArchiveSegment.MonthBlock>> months = Collections.emptyNavigableMap();
+
+    @PostConstruct
+    public void load() throws IOException {
+        if (!isEnabled()) {
+            return;
+        }
+        Path dir = Paths.get(directory);
+        Files.createDirectories(dir);
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : files.sorted().toList()) {
+                if (file.getFileName().toString().endsWith(SEGMENT_SUFFIX)) {
+                    register(ArchiveSegment.open(file));
+                } else if (file.getFileName().toString().endsWith(SEGMENT_SUFFIX + ".tmp")) {
+                    // Left behind by a write that never reached its rename.
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    /** Registers segments another node has written to the directory since this one last looked. */
+    public synchronized void refresh() throws IOException {
+        if (!isEnabled()) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(Paths.get(directory))) {
+            for (Path file : files.sorted().toList()) {
+                boolean known = segments.stream().anyMatch(segment -> segment.getPath().equals(file));
+                if (!known && file.getFileName().toString().endsWith(SEGMENT_SUFFIX)) {
+                    register(ArchiveSegment.open(file));
+                }
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return !directory.isBlank();
+    }
+
+    public boolean hasSegments() {
+        return !months.isEmpty();
+    }
+
+    public List<ArchiveSegment> getSegments() {
+        return List.copyOf(segments);
+    }
+
+    /**
+     * Durably writes {@code rows} as a new segment. The segment is not visible to reads
+     * until {@link #register(ArchiveSegment)} is called.
+     */
+    public ArchiveSegment write(List<Expense> rows) {
+        if (!isEnabled()) {
+            throw new IllegalStateException("Archive directory is not configured");
+        }
+        int first = rows.stream().mapToInt(row -> ExpensePartition.monthKey(row.getDate())).min().orElseThrow();
+        int last = rows.stream().mapToInt(row -> ExpensePartition.monthKey(row.getDate())).max().orElseThrow();
+        String name = "expenses-" + first + "-" + last + "-" + System.currentTimeMillis() + SEGMENT_SUFFIX;
+        try {
+            return ArchiveSegment.write(Paths.get(directory).resolve(name), rows);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    public synchronized void register(ArchiveSegment segment) {
+        NavigableMap<Integer, List<ArchiveSegment.MonthBlock>> next = new TreeMap<>(months);
+        for (ArchiveSegment.MonthBlock block : segment.getMonths()) {
+            next.computeIfAbsent(block.getMonth(), month -> new ArrayList<>()).add(block);
+        }
+        segments.add(segment);
+        months = Collections.unmodifiableNavigableMap(next);
+    }
+
+    public long count(Filter filter) {
+        long count = 0;
+        for (ArchiveSegment.MonthBlock block : blocks(filter, false)) {
+            count += count(block, filter);
+        }
+        return count;
+    }
+
+    /**
+     * Rows matching {@code filter} in date order (newest first when {@code descending}),
+     * skipping whole months by their header counts until {@code offset} is reached.
+     */
+    public List<Expense> find(Filter filter, long offset, int limit, boolean descending) {
+        List<Expense> result = new ArrayList<>(Math.min(limit, 1024));
+        long toSkip = offset;
+        for (ArchiveSegment.MonthBlock block : blocks(filter, descending)) {
+            if (result.size() >= limit) {
+                break;
+            }
+            if (filter.covers(block)) {
+                long matching = filter.category() == null ? block.getRowCount() : block.getCount(filter.category());
+                if (toSkip >= matching) {
+                    toSkip -= matching;
+                    continue;
+                }
+            }
+            List<Expense> rows = block.readRows();
+            if (descending) {
+                Collections.reverse(rows);
+            }
+            for (Expense row : rows) {
+                if (result.size() >= limit) {
+                    break;
+                }
+                if (!filter.matches(row)) {
+                    continue;
+                }
+                if (toSkip > 0) {
+                    toSkip--;
+                } else {
+                    result.add(row);
+                }
+            }
+        }
+        return result;
+    }
+
+    public Optional<Expense> findById(String tenantId, long id) {
+        for (List<ArchiveSegment.MonthBlock> blocks : months.values()) {
+            for (ArchiveSegment.MonthBlock block : blocks) {
+                if (block.getTenantId().equals(tenantId) && id >= block.getMinId() && id <= block.getMaxId()) {
+                    for (Expense row : block.readRows()) {
+                        if (row.getId() == id) {
+                            return Optional.of(row);
+                        }
+                    }
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    /** Monthly totals keyed by {@code yyyyMM}. */
+    public NavigableMap<Integer, BigDecimal> getMonthlySummary(String tenantId, LocalDate startDate, LocalDate endDate) {
+        Filter filter = Filter.byDateRange(tenantId, startDate, endDate);
+        NavigableMap<Integer, BigDecimal> totals = new TreeMap<>();
+        for (ArchiveSegment.MonthBlock block : blocks(filter, false)) {
+            BigDecimal total;
+            if (filter.covers(block)) {
+                total = block.getTotal();
+            } else {
+                total = null;
+                for (Expense row : block.readRows()) {
+                    if (filter.matches(row)) {
+                        total = total == null ? row.getAmount() : total.add(row.getAmount());
+                    }
+                }
+            }
+            if (total != null) {
+                totals.merge(block.getMonth(), total, BigDecimal::add);
+            }
+        }
+        return totals;
+    }
+
+    public Map<ExpenseCategory, BigDecimal> getCategorySummary(String tenantId) {
+        Map<ExpenseCategory, BigDecimal> totals = new EnumMap<>(ExpenseCategory.class);
+        for (List<ArchiveSegment.MonthBlock> blocks : months.values()) {
+            for (ArchiveSegment.MonthBlock block : blocks) {
+                if (!block.getTenantId().equals(tenantId)) {
+                    continue;
+                }
+                for (ExpenseCategory category : ExpenseCategory.values()) {
+                    BigDecimal total = block.getTotal(category);
+                    if (total != null) {
+                        totals.merge(category, total, BigDecimal::add);
+                    }
+                }
+            }
+        }
+        return totals;
+    }
+
+    /**
+     * Totals of the rows matching {@code filter} per category, currency and day, for converting each at
+     * that day's rate. A whole block held only in {@code unconvertedCurrency} needs no rate, so it is
+     * totalled per category from the header alone, with a null date.
+     */
+    public List<CurrencyTotal> getCurrencyTotals(Filter filter, String unconvertedCurrency) {
+        List<CurrencyTotal> totals = new ArrayList<>();
+        for (ArchiveSegment.MonthBlock block : blocks(filter, false)) {
+            if (filter.covers(block) && filter.category() == null && block.getCurrencies().equals(List.of(unconvertedCurrency))) {
+                for (ExpenseCategory category : ExpenseCategory.values()) {
+                    BigDecimal total = block.getTotal(category);
+                    if (total != null) {
+                        totals.add(new CurrencyTotal(block.getMonth(), category, unconvertedCurrency, null, total));
+                    }
+                }
+                continue;
+            }
+            Map<DayKey, BigDecimal> daily = new LinkedHashMap<>();
+            block.forEach(row -> {
+                if (filter.matches(row)) {
+                    daily.merge(new DayKey(row.getCategory(), row.getCurrency(), row.getDate()), row.getAmount(), BigDecimal::add);
+                }
+            });
+            daily.forEach((key, total) -> totals.add(new CurrencyTotal(block.getMonth(), key.category(), key.currency(), key.date(), total)));
+        }
+        return totals;
+    }
+
+    /** Total of one tenant's archived expenses in one category and month ({@code yyyyMM}). */
+    public BigDecimal getMonthTotal(String tenantId, int month, ExpenseCategory category) {
+        BigDecimal total = BigDecimal.ZERO;
+        for (ArchiveSegment.MonthBlock block : months.getOrDefault(month, List.of())) {
+            BigDecimal blockTotal = block.getTenantId().equals(tenantId) ? block.getTotal(category) : null;
+            if (blockTotal != null) {
+                total = total.add(blockTotal);
+            }
+        }
+        return total;
+    }
+
+    private long count(ArchiveSegment.MonthBlock block, Filter filter) {
+        if (filter.covers(block)) {
+            return filter.category() == null ? block.getRowCount() : block.getCount(filter.category());
+        }
+        long count = 0;
+        for (Expense row : block.readRows()) {
+            if (filter.matches(row)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private List<ArchiveSegment.MonthBlock> blocks(Filter filter, boolean descending) {
+        NavigableMap<Integer, List<ArchiveSegment.MonthBlock>> inRange = months.subMap(
+                filter.startMonth(), true, filter.endMonth(), true);
+        if (descending) {
+            inRange = inRange.descendingMap();
+        }
+        List<ArchiveSegment.MonthBlock> result = new ArrayList<>();
+        for (List<ArchiveSegment.MonthBlock> blocks : inRange.values()) {
+            for (ArchiveSegment.MonthBlock block : blocks) {
+                if (filter.ownedBy(block) && filter.overlaps(block)
+                        && (filter.category() == null || block.getCount(filter.category()) > 0)) {
+                    result.add(block);
+                }
+            }
+        }
+        return result;
+    }
+
+    /** Archived total of one category, currency and day ({@code date} may be null, see {@link #getCurrencyTotals}). */
+    public record CurrencyTotal(int month, ExpenseCategory category, String currency, LocalDate date, BigDecimal total) {
+    }
+
+    private record DayKey(ExpenseCategory category, String currency, LocalDate date) {
+    }
+
+    /**
+     * Archive read predicate; {@code null} fields are unbounded, so a {@code null} tenant reads every tenant.
+     */
+    public record Filter(String tenantId, LocalDate startDate, LocalDate endDate, ExpenseCategory category) {
+
+        public static Filter all(String tenantId) {
+            return new Filter(tenantId, null, null, null);
+        }
+
+        public static Filter byCategory(String tenantId, ExpenseCategory category) {
+            return new Filter(tenantId, null, null, category);
+        }
+
+        public static Filter byDateRange(String tenantId, LocalDate startDate, LocalDate endDate) {
+            return new Filter(tenantId, startDate, endDate, null);
+        }
+
+        boolean ownedBy(ArchiveSegment.MonthBlock block) {
+            return tenantId == null || tenantId.equals(block.getTenantId());
+        }
+
+        int startMonth() {
+            return startDate == null ? Integer.MIN_VALUE : ExpensePartition.monthKey(YearMonth.from(startDate));
+        }
+
+        int endMonth() {
+            return endDate == null ? Integer.MAX_VALUE : ExpensePartition.monthKey(YearMonth.from(endDate));
+        }
+
+        boolean matches(Expense expense) {
+            return (category == null || category == expense.getCategory())
+                    && (startDate == null || !expense.getDate().isBefore(startDate))
+                    && (endDate == null || !expense.getDate().isAfter(endDate));
+        }
+
+        boolean overlaps(ArchiveSegment.MonthBlock block) {
+            return (startDate == null || !block.getMaxDate().isBefore(startDate))
+                    && (endDate == null || !block.getMinDate().isAfter(endDate));
+        }
+
+        /** Every row of the block is inside the date bounds, so header statistics apply as-is. */
+        boolean covers(ArchiveSegment.MonthBlock block) {
+            return (startDate == null || !block.getMinDate().isBefore(startDate))
+                    && (endDate == null || !block.getMaxDate().isAfter(endDate));
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.expensetracker.repository;
+
+import com.expensetracker.config.TenantContext;
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.ExpenseCategory;
+import com.expensetracker.model.ExpensePartition;
+import com.expensetracker.model.TagListConverter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Set-oriented JDBC access to the expense table for loads and exports that would be far too slow
+ * one {@code repository.save} at a time.
+ */
+@Repository
+public class ExpenseBulkRepository {
+
+    static final RowMapper<Expense> ROW_MAPPER = (rs, rowNum) -> {
+        Expense expense = new Expense(rs.getBigDecimal("amount"),
+                ExpenseCategory.valueOf(rs.getString("category")),
+                rs.getString("description"),
+                rs.getObject("date", LocalDate.class));
+        expense.setId(rs.getLong("id"));
+        expense.setTenantId(rs.getString("tenant_id"));
+        expense.setCurrency(rs.getString("currency"));
+        expense.setCreatedAt(rs.getObject("created_at", LocalDateTime.class));
+        expense.setReceiptHash(rs.getString("receipt_hash"));
+        expense.setTags(TagListConverter.split(rs.getString("tags")));
+        return expense;
+    };
+
+    static final String COLUMNS = "id, tenant_id, amount, currency, category, description, date, created_at, receipt_hash, tags";
+
+    private static final String INSERT_WITH_ID = "INSERT INTO expense " +
+            "(id, tenant_id, amount, currency, category, description, date, created_at, partition_month, receipt_hash, tags) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT = "INSERT INTO expense " +
+            "(tenant_id, amount, currency, category, description, date, created_at, partition_month, tags) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /** Inserts rows in one JDBC batch and sets the ids the database generated on them. */
+    public void insert(List<Expense> rows) {
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Expense row = rows.get(i);
+                        ps.setString(1, row.getTenantId() == null ? TenantContext.DEFAULT_TENANT : row.getTenantId());
+                        ps.setBigDecimal(2, row.getAmount());
+                        ps.setString(3, row.getCurrency());
+                        ps.setString(4, row.getCategory().name());
+                        ps.setString(5, row.getDescription());
+                        ps.setObject(6, row.getDate());
+                        ps.setTimestamp(7, row.getCreatedAt() == null ? null : Timestamp.valueOf(row.getCreatedAt()));
+                        ps.setInt(8, ExpensePartition.monthKey(row.getDate()));
+                        ps.setString(9, TagListConverter.join(row.getTags()));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return rows.size();
+                    }
+                }, keys);
+        List<Map<String, Object>> generated = keys.getKeyList();
+        for (int i = 0; i < rows.size(); i++) {
+            rows.get(i).setId(((Number) generated.get(i).values().iterator().next()).longValue());
+        }
+    }
+
+    /**
+     * Inserts rows with their existing ids in one JDBC batch. Call {@link #restartIdentity()} afterwards
+     * so generated ids continue above the loaded ones.
+     */
+    public void insertWithIds(List<Expense> rows) {
+        jdbcTemplate.batchUpdate(INSERT_WITH_ID, rows, rows.size(), (ps, row) -> {
+            ps.setLong(1, row.getId());
+            ps.setString(2, row.getTenantId() == null ? TenantContext.DEFAULT_TENANT : row.getTenantId());
+            ps.setBigDecimal(3, row.getAmount());
+            ps.setString(4, row.getCurrency());
+            ps.setString(5, row.getCategory().name());
+            ps.setString(6, row.getDescription());
+            ps.setObject(7, row.getDate());
+            ps.setTimestamp(8, row.getCreatedAt() == null ? null : Timestamp.valueOf(row.getCreatedAt()));
+            ps.setInt(9, ExpensePartition.monthKey(row.getDate()));
+            ps.setString(10, row.getReceiptHash());
+            ps.setString(11, TagListConverter.join(row.getTags()));
+        });
+    }
+
+    /** Rows of every tenant with the given ids; ids without a row are ignored. */
+    public List<Expense> findByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM expense WHERE id IN ("
+                + String.join(", ", Collections.nCopies(ids.size(), "?")) + ")", ROW_MAPPER, ids.toArray());
+    }
+
+    /** Deletes rows by id in one JDBC batch; ids without a row are ignored. */
+    public void deleteByIds(Collection<Long> ids) {
+        jdbcTemplate.batchUpdate("DELETE FROM expense WHERE id = ?", ids, ids.size(), (ps, id) -> ps.setLong(1, id));
+    }
+
+    public void restartIdentity() {
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM expense", Long.class);
+        jdbcTemplate.execute("ALTER TABLE expense ALTER COLUMN id RESTART WITH " + (maxId + 1));
+    }
+
+    /** Rows of every tenant. */
+    public long count() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM expense", Long.class);
+    }
+
+    /** Streams every row in partition, tenant, date, id order without materializing the table. */
+    public void forEachInPartitionOrder(int fetchSize, Consumer<Expense> action) {
+        jdbcTemplate.query(connection -> {
+            var statement = connection.prepareStatement(
+                    "SELECT " + COLUMNS + " FROM expense ORDER BY partition_month, tenant_id, date, id");
+            statement.setFetchSize(fetchSize);
+            return statement;
+        }, rs -> {
+            action.accept(ROW_MAPPER.mapRow(rs, 0));
+        });
+    }
+
+    /** Streams one tenant's rows through {@code idx_expense_tenant_partition_date}. */
+    public void forEachOfTenant(String tenantId, int fetchSize, Consumer<Expense> action) {
+        jdbcTemplate.query(connection -> {
+            var statement = connection.prepareStatement(
+                    "SELECT " + COLUMNS + " FROM expense WHERE tenant_id = ? ORDER BY partition_month");
+            statement.setString(1, tenantId);
+            statement.setFetchSize(fetchSize);
+            return statement;
+        }, rs -> {
+            action.accept(ROW_MAPPER.mapRow(rs, 0));
+        });
+    }
+
+    /** Streams one tenant's rows of one partition through {@code idx_expense_tenant_partition_date}. */
+    public void forEachOfTenantMonth(String tenantId, int month, int fetchSize, Consumer<Expense> action) {
+        jdbcTemplate.query(connection -> {
+            var statement = connection.prepareStatement(
+                    "SELECT " + COLUMNS + " FROM expense WHERE tenant_id = ? AND partition_month = ?");
+            statement.setString(1, tenantId);
+            statement.setInt(2, month);
+            statement.setFetchSize(fetchSize);
+            return statement;
+        }, rs -> {
+            action.accept(ROW_MAPPER.mapRow(rs, 0));
+        });
+    }
+}
@@ -0,0 +1,96 @@
+package com.expensetracker.repository;
+
+import com.expensetracker.model.ExpenseFingerprint;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JDBC access to {@link ExpenseFingerprint} rows, in batches: imports check and register thousands of
+ * fingerprints at a time.
+ */
+@Repository
+public class ExpenseFingerprintRepository {
+
+    // Fingerprints per IN list; keeps each lookup well inside every database's parameter limit.
+    static final int LOOKUP_CHUNK = 500;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public record Entry(long fingerprint, long expenseId) {
+    }
+
+    /** Visits each stored fingerprint, for rebuilding an in-memory filter. */
+    public interface FingerprintConsumer {
+        void accept(String tenantId, long fingerprint);
+    }
+
+    /** The expense holding each of {@code fingerprints} that the tenant has, by fingerprint. */
+    public Map<Long, Long> findExpenseIds(String tenantId, Collection<Long> fingerprints) {
+        if (fingerprints.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, Long> found = new HashMap<>();
+        List<Long> all = List.copyOf(fingerprints);
+        for (int from = 0; from < all.size(); from += LOOKUP_CHUNK) {
+            List<Long> chunk = all.subList(from, Math.min(all.size(), from + LOOKUP_CHUNK));
+            String placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+            Object[] args = new Object[chunk.size() + 1];
+            args[0] = tenantId;
+            for (int i = 0; i < chunk.size(); i++) {
+                args[i + 1] = chunk.get(i);
+            }
+            jdbcTemplate.query("SELECT fingerprint, expense_id FROM expense_fingerprint WHERE tenant_id = ? AND fingerprint IN ("
+                    + placeholders + ")", rs -> {
+                found.put(rs.getLong(1), rs.getLong(2));
+            }, args);
+        }
+        return found;
+    }
+
+    /** Inserts in one JDBC batch; a fingerprint the tenant already has fails the whole batch. */
+    public void insert(String tenantId, List<Entry> entries) {
+        jdbcTemplate.batchUpdate("INSERT INTO expense_fingerprint (expense_id, tenant_id, fingerprint) VALUES (?, ?, ?)",
+                entries, entries.size(), (ps, entry) -> {
+                    ps.setLong(1, entry.expenseId());
+                    ps.setString(2, tenantId);
+                    ps.setLong(3, entry.fingerprint());
+                });
+    }
+
+    public void deleteByExpenseId(long expenseId) {
+        jdbcTemplate.update("DELETE FROM expense_fingerprint WHERE expense_id = ?", expenseId);
+    }
+
+    /** Deletes in one JDBC batch; ids without a fingerprint are ignored. */
+    public void deleteByExpenseIds(Collection<Long> expenseIds) {
+        jdbcTemplate.batchUpdate("DELETE FROM expense_fingerprint WHERE expense_id = ?", expenseIds, expenseIds.size(),
+                (ps, id) -> ps.setLong(1, id));
+    }
+
+    public void deleteAll() {
+        jdbcTemplate.update("DELETE FROM expense_fingerprint");
+    }
+
+    public long count() {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM expense_fingerprint", Long.class);
+        return count == null ? 0 : count;
+    }
+
+    public void forEach(int fetchSize, FingerprintConsumer action) {
+        jdbcTemplate.query(connection -> {
+            var statement = connection.prepareStatement("SELECT tenant_id, fingerprint FROM expense_fingerprint");
+            statement.setFetchSize(fetchSize);
+            return statement;
+        }, rs -> {
+            action.accept(rs.getString(1), rs.getLong(2));
+        });
+    }
+}
@@ -0,0 +1,473 @@
+package com.expensetracker.repository;
+
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.ExpenseCategory;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Append-only log of every change to the expense table, in {@code expense.journal.dir}: each create,
+ * update and delete is recorded with the full row, under a sequence number that increases by one per
+ * entry. Together with a snapshot that records the sequence it covers, the journal lets the table be
+ * rebuilt after a restart by replaying only the entries that came later, and it doubles as an audit
+ * trail. Journaling is off when no directory is configured.
+ * <p>
+ * Entries are appended sequentially to memory-mapped {@link JournalSegment} files of
+ * {@code expense.journal.segment-size}, and a new segment is started when one is full. With
+ * {@code expense.journal.fsync} each append returns once its entry is on disk. Syncs are grouped:
+ * while one writer forces the segment, others queue behind it, and the next force covers all of
+ * their entries at once, so concurrent writes share a sync instead of taking one each.
+ * <p>
+ * Entries are appended after their write commits. A create is therefore marked while its transaction
+ * is open, and a delete of the row waits for the create's entry, so replay never meets a create
+ * after the delete of the same row.
+ */
+@Repository
+public class ExpenseJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(ExpenseJournal.class);
+
+    static final String SEGMENT_SUFFIX = ".journal";
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    /** One recorded change; {@code expense} is the row after a create or update, and before a delete. */
+    public record Entry(long sequence, Instant time, Type type, Expense expense) {
+    }
+
+    @Value("${expense.journal.dir:}")
+    private String directory = "";
+
+    @Value("${expense.journal.segment-size:64MB}")
+    private DataSize segmentSize = DataSize.ofMegabytes(64);
+
+    @Value("${expense.journal.fsync:true}")
+    private boolean fsync = true;
+
+    // Full segments, oldest first; only the current one is appended to. Guarded by this.
+    private final List<Path> sealed = new ArrayList<>();
+    private JournalSegment current;
+    // Sealed segments mapped so far. They no longer change, so each is mapped and recovered once. Guarded by this.
+    private final Map<Path, JournalSegment> opened = new HashMap<>();
+    private int sealedOpens;
+
+    // Guards forcing; held without the append lock so appends continue while a sync runs.
+    private final Object syncLock = new Object();
+    private volatile long durableSequence;
+
+    private final LongAdder appends = new LongAdder();
+    private final LongAdder syncs = new LongAdder();
+
+    // Ids of inserted rows whose CREATED entries are not appended yet; notified as they are.
+    private final Set<Long> unjournaled = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    public synchronized void open() throws IOException {
+        if (!isEnabled()) {
+            return;
+        }
+        if (segmentSize.toBytes() < 64 * 1024 || segmentSize.toBytes() > Integer.MAX_VALUE) {
+            throw new IllegalStateException("expense.journal.segment-size must be between 64KB and 2GB");
+        }
+        Path dir = Paths.get(directory);
+        Files.createDirectories(dir);
+        List<Path> files;
+        try (Stream<Path> list = Files.list(dir)) {
+            // Names are zero-padded first sequences, so they sort in journal order.
+            files = list.filter(file -> file.getFileName().toString().endsWith(SEGMENT_SUFFIX)).sorted().toList();
+        }
+        if (files.isEmpty()) {
+            current = JournalSegment.create(segmentPath(1), 1, (int) segmentSize.toBytes());
+        } else {
+            sealed.addAll(files.subList(0, files.size() - 1));
+            current = JournalSegment.open(files.get(files.size() - 1));
+        }
+        durableSequence = current.getLastSequence();
+        log.info("Opened expense journal in {} at sequence {} ({} segments)", dir, current.getLastSequence(), files.size());
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (current != null) {
+            current.force();
+            durableSequence = current.getLastSequence();
+        }
+    }
+
+    public boolean isEnabled() {
+        return !directory.isBlank();
+    }
+
+    /** Records one change; returns its sequence, or 0 when journaling is off. */
+    public long append(Type type, Expense expense) {
+        return append(type, List.of(expense));
+    }
+
+    /**
+     * Records changes of one type with consecutive sequences and a single sync; returns the last sequence.
+     * Appending CREATED entries clears the rows' {@link #markInserted} marks, even if it fails.
+     */
+    public long append(Type type, List<Expense> expenses) {
+        if (!isEnabled() || expenses.isEmpty()) {
+            return 0;
+        }
+        try {
+            return write(type, expenses);
+        } finally {
+            if (type == Type.CREATED) {
+                unmark(expenses);
+            }
+        }
+    }
+
+    /**
+     * Marks rows inserted by the current transaction as not journaled yet. Called before the transaction
+     * commits, so the mark is set before any other transaction can see, and delete, the rows; a rollback
+     * clears it. {@link #awaitJournaled} then keeps a delete from being sequenced before the create.
+     */
+    public void markInserted(List<Expense> rows) {
+        if (!isEnabled() || rows.isEmpty()) {
+            return;
+        }
+        List<Expense> marked = List.copyOf(rows);
+        for (Expense row : marked) {
+            unjournaled.add(row.getId());
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        unmark(marked);
+                    }
+                }
+            });
+        }
+    }
+
+    /** Waits until the CREATED entry of a row marked by {@link #markInserted} has been appended. */
+    public void awaitJournaled(long id) {
+        if (!unjournaled.contains(id)) {
+            return;
+        }
+        synchronized (unjournaled) {
+            while (unjournaled.contains(id)) {
+                try {
+                    unjournaled.wait();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void unmark(List<Expense> rows) {
+        boolean removed = false;
+        for (Expense row : rows) {
+            removed |= unjournaled.remove(row.getId());
+        }
+        if (removed) {
+            synchronized (unjournaled) {
+                unjournaled.notifyAll();
+            }
+        }
+    }
+
+    private long write(Type type, List<Expense> expenses) {
+        long time = System.currentTimeMillis();
+        List<byte[]> payloads = new ArrayList<>(expenses.size());
+        for (Expense expense : expenses) {
+            payloads.add(encode(time, type, expense));
+        }
+        long last;
+        synchronized (this) {
+            for (byte[] payload : payloads) {
+                long sequence = current.getLastSequence() + 1;
+                if (!current.append(sequence, payload)) {
+                    rotate(sequence);
+                    if (!current.append(sequence, payload)) {
+                        throw new IllegalStateException("Journal entry of " + payload.length + " bytes exceeds the segment size");
+                    }
+                }
+            }
+            last = current.getLastSequence();
+        }
+        appends.add(payloads.size());
+        if (fsync) {
+            sync(last);
+        }
+        return last;
+    }
+
+    /**
+     * Moves the next sequence past {@code sequence}. Used when a snapshot covers entries this journal no
+     * longer has, so that entries recorded from now on still sort after it.
+     */
+    public synchronized void advanceTo(long sequence) {
+        if (isEnabled() && current.getLastSequence() < sequence) {
+            rotate(sequence + 1);
+            durableSequence = sequence;
+        }
+    }
+
+    public synchronized long getFirstSequence() {
+        if (!isEnabled()) {
+            return 0;
+        }
+        return sealed.isEmpty() ? current.getFirstSequence() : firstSequenceOf(sealed.get(0));
+    }
+
+    public synchronized long getLastSequence() {
+        return isEnabled() ? current.getLastSequence() : 0;
+    }
+
+    /** Replays entries with a sequence above {@code afterSequence}, oldest first. */
+    public void forEach(long afterSequence, Consumer<Entry> action) {
+        for (JournalSegment segment : segmentsFrom(afterSequence)) {
+            segment.forEach(afterSequence, (sequence, payload) -> action.accept(decode(sequence, payload)));
+        }
+    }
+
+    /** Up to {@code limit} entries with a sequence above {@code afterSequence}, oldest first. */
+    public List<Entry> read(long afterSequence, int limit) {
+        return read(afterSequence, limit, entry -> true);
+    }
+
+    /** Up to {@code limit} entries matching {@code filter} with a sequence above {@code afterSequence}, oldest first. */
+    public List<Entry> read(long afterSequence, int limit, Predicate<Entry> filter) {
+        List<Entry> entries = new ArrayList<>();
+        for (JournalSegment segment : segmentsFrom(afterSequence)) {
+            segment.forEach(afterSequence, (sequence, payload) -> {
+                if (entries.size() < limit) {
+                    Entry entry = decode(sequence, payload);
+                    if (filter.test(entry)) {
+                        entries.add(entry);
+                    }
+                }
+            });
+            if (entries.size() >= limit) {
+                break;
+            }
+        }
+        return entries;
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", isEnabled());
+        if (!isEnabled()) {
+            return stats;
+        }
+        long sizeInBytes = current.getWrittenBytes();
+        for (Path file : sealed) {
+            try {
+                sizeInBytes += Files.size(file);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+        stats.put("segments", sealed.size() + 1);
+        stats.put("firstSequence", getFirstSequence());
+        stats.put("lastSequence", current.getLastSequence());
+        stats.put("durableSequence", durableSequence);
+        stats.put("appends", appends.sum());
+        stats.put("syncs", syncs.sum());
+        stats.put("sizeInBytes", sizeInBytes);
+        return stats;
+    }
+
+    // Forces the current segment unless a sync that started after this entry was appended already did.
+    private void sync(long sequence) {
+        synchronized (syncLock) {
+            if (durableSequence >= sequence) {
+                return;
+            }
+            JournalSegment segment;
+            long upTo;
+            synchronized (this) {
+                segment = current;
+                upTo = current.getLastSequence();
+            }
+            // Full segments were forced when they were sealed.
+            segment.force();
+            durableSequence = upTo;
+            syncs.increment();
+        }
+    }
+
+    private synchronized List<JournalSegment> segmentsFrom(long afterSequence) {
+        List<JournalSegment> segments = new ArrayList<>();
+        if (!isEnabled()) {
+            return segments;
+        }
+        for (int i = 0; i < sealed.size(); i++) {
+            boolean hasLater = i + 1 < sealed.size()
+                    ? firstSequenceOf(sealed.get(i + 1)) > afterSequence + 1
+                    : current.getFirstSequence() > afterSequence + 1;
+            if (hasLater) {
+                segments.add(openSealed(sealed.get(i)));
+            }
+        }
+        segments.add(current);
+        return segments;
+    }
+
+    private JournalSegment openSealed(Path file) {
+        JournalSegment segment = opened.get(file);
+        if (segment == null) {
+            try {
+                segment = JournalSegment.open(file);
+                sealedOpens++;
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            opened.put(file, segment);
+        }
+        return segment;
+    }
+
+    synchronized int sealedOpens() {
+        return sealedOpens;
+    }
+
+    private void rotate(long firstSequence) {
+        current.force();
+        try {
+            JournalSegment next = JournalSegment.create(segmentPath(firstSequence), firstSequence, (int) segmentSize.toBytes());
+            if (current.getLastSequence() < current.getFirstSequence()) {
+                Files.delete(current.getPath());
+            } else {
+                sealed.add(current.getPath());
+                opened.put(current.getPath(), current);
+            }
+            current = next;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private Path segmentPath(long firstSequence) {
+        return Paths.get(directory).resolve(String.format("%020d", firstSequence) + SEGMENT_SUFFIX);
+    }
+
+    private static long firstSequenceOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static byte[] encode(long time, Type type, Expense expense) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(time);
+            out.writeByte(type.ordinal());
+            out.writeLong(expense.getId());
+            writeString(out, ArchiveSegment.tenantOf(expense));
+            writeString(out, expense.getAmount().toPlainString());
+            writeString(out, expense.getCurrency());
+            out.writeByte(expense.getCategory().ordinal());
+            out.writeLong(expense.getDate().toEpochDay());
+            writeNullable(out, expense.getDescription());
+            out.writeBoolean(expense.getCreatedAt() != null);
+            if (expense.getCreatedAt() != null) {
+                out.writeLong(ChronoUnit.MICROS.between(EPOCH, expense.getCreatedAt()));
+            }
+            writeNullable(out, expense.getReceiptHash());
+            out.writeByte(expense.getTags().size());
+            for (String tag : expense.getTags()) {
+                writeString(out, tag);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Entry decode(long sequence, ByteBuffer in) {
+        Instant time = Instant.ofEpochMilli(in.getLong());
+        Type type = Type.values()[in.get()];
+        long id = in.getLong();
+        String tenantId = readString(in);
+        BigDecimal amount = new BigDecimal(readString(in));
+        String currency = readString(in);
+        ExpenseCategory category = ExpenseCategory.values()[in.get()];
+        LocalDate date = LocalDate.ofEpochDay(in.getLong());
+        String description = readNullable(in);
+        LocalDateTime createdAt = in.get() != 0 ? EPOCH.plus(in.getLong(), ChronoUnit.MICROS) : null;
+        String receiptHash = readNullable(in);
+        String[] tags = new String[in.get()];
+        for (int i = 0; i < tags.length; i++) {
+            tags[i] = readString(in);
+        }
+        Expense expense = new Expense(amount, category, description, date);
+        expense.setId(id);
+        expense.setTenantId(tenantId);
+        expense.setCurrency(currency);
+        expense.setCreatedAt(createdAt);
+        expense.setReceiptHash(receiptHash);
+        expense.setTags(List.of(tags));
+        return new Entry(sequence, time, type, expense);
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            writeString(out, value);
+        }
+    }
+
+    private static String readNullable(ByteBuffer in) {
+        return in.get() != 0 ? readString(in) : null;
+    }
+
+    // Plain UTF-8 with a length, unlike writeUTF, which mangles characters outside the BMP.
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getShort() & 0xFFFF];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
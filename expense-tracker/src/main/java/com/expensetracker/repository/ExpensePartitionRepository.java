@@ -0,0 +1,55 @@
+package com.expensetracker.repository;
+
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.ExpensePartition;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Partition-level operations on the expense table. Each monthly partition can be inspected
+ * or dropped on its own without touching rows of any other month.
+ */
+@Repository
+public class ExpensePartitionRepository {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public List<ExpensePartition> findAll(String tenantId) {
+        return jdbcTemplate.query(
+                "SELECT partition_month, COUNT(*), SUM(amount) FROM expense WHERE tenant_id = ? " +
+                        "GROUP BY partition_month ORDER BY partition_month",
+                (rs, rowNum) -> new ExpensePartition(rs.getInt(1), rs.getLong(2), rs.getBigDecimal(3)),
+                tenantId);
+    }
+
+    public List<ExpensePartition> findOlderThan(int monthKey) {
+        return jdbcTemplate.query(
+                "SELECT partition_month, COUNT(*), SUM(amount) FROM expense WHERE partition_month < ? " +
+                        "GROUP BY partition_month ORDER BY partition_month",
+                (rs, rowNum) -> new ExpensePartition(rs.getInt(1), rs.getLong(2), rs.getBigDecimal(3)),
+                monthKey);
+    }
+
+    public List<Expense> findRows(int monthKey) {
+        return jdbcTemplate.query(
+                "SELECT " + ExpenseBulkRepository.COLUMNS + " FROM expense WHERE partition_month = ? ORDER BY date, id",
+                ExpenseBulkRepository.ROW_MAPPER,
+                monthKey);
+    }
+
+    public int drop(int monthKey) {
+        return jdbcTemplate.update("DELETE FROM expense WHERE partition_month = ?", monthKey);
+    }
+
+    /**
+     * Drops the rows of a partition up to {@code maxId}. Identity ids only grow, so rows inserted
+     * into the month after it was read for archiving survive.
+     */
+    public int dropUpTo(int monthKey, long maxId) {
+        return jdbcTemplate.update("DELETE FROM expense WHERE partition_month = ? AND id <= ?", monthKey, maxId);
+    }
+}
@@ -2,6 +2,7 @@ package com.expensetracker.repository;
 
 import com.expensetracker.model.Expense;
 import com.expensetracker.model.ExpenseCategory;
+import com.expensetracker.model.ExpensePartition;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -12,7 +13,9 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -22,11 +25,57 @@ public interface ExpenseRepository extends JpaRepository<Expense, Long> {
 
     Page<Expense> findByCategory(ExpenseCategory category, Pageable pageable);
 
-    Page<Expense> findByDateBetween(LocalDate startDate, LocalDate endDate, Pageable pageable);
+    /**
+     * Date-range page restricted to the monthly partitions overlapping the range, so both the
+     * page and its count query seek on {@code idx_expense_partition_date} instead of scanning.
+     */
+    default Page<Expense> findByDateBetween(LocalDate startDate, LocalDate endDate, Pageable pageable) {
+        return findByPartitionMonthBetweenAndDateBetween(ExpensePartition.monthKey(startDate), ExpensePartition.monthKey(endDate),
+                startDate, endDate, pageable);
+    }
 
-    @Query("SELECT FUNCTION('YEAR', e.date) as year, FUNCTION('MONTH', e.date) as month, SUM(e.amount) as total FROM Expense e WHERE e.date BETWEEN :startDate AND :endDate GROUP BY year, month")
-    List<Map<String, Object>> getMonthlySummary(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+    Page<Expense> findByPartitionMonthBetweenAndDateBetween(int startMonth, int endMonth, LocalDate startDate, LocalDate endDate, Pageable pageable);
+
+    /** A page of the given rows, without a count query; the caller already knows how many there are. */
+    List<Expense> findByIdIn(Collection<Long> ids, Pageable pageable);
+
+    default Page<Expense> findByIdInAndDateBetween(Collection<Long> ids, LocalDate startDate, LocalDate endDate, Pageable pageable) {
+        return findByIdInAndPartitionMonthBetweenAndDateBetween(ids, ExpensePartition.monthKey(startDate), ExpensePartition.monthKey(endDate),
+                startDate, endDate, pageable);
+    }
+
+    Page<Expense> findByIdInAndPartitionMonthBetweenAndDateBetween(Collection<Long> ids, int startMonth, int endMonth,
+                                                                   LocalDate startDate, LocalDate endDate, Pageable pageable);
+
+    default List<Map<String, Object>> getMonthlySummary(LocalDate startDate, LocalDate endDate) {
+        return getMonthlySummary(ExpensePartition.monthKey(startDate), ExpensePartition.monthKey(endDate), startDate, endDate);
+    }
+
+    @Query("SELECT FUNCTION('YEAR', e.date) as year, FUNCTION('MONTH', e.date) as month, SUM(e.amount) as total FROM Expense e " +
+            "WHERE e.partitionMonth BETWEEN :startMonth AND :endMonth AND e.date BETWEEN :startDate AND :endDate " +
+            "GROUP BY year, month ORDER BY year, month")
+    List<Map<String, Object>> getMonthlySummary(@Param("startMonth") int startMonth, @Param("endMonth") int endMonth,
+                                                @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
 
     @Query("SELECT e.category, SUM(e.amount) FROM Expense e GROUP BY e.category")
     List<Object[]> getCategorySummary();
+
+    default List<Object[]> getDailyCurrencyTotals(LocalDate startDate, LocalDate endDate) {
+        return getDailyCurrencyTotals(ExpensePartition.monthKey(startDate), ExpensePartition.monthKey(endDate), startDate, endDate);
+    }
+
+    /** Totals per currency and day, {@code [currency, date, total]}, for converting each at that day's rate. */
+    @Query("SELECT e.currency, e.date, SUM(e.amount) FROM Expense e " +
+            "WHERE e.partitionMonth BETWEEN :startMonth AND :endMonth AND e.date BETWEEN :startDate AND :endDate " +
+            "GROUP BY e.currency, e.date")
+    List<Object[]> getDailyCurrencyTotals(@Param("startMonth") int startMonth, @Param("endMonth") int endMonth,
+                                          @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    /** Totals per category, currency and day, {@code [category, currency, date, total]}. */
+    @Query("SELECT e.category, e.currency, e.date, SUM(e.amount) FROM Expense e GROUP BY e.category, e.currency, e.date")
+    List<Object[]> getCategoryDailyCurrencyTotals();
+
+    /** Total of one category in one monthly partition ({@code yyyyMM}); null when it has no rows. */
+    @Query("SELECT SUM(e.amount) FROM Expense e WHERE e.partitionMonth = :month AND e.category = :category")
+    BigDecimal getMonthTotal(@Param("month") int month, @Param("category") ExpenseCategory category);
 }
@@ -0,0 +1,20 @@
+package com.expensetracker.repository;
+
+import com.expensetracker.model.FxRate;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+public interface FxRateRepository extends JpaRepository<FxRate, Long> {
+
+    List<FxRate> findAllByOrderByCurrencyAscEffectiveDateAsc();
+
+    List<FxRate> findByCurrencyOrderByEffectiveDate(String currency);
+
+    Optional<FxRate> findByCurrencyAndEffectiveDate(String currency, LocalDate effectiveDate);
+
+    /** The rate in effect on {@code date}: the latest one that starts on or before it. */
+    Optional<FxRate> findFirstByCurrencyAndEffectiveDateLessThanEqualOrderByEffectiveDateDesc(String currency, LocalDate date);
+}
@@ -0,0 +1,164 @@
+package com.expensetracker.repository;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * One file of the {@link ExpenseJournal}: a fixed-size, memory-mapped file that records are appended
+ * to until the next one does not fit.
+ * <p>
+ * Layout: {@code [int magic][short version][short unused][long firstSequence]}, then records of
+ * {@code [int length][int crc][long sequence][payload]}, where the CRC-32C covers the sequence and
+ * payload. The file is created at full size, so the unwritten tail reads as zeros and a zero length
+ * ends the records. A record torn by a crash fails its checksum; it and everything after it are
+ * ignored and overwritten by the next append. Appends are not thread-safe; callers synchronize.
+ * Reads may run alongside them and see every record appended before they started.
+ */
+final class JournalSegment {
+
+    private static final int MAGIC = 0x45584A4C; // "EXJL"
+    private static final short VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    static final int RECORD_OVERHEAD = 2 * Integer.BYTES + Long.BYTES;
+
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final long firstSequence;
+    private volatile int position;
+    private volatile long lastSequence;
+
+    private JournalSegment(Path path, MappedByteBuffer buffer, long firstSequence) {
+        this.path = path;
+        this.buffer = buffer;
+        this.firstSequence = firstSequence;
+        this.position = HEADER_BYTES;
+        this.lastSequence = firstSequence - 1;
+    }
+
+    /** Creates a segment of {@code size} bytes whose first record will be {@code firstSequence}. */
+    static JournalSegment create(Path path, long firstSequence, int size) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+        buffer.putInt(0, MAGIC).putShort(4, VERSION).putLong(8, firstSequence);
+        buffer.force();
+        return new JournalSegment(path, buffer, firstSequence);
+    }
+
+    /** Maps an existing segment and finds the end of its intact records. */
+    static JournalSegment open(Path path) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+        }
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a journal segment: " + path);
+        }
+        if (buffer.getShort(4) != VERSION) {
+            throw new IOException("Unsupported journal segment version " + buffer.getShort(4) + ": " + path);
+        }
+        JournalSegment segment = new JournalSegment(path, buffer, buffer.getLong(8));
+        segment.recover();
+        return segment;
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    long getFirstSequence() {
+        return firstSequence;
+    }
+
+    /** The last record's sequence, or one before {@link #getFirstSequence()} while empty. */
+    long getLastSequence() {
+        return lastSequence;
+    }
+
+    int getWrittenBytes() {
+        return position;
+    }
+
+    int getCapacity() {
+        return buffer.capacity();
+    }
+
+    /** Appends a record unless it would not fit, in which case nothing is written. */
+    boolean append(long sequence, byte[] payload) {
+        int end = position + RECORD_OVERHEAD + payload.length;
+        if (end > buffer.capacity()) {
+            return false;
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(ByteBuffer.allocate(Long.BYTES).putLong(0, sequence));
+        crc.update(payload);
+        int start = position;
+        buffer.putLong(start + 8, sequence).put(start + RECORD_OVERHEAD, payload);
+        if (end + Integer.BYTES <= buffer.capacity()) {
+            // Ends the records here even if a torn record from before a crash follows.
+            buffer.putInt(end, 0);
+        }
+        buffer.putInt(start + 4, (int) crc.getValue());
+        buffer.putInt(start, payload.length);
+        lastSequence = sequence;
+        position = end;
+        return true;
+    }
+
+    /** Writes appended records through to the disk. */
+    void force() {
+        buffer.force();
+    }
+
+    interface RecordConsumer {
+        void accept(long sequence, ByteBuffer payload);
+    }
+
+    /** Reads records with a sequence above {@code afterSequence}, in order, up to the last one appended. */
+    void forEach(long afterSequence, RecordConsumer action) {
+        scan(position, afterSequence, false, action);
+    }
+
+    // Moves the append position past the intact records.
+    private void recover() {
+        long[] last = {firstSequence - 1};
+        position = scan(buffer.capacity(), 0, true, (sequence, payload) -> last[0] = sequence);
+        lastSequence = last[0];
+    }
+
+    /** Returns the offset after the last record read. */
+    private int scan(int limit, long afterSequence, boolean verify, RecordConsumer action) {
+        ByteBuffer view = buffer.duplicate();
+        int offset = HEADER_BYTES;
+        long expected = firstSequence;
+        while (offset + RECORD_OVERHEAD <= limit) {
+            int length = view.getInt(offset);
+            if (length <= 0 || offset + RECORD_OVERHEAD + length > limit) {
+                break;
+            }
+            long sequence = view.getLong(offset + 8);
+            ByteBuffer payload = view.slice(offset + RECORD_OVERHEAD, length);
+            if (verify) {
+                CRC32C crc = new CRC32C();
+                crc.update(ByteBuffer.allocate(Long.BYTES).putLong(0, sequence));
+                crc.update(payload.duplicate());
+                if (sequence != expected || (int) crc.getValue() != view.getInt(offset + 4)) {
+                    break;
+                }
+            }
+            if (sequence > afterSequence) {
+                action.accept(sequence, payload);
+            }
+            expected = sequence + 1;
+            offset += RECORD_OVERHEAD + length;
+        }
+        return offset;
+    }
+}
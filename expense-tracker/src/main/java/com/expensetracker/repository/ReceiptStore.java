@@ -0,0 +1,143 @@
+package com.expensetracker.repository;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed receipt files under {@code expense.receipts.dir}: each file is named after the
+ * SHA-256 of its bytes, in a subdirectory named after the first two hex digits, so identical uploads
+ * are stored once. Uploads are streamed to a temp file and hashed on the way, then renamed into
+ * place, so readers never see a partial file. Files are immutable once stored. Storage is off when no
+ * directory is configured.
+ */
+@Repository
+public class ReceiptStore {
+
+    static final String TEMP_SUFFIX = ".upload";
+
+    private static final Pattern HASH = Pattern.compile("[0-9a-f]{64}");
+
+    // Bytes read from the upload per write; the whole file is never held in memory.
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @Value("${expense.receipts.dir:}")
+    private String directory = "";
+
+    @Value("${expense.receipts.max-size:10MB}")
+    private DataSize maxSize = DataSize.ofMegabytes(10);
+
+    public record Stored(String hash, long size) {
+    }
+
+    public static class TooLargeException extends IOException {
+        public TooLargeException(long maxBytes) {
+            super("Receipt exceeds " + maxBytes + " bytes");
+        }
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (!isEnabled()) {
+            return;
+        }
+        Path dir = Paths.get(directory);
+        Files.createDirectories(dir);
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : files.toList()) {
+                if (file.getFileName().toString().endsWith(TEMP_SUFFIX)) {
+                    // Left behind by an upload that never reached its rename.
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return !directory.isBlank();
+    }
+
+    public long getMaxBytes() {
+        return maxSize.toBytes();
+    }
+
+    /**
+     * Streams {@code content} into the store and returns its hash. Fails with {@link TooLargeException},
+     * storing nothing, once more than {@code expense.receipts.max-size} bytes have been read.
+     */
+    public Stored store(InputStream content) throws IOException {
+        if (!isEnabled()) {
+            throw new IllegalStateException("Receipt directory is not configured");
+        }
+        MessageDigest sha256 = sha256();
+        Path dir = Paths.get(directory);
+        Path temp = Files.createTempFile(dir, "receipt-", TEMP_SUFFIX);
+        long size = 0;
+        try {
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                int n;
+                while ((n = content.read(buffer)) > 0) {
+                    size += n;
+                    if (size > maxSize.toBytes()) {
+                        throw new TooLargeException(maxSize.toBytes());
+                    }
+                    sha256.update(buffer, 0, n);
+                    ByteBuffer bytes = ByteBuffer.wrap(buffer, 0, n);
+                    while (bytes.hasRemaining()) {
+                        out.write(bytes);
+                    }
+                }
+                out.force(true);
+            }
+            String hash = HexFormat.of().formatHex(sha256.digest());
+            Path target = path(hash);
+            Files.createDirectories(target.getParent());
+            // An existing file is identical by construction; the upload is then discarded below.
+            if (!Files.exists(target)) {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            }
+            return new Stored(hash, size);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /** The file holding {@code hash}, if it is stored here. */
+    public Optional<Path> find(String hash) {
+        if (!isEnabled() || hash == null || !HASH.matcher(hash).matches()) {
+            return Optional.empty();
+        }
+        Path file = path(hash);
+        return Files.isRegularFile(file) ? Optional.of(file) : Optional.empty();
+    }
+
+    private Path path(String hash) {
+        return Paths.get(directory).resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.expensetracker.repository;
+
+import com.expensetracker.model.ExpenseCategory;
+import com.expensetracker.model.RecurringExpense;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Cross-tenant JDBC access for the recurring expense scheduler. Due definitions are read in
+ * {@code next_due} order through {@code idx_recurring_expense_next_due}, so a tick with nothing due
+ * costs one index probe however many definitions exist.
+ */
+@Repository
+public class RecurringExpenseBulkRepository {
+
+    private static final RowMapper<RecurringExpense> ROW_MAPPER = (rs, rowNum) -> {
+        RecurringExpense recurring = new RecurringExpense(rs.getBigDecimal("amount"),
+                ExpenseCategory.valueOf(rs.getString("category")),
+                rs.getString("description"),
+                rs.getString("schedule"),
+                rs.getObject("start_date", LocalDate.class));
+        recurring.setId(rs.getLong("id"));
+        recurring.setTenantId(rs.getString("tenant_id"));
+        recurring.setCurrency(rs.getString("currency"));
+        recurring.setEndDate(rs.getObject("end_date", LocalDate.class));
+        recurring.setNextDue(rs.getObject("next_due", LocalDate.class));
+        return recurring;
+    };
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /** Up to {@code limit} definitions of any tenant due on or before {@code today}, earliest first. */
+    public List<RecurringExpense> findDue(LocalDate today, int limit) {
+        return jdbcTemplate.query("SELECT id, tenant_id, amount, currency, category, description, schedule, start_date, end_date, next_due " +
+                "FROM recurring_expense WHERE next_due <= ? ORDER BY next_due LIMIT ?", ROW_MAPPER, today, limit);
+    }
+
+    /**
+     * Moves each definition's {@code next_due} from the value that was read to the new one, in one batch.
+     * A count of zero means another run got there first and the definition must be left alone.
+     */
+    public int[] advance(List<Advance> advances) {
+        if (advances.isEmpty()) {
+            return new int[0];
+        }
+        return jdbcTemplate.batchUpdate("UPDATE recurring_expense SET next_due = ? WHERE id = ? AND next_due = ?",
+                advances, advances.size(), (ps, advance) -> {
+                    ps.setObject(1, advance.to());
+                    ps.setLong(2, advance.id());
+                    ps.setObject(3, advance.from());
+                })[0];
+    }
+
+    public record Advance(long id, LocalDate from, LocalDate to) {
+    }
+}
@@ -0,0 +1,11 @@
+package com.expensetracker.repository;
+
+import com.expensetracker.model.RecurringExpense;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface RecurringExpenseRepository extends JpaRepository<RecurringExpense, Long> {
+
+    Page<RecurringExpense> findAll(Pageable pageable);
+}
@@ -0,0 +1,11 @@
+package com.expensetracker.service;
+
+import com.expensetracker.model.ExpenseCategory;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+
+/** A tenant's spending in one category and month has reached {@code threshold} percent of its budget. */
+public record BudgetAlert(String tenantId, ExpenseCategory category, YearMonth month, int threshold,
+                          BigDecimal monthlyLimit, BigDecimal spent) {
+}
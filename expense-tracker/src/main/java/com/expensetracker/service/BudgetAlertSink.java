@@ -0,0 +1,12 @@
+package com.expensetracker.service;
+
+/**
+ * Where budget alerts go, chosen by {@code expense.budget.alert-sink}: {@code log} (default) writes
+ * them to the application log, {@code webhook} posts them as JSON to {@code expense.budget.webhook-url}.
+ * <p>
+ * Alerts are sent from the thread that made the write, so implementations must not block.
+ */
+public interface BudgetAlertSink {
+
+    void send(BudgetAlert alert);
+}
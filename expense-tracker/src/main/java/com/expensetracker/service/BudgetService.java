@@ -0,0 +1,284 @@
+package com.expensetracker.service;
+
+import com.expensetracker.config.TenantContext;
+import com.expensetracker.exception.InvalidInputException;
+import com.expensetracker.exception.ResourceNotFoundException;
+import com.expensetracker.model.Budget;
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.ExpenseCategory;
+import com.expensetracker.model.ExpensePartition;
+import com.expensetracker.repository.BudgetRepository;
+import com.expensetracker.repository.ExpenseArchiveRepository;
+import com.expensetracker.repository.ExpenseRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Monthly budgets per category, with alerts when spending reaches the percentages in
+ * {@code expense.budget.thresholds}.
+ * <p>
+ * Spending is kept as a running total in cents per tenant, month and category, for budgeted
+ * categories only. A total is read from the database the first time it is needed; after that every
+ * create and delete adjusts it with one atomic add, so writes to different categories never contend
+ * and writes to the same one never lock. Each threshold alerts at most once per category and month,
+ * from the node that made the write.
+ * <p>
+ * Limits are cached per tenant. Budgets edited on another node, and totals that a write racing their
+ * first read counted twice, are corrected by the reload every {@code expense.budget.refresh-interval}.
+ */
+@Service
+public class BudgetService {
+
+    private static final Logger log = LoggerFactory.getLogger(BudgetService.class);
+
+    @Autowired
+    private BudgetRepository budgetRepository;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private ExpenseArchiveRepository expenseArchiveRepository;
+
+    @Autowired
+    private BudgetAlertSink alertSink;
+
+    @Value("${expense.budget.thresholds:50,80,100}")
+    private List<Integer> thresholds = List.of(50, 80, 100);
+
+    // Sorted ascending; a total's alerted bits are indexed by position here.
+    private int[] thresholdPercents;
+
+    // Limits in cents by category, per tenant. Tenants without budgets map to an empty map.
+    private final Map<String, Map<ExpenseCategory, Long>> limits = new ConcurrentHashMap<>();
+
+    private final Map<TotalKey, MonthTotal> totals = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        thresholdPercents = thresholds.stream().mapToInt(Integer::intValue).sorted().distinct().toArray();
+        if (thresholdPercents.length == 0 || thresholdPercents.length > Integer.SIZE - 1 || thresholdPercents[0] < 1) {
+            throw new IllegalStateException("expense.budget.thresholds must list between 1 and 31 positive percentages");
+        }
+    }
+
+    public List<Budget> getBudgets() {
+        return budgetRepository.findAllByOrderByCategory();
+    }
+
+    public Budget setBudget(ExpenseCategory category, BigDecimal monthlyLimit) {
+        if (category == null) {
+            throw new InvalidInputException("Category cannot be null");
+        }
+        if (monthlyLimit == null || monthlyLimit.signum() <= 0) {
+            throw new InvalidInputException("Monthly limit must be positive");
+        }
+        Budget budget = budgetRepository.findByCategory(category).orElseGet(() -> new Budget(category, monthlyLimit));
+        budget.setMonthlyLimit(monthlyLimit);
+        Budget saved = budgetRepository.save(budget);
+        forget(TenantContext.getTenantId(), category);
+        return saved;
+    }
+
+    public void deleteBudget(ExpenseCategory category) {
+        Budget budget = budgetRepository.findByCategory(category)
+                .orElseThrow(() -> new ResourceNotFoundException("No budget for category " + category));
+        budgetRepository.delete(budget);
+        forget(TenantContext.getTenantId(), category);
+    }
+
+    /** Spending against each of the caller's budgets in {@code month}. */
+    public List<Map<String, Object>> getStatus(YearMonth month) {
+        String tenantId = TenantContext.getTenantId();
+        Map<ExpenseCategory, Long> tracked = limitsOf(tenantId);
+        List<Map<String, Object>> status = new ArrayList<>();
+        for (Budget budget : budgetRepository.findAllByOrderByCategory()) {
+            TotalKey key = new TotalKey(tenantId, ExpensePartition.monthKey(month), budget.getCategory());
+            long limit = cents(budget.getMonthlyLimit());
+            // A budget this node has not picked up yet is read straight from the database.
+            long spent = tracked.containsKey(budget.getCategory()) ? total(key, limit, 0).cents.get() : loadCents(key);
+            List<Integer> reached = new ArrayList<>();
+            for (int percent : thresholdPercents) {
+                if (reaches(spent, limit, percent)) {
+                    reached.add(percent);
+                }
+            }
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("category", budget.getCategory().name());
+            row.put("monthlyLimit", budget.getMonthlyLimit());
+            row.put("spent", BigDecimal.valueOf(spent, 2));
+            row.put("remaining", BigDecimal.valueOf(limit - spent, 2));
+            row.put("percentUsed", BigDecimal.valueOf(spent * 100).divide(BigDecimal.valueOf(limit), 1, RoundingMode.HALF_UP));
+            row.put("thresholdsReached", reached);
+            status.add(row);
+        }
+        return status;
+    }
+
+    @EventListener
+    public void onExpenseChanged(ExpenseChangedEvent event) {
+        if (event.type() == ExpenseChangedEvent.Type.BULK || event.type() == ExpenseChangedEvent.Type.ARCHIVED) {
+            totals.clear();
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // A restore's rows are not committed yet, so totals cannot be read around them, and they were
+            // alerted on when first written. The totals they touch are read again once it completes.
+            Set<TotalKey> keys = new HashSet<>();
+            event.expenses().forEach(expense -> keys.add(keyOf(expense)));
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    totals.keySet().removeAll(keys);
+                }
+            });
+            return;
+        }
+        Map<TotalKey, Long> deltas = new HashMap<>();
+        for (Expense expense : event.expenses()) {
+            if (limitsOf(expense.getTenantId()).containsKey(expense.getCategory())) {
+                long cents = cents(expense.getAmount());
+                deltas.merge(keyOf(expense), event.type() == ExpenseChangedEvent.Type.CREATED ? cents : -cents, Long::sum);
+            }
+        }
+        deltas.forEach((key, delta) -> {
+            long limit = limitsOf(key.tenantId()).get(key.category());
+            MonthTotal total = total(key, limit, delta);
+            long spent = total.cents.addAndGet(delta);
+            if (delta > 0) {
+                checkThresholds(key, total, limit, spent, !event.remote());
+            }
+        });
+    }
+
+    /** Drops cached limits and totals; both are read again from the database as they are needed. */
+    @Scheduled(fixedDelayString = "${expense.budget.refresh-interval:PT5M}",
+            initialDelayString = "${expense.budget.refresh-interval:PT5M}")
+    public void refresh() {
+        limits.clear();
+        totals.clear();
+    }
+
+    public int getTrackedTotalCount() {
+        return totals.size();
+    }
+
+    private Map<ExpenseCategory, Long> limitsOf(String tenantId) {
+        Map<ExpenseCategory, Long> tenantLimits = limits.get(tenantId);
+        if (tenantLimits != null) {
+            return tenantLimits;
+        }
+        Map<ExpenseCategory, Long> loaded = new EnumMap<>(ExpenseCategory.class);
+        for (Budget budget : TenantContext.callAs(tenantId, budgetRepository::findAllByOrderByCategory)) {
+            loaded.put(budget.getCategory(), cents(budget.getMonthlyLimit()));
+        }
+        tenantLimits = loaded.isEmpty() ? Map.of() : loaded;
+        Map<ExpenseCategory, Long> raced = limits.putIfAbsent(tenantId, tenantLimits);
+        return raced != null ? raced : tenantLimits;
+    }
+
+    // The database already holds the write being applied, so a freshly loaded total starts from before it.
+    private MonthTotal total(TotalKey key, long limit, long pendingDelta) {
+        MonthTotal total = totals.get(key);
+        if (total != null) {
+            return total;
+        }
+        long before = loadCents(key) - pendingDelta;
+        int alerted = 0;
+        for (int i = 0; i < thresholdPercents.length; i++) {
+            if (reaches(before, limit, thresholdPercents[i])) {
+                alerted |= 1 << i;
+            }
+        }
+        total = new MonthTotal(before, alerted);
+        MonthTotal raced = totals.putIfAbsent(key, total);
+        return raced != null ? raced : total;
+    }
+
+    private long loadCents(TotalKey key) {
+        BigDecimal hot = TenantContext.callAs(key.tenantId(), () -> expenseRepository.getMonthTotal(key.month(), key.category()));
+        BigDecimal total = hot == null ? BigDecimal.ZERO : hot;
+        if (expenseArchiveRepository.hasSegments()) {
+            total = total.add(expenseArchiveRepository.getMonthTotal(key.tenantId(), key.month(), key.category()));
+        }
+        return cents(total);
+    }
+
+    private void checkThresholds(TotalKey key, MonthTotal total, long limit, long spent, boolean notify) {
+        for (int i = 0; i < thresholdPercents.length && reaches(spent, limit, thresholdPercents[i]); i++) {
+            // Other nodes mark the threshold too, so they do not alert again on their next write.
+            if (!total.markAlerted(i) || !notify) {
+                continue;
+            }
+            BudgetAlert alert = new BudgetAlert(key.tenantId(), key.category(), ExpensePartition.toYearMonth(key.month()),
+                    thresholdPercents[i], BigDecimal.valueOf(limit, 2), BigDecimal.valueOf(spent, 2));
+            try {
+                alertSink.send(alert);
+            } catch (RuntimeException ex) {
+                // The write has committed; a failing sink must not turn it into an error.
+                log.warn("Failed to send budget alert {}", alert, ex);
+            }
+        }
+    }
+
+    private void forget(String tenantId, ExpenseCategory category) {
+        limits.remove(tenantId);
+        totals.keySet().removeIf(key -> key.tenantId().equals(tenantId) && key.category() == category);
+    }
+
+    private static TotalKey keyOf(Expense expense) {
+        return new TotalKey(expense.getTenantId(), ExpensePartition.monthKey(expense.getDate()), expense.getCategory());
+    }
+
+    private static boolean reaches(long spent, long limit, int percent) {
+        return spent * 100 >= limit * percent;
+    }
+
+    private static long cents(BigDecimal amount) {
+        return amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    private record TotalKey(String tenantId, int month, ExpenseCategory category) {
+    }
+
+    private static final class MonthTotal {
+
+        private final AtomicLong cents;
+        // Bit i is set once thresholdPercents[i] has been reached.
+        private final AtomicInteger alerted;
+
+        private MonthTotal(long cents, int alerted) {
+            this.cents = new AtomicLong(cents);
+            this.alerted = new AtomicInteger(alerted);
+        }
+
+        /** True for exactly one caller per threshold. */
+        boolean markAlerted(int threshold) {
+            int bit = 1 << threshold;
+            return (alerted.get() & bit) == 0 && (alerted.getAndUpdate(bits -> bits | bit) & bit) == 0;
+        }
+    }
+}
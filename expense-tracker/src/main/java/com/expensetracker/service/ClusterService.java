@@ -0,0 +1,59 @@
+package com.expensetracker.service;
+
+import com.expensetracker.repository.ExpenseArchiveRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+
+/**
+ * Keeps the nodes of a cluster in step. Every node shares one database; what each keeps to itself
+ * is derived state such as summary coalescing and analytics rollups. Local changes are broadcast on
+ * the {@link InvalidationBus}, and changes from other nodes are published here again as remote
+ * {@link ExpenseChangedEvent}s, so every listener handles them exactly like its own.
+ */
+@Service
+public class ClusterService {
+
+    @Autowired
+    private InvalidationBus invalidationBus;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ExpenseArchiveRepository expenseArchiveRepository;
+
+    @PostConstruct
+    public void subscribe() {
+        invalidationBus.subscribe(this::onRemoteChange);
+    }
+
+    @EventListener
+    public void onExpenseChanged(ExpenseChangedEvent event) {
+        if (!event.remote()) {
+            invalidationBus.publish(event);
+        }
+    }
+
+    public Map<String, Object> getMetrics() {
+        return invalidationBus.getMetrics();
+    }
+
+    private void onRemoteChange(ExpenseChangedEvent event) {
+        if (event.type() == ExpenseChangedEvent.Type.ARCHIVED || event.type() == ExpenseChangedEvent.Type.BULK) {
+            // Archiving elsewhere moved rows into segments this node has not opened yet.
+            try {
+                expenseArchiveRepository.refresh();
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+        eventPublisher.publishEvent(event);
+    }
+}
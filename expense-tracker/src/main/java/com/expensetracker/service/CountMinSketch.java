@@ -0,0 +1,119 @@
+package com.expensetracker.service;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Count-min sketch of string frequencies plus a bounded set of heavy-hitter candidates. Estimates
+ * never undercount while counts only grow, and overcount by at most {@code e/width} of the total
+ * with probability {@code 1 - e^-depth}. Decrements are allowed for deleted rows; the candidate set
+ * keeps the {@code capacity} keys with the highest estimates seen so far.
+ * <p>
+ * Until more than {@code capacity} distinct keys are seen, counts are kept exactly in a map and no
+ * counter table is allocated.
+ * <p>
+ * Not thread-safe; callers synchronize.
+ */
+class CountMinSketch {
+
+    private final int width;
+    private final int depth;
+    private final int capacity;
+    private Map<String, Long> exact = new HashMap<>();
+    private long[] counters;
+    private final Map<String, Long> candidates = new HashMap<>();
+
+    CountMinSketch(int width, int depth, int capacity) {
+        this.width = width;
+        this.depth = depth;
+        this.capacity = capacity;
+    }
+
+    void add(String key, long delta) {
+        if (exact != null) {
+            exact.merge(key, delta, (a, b) -> a + b == 0 ? null : a + b);
+            if (exact.size() > capacity) {
+                toCounters();
+            }
+            return;
+        }
+        long hash = HyperLogLog.hash(key);
+        for (int row = 0; row < depth; row++) {
+            counters[index(hash, row)] += delta;
+        }
+        offer(key, estimate(hash));
+    }
+
+    long estimate(String key) {
+        if (exact != null) {
+            return exact.getOrDefault(key, 0L);
+        }
+        return estimate(HyperLogLog.hash(key));
+    }
+
+    void merge(CountMinSketch other) {
+        if (other.width != width || other.depth != depth) {
+            throw new IllegalArgumentException("Cannot merge sketches of different dimensions");
+        }
+        if (other.exact != null) {
+            other.exact.forEach(this::add);
+            return;
+        }
+        toCounters();
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] += other.counters[i];
+        }
+        candidates.replaceAll((key, count) -> estimate(key));
+        other.candidates.keySet().forEach(key -> offer(key, estimate(key)));
+    }
+
+    /** Up to {@code limit} keys by descending estimated count. */
+    List<Map.Entry<String, Long>> top(int limit) {
+        Map<String, Long> source = exact != null ? exact : candidates;
+        return source.keySet().stream()
+                .map(key -> Map.entry(key, estimate(key)))
+                .filter(entry -> entry.getValue() > 0)
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .toList();
+    }
+
+    private void toCounters() {
+        if (counters != null) {
+            return;
+        }
+        counters = new long[width * depth];
+        Map<String, Long> counts = exact;
+        exact = null;
+        counts.forEach(this::add);
+    }
+
+    private void offer(String key, long estimate) {
+        if (candidates.containsKey(key) || candidates.size() < capacity) {
+            candidates.put(key, estimate);
+            return;
+        }
+        Map.Entry<String, Long> weakest = candidates.entrySet().stream()
+                .min(Comparator.comparingLong(Map.Entry::getValue))
+                .orElseThrow();
+        if (estimate > weakest.getValue()) {
+            candidates.remove(weakest.getKey());
+            candidates.put(key, estimate);
+        }
+    }
+
+    private long estimate(long hash) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters[index(hash, row)]);
+        }
+        return estimate;
+    }
+
+    private int index(long hash, int row) {
+        int combined = (int) hash + row * (int) (hash >>> 32);
+        return row * width + Math.floorMod(combined, width);
+    }
+}
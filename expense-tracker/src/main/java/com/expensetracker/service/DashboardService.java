@@ -0,0 +1,118 @@
+package com.expensetracker.service;
+
+import com.expensetracker.config.SqlStatementLog;
+import com.expensetracker.config.TenantContext;
+import com.expensetracker.model.ExpenseCategory;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Everything the dashboard shows, in one call: a page of expenses, the monthly summary and the
+ * category summary.
+ * <p>
+ * The three queries run at once on a pool of {@code expense.dashboard.threads}, each in its own
+ * read-only transaction for the caller's tenant, so a dashboard takes about as long as its slowest
+ * query. The pool's queue holds {@code expense.dashboard.queue-capacity} queries; beyond that the
+ * request thread runs them itself, so a burst slows down to sequential instead of failing.
+ */
+@Service
+public class DashboardService {
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${expense.dashboard.threads:8}")
+    private int threads = 8;
+
+    @Value("${expense.dashboard.queue-capacity:64}")
+    private int queueCapacity = 64;
+
+    private TransactionTemplate readOnly;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void init() {
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        AtomicInteger count = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueCapacity), task -> {
+            Thread thread = new Thread(task, "dashboard-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * The expense page is filtered like {@code GET /api/expenses}; the monthly summary covers
+     * {@code startDate} to {@code endDate}, or the current month when either is missing; the category
+     * summary covers all expenses.
+     */
+    public Map<String, Object> getDashboard(ExpenseCategory category, LocalDate startDate, LocalDate endDate,
+                                            String reportCurrency, Pageable pageable) {
+        LocalDate summaryStart = startDate;
+        LocalDate summaryEnd = endDate;
+        if (startDate == null || endDate == null) {
+            summaryStart = LocalDate.now().withDayOfMonth(1);
+            summaryEnd = summaryStart.plusMonths(1).minusDays(1);
+        }
+        LocalDate monthlyStart = summaryStart;
+        LocalDate monthlyEnd = summaryEnd;
+        String tenantId = TenantContext.getTenantId();
+
+        var expenses = submit(tenantId, () -> expenseService.getExpenses(category, startDate, endDate, pageable));
+        var monthlySummary = submit(tenantId, () -> expenseService.getMonthlySummary(monthlyStart, monthlyEnd, reportCurrency));
+        var categorySummary = submit(tenantId, () -> expenseService.getCategorySummary(reportCurrency));
+
+        Map<String, Object> dashboard = new LinkedHashMap<>();
+        dashboard.put("expenses", join(expenses));
+        dashboard.put("monthlySummary", join(monthlySummary));
+        dashboard.put("categorySummary", join(categorySummary));
+        return dashboard;
+    }
+
+    // The query's statements count towards the request that asked for the dashboard.
+    private <T> CompletableFuture<T> submit(String tenantId, Supplier<T> query) {
+        SqlStatementLog statements = SqlStatementLog.current();
+        return CompletableFuture.supplyAsync(() -> SqlStatementLog.callWith(statements,
+                () -> TenantContext.callAs(tenantId, () -> readOnly.execute(status -> query.get()))), executor);
+    }
+
+    // Rethrows the query's own exception, so invalid input still answers 400 as on the single endpoints.
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package com.expensetracker.service;
+
+import com.expensetracker.model.Expense;
+import com.expensetracker.repository.ExpenseFingerprintRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Recognises expenses that are already stored by their content, so overlapping bank imports do not
+ * create the same transaction twice. Entity equality cannot help here: {@link Expense} compares by
+ * id, and its hash code is a constant, so every expense would land in one bucket.
+ * <p>
+ * Each expense is fingerprinted from its date, amount, currency, category and normalized description,
+ * numbered by occurrence so that the second identical coffee of a day is not a duplicate of the first,
+ * and the fingerprint is kept in the unique {@code expense_fingerprint} table. A Bloom filter over all
+ * stored fingerprints sits in front of it: a row the filter has never seen is new without asking the
+ * database, and only the rest are looked up, in one batched query per import. Deleting an expense
+ * deletes its fingerprint; the filter keeps the stale bits, which only cost a lookup.
+ * <p>
+ * Expenses inserted in bulk outside imports (snapshot restores, journal replay, recurring occurrences)
+ * are fingerprinted from the inserted batches, each as the next free occurrence of its content.
+ * Generated sample data is not fingerprinted.
+ */
+@Service
+public class DuplicateDetector {
+
+    private static final Logger log = LoggerFactory.getLogger(DuplicateDetector.class);
+
+    // Identical expenses a single create looks past before giving up on fingerprinting it.
+    static final int MAX_OCCURRENCES = 1000;
+
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    @Autowired
+    private ExpenseFingerprintRepository expenseFingerprintRepository;
+
+    @Value("${expense.duplicates.expected-fingerprints:1000000}")
+    private long expectedFingerprints = 1_000_000;
+
+    @Value("${expense.duplicates.false-positive-rate:0.01}")
+    private double falsePositiveRate = 0.01;
+
+    // Built from the table on first use, under this; probed and filled without locking afterwards.
+    private volatile BloomFilter filter;
+
+    private final LongAdder probes = new LongAdder();
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+
+    /**
+     * Fingerprints per row, in order, and for each row the id of the expense it duplicates, or null.
+     * Rows are numbered by occurrence in the order given, after the occurrences already stored.
+     */
+    public record Classification(long[] fingerprints, Long[] duplicateOf) {
+
+        public int getDuplicateCount() {
+            int count = 0;
+            for (Long id : duplicateOf) {
+                if (id != null) {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        filter();
+    }
+
+    /**
+     * Classifies rows about to be imported. With {@code verifyAll} every fingerprint is looked up in the
+     * table, bypassing the filter; used when retrying after a concurrent import.
+     */
+    public Classification classify(String tenantId, List<Expense> rows, boolean verifyAll) {
+        long[] fingerprints = new long[rows.size()];
+        Map<Long, Integer> occurrences = new HashMap<>();
+        List<Long> candidates = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            long content = contentHash(rows.get(i));
+            fingerprints[i] = occurrence(content, occurrences.merge(content, 1, Integer::sum));
+            if (verifyAll || mightContain(tenantId, fingerprints[i])) {
+                candidates.add(fingerprints[i]);
+            }
+        }
+        probes.add(rows.size());
+        lookups.add(candidates.size());
+        Map<Long, Long> stored = expenseFingerprintRepository.findExpenseIds(tenantId, candidates);
+        falsePositives.add(candidates.size() - stored.size());
+        Long[] duplicateOf = new Long[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            duplicateOf[i] = stored.get(fingerprints[i]);
+        }
+        return new Classification(fingerprints, duplicateOf);
+    }
+
+    /** Stores fingerprints of newly inserted expenses; fails if another expense already holds one. */
+    public void register(String tenantId, List<ExpenseFingerprintRepository.Entry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        expenseFingerprintRepository.insert(tenantId, entries);
+        BloomFilter bloom = filter();
+        for (ExpenseFingerprintRepository.Entry entry : entries) {
+            bloom.put(filterKey(tenantId, entry.fingerprint()));
+        }
+    }
+
+    /** Fingerprints an expense created on its own, as the next occurrence of its content. */
+    public void registerCreated(Expense expense) {
+        String tenantId = expense.getTenantId();
+        long content = contentHash(expense);
+        for (int k = 1; k <= MAX_OCCURRENCES; k++) {
+            long fingerprint = occurrence(content, k);
+            if (mightContain(tenantId, fingerprint)
+                    && !expenseFingerprintRepository.findExpenseIds(tenantId, List.of(fingerprint)).isEmpty()) {
+                continue;
+            }
+            try {
+                register(tenantId, List.of(new ExpenseFingerprintRepository.Entry(fingerprint, expense.getId())));
+                return;
+            } catch (DataIntegrityViolationException ex) {
+                // Taken by a concurrent create of the same content; try the next occurrence.
+            }
+        }
+        log.warn("Expense {} not fingerprinted: more than {} identical expenses", expense.getId(), MAX_OCCURRENCES);
+    }
+
+    /**
+     * Fingerprints expenses inserted in bulk, each as the next occurrence of its content not yet held.
+     * The candidate occurrences of a whole batch are looked up together, so a batch costs one lookup
+     * per round, and a second round only when some content was already stored. Fails like
+     * {@link #register} if a concurrent create takes an occurrence first.
+     */
+    public void registerInserted(List<Expense> rows) {
+        Map<String, Map<Long, List<Expense>>> byTenant = new LinkedHashMap<>();
+        for (Expense row : rows) {
+            byTenant.computeIfAbsent(row.getTenantId(), t -> new LinkedHashMap<>())
+                    .computeIfAbsent(contentHash(row), c -> new ArrayList<>()).add(row);
+        }
+        byTenant.forEach((tenantId, byContent) -> {
+            List<ExpenseFingerprintRepository.Entry> entries = new ArrayList<>();
+            Map<Long, Integer> nextOccurrence = new HashMap<>();
+            while (!byContent.isEmpty()) {
+                List<Long> candidates = new ArrayList<>();
+                byContent.forEach((content, pending) -> {
+                    int from = nextOccurrence.getOrDefault(content, 1);
+                    for (int k = from; k < from + pending.size(); k++) {
+                        if (mightContain(tenantId, occurrence(content, k))) {
+                            candidates.add(occurrence(content, k));
+                        }
+                    }
+                });
+                Map<Long, Long> taken = expenseFingerprintRepository.findExpenseIds(tenantId, candidates);
+                Iterator<Map.Entry<Long, List<Expense>>> it = byContent.entrySet().iterator();
+                while (it.hasNext()) {
+                    Map.Entry<Long, List<Expense>> next = it.next();
+                    List<Expense> pending = next.getValue();
+                    int from = nextOccurrence.getOrDefault(next.getKey(), 1);
+                    int to = from + pending.size();
+                    int assigned = 0;
+                    for (int k = from; k < to; k++) {
+                        long fingerprint = occurrence(next.getKey(), k);
+                        if (!taken.containsKey(fingerprint)) {
+                            entries.add(new ExpenseFingerprintRepository.Entry(fingerprint, pending.get(assigned++).getId()));
+                        }
+                    }
+                    pending.subList(0, assigned).clear();
+                    nextOccurrence.put(next.getKey(), to);
+                    if (!pending.isEmpty() && to > MAX_OCCURRENCES) {
+                        log.warn("{} expenses not fingerprinted: more than {} identical expenses", pending.size(), MAX_OCCURRENCES);
+                        pending.clear();
+                    }
+                    if (pending.isEmpty()) {
+                        it.remove();
+                    }
+                }
+            }
+            register(tenantId, entries);
+        });
+    }
+
+    public void forget(Expense expense) {
+        expenseFingerprintRepository.deleteByExpenseId(expense.getId());
+    }
+
+    public void forget(Collection<Long> expenseIds) {
+        if (!expenseIds.isEmpty()) {
+            expenseFingerprintRepository.deleteByExpenseIds(expenseIds);
+        }
+    }
+
+    /** Drops every fingerprint; for restoring into an empty table, where none can belong to an expense. */
+    public void forgetAll() {
+        expenseFingerprintRepository.deleteAll();
+    }
+
+    public Map<String, Object> getStats() {
+        BloomFilter bloom = filter();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("fingerprints", bloom.getKeyCount());
+        stats.put("filterSizeInBytes", bloom.getSizeInBytes());
+        stats.put("expectedFalsePositiveRate", bloom.getExpectedFalsePositiveRate());
+        stats.put("probes", probes.sum());
+        stats.put("lookups", lookups.sum());
+        stats.put("falsePositives", falsePositives.sum());
+        return stats;
+    }
+
+    private boolean mightContain(String tenantId, long fingerprint) {
+        return filter().mightContain(filterKey(tenantId, fingerprint));
+    }
+
+    private BloomFilter filter() {
+        BloomFilter loaded = filter;
+        return loaded != null ? loaded : loadFilter();
+    }
+
+    private synchronized BloomFilter loadFilter() {
+        if (filter == null) {
+            long start = System.nanoTime();
+            BloomFilter loading = new BloomFilter(expectedFingerprints, falsePositiveRate);
+            expenseFingerprintRepository.forEach(10_000, (tenantId, fingerprint) -> loading.put(filterKey(tenantId, fingerprint)));
+            filter = loading;
+            log.info("Loaded {} expense fingerprints into a {} KB filter in {} ms", loading.getKeyCount(),
+                    loading.getSizeInBytes() / 1024, (System.nanoTime() - start) / 1_000_000);
+            if (loading.getKeyCount() > expectedFingerprints) {
+                log.warn("More fingerprints than expense.duplicates.expected-fingerprints ({}); raise it to keep lookups rare",
+                        expectedFingerprints);
+            }
+        }
+        return filter;
+    }
+
+    /** Hash of the fields that make two expenses the same transaction. */
+    static long contentHash(Expense expense) {
+        BigDecimal amount = expense.getAmount().stripTrailingZeros();
+        String content = expense.getDate() + "|" + amount.toPlainString() + "|" + expense.getCurrency() + "|"
+                + expense.getCategory().name() + "|" + normalizeDescription(expense.getDescription());
+        return ByteBuffer.wrap(sha256().digest(content.getBytes(StandardCharsets.UTF_8))).getLong();
+    }
+
+    /** Exports of the same bank line can differ in case, spacing, punctuation and Unicode form. */
+    static String normalizeDescription(String description) {
+        if (description == null) {
+            return "";
+        }
+        String normalized = Normalizer.normalize(description, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        return NON_ALPHANUMERIC.matcher(normalized).replaceAll(" ").strip();
+    }
+
+    /** The fingerprint of the {@code k}-th expense with {@code content}, counting from 1. */
+    static long occurrence(long content, int k) {
+        return mix(content + k * 0x9E3779B97F4A7C15L);
+    }
+
+    private static long filterKey(String tenantId, long fingerprint) {
+        return mix(fingerprint ^ (tenantId.hashCode() * 0xC2B2AE3D27D4EB4FL));
+    }
+
+    // SplitMix64 finalizer.
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,662 @@
+package com.expensetracker.service;
+
+import com.expensetracker.config.TenantContext;
+import com.expensetracker.exception.InvalidInputException;
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.ExpenseCategory;
+import com.expensetracker.model.ExpensePartition;
+import com.expensetracker.repository.ArchiveSegment;
+import com.expensetracker.repository.ExpenseArchiveRepository;
+import com.expensetracker.repository.ExpenseBulkRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Approximate analytics over every expense, hot or archived, answered from mergeable sketches kept
+ * per tenant, category and month: a KLL sketch of amounts, a HyperLogLog of descriptions and a
+ * count-min sketch of description frequencies. A query merges the caller's cells in its month range,
+ * so its cost and the memory held depend on the number of months and categories, never on the number
+ * of rows. Each cell also keeps exact sums and counts per day, which the trends are computed from.
+ * <p>
+ * A tenant's cells are built from its rows, in the table and the archive, on its first query and kept
+ * for the most recently queried {@code expense.analytics.max-tenants} tenants. Writes update loaded
+ * tenants as they are published, including while one is still loading, so the rows of imports,
+ * restores and generated datasets count without a rescan. Deletes decrement counts, day sums and
+ * frequencies straight away but the KLL and HyperLogLog cannot forget a value, so until the next
+ * {@link #refresh()} percentiles and distinct counts may still include deleted expenses. The refresh
+ * rebuilds only the months that had deletes, from that tenant's rows of that month.
+ * Archiving moves rows without changing what is counted; only a bulk change that does not say which
+ * rows it wrote, such as a cluster node catching up on lost events, drops every tenant.
+ */
+@Service
+public class ExpenseAnalyticsService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExpenseAnalyticsService.class);
+
+    static final int TOP_CAPACITY = 32;
+
+    private static final double[] PERCENTILES = {0.5, 0.9, 0.99};
+
+    static final int MAX_TREND_MONTHS = 120;
+    static final int MAX_TREND_WINDOW = 12;
+
+    private static final ExpenseCategory[] CATEGORIES = ExpenseCategory.values();
+
+    @Autowired
+    private ExpenseBulkRepository expenseBulkRepository;
+
+    @Autowired
+    private ExpenseArchiveRepository expenseArchiveRepository;
+
+    @Value("${expense.analytics.quantile-k:200}")
+    private int quantileK = 200;
+
+    @Value("${expense.analytics.hll-precision:12}")
+    private int hllPrecision = 12;
+
+    @Value("${expense.analytics.count-min-width:512}")
+    private int countMinWidth = 512;
+
+    @Value("${expense.analytics.count-min-depth:4}")
+    private int countMinDepth = 4;
+
+    @Value("${expense.analytics.run-rate-days:30}")
+    private int runRateDays = 30;
+
+    @Value("${expense.analytics.max-tenants:1000}")
+    private int maxTenants = 1000;
+
+    // Loaded tenants, least recently used first.
+    private final Map<String, TenantSketches> tenants = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, TenantSketches> eldest) {
+            return size() > maxTenants;
+        }
+    };
+
+    // Months of tenants with deletes since the last refresh.
+    private final Set<TenantMonth> stale = ConcurrentHashMap.newKeySet();
+
+    public List<Map<String, Object>> getAmountPercentiles(LocalDate startDate, LocalDate endDate, String groupBy) {
+        Predicate<CellKey> inRange = monthRange(startDate, endDate);
+        boolean byMonth;
+        if (groupBy == null || groupBy.equals("category")) {
+            byMonth = false;
+        } else if (groupBy.equals("month")) {
+            byMonth = true;
+        } else {
+            throw new InvalidInputException("groupBy must be 'category' or 'month'");
+        }
+
+        Map<Object, KllSketch> groups = new TreeMap<>();
+        cells(TenantContext.getTenantId()).forEach((key, cell) -> {
+            if (inRange.test(key)) {
+                KllSketch group = groups.computeIfAbsent(byMonth ? key.month() : key.category(), g -> new KllSketch(quantileK));
+                synchronized (cell) {
+                    group.merge(cell.amounts);
+                }
+            }
+        });
+
+        List<Map<String, Object>> result = new ArrayList<>();
+        groups.forEach((group, sketch) -> {
+            if (sketch.getCount() == 0) {
+                return;
+            }
+            Map<String, Object> row = new LinkedHashMap<>();
+            if (group instanceof Integer month) {
+                row.put("year", month / 100);
+                row.put("month", month % 100);
+            } else {
+                row.put("category", ((ExpenseCategory) group).name());
+            }
+            row.put("count", sketch.getCount());
+            row.put("min", amount(sketch.getMin()));
+            row.put("median", amount(sketch.quantile(0.5)));
+            for (double percentile : PERCENTILES) {
+                if (percentile != 0.5) {
+                    row.put("p" + Math.round(percentile * 100), amount(sketch.quantile(percentile)));
+                }
+            }
+            row.put("max", amount(sketch.getMax()));
+            result.add(row);
+        });
+        return result;
+    }
+
+    public Map<String, Object> getDescriptionStats(LocalDate startDate, LocalDate endDate, ExpenseCategory category, int top) {
+        if (top < 1 || top > TOP_CAPACITY) {
+            throw new InvalidInputException("top must be between 1 and " + TOP_CAPACITY);
+        }
+        Predicate<CellKey> inRange = monthRange(startDate, endDate);
+        HyperLogLog distinct = new HyperLogLog(hllPrecision);
+        CountMinSketch frequencies = new CountMinSketch(countMinWidth, countMinDepth, TOP_CAPACITY);
+        long count = 0;
+        for (Map.Entry<CellKey, Cell> entry : cells(TenantContext.getTenantId()).entrySet()) {
+            CellKey key = entry.getKey();
+            if (!inRange.test(key) || (category != null && key.category() != category)) {
+                continue;
+            }
+            Cell cell = entry.getValue();
+            synchronized (cell) {
+                distinct.merge(cell.descriptions);
+                frequencies.merge(cell.frequencies);
+                count += cell.count;
+            }
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("expenses", count);
+        result.put("distinctDescriptions", count == 0 ? 0 : distinct.estimate());
+        result.put("topDescriptions", frequencies.top(top).stream().map(entry -> {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("description", entry.getKey());
+            row.put("count", entry.getValue());
+            return row;
+        }).toList());
+        return result;
+    }
+
+    /**
+     * Monthly totals for the {@code months} months up to {@code asOf}'s, that month counted to
+     * {@code asOf}, with month-over-month changes and {@code window}-month moving averages; and per
+     * category the month to date, the daily run rate over the last {@code expense.analytics.run-rate-days}
+     * days and the month-end forecast it gives. Amounts are added as entered, whatever their currency.
+     * {@code asOf} defaults to today.
+     */
+    public Map<String, Object> getTrends(LocalDate asOf, int months, int window) {
+        if (asOf == null) {
+            asOf = LocalDate.now();
+        }
+        if (months < 1 || months > MAX_TREND_MONTHS) {
+            throw new InvalidInputException("months must be between 1 and " + MAX_TREND_MONTHS);
+        }
+        if (window < 1 || window > MAX_TREND_WINDOW) {
+            throw new InvalidInputException("window must be between 1 and " + MAX_TREND_WINDOW);
+        }
+        // Months before the first one shown feed its moving average and change.
+        int span = months + window - 1;
+        YearMonth first = YearMonth.from(asOf).minusMonths(span - 1);
+        int firstIndex = monthIndex(ExpensePartition.monthKey(first.atDay(1)));
+        int currentMonth = ExpensePartition.monthKey(asOf);
+        int asOfDay = dayKey(currentMonth, asOf.getDayOfMonth());
+        LocalDate runRateStart = asOf.minusDays(runRateDays - 1);
+        int runRateFirstDay = dayKey(ExpensePartition.monthKey(runRateStart), runRateStart.getDayOfMonth());
+
+        long[] totals = new long[span];
+        long[] counts = new long[span];
+        long[] monthToDate = new long[CATEGORIES.length];
+        long[] recent = new long[CATEGORIES.length];
+        cells(TenantContext.getTenantId()).forEach((key, cell) -> {
+            int index = monthIndex(key.month()) - firstIndex;
+            boolean inSpan = index >= 0 && index < span;
+            if (key.month() > currentMonth || (!inSpan && dayKey(key.month(), 31) < runRateFirstDay)) {
+                return;
+            }
+            int category = key.category().ordinal();
+            synchronized (cell) {
+                for (int day = 1; day <= 31 && dayKey(key.month(), day) <= asOfDay; day++) {
+                    long cents = cell.dayCents[day - 1];
+                    if (inSpan) {
+                        totals[index] += cents;
+                        counts[index] += cell.dayCounts[day - 1];
+                    }
+                    if (key.month() == currentMonth) {
+                        monthToDate[category] += cents;
+                    }
+                    if (dayKey(key.month(), day) >= runRateFirstDay) {
+                        recent[category] += cents;
+                    }
+                }
+            }
+        });
+
+        List<Map<String, Object>> monthRows = new ArrayList<>();
+        long windowTotal = 0;
+        for (int i = 0; i < span; i++) {
+            windowTotal += totals[i] - (i >= window ? totals[i - window] : 0);
+            if (i < window - 1) {
+                continue;
+            }
+            YearMonth month = first.plusMonths(i);
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("year", month.getYear());
+            row.put("month", month.getMonthValue());
+            row.put("total", fromCents(totals[i]));
+            row.put("count", counts[i]);
+            row.put("change", i == 0 ? null : fromCents(totals[i] - totals[i - 1]));
+            row.put("changePercent", i == 0 || totals[i - 1] == 0 ? null
+                    : BigDecimal.valueOf((totals[i] - totals[i - 1]) * 100.0 / totals[i - 1]).setScale(1, RoundingMode.HALF_UP));
+            row.put("movingAverage", fromCents(windowTotal).divide(BigDecimal.valueOf(window), 2, RoundingMode.HALF_UP));
+            if (i == span - 1) {
+                row.put("partial", asOf.getDayOfMonth() < asOf.lengthOfMonth());
+            }
+            monthRows.add(row);
+        }
+
+        int daysRemaining = asOf.lengthOfMonth() - asOf.getDayOfMonth();
+        List<Map<String, Object>> categoryRows = new ArrayList<>();
+        for (ExpenseCategory category : CATEGORIES) {
+            int c = category.ordinal();
+            if (monthToDate[c] != 0 || recent[c] != 0) {
+                Map<String, Object> row = new LinkedHashMap<>();
+                row.put("category", category.name());
+                row.putAll(runRate(monthToDate[c], recent[c], daysRemaining));
+                categoryRows.add(row);
+            }
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("asOf", asOf.toString());
+        result.put("runRateDays", runRateDays);
+        result.put("daysRemaining", daysRemaining);
+        result.put("months", monthRows);
+        result.put("categories", categoryRows);
+        result.put("forecast", runRate(Arrays.stream(monthToDate).sum(), Arrays.stream(recent).sum(), daysRemaining));
+        return result;
+    }
+
+    private Map<String, Object> runRate(long monthToDateCents, long recentCents, int daysRemaining) {
+        BigDecimal perDay = fromCents(recentCents).divide(BigDecimal.valueOf(runRateDays), 6, RoundingMode.HALF_UP);
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("monthToDate", fromCents(monthToDateCents));
+        row.put("runRate", perDay.setScale(2, RoundingMode.HALF_UP));
+        row.put("forecast", fromCents(monthToDateCents).add(perDay.multiply(BigDecimal.valueOf(daysRemaining)))
+                .setScale(2, RoundingMode.HALF_UP));
+        return row;
+    }
+
+    @EventListener
+    public void onExpenseChanged(ExpenseChangedEvent event) {
+        if (event.type() == ExpenseChangedEvent.Type.BULK) {
+            rebuild();
+            return;
+        }
+        // Archived rows are counted like those in the table, so moving them changes nothing here.
+        if (event.type() == ExpenseChangedEvent.Type.ARCHIVED) {
+            return;
+        }
+        for (Expense expense : event.expenses()) {
+            TenantSketches tenant;
+            synchronized (tenants) {
+                tenant = tenants.get(expense.getTenantId());
+            }
+            // Tenants that are not loaded pick the change up when they are first queried.
+            if (tenant == null) {
+                continue;
+            }
+            if (event.type() == ExpenseChangedEvent.Type.CREATED) {
+                tenant.onCreated(expense);
+            } else {
+                tenant.onDeleted(expense);
+                stale.add(new TenantMonth(expense.getTenantId(), ExpensePartition.monthKey(expense.getDate())));
+            }
+        }
+    }
+
+    /** Rebuilds the months with deletes since the last refresh. */
+    @Scheduled(fixedDelayString = "${expense.analytics.refresh-interval:PT30S}")
+    public void refresh() {
+        for (TenantMonth month : Set.copyOf(stale)) {
+            stale.remove(month);
+            rebuildMonth(month);
+        }
+    }
+
+    /** Drops every loaded tenant; each is loaded again from the database on its next query. */
+    public void rebuild() {
+        synchronized (tenants) {
+            tenants.clear();
+        }
+        stale.clear();
+    }
+
+    public int getLoadedTenantCount() {
+        synchronized (tenants) {
+            return tenants.size();
+        }
+    }
+
+    private Map<CellKey, Cell> cells(String tenantId) {
+        TenantSketches tenant;
+        boolean load = false;
+        synchronized (tenants) {
+            tenant = tenants.get(tenantId);
+            if (tenant == null) {
+                tenant = new TenantSketches();
+                tenants.put(tenantId, tenant);
+                load = true;
+            }
+        }
+        if (load) {
+            load(tenantId, tenant);
+        }
+        return tenant.awaitLoaded().cells;
+    }
+
+    // Builds the month's cells off to the side; changes to it meanwhile go to both, queries keep using the old ones.
+    private void rebuildMonth(TenantMonth month) {
+        TenantSketches tenant;
+        synchronized (tenants) {
+            tenant = tenants.get(month.tenantId());
+        }
+        if (tenant == null) {
+            return;
+        }
+        // Deletes replayed at the end of the load still need the month rebuilt afterwards.
+        if (!tenant.loaded.isDone()) {
+            stale.add(month);
+            return;
+        }
+        MonthRebuild rebuild = new MonthRebuild(month.month());
+        tenant.rebuilding.put(month.month(), rebuild);
+        try {
+            expenseBulkRepository.forEachOfTenantMonth(month.tenantId(), month.month(), 1000, rebuild::addScanned);
+            for (ArchiveSegment segment : expenseArchiveRepository.getSegments()) {
+                for (ArchiveSegment.MonthBlock block : segment.getMonths()) {
+                    if (block.getTenantId().equals(month.tenantId()) && block.getMonth() == month.month()) {
+                        block.forEach(rebuild::addScanned);
+                    }
+                }
+            }
+            tenant.finishRebuild(rebuild);
+        } finally {
+            tenant.rebuilding.remove(month.month(), rebuild);
+        }
+    }
+
+    private void load(String tenantId, TenantSketches tenant) {
+        try {
+            long start = System.nanoTime();
+            expenseBulkRepository.forEachOfTenant(tenantId, 1000, tenant::addScanned);
+            for (ArchiveSegment segment : expenseArchiveRepository.getSegments()) {
+                for (ArchiveSegment.MonthBlock block : segment.getMonths()) {
+                    if (block.getTenantId().equals(tenantId)) {
+                        block.forEach(tenant::addScanned);
+                    }
+                }
+            }
+            tenant.finishLoading();
+            log.debug("Loaded analytics sketches of tenant {} ({} cells) in {} ms",
+                    tenantId, tenant.cells.size(), (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException ex) {
+            synchronized (tenants) {
+                tenants.remove(tenantId, tenant);
+            }
+            tenant.loaded.completeExceptionally(ex);
+            throw ex;
+        }
+    }
+
+    private Cell newCell() {
+        return new Cell(new KllSketch(quantileK), new HyperLogLog(hllPrecision),
+                new CountMinSketch(countMinWidth, countMinDepth, TOP_CAPACITY));
+    }
+
+    private static Predicate<CellKey> monthRange(LocalDate startDate, LocalDate endDate) {
+        if (startDate != null && endDate != null && startDate.isAfter(endDate)) {
+            throw new InvalidInputException("Start date cannot be after end date");
+        }
+        int first = startDate == null ? Integer.MIN_VALUE : ExpensePartition.monthKey(startDate);
+        int last = endDate == null ? Integer.MAX_VALUE : ExpensePartition.monthKey(endDate);
+        return key -> key.month() >= first && key.month() <= last;
+    }
+
+    private static BigDecimal amount(double value) {
+        return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    private static int monthIndex(int monthKey) {
+        return monthKey / 100 * 12 + monthKey % 100 - 1;
+    }
+
+    private static int dayKey(int monthKey, int day) {
+        return monthKey * 100 + day;
+    }
+
+    private static void join(CompletableFuture<Void> loaded) {
+        try {
+            loaded.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    private record Change(Expense expense, boolean created) {
+    }
+
+    private record TenantMonth(String tenantId, int month) {
+    }
+
+    /**
+     * One tenant's cells, and the months being rebuilt. While the tenant's rows are being loaded, changes
+     * are queued and replayed afterwards against the ids the load read, so a replayed create is not
+     * counted twice and a replayed delete only takes back a row the load actually counted.
+     */
+    private final class TenantSketches {
+
+        private final Map<CellKey, Cell> cells = new ConcurrentHashMap<>();
+        private final Map<Integer, MonthRebuild> rebuilding = new ConcurrentHashMap<>();
+        private final CompletableFuture<Void> loaded = new CompletableFuture<>();
+        // Set while loading; the queue is guarded by this, the ids are only used by the loading thread.
+        private List<Change> pending = new ArrayList<>();
+        private RoaringBitmap scanned = new RoaringBitmap();
+
+        void addScanned(Expense expense) {
+            scanned.add(expense.getId());
+            cell(expense).add(expense);
+        }
+
+        synchronized void finishLoading() {
+            for (Change change : pending) {
+                Expense expense = change.expense();
+                boolean seen = scanned.contains(expense.getId());
+                if (change.created() && !seen) {
+                    scanned.add(expense.getId());
+                    cell(expense).add(expense);
+                } else if (!change.created() && seen) {
+                    scanned.remove(expense.getId());
+                    cell(expense).remove(expense);
+                }
+            }
+            pending = null;
+            scanned = null;
+            loaded.complete(null);
+        }
+
+        TenantSketches awaitLoaded() {
+            join(loaded);
+            return this;
+        }
+
+        void onCreated(Expense expense) {
+            apply(new Change(expense, true));
+        }
+
+        void onDeleted(Expense expense) {
+            apply(new Change(expense, false));
+        }
+
+        Cell cell(Expense expense) {
+            return cells.computeIfAbsent(CellKey.of(expense), key -> newCell());
+        }
+
+        void finishRebuild(MonthRebuild rebuild) {
+            synchronized (rebuild) {
+                for (Change change : rebuild.pending) {
+                    rebuild.replay(change);
+                }
+                for (ExpenseCategory category : CATEGORIES) {
+                    CellKey key = new CellKey(rebuild.month, category);
+                    Cell cell = rebuild.cells.get(category);
+                    if (cell == null) {
+                        cells.remove(key);
+                    } else {
+                        cells.put(key, cell);
+                    }
+                }
+                rebuild.done = true;
+            }
+        }
+
+        // A change to a month being rebuilt is queued for the new cells under the same lock that swaps
+        // them in, so it lands in exactly one of them.
+        private void apply(Change change) {
+            synchronized (this) {
+                if (pending != null) {
+                    pending.add(change);
+                    return;
+                }
+            }
+            MonthRebuild rebuild = rebuilding.get(ExpensePartition.monthKey(change.expense().getDate()));
+            if (rebuild != null) {
+                synchronized (rebuild) {
+                    if (!rebuild.done) {
+                        rebuild.pending.add(change);
+                    }
+                    applyLive(change);
+                }
+                return;
+            }
+            applyLive(change);
+        }
+
+        private void applyLive(Change change) {
+            if (change.created()) {
+                cell(change.expense()).add(change.expense());
+            } else {
+                Cell cell = cells.get(CellKey.of(change.expense()));
+                if (cell != null) {
+                    cell.remove(change.expense());
+                }
+            }
+        }
+    }
+
+    /**
+     * New cells for one month of a tenant. The ids of the rows scanned tell which of the changes made
+     * during the scan it already reflects: creates of rows it saw and deletes of rows it did not.
+     */
+    private final class MonthRebuild {
+
+        private final int month;
+        private final Map<ExpenseCategory, Cell> cells = new EnumMap<>(ExpenseCategory.class);
+        private final Set<Long> scanned = new HashSet<>();
+        private final List<Change> pending = new ArrayList<>();
+        private boolean done;
+
+        MonthRebuild(int month) {
+            this.month = month;
+        }
+
+        void addScanned(Expense expense) {
+            scanned.add(expense.getId());
+            cells.computeIfAbsent(expense.getCategory(), category -> newCell()).add(expense);
+        }
+
+        void replay(Change change) {
+            Expense expense = change.expense();
+            boolean seen = scanned.contains(expense.getId());
+            if (change.created() && !seen) {
+                scanned.add(expense.getId());
+                cells.computeIfAbsent(expense.getCategory(), category -> newCell()).add(expense);
+            } else if (!change.created() && seen) {
+                scanned.remove(expense.getId());
+                Cell cell = cells.get(expense.getCategory());
+                if (cell != null) {
+                    cell.remove(expense);
+                }
+            }
+        }
+    }
+
+    private record CellKey(int month, ExpenseCategory category) {
+
+        static CellKey of(Expense expense) {
+            return new CellKey(ExpensePartition.monthKey(expense.getDate()), expense.getCategory());
+        }
+    }
+
+    /** Sketches for one category in one month. */
+    private static final class Cell {
+
+        private final KllSketch amounts;
+        private final HyperLogLog descriptions;
+        private final CountMinSketch frequencies;
+        // Exact sums in cents and counts, indexed by day of the month minus one.
+        private final long[] dayCents = new long[31];
+        private final long[] dayCounts = new long[31];
+        private long count;
+
+        private Cell(KllSketch amounts, HyperLogLog descriptions, CountMinSketch frequencies) {
+            this.amounts = amounts;
+            this.descriptions = descriptions;
+            this.frequencies = frequencies;
+        }
+
+        synchronized void add(Expense expense) {
+            count++;
+            int day = expense.getDate().getDayOfMonth() - 1;
+            dayCents[day] += cents(expense);
+            dayCounts[day]++;
+            amounts.add(expense.getAmount().doubleValue());
+            String description = description(expense);
+            if (description != null) {
+                descriptions.add(HyperLogLog.hash(description));
+                frequencies.add(description, 1);
+            }
+        }
+
+        synchronized void remove(Expense expense) {
+            count = Math.max(0, count - 1);
+            int day = expense.getDate().getDayOfMonth() - 1;
+            if (dayCounts[day] > 0) {
+                dayCents[day] -= cents(expense);
+                dayCounts[day]--;
+            }
+            String description = description(expense);
+            if (description != null) {
+                frequencies.add(description, -1);
+            }
+        }
+
+        private static long cents(Expense expense) {
+            return expense.getAmount().movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+        }
+
+        private static String description(Expense expense) {
+            String description = expense.getDescription();
+            return description == null || description.isBlank() ? null : description.strip();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.expensetracker.service;
+
+import com.expensetracker.exception.InvalidInputException;
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.ExpensePartition;
+import com.expensetracker.repository.ArchiveSegment;
+import com.expensetracker.repository.ExpenseArchiveRepository;
+import com.expensetracker.repository.ExpensePartitionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moves monthly partitions older than {@code expense.archive.horizon-months} out of the hot table
+ * into archive segments, one segment per partition.
+ * <p>
+ * Order of operations: the segment is fsynced first, then the partition's rows are dropped, then the
+ * segment becomes visible to reads. A crash in between leaves a segment whose rows are still hot;
+ * {@link #reconcile()} finishes the drop on the next start.
+ */
+@Service
+public class ExpenseArchiveService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExpenseArchiveService.class);
+
+    @Autowired
+    private ExpensePartitionRepository expensePartitionRepository;
+
+    @Autowired
+    private ExpenseArchiveRepository expenseArchiveRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${expense.archive.horizon-months:12}")
+    private int horizonMonths = 12;
+
+    @Value("${expense.archive.scheduled:false}")
+    private boolean scheduled;
+
+    public List<Map<String, Object>> getSegments() {
+        return expenseArchiveRepository.getSegments().stream().map(segment -> {
+            Map<String, Object> segmentMap = new LinkedHashMap<>();
+            segmentMap.put("file", segment.getPath().getFileName().toString());
+            segmentMap.put("months", segment.getMonths().stream().map(ArchiveSegment.MonthBlock::getMonth).toList());
+            segmentMap.put("rows", segment.getRowCount());
+            segmentMap.put("sizeInBytes", segment.getSizeInBytes());
+            return segmentMap;
+        }).collect(java.util.stream.Collectors.toList());
+    }
+
+    @Scheduled(cron = "${expense.archive.cron:0 30 2 * * *}")
+    public void archiveOnSchedule() {
+        if (scheduled && expenseArchiveRepository.isEnabled()) {
+            archiveOlderThanHorizon();
+        }
+    }
+
+    public synchronized List<ExpensePartition> archiveOlderThanHorizon() {
+        if (!expenseArchiveRepository.isEnabled()) {
+            throw new InvalidInputException("Archiving is disabled; set expense.archive.dir to enable it");
+        }
+        int cutoff = ExpensePartition.monthKey(YearMonth.now().minusMonths(horizonMonths));
+        List<ExpensePartition> archived = new ArrayList<>();
+        for (ExpensePartition partition : expensePartitionRepository.findOlderThan(cutoff)) {
+            List<Expense> rows = expensePartitionRepository.findRows(partition.month());
+            if (rows.isEmpty()) {
+                continue;
+            }
+            ArchiveSegment segment = expenseArchiveRepository.write(rows);
+            long maxId = rows.stream().mapToLong(Expense::getId).max().orElseThrow();
+            expensePartitionRepository.dropUpTo(partition.month(), maxId);
+            expenseArchiveRepository.register(segment);
+
+            BigDecimal total = rows.stream().map(Expense::getAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
+            archived.add(new ExpensePartition(partition.month(), rows.size(), total));
+            log.info("Archived partition {} ({} rows, {} bytes) to {}",
+                    partition.month(), rows.size(), segment.getSizeInBytes(), segment.getPath().getFileName());
+        }
+        if (!archived.isEmpty()) {
+            eventPublisher.publishEvent(ExpenseChangedEvent.archived());
+        }
+        return archived;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcile() {
+        boolean changed = false;
+        for (ArchiveSegment segment : expenseArchiveRepository.getSegments()) {
+            for (ArchiveSegment.MonthBlock block : segment.getMonths()) {
+                int dropped = expensePartitionRepository.dropUpTo(block.getMonth(), block.getMaxId());
+                if (dropped > 0) {
+                    changed = true;
+                    log.warn("Dropped {} hot rows of partition {} already present in {}",
+                            dropped, block.getMonth(), segment.getPath().getFileName());
+                }
+            }
+        }
+        if (changed) {
+            eventPublisher.publishEvent(ExpenseChangedEvent.bulk());
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.expensetracker.service;
+
+import com.expensetracker.model.Expense;
+
+import java.util.List;
+
+/**
+ * Published after a write to the expense data has committed. {@code expenses} are the rows that were
+ * created or deleted, so derived state can apply them one by one. A snapshot restore publishes the rows
+ * it writes while its transaction is still open. {@link Type#ARCHIVED} moves rows from the table to
+ * archive segments, and after a {@link Type#BULK} change, which does not say which rows it wrote,
+ * derived state should be rebuilt rather than updated.
+ * <p>
+ * {@code remote} events describe a write made by another node of the cluster; they arrive through
+ * the {@link InvalidationBus} and are not broadcast again.
+ */
+public record ExpenseChangedEvent(Type type, List<Expense> expenses, boolean remote) {
+
+    public enum Type {
+        CREATED,
+        DELETED,
+        BULK,
+        ARCHIVED
+    }
+
+    public ExpenseChangedEvent {
+        expenses = List.copyOf(expenses);
+    }
+
+    public static ExpenseChangedEvent created(Expense expense) {
+        return created(List.of(expense));
+    }
+
+    public static ExpenseChangedEvent created(List<Expense> expenses) {
+        return new ExpenseChangedEvent(Type.CREATED, expenses, false);
+    }
+
+    public static ExpenseChangedEvent deleted(Expense expense) {
+        return deleted(List.of(expense));
+    }
+
+    public static ExpenseChangedEvent deleted(List<Expense> expenses) {
+        return new ExpenseChangedEvent(Type.DELETED, expenses, false);
+    }
+
+    public static ExpenseChangedEvent bulk() {
+        return new ExpenseChangedEvent(Type.BULK, List.of(), false);
+    }
+
+    public static ExpenseChangedEvent archived() {
+        return new ExpenseChangedEvent(Type.ARCHIVED, List.of(), false);
+    }
+
+    public ExpenseChangedEvent asRemote() {
+        return new ExpenseChangedEvent(type, expenses, true);
+    }
+}
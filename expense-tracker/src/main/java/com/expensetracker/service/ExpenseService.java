@@ -1,21 +1,51 @@
 package com.expensetracker.service;
 
+import com.expensetracker.config.FlightEvents;
+import com.expensetracker.config.TenantContext;
 import com.expensetracker.exception.InvalidInputException;
 import com.expensetracker.exception.ResourceNotFoundException;
 import com.expensetracker.model.Expense;
 import com.expensetracker.model.ExpenseCategory;
+import com.expensetracker.model.ExpensePartition;
+import com.expensetracker.repository.ExpenseArchiveRepository;
+import com.expensetracker.repository.ExpenseBulkRepository;
+import com.expensetracker.repository.ExpenseFingerprintRepository;
+import com.expensetracker.repository.ExpenseJournal;
+import com.expensetracker.repository.ExpensePartitionRepository;
 import com.expensetracker.repository.ExpenseRepository;
+import com.expensetracker.repository.OffsetPageRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
 
 @Service
 public class ExpenseService {
@@ -23,31 +53,248 @@ public class ExpenseService {
     @Autowired
     private ExpenseRepository expenseRepository;
 
+    @Autowired
+    private ExpensePartitionRepository expensePartitionRepository;
+
+    @Autowired
+    private ExpenseArchiveRepository expenseArchiveRepository;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private FxRateService fxRateService;
+
+    @Autowired
+    private ExpenseTagIndex expenseTagIndex;
+
+    @Autowired
+    private DuplicateDetector duplicateDetector;
+
+    @Autowired
+    private ExpenseBulkRepository expenseBulkRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ExpenseJournal expenseJournal;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${expense.import.max-rows:10000}")
+    private int maxImportRows = 10000;
+
+    // Ids a tag filter may hand the database; above this the query must be narrowed.
+    @Value("${expense.tags.max-matches:10000}")
+    private long maxTagMatches = 10000;
+
+    // Dashboard refreshes fan out into many identical summary calls; concurrent ones share one query.
+    // Keys lead with the tenant, so a write only cuts off coalescing for its own tenant.
+    private final SingleFlight<List<Object>, List<Map<String, Object>>> monthlySummaryFlight = new SingleFlight<>();
+    private final SingleFlight<List<Object>, List<Map<String, Object>>> categorySummaryFlight = new SingleFlight<>();
+
+    /** The list endpoint's query: by category if given, else by date range if both dates are given, else all. */
+    public Page<Expense> getExpenses(ExpenseCategory category, LocalDate startDate, LocalDate endDate, Pageable pageable) {
+        if (category != null) {
+            return FlightEvents.service("getExpenses", "category", () -> getExpensesByCategory(category, pageable));
+        } else if (startDate != null && endDate != null) {
+            return FlightEvents.service("getExpenses", "dateRange", () -> getExpensesByDateRange(startDate, endDate, pageable));
+        } else {
+            return FlightEvents.service("getExpenses", "all", () -> getAllExpenses(pageable));
+        }
+    }
+
+    /**
+     * Expenses matching a tag filter, optionally narrowed by category and date range. Tags, category and
+     * the range's months are resolved to ids in the {@link ExpenseTagIndex}; the database then reads
+     * only those rows, and is not asked at all when none match. The match cap applies to these ids, so
+     * a date range keeps a large tag usable. Archived expenses are not tag-indexed and never match.
+     */
+    public Page<Expense> getExpensesByTags(ExpenseTagIndex.TagFilter tags, ExpenseCategory category,
+                                           LocalDate startDate, LocalDate endDate, Pageable pageable) {
+        if ((startDate == null) != (endDate == null)) {
+            throw new InvalidInputException("Start date and end date must be given together");
+        }
+        if (startDate != null && startDate.isAfter(endDate)) {
+            throw new InvalidInputException("Start date cannot be after end date");
+        }
+        String filter = tags.describe() + (category != null ? ",category" : "") + (startDate != null ? ",dateRange" : "");
+        return FlightEvents.service("getExpenses", filter, () -> {
+            RoaringBitmap matches = expenseTagIndex.match(
+                    TenantContext.getTenantId(), tags, category, startDate, endDate);
+            if (matches.isEmpty()) {
+                return Page.empty(pageable);
+            }
+            long count = matches.getCardinality();
+            if (count > maxTagMatches) {
+                throw new InvalidInputException("Tag filter matches " + count + " expenses, more than "
+                        + maxTagMatches + (startDate == null ? "; add tags, a category or a date range"
+                        : " in the months of the date range; add tags or a category, or narrow the range"));
+            }
+            List<Long> ids = Arrays.stream(matches.toArray()).boxed().toList();
+            if (startDate == null) {
+                // The index already counted the matches, so only the page itself is read.
+                return new PageImpl<>(expenseRepository.findByIdIn(ids, pageable), pageable, count);
+            }
+            return expenseRepository.findByIdInAndDateBetween(ids, startDate, endDate, pageable);
+        });
+    }
+
+    /** The caller's tags with how many expenses carry each, most used first. */
+    public List<Map<String, Object>> getTagCounts() {
+        return expenseTagIndex.getTagCounts(TenantContext.getTenantId());
+    }
+
     public Page<Expense> getAllExpenses(Pageable pageable) {
-        return expenseRepository.findAll(pageable);
+        return withArchive(ExpenseArchiveRepository.Filter.all(TenantContext.getTenantId()), pageable, expenseRepository::findAll);
     }
 
     public Expense getExpenseById(Long id) {
-        return expenseRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Expense not found with id " + id));
+        return FlightEvents.service("getExpenseById", "id", () -> expenseRepository.findById(id)
+                .or(() -> expenseArchiveRepository.findById(TenantContext.getTenantId(), id))
+                .orElseThrow(() -> new ResourceNotFoundException("Expense not found with id " + id)));
     }
 
     public Expense createExpense(Expense expense) {
-        return expenseRepository.save(expense);
+        Expense saved = insert(expense);
+        expenseJournal.append(ExpenseJournal.Type.CREATED, saved);
+        duplicateDetector.registerCreated(saved);
+        eventPublisher.publishEvent(ExpenseChangedEvent.created(saved));
+        return saved;
+    }
+
+    public Expense createExpense(Expense expense, String idempotencyKey) {
+        // The insert joins the transaction that records the key, so it commits only with the key.
+        IdempotencyService.Outcome outcome = idempotencyService.execute(idempotencyKey, () -> insert(expense));
+        // Replays, and inserts rolled back because another node won the key, are not announced.
+        if (outcome.created()) {
+            expenseJournal.append(ExpenseJournal.Type.CREATED, outcome.expense());
+            duplicateDetector.registerCreated(outcome.expense());
+            eventPublisher.publishEvent(ExpenseChangedEvent.created(outcome.expense()));
+        }
+        return outcome.expense();
+    }
+
+    // Saves in a transaction that marks the row for the journal before it commits (see ExpenseJournal#markInserted).
+    private Expense insert(Expense expense) {
+        return transactionTemplate.execute(status -> {
+            Expense saved = expenseRepository.save(expense);
+            expenseJournal.markInserted(List.of(saved));
+            return saved;
+        });
+    }
+
+    /**
+     * Inserts a batch of expenses, such as a bank export, in one transaction, recognising those already
+     * stored by content through the {@link DuplicateDetector}. Duplicates are left out when
+     * {@code skipDuplicates} is set and inserted otherwise; either way each is reported with the id of
+     * the expense it repeats.
+     */
+    public Map<String, Object> importExpenses(List<Expense> rows, boolean skipDuplicates) {
+        if (rows == null || rows.isEmpty()) {
+            throw new InvalidInputException("Nothing to import");
+        }
+        if (rows.size() > maxImportRows) {
+            throw new InvalidInputException("At most " + maxImportRows + " expenses can be imported at once");
+        }
+        String tenantId = TenantContext.getTenantId();
+        LocalDateTime now = LocalDateTime.now();
+        for (Expense row : rows) {
+            row.setId(null);
+            row.setTenantId(tenantId);
+            row.setCreatedAt(now);
+        }
+        DuplicateDetector.Classification classification;
+        try {
+            classification = importRows(tenantId, rows, skipDuplicates, false);
+        } catch (DataIntegrityViolationException ex) {
+            // A concurrent import committed some of the same transactions first; check every row against the table.
+            try {
+                classification = importRows(tenantId, rows, skipDuplicates, true);
+            } catch (DataIntegrityViolationException again) {
+                throw new InvalidInputException("Another import of the same expenses is in progress; retry");
+            }
+        }
+
+        List<Expense> inserted = new ArrayList<>();
+        List<Map<String, Object>> duplicates = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            Long duplicateOf = classification.duplicateOf()[i];
+            if (duplicateOf != null) {
+                Map<String, Object> duplicate = new LinkedHashMap<>();
+                duplicate.put("index", i);
+                duplicate.put("duplicateOf", duplicateOf);
+                duplicate.put("id", skipDuplicates ? null : rows.get(i).getId());
+                duplicates.add(duplicate);
+            }
+            if (duplicateOf == null || !skipDuplicates) {
+                inserted.add(rows.get(i));
+            }
+        }
+        expenseJournal.append(ExpenseJournal.Type.CREATED, inserted);
+        if (!inserted.isEmpty()) {
+            eventPublisher.publishEvent(ExpenseChangedEvent.created(inserted));
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("received", rows.size());
+        result.put("imported", inserted.size());
+        result.put("duplicates", duplicates.size());
+        result.put("skipped", skipDuplicates ? duplicates.size() : 0);
+        result.put("duplicateRows", duplicates);
+        return result;
+    }
+
+    private DuplicateDetector.Classification importRows(String tenantId, List<Expense> rows, boolean skipDuplicates,
+                                                        boolean verifyAll) {
+        DuplicateDetector.Classification classification = duplicateDetector.classify(tenantId, rows, verifyAll);
+        List<Expense> inserts = new ArrayList<>();
+        List<Integer> fingerprinted = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            boolean duplicate = classification.duplicateOf()[i] != null;
+            if (!duplicate) {
+                fingerprinted.add(i);
+            }
+            if (!duplicate || !skipDuplicates) {
+                inserts.add(rows.get(i));
+            }
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            expenseBulkRepository.insert(inserts);
+            expenseJournal.markInserted(inserts);
+            // Inserted duplicates are not fingerprinted again: the expense they repeat already holds the fingerprint.
+            List<ExpenseFingerprintRepository.Entry> entries = new ArrayList<>(fingerprinted.size());
+            for (int i : fingerprinted) {
+                entries.add(new ExpenseFingerprintRepository.Entry(classification.fingerprints()[i], rows.get(i).getId()));
+            }
+            duplicateDetector.register(tenantId, entries);
+        });
+        return classification;
     }
 
     public void deleteExpense(Long id) {
-        if (!expenseRepository.existsById(id)) {
+        Optional<Expense> expense = expenseRepository.findById(id);
+        if (expense.isEmpty()) {
+            if (expenseArchiveRepository.hasSegments() && expenseArchiveRepository.findById(TenantContext.getTenantId(), id).isPresent()) {
+                throw new InvalidInputException("Expense " + id + " is archived and cannot be deleted");
+            }
             throw new ResourceNotFoundException("Expense not found with id " + id);
         }
-        expenseRepository.deleteById(id);
+        expenseRepository.delete(expense.get());
+        duplicateDetector.forget(expense.get());
+        expenseJournal.awaitJournaled(id);
+        expenseJournal.append(ExpenseJournal.Type.DELETED, expense.get());
+        eventPublisher.publishEvent(ExpenseChangedEvent.deleted(expense.get()));
     }
 
     public Page<Expense> getExpensesByCategory(ExpenseCategory category, Pageable pageable) {
         if (category == null) {
             throw new InvalidInputException("Category cannot be null");
         }
-        return expenseRepository.findByCategory(category, pageable);
+        return withArchive(ExpenseArchiveRepository.Filter.byCategory(TenantContext.getTenantId(), category), pageable,
+                page -> expenseRepository.findByCategory(category, page));
     }
 
     public Page<Expense> getExpensesByDateRange(LocalDate startDate, LocalDate endDate, Pageable pageable) {
@@ -57,26 +304,273 @@ public class ExpenseService {
         if (startDate.isAfter(endDate)) {
             throw new InvalidInputException("Start date cannot be after end date");
         }
-        return expenseRepository.findByDateBetween(startDate, endDate, pageable);
+        return withArchive(ExpenseArchiveRepository.Filter.byDateRange(TenantContext.getTenantId(), startDate, endDate), pageable,
+                page -> expenseRepository.findByDateBetween(startDate, endDate, page));
     }
 
     public List<Map<String, Object>> getMonthlySummary(LocalDate startDate, LocalDate endDate) {
+        return getMonthlySummary(startDate, endDate, null);
+    }
+
+    /**
+     * Totals per month. With a report currency each amount is converted at the rate in effect on its
+     * day; without one, amounts are added as entered, whatever their currency.
+     */
+    public List<Map<String, Object>> getMonthlySummary(LocalDate startDate, LocalDate endDate, String reportCurrency) {
         if (startDate == null || endDate == null) {
             throw new InvalidInputException("Start date and end date cannot be null");
         }
         if (startDate.isAfter(endDate)) {
             throw new InvalidInputException("Start date cannot be after end date");
         }
-        return expenseRepository.getMonthlySummary(startDate, endDate);
+        if (reportCurrency != null) {
+            FxRateService.checkCurrency(reportCurrency);
+        }
+        String tenantId = TenantContext.getTenantId();
+        return FlightEvents.service("getMonthlySummary", reportCurrency == null ? "dateRange" : "dateRange,reportCurrency",
+                () -> monthlySummaryFlight.execute(Arrays.asList(tenantId, startDate, endDate, reportCurrency),
+                        () -> reportCurrency == null
+                                ? computeMonthlySummary(tenantId, startDate, endDate)
+                                : computeConvertedMonthlySummary(tenantId, startDate, endDate, reportCurrency)));
+    }
+
+    private List<Map<String, Object>> computeMonthlySummary(String tenantId, LocalDate startDate, LocalDate endDate) {
+        List<Map<String, Object>> hotSummary = expenseRepository.getMonthlySummary(startDate, endDate);
+        if (!expenseArchiveRepository.hasSegments()) {
+            return Collections.unmodifiableList(hotSummary);
+        }
+        NavigableMap<Integer, BigDecimal> totals = expenseArchiveRepository.getMonthlySummary(tenantId, startDate, endDate);
+        if (totals.isEmpty()) {
+            return Collections.unmodifiableList(hotSummary);
+        }
+        for (Map<String, Object> row : hotSummary) {
+            int month = ((Number) row.get("year")).intValue() * 100 + ((Number) row.get("month")).intValue();
+            totals.merge(month, (BigDecimal) row.get("total"), BigDecimal::add);
+        }
+        return totals.entrySet().stream().map(entry -> {
+            Map<String, Object> summaryMap = new HashMap<>();
+            summaryMap.put("year", entry.getKey() / 100);
+            summaryMap.put("month", entry.getKey() % 100);
+            summaryMap.put("total", entry.getValue());
+            return summaryMap;
+        }).toList();
+    }
+
+    // The database groups rows by day and currency, so only one total per group is converted.
+    private List<Map<String, Object>> computeConvertedMonthlySummary(String tenantId, LocalDate startDate, LocalDate endDate,
+                                                                     String reportCurrency) {
+        NavigableMap<Integer, BigDecimal> totals = new TreeMap<>();
+        for (Object[] row : expenseRepository.getDailyCurrencyTotals(startDate, endDate)) {
+            LocalDate date = (LocalDate) row[1];
+            totals.merge(ExpensePartition.monthKey(date),
+                    fxRateService.convert((BigDecimal) row[2], (String) row[0], date, reportCurrency), BigDecimal::add);
+        }
+        if (expenseArchiveRepository.hasSegments()) {
+            var filter = ExpenseArchiveRepository.Filter.byDateRange(tenantId, startDate, endDate);
+            for (ExpenseArchiveRepository.CurrencyTotal total : expenseArchiveRepository.getCurrencyTotals(filter, reportCurrency)) {
+                totals.merge(total.month(), fxRateService.convert(total.total(), total.currency(), total.date(), reportCurrency),
+                        BigDecimal::add);
+            }
+        }
+        return totals.entrySet().stream().map(entry -> {
+            Map<String, Object> summaryMap = new HashMap<>();
+            summaryMap.put("year", entry.getKey() / 100);
+            summaryMap.put("month", entry.getKey() % 100);
+            summaryMap.put("total", entry.getValue().setScale(2, RoundingMode.HALF_UP));
+            summaryMap.put("currency", reportCurrency);
+            return summaryMap;
+        }).toList();
     }
 
     public List<Map<String, Object>> getCategorySummary() {
+        return getCategorySummary(null);
+    }
+
+    /** Totals per category, converted as in {@link #getMonthlySummary(LocalDate, LocalDate, String)}. */
+    public List<Map<String, Object>> getCategorySummary(String reportCurrency) {
+        if (reportCurrency != null) {
+            FxRateService.checkCurrency(reportCurrency);
+        }
+        String tenantId = TenantContext.getTenantId();
+        return FlightEvents.service("getCategorySummary", reportCurrency == null ? "" : "reportCurrency",
+                () -> categorySummaryFlight.execute(Arrays.asList(tenantId, reportCurrency),
+                        () -> reportCurrency == null
+                                ? computeCategorySummary(tenantId)
+                                : computeConvertedCategorySummary(tenantId, reportCurrency)));
+    }
+
+    private List<Map<String, Object>> computeCategorySummary(String tenantId) {
         List<Object[]> rawSummary = expenseRepository.getCategorySummary();
-        return rawSummary.stream().map(row -> {
+        Map<ExpenseCategory, BigDecimal> archived = expenseArchiveRepository.hasSegments()
+                ? new EnumMap<>(expenseArchiveRepository.getCategorySummary(tenantId))
+                : new EnumMap<>(ExpenseCategory.class);
+        List<Map<String, Object>> summary = rawSummary.stream().map(row -> {
             Map<String, Object> summaryMap = new HashMap<>();
+            BigDecimal archivedTotal = archived.remove((ExpenseCategory) row[0]);
             summaryMap.put("category", ((ExpenseCategory) row[0]).name());
-            summaryMap.put("total", row[1]);
+            summaryMap.put("total", archivedTotal == null ? row[1] : archivedTotal.add((BigDecimal) row[1]));
             return summaryMap;
         }).collect(java.util.stream.Collectors.toList());
+        archived.forEach((category, total) -> {
+            Map<String, Object> summaryMap = new HashMap<>();
+            summaryMap.put("category", category.name());
+            summaryMap.put("total", total);
+            summary.add(summaryMap);
+        });
+        return Collections.unmodifiableList(summary);
+    }
+
+    private List<Map<String, Object>> computeConvertedCategorySummary(String tenantId, String reportCurrency) {
+        Map<ExpenseCategory, BigDecimal> totals = new EnumMap<>(ExpenseCategory.class);
+        for (Object[] row : expenseRepository.getCategoryDailyCurrencyTotals()) {
+            totals.merge((ExpenseCategory) row[0],
+                    fxRateService.convert((BigDecimal) row[3], (String) row[1], (LocalDate) row[2], reportCurrency), BigDecimal::add);
+        }
+        if (expenseArchiveRepository.hasSegments()) {
+            var filter = ExpenseArchiveRepository.Filter.all(tenantId);
+            for (ExpenseArchiveRepository.CurrencyTotal total : expenseArchiveRepository.getCurrencyTotals(filter, reportCurrency)) {
+                totals.merge(total.category(), fxRateService.convert(total.total(), total.currency(), total.date(), reportCurrency),
+                        BigDecimal::add);
+            }
+        }
+        List<Map<String, Object>> summary = new ArrayList<>();
+        totals.forEach((category, total) -> {
+            Map<String, Object> summaryMap = new HashMap<>();
+            summaryMap.put("category", category.name());
+            summaryMap.put("total", total.setScale(2, RoundingMode.HALF_UP));
+            summaryMap.put("currency", reportCurrency);
+            summary.add(summaryMap);
+        });
+        return Collections.unmodifiableList(summary);
+    }
+
+    /** Calls and collapsed calls per coalesced summary query. */
+    public Map<String, Object> getCoalescingMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("monthlySummary", monthlySummaryFlight.getMetrics());
+        metrics.put("categorySummary", categorySummaryFlight.getMetrics());
+        return metrics;
+    }
+
+    @EventListener
+    public void onExpenseChanged(ExpenseChangedEvent event) {
+        if (event.type() == ExpenseChangedEvent.Type.BULK || event.type() == ExpenseChangedEvent.Type.ARCHIVED) {
+            monthlySummaryFlight.invalidate();
+            categorySummaryFlight.invalidate();
+            return;
+        }
+        Set<String> tenantIds = new HashSet<>();
+        event.expenses().forEach(expense -> tenantIds.add(expense.getTenantId()));
+        monthlySummaryFlight.invalidateIf(key -> tenantIds.contains(key.get(0)));
+        categorySummaryFlight.invalidateIf(key -> tenantIds.contains(key.get(0)));
+    }
+
+    public List<ExpensePartition> getPartitions() {
+        return expensePartitionRepository.findAll(TenantContext.getTenantId());
+    }
+
+    /**
+     * Stitches archived rows onto a hot-table page. Unsorted pages list archived rows first, as they
+     * are the older ones. Sorted pages merge both sources on the requested sort: the first
+     * {@code offset + size} rows of each are read in that order and merged, so deep pages cost more.
+     * The archive yields date order directly; any other leading sort reads and sorts every archived
+     * row matching the filter.
+     */
+    private Page<Expense> withArchive(ExpenseArchiveRepository.Filter filter, Pageable pageable,
+                                      Function<Pageable, Page<Expense>> hot) {
+        if (!expenseArchiveRepository.hasSegments()) {
+            return hot.apply(pageable);
+        }
+        long archived = expenseArchiveRepository.count(filter);
+        if (archived == 0) {
+            return hot.apply(pageable);
+        }
+        Sort sort = pageable.getSort();
+        if (pageable.isUnpaged()) {
+            List<Expense> content = new ArrayList<>(expenseArchiveRepository.find(filter, 0, Integer.MAX_VALUE, false));
+            content.addAll(hot.apply(pageable).getContent());
+            if (sort.isSorted()) {
+                content.sort(comparator(sort));
+            }
+            return new PageImpl<>(content);
+        }
+
+        long offset = pageable.getOffset();
+        int size = pageable.getPageSize();
+        if (sort.isUnsorted()) {
+            List<Expense> content = new ArrayList<>(size);
+            if (offset < archived) {
+                content.addAll(expenseArchiveRepository.find(filter, offset, size, false));
+            }
+            int remaining = size - content.size();
+            Page<Expense> hotPage = hot.apply(new OffsetPageRequest(Math.max(0, offset - archived), Math.max(remaining, 1), sort));
+            if (remaining > 0) {
+                content.addAll(hotPage.getContent());
+            }
+            return new PageImpl<>(content, pageable, archived + hotPage.getTotalElements());
+        }
+
+        Comparator<Expense> order = comparator(sort);
+        int needed = (int) Math.min(Integer.MAX_VALUE - 1, offset + size);
+        Sort.Order first = sort.iterator().next();
+        List<Expense> archivedRows;
+        if (first.getProperty().equals("date")) {
+            archivedRows = new ArrayList<>(expenseArchiveRepository.find(filter, 0, needed, first.isDescending()));
+            archivedRows.sort(order);
+        } else {
+            archivedRows = expenseArchiveRepository.find(filter, 0, Integer.MAX_VALUE, false).stream()
+                    .sorted(order).limit(needed).toList();
+        }
+        Page<Expense> hotPage = hot.apply(new OffsetPageRequest(0, needed, sort));
+        List<Expense> hotRows = hotPage.getContent();
+
+        List<Expense> content = new ArrayList<>(size);
+        int a = 0;
+        int h = 0;
+        for (long position = 0; position < offset + size; position++) {
+            boolean archivedNext = a < archivedRows.size()
+                    && (h == hotRows.size() || order.compare(archivedRows.get(a), hotRows.get(h)) <= 0);
+            if (!archivedNext && h == hotRows.size()) {
+                break;
+            }
+            // Ties go to the archived row, the older of the two.
+            Expense next = archivedNext ? archivedRows.get(a++) : hotRows.get(h++);
+            if (position >= offset) {
+                content.add(next);
+            }
+        }
+        return new PageImpl<>(content, pageable, archived + hotPage.getTotalElements());
+    }
+
+    /** In-memory equivalent of {@code sort} for merging archived rows with the database's. */
+    private static Comparator<Expense> comparator(Sort sort) {
+        Comparator<Expense> result = null;
+        for (Sort.Order order : sort) {
+            String property = order.getProperty();
+            // Database order puts nulls first ascending and last descending, as reversing this does.
+            Comparator<Expense> next = Comparator.comparing(expense -> sortValue(expense, property),
+                    Comparator.nullsFirst(Comparator.naturalOrder()));
+            if (order.isDescending()) {
+                next = next.reversed();
+            }
+            result = result == null ? next : result.thenComparing(next);
+        }
+        return result;
+    }
+
+    private static Comparable<Object> sortValue(Expense expense, String property) {
+        Comparable<?> value = switch (property) {
+            case "id" -> expense.getId();
+            case "amount" -> expense.getAmount();
+            case "currency" -> expense.getCurrency();
+            case "category" -> expense.getCategory() != null ? expense.getCategory().name() : null;
+            case "description" -> expense.getDescription();
+            case "date" -> expense.getDate();
+            case "createdAt" -> expense.getCreatedAt();
+            default -> throw new InvalidInputException("Cannot sort by " + property + " when archived expenses match");
+        };
+        @SuppressWarnings("unchecked")
+        Comparable<Object> comparable = (Comparable<Object>) value;
+        return comparable;
     }
 }
@@ -0,0 +1,304 @@
+package com.expensetracker.service;
+
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.ExpenseCategory;
+import com.expensetracker.model.TagListConverter;
+import com.expensetracker.repository.ExpenseBulkRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * In-memory index from tag, from category and from month to the ids of a tenant's expenses, held as
+ * {@link RoaringBitmap}s. A tag filter is answered by intersecting, uniting and subtracting bitmaps,
+ * so the database is only asked for the rows that match, by id. A date range narrows the match to the
+ * months it touches; the database applies the exact days.
+ * <p>
+ * A tenant's index is built from its rows on its first query and kept for the most recently queried
+ * {@code expense.tags.max-tenants} tenants. Creates and deletes update loaded indexes as they are
+ * published, including while a tenant is still loading; bulk changes drop everything. Archived
+ * expenses keep their tags but are not indexed, so tag filters only match expenses in the database.
+ */
+@Service
+public class ExpenseTagIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ExpenseTagIndex.class);
+
+    @Autowired
+    private ExpenseBulkRepository expenseBulkRepository;
+
+    @Value("${expense.tags.max-tenants:1000}")
+    private int maxTenants = 1000;
+
+    // Loaded tenants, least recently used first.
+    private final Map<String, TenantIndex> tenants = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, TenantIndex> eldest) {
+            return size() > maxTenants;
+        }
+    };
+
+    /**
+     * Expenses with every tag in {@code allOf}, at least one in {@code anyOf} when it is not empty, and
+     * none in {@code noneOf}. Tags are normalized like an expense's own.
+     */
+    public record TagFilter(List<String> allOf, List<String> anyOf, List<String> noneOf) {
+
+        public TagFilter {
+            allOf = TagListConverter.normalize(allOf);
+            anyOf = TagListConverter.normalize(anyOf);
+            noneOf = TagListConverter.normalize(noneOf);
+        }
+
+        public boolean isEmpty() {
+            return allOf.isEmpty() && anyOf.isEmpty() && noneOf.isEmpty();
+        }
+
+        /** The filter's shape, for profiling: which lists are used, never the tags. */
+        public String describe() {
+            List<String> used = new ArrayList<>();
+            if (!allOf.isEmpty()) {
+                used.add("tags");
+            }
+            if (!anyOf.isEmpty()) {
+                used.add("anyTags");
+            }
+            if (!noneOf.isEmpty()) {
+                used.add("excludeTags");
+            }
+            return String.join(",", used);
+        }
+    }
+
+    /**
+     * Ids of the tenant's expenses that match {@code filter} and, if given, {@code category}. With a
+     * date range only expenses in the months from {@code startDate} to {@code endDate} are included, so
+     * the result may still hold days of the first and last month outside the range.
+     */
+    public RoaringBitmap match(String tenantId, TagFilter filter, ExpenseCategory category,
+                               LocalDate startDate, LocalDate endDate) {
+        return index(tenantId).match(filter, category, startDate, endDate);
+    }
+
+    /** The tenant's tags with the number of expenses carrying each, most used first. */
+    public List<Map<String, Object>> getTagCounts(String tenantId) {
+        return index(tenantId).tagCounts();
+    }
+
+    @EventListener
+    public void onExpenseChanged(ExpenseChangedEvent event) {
+        // Archived rows leave the index, and nothing says which rows archiving moved.
+        if (event.type() == ExpenseChangedEvent.Type.BULK || event.type() == ExpenseChangedEvent.Type.ARCHIVED) {
+            rebuild();
+            return;
+        }
+        for (Expense expense : event.expenses()) {
+            TenantIndex index;
+            synchronized (tenants) {
+                index = tenants.get(expense.getTenantId());
+            }
+            // Tenants that are not loaded pick the change up when they are first queried.
+            if (index == null) {
+                continue;
+            }
+            if (event.type() == ExpenseChangedEvent.Type.CREATED) {
+                index.add(expense);
+            } else {
+                index.remove(expense);
+            }
+        }
+    }
+
+    /** Drops every loaded tenant; each is rebuilt from the database on its next query. */
+    public void rebuild() {
+        synchronized (tenants) {
+            tenants.clear();
+        }
+    }
+
+    public int getLoadedTenantCount() {
+        synchronized (tenants) {
+            return tenants.size();
+        }
+    }
+
+    private TenantIndex index(String tenantId) {
+        TenantIndex index;
+        boolean load = false;
+        synchronized (tenants) {
+            index = tenants.get(tenantId);
+            if (index == null) {
+                index = new TenantIndex();
+                tenants.put(tenantId, index);
+                load = true;
+            }
+        }
+        if (load) {
+            load(tenantId, index);
+        }
+        return index.awaitLoaded();
+    }
+
+    private void load(String tenantId, TenantIndex index) {
+        try {
+            long start = System.nanoTime();
+            expenseBulkRepository.forEachOfTenant(tenantId, 1000, index::add);
+            index.finishLoading();
+            log.debug("Loaded tag index of tenant {} ({} tags) in {} ms",
+                    tenantId, index.tagCount(), (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException ex) {
+            synchronized (tenants) {
+                tenants.remove(tenantId, index);
+            }
+            index.loaded.completeExceptionally(ex);
+            throw ex;
+        }
+    }
+
+    /**
+     * One tenant's bitmaps. Adding is idempotent, so creates published while the rows are scanned are
+     * simply applied; a delete may race with the scan having read the row already, so deleted ids are
+     * remembered until the scan ends and removed again then.
+     */
+    private static final class TenantIndex {
+
+        private final RoaringBitmap all = new RoaringBitmap();
+        private final RoaringBitmap[] byCategory = new RoaringBitmap[ExpenseCategory.values().length];
+        private final Map<String, RoaringBitmap> byTag = new HashMap<>();
+        private final TreeMap<YearMonth, RoaringBitmap> byMonth = new TreeMap<>();
+        private final CompletableFuture<Void> loaded = new CompletableFuture<>();
+        private List<Expense> deletedWhileLoading = new ArrayList<>();
+
+        TenantIndex() {
+            for (int i = 0; i < byCategory.length; i++) {
+                byCategory[i] = new RoaringBitmap();
+            }
+        }
+
+        synchronized void add(Expense expense) {
+            long id = expense.getId();
+            all.add(id);
+            byCategory[expense.getCategory().ordinal()].add(id);
+            byMonth.computeIfAbsent(YearMonth.from(expense.getDate()), m -> new RoaringBitmap()).add(id);
+            for (String tag : expense.getTags()) {
+                byTag.computeIfAbsent(tag, t -> new RoaringBitmap()).add(id);
+            }
+        }
+
+        synchronized void remove(Expense expense) {
+            if (deletedWhileLoading != null) {
+                deletedWhileLoading.add(expense);
+            }
+            long id = expense.getId();
+            all.remove(id);
+            byCategory[expense.getCategory().ordinal()].remove(id);
+            YearMonth month = YearMonth.from(expense.getDate());
+            RoaringBitmap monthIds = byMonth.get(month);
+            if (monthIds != null) {
+                monthIds.remove(id);
+                if (monthIds.isEmpty()) {
+                    byMonth.remove(month);
+                }
+            }
+            for (String tag : expense.getTags()) {
+                RoaringBitmap ids = byTag.get(tag);
+                if (ids != null) {
+                    ids.remove(id);
+                    if (ids.isEmpty()) {
+                        byTag.remove(tag);
+                    }
+                }
+            }
+        }
+
+        synchronized void finishLoading() {
+            List<Expense> deleted = deletedWhileLoading;
+            deletedWhileLoading = null;
+            deleted.forEach(this::remove);
+            loaded.complete(null);
+        }
+
+        synchronized RoaringBitmap match(TagFilter filter, ExpenseCategory category,
+                                         LocalDate startDate, LocalDate endDate) {
+            RoaringBitmap base = category == null ? all : byCategory[category.ordinal()];
+            RoaringBitmap result = base;
+            if (startDate != null) {
+                RoaringBitmap months = new RoaringBitmap();
+                for (RoaringBitmap ids : byMonth.subMap(YearMonth.from(startDate), true,
+                        YearMonth.from(endDate), true).values()) {
+                    months = RoaringBitmap.or(months, ids);
+                }
+                result = RoaringBitmap.and(result, months);
+            }
+            for (String tag : filter.allOf()) {
+                RoaringBitmap ids = byTag.get(tag);
+                if (ids == null) {
+                    return new RoaringBitmap();
+                }
+                result = RoaringBitmap.and(result, ids);
+            }
+            if (!filter.anyOf().isEmpty()) {
+                RoaringBitmap any = new RoaringBitmap();
+                for (String tag : filter.anyOf()) {
+                    RoaringBitmap ids = byTag.get(tag);
+                    if (ids != null) {
+                        any = RoaringBitmap.or(any, ids);
+                    }
+                }
+                result = RoaringBitmap.and(result, any);
+            }
+            for (String tag : filter.noneOf()) {
+                RoaringBitmap ids = byTag.get(tag);
+                if (ids != null) {
+                    result = RoaringBitmap.andNot(result, ids);
+                }
+            }
+            // The caller reads the result outside this lock, so it must not be one of the live bitmaps.
+            return result == base ? base.copy() : result;
+        }
+
+        synchronized List<Map<String, Object>> tagCounts() {
+            List<Map<String, Object>> counts = new ArrayList<>();
+            byTag.forEach((tag, ids) -> {
+                Map<String, Object> row = new LinkedHashMap<>();
+                row.put("tag", tag);
+                row.put("count", ids.getCardinality());
+                counts.add(row);
+            });
+            counts.sort(Comparator.<Map<String, Object>>comparingLong(row -> -(long) row.get("count"))
+                    .thenComparing(row -> (String) row.get("tag")));
+            return counts;
+        }
+
+        synchronized int tagCount() {
+            return byTag.size();
+        }
+
+        TenantIndex awaitLoaded() {
+            try {
+                loaded.join();
+                return this;
+            } catch (CompletionException ex) {
+                if (ex.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw ex;
+            }
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.expensetracker.service;
+
+import com.expensetracker.exception.InvalidInputException;
+import com.expensetracker.exception.ResourceNotFoundException;
+import com.expensetracker.model.FxRate;
+import com.expensetracker.repository.FxRateRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Date-effective exchange rates and the conversions summaries use.
+ * <p>
+ * Every rate is stored against the base currency, so converting between any two currencies takes at
+ * most two rows. Summaries convert one total per day and currency rather than one per expense, and
+ * the cross rate for each (day, pair) is kept in an LRU cache of {@code expense.fx.cache-size} entries.
+ * Rate edits clear the cache on the node that made them; other nodes reload after
+ * {@code expense.fx.refresh-interval}.
+ */
+@Service
+public class FxRateService {
+
+    private static final Pattern CURRENCY_CODE = Pattern.compile("[A-Z]{3}");
+
+    @Autowired
+    private FxRateRepository fxRateRepository;
+
+    @Value("${expense.fx.base-currency:USD}")
+    private String baseCurrency = "USD";
+
+    @Value("${expense.fx.cache-size:10000}")
+    private int cacheSize = 10_000;
+
+    // Cross rates by day and pair, least recently used first.
+    private final Map<RateKey, BigDecimal> cache = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<RateKey, BigDecimal> eldest) {
+            return size() > cacheSize;
+        }
+    };
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public String getBaseCurrency() {
+        return baseCurrency;
+    }
+
+    public List<FxRate> getRates(String currency) {
+        return currency == null
+                ? fxRateRepository.findAllByOrderByCurrencyAscEffectiveDateAsc()
+                : fxRateRepository.findByCurrencyOrderByEffectiveDate(checkCurrency(currency));
+    }
+
+    public FxRate setRate(String currency, LocalDate effectiveDate, BigDecimal rate) {
+        checkCurrency(currency);
+        if (currency.equals(baseCurrency)) {
+            throw new InvalidInputException("The base currency " + baseCurrency + " always has rate 1");
+        }
+        if (effectiveDate == null) {
+            throw new InvalidInputException("Effective date cannot be null");
+        }
+        if (rate == null || rate.signum() <= 0) {
+            throw new InvalidInputException("Rate must be positive");
+        }
+        FxRate fxRate = fxRateRepository.findByCurrencyAndEffectiveDate(currency, effectiveDate)
+                .orElseGet(() -> new FxRate(currency, effectiveDate, rate));
+        fxRate.setRate(rate);
+        FxRate saved = fxRateRepository.save(fxRate);
+        clearCache();
+        return saved;
+    }
+
+    public void deleteRate(String currency, LocalDate effectiveDate) {
+        FxRate fxRate = fxRateRepository.findByCurrencyAndEffectiveDate(checkCurrency(currency), effectiveDate)
+                .orElseThrow(() -> new ResourceNotFoundException("No " + currency + " rate effective " + effectiveDate));
+        fxRateRepository.delete(fxRate);
+        clearCache();
+    }
+
+    /** Validates an ISO 4217 code and returns it. */
+    public static String checkCurrency(String currency) {
+        if (currency == null || !CURRENCY_CODE.matcher(currency).matches()) {
+            throw new InvalidInputException("Currency must be a three-letter ISO 4217 code: " + currency);
+        }
+        return currency;
+    }
+
+    /**
+     * {@code amount} in {@code from} converted to {@code to} at the rates in effect on {@code date}, unrounded.
+     * A null date is only allowed when the currencies are the same.
+     */
+    public BigDecimal convert(BigDecimal amount, String from, LocalDate date, String to) {
+        return from.equals(to) ? amount : amount.multiply(getRate(date, from, to), MathContext.DECIMAL64);
+    }
+
+    /** Units of {@code to} per unit of {@code from} on {@code date}. */
+    public BigDecimal getRate(LocalDate date, String from, String to) {
+        if (from.equals(to)) {
+            return BigDecimal.ONE;
+        }
+        RateKey key = new RateKey(date, from, to);
+        BigDecimal rate;
+        synchronized (cache) {
+            rate = cache.get(key);
+        }
+        if (rate != null) {
+            hits.increment();
+            return rate;
+        }
+        misses.increment();
+        rate = toBase(from, date).divide(toBase(to, date), MathContext.DECIMAL64);
+        synchronized (cache) {
+            cache.put(key, rate);
+        }
+        return rate;
+    }
+
+    @Scheduled(fixedDelayString = "${expense.fx.refresh-interval:PT5M}", initialDelayString = "${expense.fx.refresh-interval:PT5M}")
+    public void clearCache() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    public Map<String, Object> getCacheMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        synchronized (cache) {
+            metrics.put("size", cache.size());
+        }
+        metrics.put("maxSize", cacheSize);
+        metrics.put("hits", hits.sum());
+        metrics.put("misses", misses.sum());
+        return metrics;
+    }
+
+    private BigDecimal toBase(String currency, LocalDate date) {
+        if (currency.equals(baseCurrency)) {
+            return BigDecimal.ONE;
+        }
+        return fxRateRepository.findFirstByCurrencyAndEffectiveDateLessThanEqualOrderByEffectiveDateDesc(currency, date)
+                .map(FxRate::getRate)
+                .orElseThrow(() -> new InvalidInputException("No " + currency + " exchange rate in effect on " + date));
+    }
+
+    private record RateKey(LocalDate date, String from, String to) {
+    }
+}
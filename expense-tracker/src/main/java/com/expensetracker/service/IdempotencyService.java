@@ -0,0 +1,235 @@
+package com.expensetracker.service;
+
+import com.expensetracker.config.TenantContext;
+import com.expensetracker.exception.InvalidInputException;
+import com.expensetracker.exception.ResourceNotFoundException;
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.IdempotencyKey;
+import com.expensetracker.repository.ExpenseRepository;
+import com.expensetracker.repository.IdempotencyKeyRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Deduplicates retried creates by {@code Idempotency-Key}.
+ * <p>
+ * A bounded, time-expiring {@link ConcurrentHashMap} answers repeat keys in O(1) without a global lock;
+ * concurrent requests carrying the same key share one in-flight future. The {@code idempotency_key}
+ * table is the source of truth, so a key evicted from memory, or first seen by another node, still
+ * resolves to the original expense. Keys are scoped per tenant: two tenants may use the same key.
+ */
+@Service
+public class IdempotencyService {
+
+    static final int MAX_KEY_LENGTH = 255;
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${expense.idempotency.ttl:24h}")
+    private Duration ttl = Duration.ofHours(24);
+
+    @Value("${expense.idempotency.max-entries:100000}")
+    private int maxEntries = 100_000;
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    private final AtomicLong evictionPasses = new AtomicLong();
+
+    /**
+     * The expense a key resolved to. {@code created} is set only when this call's transaction, which
+     * ran {@code create} and recorded the key, committed; replays, and a create rolled back because
+     * another node recorded the key first, leave it unset.
+     */
+    public record Outcome(Expense expense, boolean created) {
+    }
+
+    /**
+     * Runs {@code create} at most once per key within the TTL and returns the expense it produced.
+     * {@code create} is executed in the same transaction that records the key.
+     */
+    public Outcome execute(String clientKey, Supplier<Expense> create) {
+        validate(clientKey);
+        String key = TenantContext.getTenantId() + ':' + clientKey;
+        for (;;) {
+            long now = System.nanoTime();
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                Entry claimed = new Entry(now + ttl.toNanos());
+                if (entries.putIfAbsent(key, claimed) == null) {
+                    evictIfFull();
+                    return resolve(key, claimed, create);
+                }
+            } else if (entry.isExpired(now)) {
+                entries.remove(key, entry);
+            } else {
+                return new Outcome(await(entry), false);
+            }
+        }
+    }
+
+    int cachedEntries() {
+        return entries.size();
+    }
+
+    long evictionPasses() {
+        return evictionPasses.get();
+    }
+
+    int cachedEntries(String tenantId) {
+        return (int) entries.keySet().stream().filter(key -> tenantOf(key).equals(tenantId)).count();
+    }
+
+    @Scheduled(fixedDelayString = "${expense.idempotency.purge-interval:PT10M}")
+    public void purgeExpired() {
+        long now = System.nanoTime();
+        entries.values().removeIf(entry -> entry.isExpired(now));
+        idempotencyKeyRepository.deleteCreatedBefore(LocalDateTime.now().minus(ttl));
+    }
+
+    private Outcome resolve(String key, Entry claimed, Supplier<Expense> create) {
+        try {
+            Outcome outcome = findRecorded(key).map(expense -> new Outcome(expense, false))
+                    .orElseGet(() -> createAndRecord(key, create));
+            claimed.result.complete(outcome.expense());
+            return outcome;
+        } catch (RuntimeException ex) {
+            // Forget failures so the client's next retry gets a fresh attempt.
+            entries.remove(key, claimed);
+            claimed.result.completeExceptionally(ex);
+            throw ex;
+        }
+    }
+
+    private Outcome createAndRecord(String key, Supplier<Expense> create) {
+        try {
+            Expense created = transactionTemplate.execute(status -> {
+                Expense expense = create.get();
+                idempotencyKeyRepository.saveAndFlush(new IdempotencyKey(key, expense.getId(), LocalDateTime.now()));
+                return expense;
+            });
+            return new Outcome(created, true);
+        } catch (DataIntegrityViolationException ex) {
+            // Another node committed the same key first and this create was rolled back with the key;
+            // its expense is the original response.
+            return new Outcome(findRecorded(key).orElseThrow(() -> ex), false);
+        }
+    }
+
+    private Optional<Expense> findRecorded(String key) {
+        // Rows past the TTL are honoured until the next purge; the key stays unique either way.
+        return idempotencyKeyRepository.findById(key)
+                .map(recorded -> expenseRepository.findById(recorded.getExpenseId())
+                        .orElseThrow(() -> new ResourceNotFoundException(
+                                "Expense created for idempotency key " + key + " no longer exists")));
+    }
+
+    // A full pass walks every entry, so it frees a tenth of the cache: the next one is that many inserts away.
+    private void evictIfFull() {
+        if (entries.size() <= maxEntries || !evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            evictionPasses.incrementAndGet();
+            int target = maxEntries - Math.max(1, maxEntries / 10);
+            long now = System.nanoTime();
+            entries.values().removeIf(entry -> entry.isExpired(now));
+            // Still above the target: drop completed entries of the tenants holding more than a fair share, so one
+            // busy tenant cannot push everyone else's keys out. The table answers for them from here on.
+            Map<String, Integer> perTenant = new HashMap<>();
+            entries.keySet().forEach(key -> perTenant.merge(tenantOf(key), 1, Integer::sum));
+            int share = fairShare(perTenant.values(), target);
+            Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+            while (entries.size() > target && it.hasNext()) {
+                Map.Entry<String, Entry> next = it.next();
+                String tenantId = tenantOf(next.getKey());
+                if (next.getValue().result.isDone() && perTenant.get(tenantId) > share) {
+                    it.remove();
+                    perTenant.merge(tenantId, -1, Integer::sum);
+                }
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    /** The largest per-tenant limit under which the tenants' entries fit in {@code capacity}. */
+    static int fairShare(Collection<Integer> counts, int capacity) {
+        int low = 0;
+        int high = counts.stream().mapToInt(Integer::intValue).max().orElse(0);
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            long used = 0;
+            for (int count : counts) {
+                used += Math.min(count, mid);
+            }
+            if (used <= capacity) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    private static String tenantOf(String key) {
+        return key.substring(0, key.indexOf(':'));
+    }
+
+    private static Expense await(Entry entry) {
+        try {
+            return entry.result.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    private static void validate(String key) {
+        if (key.isBlank()) {
+            throw new InvalidInputException("Idempotency-Key cannot be blank");
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new InvalidInputException("Idempotency-Key must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+    }
+
+    private static final class Entry {
+        final CompletableFuture<Expense> result = new CompletableFuture<>();
+        final long expiresAt;
+
+        Entry(long expiresAt) {
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired(long now) {
+            return now - expiresAt > 0;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.expensetracker.service;
+
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Carries {@link ExpenseChangedEvent}s between the nodes of a cluster, so each node can keep its
+ * summary coalescing and analytics rollups in step with writes made elsewhere. Implementations are
+ * chosen with {@code expense.cluster.bus}: {@code none} (a single node), {@code local} (nodes in one
+ * JVM, for tests) or {@code socket} (nodes on one host, over loopback TCP).
+ * <p>
+ * Delivery is best effort. A bus that may have lost events delivers a {@link ExpenseChangedEvent.Type#BULK}
+ * event instead, after which receivers rebuild rather than update.
+ */
+public interface InvalidationBus {
+
+    /** Sends a local change to every other node. */
+    void publish(ExpenseChangedEvent event);
+
+    /** Registers a receiver of changes made by other nodes; events are marked remote. */
+    void subscribe(Consumer<ExpenseChangedEvent> listener);
+
+    Map<String, Object> getMetrics();
+}
@@ -0,0 +1,81 @@
+package com.expensetracker.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Connects every node started in the same JVM, e.g. several application contexts in a test.
+ * Events are handed to the other nodes synchronously on the publishing thread, so a write is
+ * visible everywhere by the time its request returns.
+ */
+@Component
+@ConditionalOnProperty(name = "expense.cluster.bus", havingValue = "local")
+public class LocalInvalidationBus implements InvalidationBus {
+
+    private static final Logger log = LoggerFactory.getLogger(LocalInvalidationBus.class);
+
+    private static final List<LocalInvalidationBus> NODES = new CopyOnWriteArrayList<>();
+
+    private final List<Consumer<ExpenseChangedEvent>> listeners = new CopyOnWriteArrayList<>();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder received = new LongAdder();
+
+    @PostConstruct
+    public void join() {
+        NODES.add(this);
+    }
+
+    @PreDestroy
+    public void leave() {
+        NODES.remove(this);
+    }
+
+    @Override
+    public void publish(ExpenseChangedEvent event) {
+        ExpenseChangedEvent remote = event.asRemote();
+        for (LocalInvalidationBus node : NODES) {
+            if (node != this) {
+                sent.increment();
+                node.deliver(remote);
+            }
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<ExpenseChangedEvent> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("bus", "local");
+        metrics.put("peers", NODES.size() - 1);
+        metrics.put("sent", sent.sum());
+        metrics.put("received", received.sum());
+        return metrics;
+    }
+
+    private void deliver(ExpenseChangedEvent event) {
+        received.increment();
+        for (Consumer<ExpenseChangedEvent> listener : listeners) {
+            try {
+                listener.accept(event);
+            } catch (RuntimeException ex) {
+                // The write already committed; the receiving node must not fail the sender's request.
+                log.warn("Failed to apply a {} event from another node", event.type(), ex);
+            }
+        }
+    }
+}
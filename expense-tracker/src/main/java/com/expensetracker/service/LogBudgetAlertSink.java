@@ -0,0 +1,19 @@
+package com.expensetracker.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConditionalOnProperty(name = "expense.budget.alert-sink", havingValue = "log", matchIfMissing = true)
+public class LogBudgetAlertSink implements BudgetAlertSink {
+
+    private static final Logger log = LoggerFactory.getLogger(LogBudgetAlertSink.class);
+
+    @Override
+    public void send(BudgetAlert alert) {
+        log.warn("Budget alert: tenant {} has spent {} of {} on {} in {} ({}% threshold)", alert.tenantId(),
+                alert.spent(), alert.monthlyLimit(), alert.category(), alert.month(), alert.threshold());
+    }
+}
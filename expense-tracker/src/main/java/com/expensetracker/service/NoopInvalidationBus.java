@@ -0,0 +1,26 @@
+package com.expensetracker.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.function.Consumer;
+
+/** The bus of a node running on its own: nothing to tell, nothing to hear. */
+@Component
+@ConditionalOnProperty(name = "expense.cluster.bus", havingValue = "none", matchIfMissing = true)
+public class NoopInvalidationBus implements InvalidationBus {
+
+    @Override
+    public void publish(ExpenseChangedEvent event) {
+    }
+
+    @Override
+    public void subscribe(Consumer<ExpenseChangedEvent> listener) {
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        return Map.of("bus", "none");
+    }
+}
@@ -0,0 +1,136 @@
+package com.expensetracker.service;
+
+import com.expensetracker.config.FlightEvents;
+import com.expensetracker.exception.InvalidInputException;
+import com.expensetracker.exception.ResourceNotFoundException;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Flight recordings started on demand, so a misbehaving node can be profiled without a restart.
+ * <p>
+ * One recording runs at a time. It uses the JDK's {@code expense.profiling.settings} configuration
+ * ({@code profile} samples methods and allocations; {@code default} is lighter), enables the
+ * {@link FlightEvents} with the thresholds below, and stops by itself after its duration, which may
+ * not exceed {@code expense.profiling.max-duration}. At most {@code expense.profiling.max-size} is
+ * kept on disk. A recording can be dumped while it runs and after it stops, until it is closed or
+ * another one starts.
+ */
+@Service
+public class ProfilingService {
+
+    @Value("${expense.profiling.settings:profile}")
+    private String settings = "profile";
+
+    @Value("${expense.profiling.max-duration:PT15M}")
+    private Duration maxDuration = Duration.ofMinutes(15);
+
+    @Value("${expense.profiling.max-size:100MB}")
+    private DataSize maxSize = DataSize.ofMegabytes(100);
+
+    @Value("${expense.profiling.request-threshold:PT0.01S}")
+    private Duration requestThreshold = Duration.ofMillis(10);
+
+    @Value("${expense.profiling.service-threshold:PT0.005S}")
+    private Duration serviceThreshold = Duration.ofMillis(5);
+
+    @Value("${expense.profiling.sql-threshold:PT0.001S}")
+    private Duration sqlThreshold = Duration.ofMillis(1);
+
+    private Recording recording;
+
+    // The last dump; replaced by the next one, so dumps do not pile up on disk.
+    private Path dump;
+
+    public synchronized Map<String, Object> start(Duration duration) {
+        Duration length = duration == null ? maxDuration : duration;
+        if (length.isNegative() || length.isZero() || length.compareTo(maxDuration) > 0) {
+            throw new InvalidInputException("Duration must be positive and at most " + maxDuration);
+        }
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            throw new InvalidInputException("A recording is already running; stop it first");
+        }
+        close();
+        Recording started;
+        try {
+            started = new Recording(Configuration.getConfiguration(settings));
+        } catch (IOException | ParseException ex) {
+            throw new IllegalStateException("Cannot read flight recorder settings '" + settings + "'", ex);
+        }
+        started.setName("expense-tracker");
+        started.setToDisk(true);
+        started.setDuration(length);
+        started.setMaxSize(maxSize.toBytes());
+        started.enable(FlightEvents.Request.class).withThreshold(requestThreshold);
+        started.enable(FlightEvents.ServiceCall.class).withThreshold(serviceThreshold);
+        started.enable(FlightEvents.SqlStatement.class).withThreshold(sqlThreshold);
+        started.start();
+        recording = started;
+        return getStatus();
+    }
+
+    public synchronized Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        if (recording == null) {
+            status.put("state", "NONE");
+            return status;
+        }
+        status.put("state", recording.getState().name());
+        status.put("settings", settings);
+        status.put("startTime", recording.getStartTime());
+        status.put("duration", recording.getDuration());
+        status.put("sizeInBytes", recording.getSize());
+        return status;
+    }
+
+    /** Writes what has been recorded so far to a file and returns it. */
+    public synchronized Path dump() {
+        if (recording == null || recording.getState() == RecordingState.NEW) {
+            throw new ResourceNotFoundException("No recording to dump; start one first");
+        }
+        try {
+            Path file = Files.createTempFile("expense-tracker-", ".jfr");
+            recording.dump(file);
+            deleteDump();
+            dump = file;
+            return file;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /** Stops the recording and discards it. */
+    @PreDestroy
+    public synchronized void close() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+        deleteDump();
+    }
+
+    private void deleteDump() {
+        if (dump != null) {
+            try {
+                Files.deleteIfExists(dump);
+            } catch (IOException ex) {
+                // A temp file; the OS cleans it up eventually.
+            }
+            dump = null;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.expensetracker.service;
+
+import com.expensetracker.config.TenantContext;
+import com.expensetracker.exception.InvalidInputException;
+import com.expensetracker.exception.PayloadTooLargeException;
+import com.expensetracker.exception.ResourceNotFoundException;
+import com.expensetracker.model.Expense;
+import com.expensetracker.repository.ExpenseArchiveRepository;
+import com.expensetracker.repository.ExpenseJournal;
+import com.expensetracker.repository.ExpenseRepository;
+import com.expensetracker.repository.ReceiptStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Receipt images and PDFs attached to expenses. The expense keeps only the receipt's hash; the bytes
+ * live in the {@link ReceiptStore}, where identical receipts are stored once. The type is taken from
+ * the file's leading bytes rather than the client's {@code Content-Type}.
+ * <p>
+ * Replacing or removing a receipt only drops the reference; stored files are never deleted, since
+ * another expense may share them.
+ */
+@Service
+public class ReceiptService {
+
+    // Leading bytes needed to recognise every accepted type.
+    static final int HEAD_LENGTH = 12;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private ExpenseArchiveRepository expenseArchiveRepository;
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private ReceiptStore receiptStore;
+
+    @Autowired
+    private ExpenseJournal expenseJournal;
+
+    public record Receipt(String hash, Path file, String contentType, long size) {
+    }
+
+    /** Streams {@code content} into the store and points the expense at it. */
+    public Expense attach(Long id, long contentLength, InputStream content) {
+        if (!receiptStore.isEnabled()) {
+            throw new InvalidInputException("Receipt storage is not configured");
+        }
+        if (contentLength > receiptStore.getMaxBytes()) {
+            throw new PayloadTooLargeException("Receipt exceeds " + receiptStore.getMaxBytes() + " bytes");
+        }
+        Expense expense = findWritable(id);
+        try {
+            PushbackInputStream in = new PushbackInputStream(content, HEAD_LENGTH);
+            byte[] head = in.readNBytes(HEAD_LENGTH);
+            if (contentType(head) == null) {
+                throw new InvalidInputException("Receipt must be a PDF or a JPEG, PNG, GIF or WebP image");
+            }
+            in.unread(head);
+            expense.setReceiptHash(receiptStore.store(in).hash());
+        } catch (ReceiptStore.TooLargeException ex) {
+            throw new PayloadTooLargeException(ex.getMessage());
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        Expense saved = expenseRepository.save(expense);
+        expenseJournal.append(ExpenseJournal.Type.UPDATED, saved);
+        return saved;
+    }
+
+    public void detach(Long id) {
+        Expense expense = findWritable(id);
+        if (expense.getReceiptHash() == null) {
+            throw new ResourceNotFoundException("Expense " + id + " has no receipt");
+        }
+        expense.setReceiptHash(null);
+        expenseJournal.append(ExpenseJournal.Type.UPDATED, expenseRepository.save(expense));
+    }
+
+    /** The receipt of an expense, archived or not. */
+    public Receipt getReceipt(Long id) {
+        String hash = expenseService.getExpenseById(id).getReceiptHash();
+        if (hash == null) {
+            throw new ResourceNotFoundException("Expense " + id + " has no receipt");
+        }
+        Path file = receiptStore.find(hash)
+                .orElseThrow(() -> new ResourceNotFoundException("Receipt of expense " + id + " is not in the store"));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer head = ByteBuffer.allocate(HEAD_LENGTH);
+            while (head.hasRemaining() && channel.read(head) > 0) {
+                // read until the head is full or the file ends
+            }
+            String contentType = contentType(Arrays.copyOf(head.array(), head.position()));
+            return new Receipt(hash, file, contentType == null ? "application/octet-stream" : contentType, Files.size(file));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private Expense findWritable(Long id) {
+        return expenseRepository.findById(id).orElseThrow(() -> {
+            if (expenseArchiveRepository.hasSegments() && expenseArchiveRepository.findById(TenantContext.getTenantId(), id).isPresent()) {
+                return new InvalidInputException("Expense " + id + " is archived and cannot be changed");
+            }
+            return new ResourceNotFoundException("Expense not found with id " + id);
+        });
+    }
+
+    /** Media type of a receipt from its leading bytes, or null if it is not an accepted type. */
+    static String contentType(byte[] head) {
+        if (startsWith(head, 0, "%PDF-".getBytes(StandardCharsets.US_ASCII))) {
+            return "application/pdf";
+        }
+        if (startsWith(head, 0, new byte[] {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF})) {
+            return "image/jpeg";
+        }
+        if (startsWith(head, 0, new byte[] {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'})) {
+            return "image/png";
+        }
+        if (startsWith(head, 0, "GIF8".getBytes(StandardCharsets.US_ASCII))) {
+            return "image/gif";
+        }
+        if (startsWith(head, 0, "RIFF".getBytes(StandardCharsets.US_ASCII))
+                && startsWith(head, 8, "WEBP".getBytes(StandardCharsets.US_ASCII))) {
+            return "image/webp";
+        }
+        return null;
+    }
+
+    private static boolean startsWith(byte[] bytes, int offset, byte[] prefix) {
+        return bytes.length >= offset + prefix.length
+                && Arrays.equals(bytes, offset, offset + prefix.length, prefix, 0, prefix.length);
+    }
+}
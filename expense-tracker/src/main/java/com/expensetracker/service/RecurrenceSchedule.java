@@ -0,0 +1,193 @@
+package com.expensetracker.service;
+
+import com.expensetracker.exception.InvalidInputException;
+import org.springframework.scheduling.support.CronExpression;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * The days a recurring expense falls due, counted from its start date. A schedule is either an
+ * iCalendar RRULE with {@code FREQ} (DAILY, WEEKLY, MONTHLY or YEARLY), optional {@code INTERVAL},
+ * {@code BYDAY} for weekly rules and {@code BYMONTHDAY} for monthly ones (negative counts from the
+ * end of the month), or a Spring cron expression such as {@code 0 0 0 1 * *} or {@code @monthly},
+ * of which only the date matters.
+ * <p>
+ * As in RFC 5545, a month without the requested day is skipped: use {@code BYMONTHDAY=-1} for the
+ * last day of every month.
+ */
+final class RecurrenceSchedule {
+
+    // Periods tried before a rule is considered to have no further occurrence.
+    private static final int MAX_PERIODS = 10_000;
+
+    private enum Frequency {
+        DAILY,
+        WEEKLY,
+        MONTHLY,
+        YEARLY
+    }
+
+    private final LocalDate start;
+    private final Frequency frequency;
+    private final int interval;
+    private final Set<DayOfWeek> days;
+    private final int monthDay;
+    private final CronExpression cron;
+
+    private RecurrenceSchedule(LocalDate start, Frequency frequency, int interval, Set<DayOfWeek> days, int monthDay,
+                               CronExpression cron) {
+        this.start = start;
+        this.frequency = frequency;
+        this.interval = interval;
+        this.days = days;
+        this.monthDay = monthDay;
+        this.cron = cron;
+    }
+
+    static RecurrenceSchedule parse(String schedule, LocalDate start) {
+        if (schedule == null || schedule.isBlank()) {
+            throw new InvalidInputException("Schedule cannot be empty");
+        }
+        if (start == null) {
+            throw new InvalidInputException("Start date cannot be null");
+        }
+        String rule = schedule.trim();
+        if (rule.regionMatches(true, 0, "RRULE:", 0, 6)) {
+            rule = rule.substring(6);
+        }
+        if (!rule.toUpperCase(Locale.ROOT).contains("FREQ=")) {
+            try {
+                return new RecurrenceSchedule(start, null, 1, null, 0, CronExpression.parse(rule));
+            } catch (IllegalArgumentException ex) {
+                throw new InvalidInputException("Invalid schedule '" + schedule + "': " + ex.getMessage());
+            }
+        }
+        return parseRule(schedule, rule.toUpperCase(Locale.ROOT), start);
+    }
+
+    private static RecurrenceSchedule parseRule(String schedule, String rule, LocalDate start) {
+        Frequency frequency = null;
+        int interval = 1;
+        Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+        int monthDay = 0;
+        try {
+            for (String part : rule.split(";")) {
+                int equals = part.indexOf('=');
+                if (equals < 0) {
+                    throw new InvalidInputException("Invalid schedule '" + schedule + "': expected NAME=VALUE in '" + part + "'");
+                }
+                String value = part.substring(equals + 1).trim();
+                switch (part.substring(0, equals).trim()) {
+                    case "FREQ" -> frequency = Frequency.valueOf(value);
+                    case "INTERVAL" -> interval = Integer.parseInt(value);
+                    case "BYDAY" -> {
+                        for (String day : value.split(",")) {
+                            days.add(dayOfWeek(day.trim()));
+                        }
+                    }
+                    case "BYMONTHDAY" -> monthDay = Integer.parseInt(value);
+                    default -> throw new InvalidInputException("Invalid schedule '" + schedule
+                            + "': only FREQ, INTERVAL, BYDAY and BYMONTHDAY are supported");
+                }
+            }
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidInputException("Invalid schedule '" + schedule + "': " + ex.getMessage());
+        }
+        if (frequency == null) {
+            throw new InvalidInputException("Invalid schedule '" + schedule + "': FREQ is required");
+        }
+        if (interval < 1) {
+            throw new InvalidInputException("Invalid schedule '" + schedule + "': INTERVAL must be positive");
+        }
+        if (!days.isEmpty() && frequency != Frequency.WEEKLY) {
+            throw new InvalidInputException("Invalid schedule '" + schedule + "': BYDAY is only supported with FREQ=WEEKLY");
+        }
+        if (monthDay != 0 && frequency != Frequency.MONTHLY) {
+            throw new InvalidInputException("Invalid schedule '" + schedule + "': BYMONTHDAY is only supported with FREQ=MONTHLY");
+        }
+        if (monthDay < -31 || monthDay > 31) {
+            throw new InvalidInputException("Invalid schedule '" + schedule + "': BYMONTHDAY must be between -31 and 31");
+        }
+        if (days.isEmpty()) {
+            days.add(start.getDayOfWeek());
+        }
+        return new RecurrenceSchedule(start, frequency, interval, days, monthDay == 0 ? start.getDayOfMonth() : monthDay, null);
+    }
+
+    /** First due day on or after the start date, or null if there is none. */
+    LocalDate first() {
+        return next(start.minusDays(1));
+    }
+
+    /** First due day after {@code after} and not before the start date, or null if there is none. */
+    LocalDate next(LocalDate after) {
+        LocalDate from = after.isBefore(start) ? start : after.plusDays(1);
+        if (cron != null) {
+            var next = cron.next(from.minusDays(1).atTime(LocalTime.MAX));
+            return next == null ? null : next.toLocalDate();
+        }
+        return switch (frequency) {
+            case DAILY -> {
+                long steps = ceilDiv(ChronoUnit.DAYS.between(start, from), interval);
+                yield start.plusDays(steps * interval);
+            }
+            case WEEKLY -> nextWeekly(from);
+            case MONTHLY -> nextInMonth(from, interval, monthDay);
+            case YEARLY -> nextInMonth(from, 12 * interval, start.getDayOfMonth());
+        };
+    }
+
+    private LocalDate nextWeekly(LocalDate from) {
+        LocalDate firstWeek = start.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        long week = ChronoUnit.WEEKS.between(firstWeek, from.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)));
+        week = ceilDiv(week, interval) * interval;
+        for (int i = 0; i < MAX_PERIODS; i++, week += interval) {
+            LocalDate monday = firstWeek.plusWeeks(week);
+            for (DayOfWeek day : days) {
+                LocalDate candidate = monday.plusDays(day.ordinal());
+                if (!candidate.isBefore(from)) {
+                    return candidate;
+                }
+            }
+        }
+        return null;
+    }
+
+    private LocalDate nextInMonth(LocalDate from, int step, int day) {
+        YearMonth firstMonth = YearMonth.from(start);
+        long month = ceilDiv(ChronoUnit.MONTHS.between(firstMonth, YearMonth.from(from)), step) * step;
+        for (int i = 0; i < MAX_PERIODS; i++, month += step) {
+            YearMonth candidateMonth = firstMonth.plusMonths(month);
+            int dayOfMonth = day > 0 ? day : candidateMonth.lengthOfMonth() + 1 + day;
+            if (dayOfMonth < 1 || dayOfMonth > candidateMonth.lengthOfMonth()) {
+                continue;
+            }
+            LocalDate candidate = candidateMonth.atDay(dayOfMonth);
+            if (!candidate.isBefore(from)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private static long ceilDiv(long value, long divisor) {
+        return -Math.floorDiv(-value, divisor);
+    }
+
+    private static DayOfWeek dayOfWeek(String code) {
+        for (DayOfWeek day : DayOfWeek.values()) {
+            if (day.name().startsWith(code) && code.length() == 2) {
+                return day;
+            }
+        }
+        throw new IllegalArgumentException("unknown day '" + code + "'");
+    }
+}
@@ -0,0 +1,199 @@
+package com.expensetracker.service;
+
+import com.expensetracker.exception.InvalidInputException;
+import com.expensetracker.exception.ResourceNotFoundException;
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.RecurringExpense;
+import com.expensetracker.repository.ExpenseBulkRepository;
+import com.expensetracker.repository.ExpenseJournal;
+import com.expensetracker.repository.RecurringExpenseBulkRepository;
+import com.expensetracker.repository.RecurringExpenseRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Recurring expense definitions and the scheduler that turns their due occurrences into expenses.
+ * <p>
+ * Each definition stores the next day it is due, and {@code recurring_expense.next_due} is indexed,
+ * so a tick reads only what is due, earliest first, in batches of {@code expense.recurring.batch-size}.
+ * A batch is materialized in one transaction: every definition's {@code next_due} is moved past the
+ * occurrences it owes with a conditional update, and the occurrences of the definitions whose update
+ * succeeded are inserted in one JDBC batch and fingerprinted for duplicate detection, so an import
+ * of the same bank line is recognised. A definition claimed by a concurrent run on another node
+ * updates nothing and is skipped, and a crash rolls back both, so no occurrence is ever created
+ * twice. Periods missed while no node was running are caught up on startup.
+ */
+@Service
+public class RecurringExpenseService {
+
+    private static final Logger log = LoggerFactory.getLogger(RecurringExpenseService.class);
+
+    // Occurrences one definition may add per batch; a long backfill continues in the next batch.
+    static final int MAX_OCCURRENCES_PER_BATCH = 1000;
+
+    @Autowired
+    private RecurringExpenseRepository recurringExpenseRepository;
+
+    @Autowired
+    private RecurringExpenseBulkRepository recurringExpenseBulkRepository;
+
+    @Autowired
+    private ExpenseBulkRepository expenseBulkRepository;
+
+    @Autowired
+    private DuplicateDetector duplicateDetector;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ExpenseJournal expenseJournal;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${expense.recurring.batch-size:500}")
+    private int batchSize = 500;
+
+    public Page<RecurringExpense> getRecurringExpenses(Pageable pageable) {
+        return recurringExpenseRepository.findAll(pageable);
+    }
+
+    public RecurringExpense getRecurringExpense(Long id) {
+        return recurringExpenseRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Recurring expense not found with id " + id));
+    }
+
+    public RecurringExpense createRecurringExpense(RecurringExpense recurring) {
+        if (recurring.getAmount() == null || recurring.getAmount().signum() <= 0) {
+            throw new InvalidInputException("Amount must be positive");
+        }
+        if (recurring.getEndDate() != null && recurring.getEndDate().isBefore(recurring.getStartDate())) {
+            throw new InvalidInputException("End date cannot be before start date");
+        }
+        LocalDate first = RecurrenceSchedule.parse(recurring.getSchedule(), recurring.getStartDate()).first();
+        if (first == null || (recurring.getEndDate() != null && first.isAfter(recurring.getEndDate()))) {
+            throw new InvalidInputException("Schedule '" + recurring.getSchedule() + "' has no occurrence in the given dates");
+        }
+        recurring.setId(null);
+        recurring.setNextDue(first);
+        return recurringExpenseRepository.save(recurring);
+    }
+
+    /** Stops the schedule; expenses it already created are kept. */
+    public void deleteRecurringExpense(Long id) {
+        recurringExpenseRepository.delete(getRecurringExpense(id));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        Map<String, Object> result = materializeDue(LocalDate.now());
+        if ((long) result.get("created") > 0) {
+            log.info("Caught up on recurring expenses: {} definitions, {} expenses", result.get("definitions"), result.get("created"));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${expense.recurring.interval:PT1M}", initialDelayString = "${expense.recurring.interval:PT1M}")
+    public void materializeOnSchedule() {
+        materializeDue(LocalDate.now());
+    }
+
+    /** Creates every occurrence due on or before {@code today}, for every tenant. */
+    public Map<String, Object> materializeDue(LocalDate today) {
+        long start = System.nanoTime();
+        long definitions = 0;
+        long created = 0;
+        List<RecurringExpense> due;
+        while (!(due = recurringExpenseBulkRepository.findDue(today, batchSize)).isEmpty()) {
+            List<RecurringExpense> batch = due;
+            Batch result = transactionTemplate.execute(status -> materialize(batch, today));
+            definitions += result.claimed();
+            created += result.rows().size();
+            expenseJournal.append(ExpenseJournal.Type.CREATED, result.rows());
+            if (!result.rows().isEmpty()) {
+                eventPublisher.publishEvent(ExpenseChangedEvent.created(result.rows()));
+            }
+        }
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("definitions", definitions);
+        summary.put("created", created);
+        summary.put("millis", (System.nanoTime() - start) / 1_000_000);
+        return summary;
+    }
+
+    private Batch materialize(List<RecurringExpense> due, LocalDate today) {
+        List<RecurringExpenseBulkRepository.Advance> advances = new ArrayList<>(due.size());
+        List<List<Expense>> occurrences = new ArrayList<>(due.size());
+        LocalDateTime now = LocalDateTime.now();
+        for (RecurringExpense recurring : due) {
+            List<Expense> rows = new ArrayList<>();
+            LocalDate next;
+            try {
+                RecurrenceSchedule schedule = RecurrenceSchedule.parse(recurring.getSchedule(), recurring.getStartDate());
+                next = recurring.getNextDue();
+                while (next != null && !next.isAfter(today) && rows.size() < MAX_OCCURRENCES_PER_BATCH) {
+                    if (recurring.getEndDate() != null && next.isAfter(recurring.getEndDate())) {
+                        next = null;
+                        break;
+                    }
+                    rows.add(occurrence(recurring, next, now));
+                    next = schedule.next(next);
+                }
+                if (next != null && recurring.getEndDate() != null && next.isAfter(recurring.getEndDate())) {
+                    next = null;
+                }
+            } catch (InvalidInputException ex) {
+                // Only reachable if the stored schedule was edited by hand; park it rather than retry forever.
+                log.warn("Stopping recurring expense {} with unreadable schedule: {}", recurring.getId(), ex.getMessage());
+                rows.clear();
+                next = null;
+            }
+            advances.add(new RecurringExpenseBulkRepository.Advance(recurring.getId(), recurring.getNextDue(), next));
+            occurrences.add(rows);
+        }
+
+        int[] updated = recurringExpenseBulkRepository.advance(advances);
+        List<Expense> claimedRows = new ArrayList<>();
+        int claimed = 0;
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] > 0) {
+                claimed++;
+                claimedRows.addAll(occurrences.get(i));
+            }
+        }
+        if (!claimedRows.isEmpty()) {
+            expenseBulkRepository.insert(claimedRows);
+            duplicateDetector.registerInserted(claimedRows);
+            expenseJournal.markInserted(claimedRows);
+        }
+        return new Batch(claimed, claimedRows);
+    }
+
+    private static Expense occurrence(RecurringExpense recurring, LocalDate date, LocalDateTime now) {
+        Expense expense = new Expense(recurring.getAmount(), recurring.getCategory(), recurring.getDescription(), date);
+        expense.setTenantId(recurring.getTenantId());
+        expense.setCurrency(recurring.getCurrency());
+        expense.setCreatedAt(now);
+        return expense;
+    }
+
+    private record Batch(int claimed, List<Expense> rows) {
+    }
+}
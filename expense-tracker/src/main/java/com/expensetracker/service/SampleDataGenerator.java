@@ -0,0 +1,230 @@
+package com.expensetracker.service;
+
+import com.expensetracker.config.TenantContext;
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.ExpenseCategory;
+import com.expensetracker.repository.ExpenseBulkRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates a large, reproducible expense dataset for load tests and benchmarks.
+ * <p>
+ * Rows are produced in fixed-size chunks. Each chunk gets its own random stream derived from the
+ * seed and the chunk index, and ids are assigned from the chunk position, so the same seed always
+ * yields the same table no matter how many threads insert it or in which order chunks finish.
+ */
+@Service
+public class SampleDataGenerator {
+
+    private static final Logger log = LoggerFactory.getLogger(SampleDataGenerator.class);
+
+    // Share of rows per category, in ExpenseCategory order.
+    private static final double[] CATEGORY_WEIGHTS = {0.34, 0.18, 0.12, 0.06, 0.14, 0.09, 0.07};
+
+    // Log-normal amount model per category: median amount and spread (sigma of ln(amount)).
+    private static final double[] AMOUNT_MEDIANS = {18, 22, 30, 60, 45, 110, 35};
+    private static final double[] AMOUNT_SIGMAS = {0.6, 0.7, 0.7, 0.9, 1.0, 0.8, 1.0};
+
+    private static final BigDecimal MIN_AMOUNT = new BigDecimal("0.50");
+    private static final BigDecimal MAX_AMOUNT = new BigDecimal("20000.00");
+
+    private static final String[][] DESCRIPTIONS = {
+            {"Groceries", "Coffee", "Lunch", "Dinner out", "Takeout", "Bakery", "Snacks", "Breakfast"},
+            {"Gas fill-up", "Bus fare", "Train ticket", "Taxi ride", "Parking", "Ride share", "Toll fees"},
+            {"Movie tickets", "Concert", "Streaming subscription", "Books", "Games", "Museum entry"},
+            {"Pharmacy", "Doctor visit", "Dental", "Vitamins", "Physiotherapy", "Lab tests"},
+            {"Clothes", "Electronics", "Household supplies", "Gift", "Home decor", "Shoes"},
+            {"Rent", "Electricity bill", "Internet", "Phone bill", "Water bill", "Insurance"},
+            {"Donation", "Haircut", "Pet supplies", "Bank fee", "Miscellaneous"}
+    };
+
+    @Autowired
+    private ExpenseBulkRepository expenseBulkRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${expense.generator.count:0}")
+    private long count;
+
+    @Value("${expense.generator.seed:42}")
+    private long seed = 42;
+
+    @Value("${expense.generator.months:36}")
+    private int months = 36;
+
+    // Last generated date; pin it to reproduce a dataset on a later day. Blank means today.
+    @Value("${expense.generator.end-date:}")
+    private String endDate = "";
+
+    @Value("${expense.generator.batch-size:5000}")
+    private int batchSize = 5000;
+
+    @Value("${expense.generator.threads:0}")
+    private int threads;
+
+    // Rows are spread over this many tenants by id; 1 keeps everything in the default tenant.
+    @Value("${expense.generator.tenants:1}")
+    private int tenants = 1;
+
+    public boolean isRequested() {
+        return count > 0;
+    }
+
+    /**
+     * Fills an empty table with the configured number of rows. Returns timing information, or an
+     * empty map when the table already has data.
+     */
+    public Map<String, Object> generateIfEmpty() {
+        if (expenseBulkRepository.count() > 0) {
+            log.info("Skipping sample data generation: the expense table is not empty");
+            return Map.of();
+        }
+        return generate(count, seed, endDate.isBlank() ? LocalDate.now() : LocalDate.parse(endDate));
+    }
+
+    Map<String, Object> generate(long rows, long seed, LocalDate until) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        long chunks = (rows + batchSize - 1) / batchSize;
+        LocalDate from = until.minusMonths(months).plusDays(1);
+        log.info("Generating {} expenses for {} tenants with seed {} on {} threads", rows, tenants, seed, poolSize);
+
+        long start = System.nanoTime();
+        AtomicLong inserted = new AtomicLong();
+        long reportEvery = Math.max(rows / 10, 1);
+        ExecutorService executor = Executors.newFixedThreadPool(poolSize);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (long chunk = 0; chunk < chunks; chunk++) {
+                long firstId = chunk * batchSize + 1;
+                int size = (int) Math.min(batchSize, rows - chunk * batchSize);
+                long chunkIndex = chunk;
+                futures.add(executor.submit(() -> {
+                    List<Expense> batch = generateChunk(seed, chunkIndex, firstId, size, from, until);
+                    batch.forEach(expense -> expense.setTenantId(tenantFor(expense.getId(), tenants)));
+                    transactionTemplate.executeWithoutResult(status -> expenseBulkRepository.insertWithIds(batch));
+                    eventPublisher.publishEvent(ExpenseChangedEvent.created(batch));
+                    long done = inserted.addAndGet(size);
+                    if (done / reportEvery != (done - size) / reportEvery) {
+                        log.info("Generated {} of {} expenses", done, rows);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Sample data generation was interrupted", ex);
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("Sample data generation failed", ex.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        expenseBulkRepository.restartIdentity();
+
+        long millis = Math.max((System.nanoTime() - start) / 1_000_000, 1);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("rows", rows);
+        result.put("seed", seed);
+        result.put("tenants", tenants);
+        result.put("threads", poolSize);
+        result.put("millis", millis);
+        result.put("rowsPerSecond", rows * 1000 / millis);
+        log.info("Generated {} expenses in {} ms ({} rows/s)", rows, millis, rows * 1000 / millis);
+        return result;
+    }
+
+    /** Builds one chunk of rows; the output depends only on the arguments. */
+    static List<Expense> generateChunk(long seed, long chunkIndex, long firstId, int size, LocalDate from, LocalDate until) {
+        SplittableRandom random = new SplittableRandom(seed * 0x9E3779B97F4A7C15L + chunkIndex);
+        ExpenseCategory[] categories = ExpenseCategory.values();
+        long days = until.toEpochDay() - from.toEpochDay() + 1;
+        List<Expense> rows = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int category = pickCategory(random.nextDouble());
+            LocalDate date = pickDate(random, from, days, categories[category]);
+            String[] words = DESCRIPTIONS[category];
+            Expense expense = new Expense(pickAmount(random, category), categories[category],
+                    words[random.nextInt(words.length)], date);
+            expense.setId(firstId + i);
+            expense.setCreatedAt(LocalDateTime.of(date, LocalTime.ofSecondOfDay(random.nextInt(86_400))));
+            rows.add(expense);
+        }
+        return rows;
+    }
+
+    /** The tenant a generated row belongs to, so load tests can address rows by id. */
+    public static String tenantFor(long id, int tenants) {
+        if (tenants <= 1) {
+            return TenantContext.DEFAULT_TENANT;
+        }
+        return "tenant-" + Math.floorMod(Long.hashCode(id * 0x9E3779B97F4A7C15L), tenants);
+    }
+
+    private static int pickCategory(double p) {
+        for (int i = 0; i < CATEGORY_WEIGHTS.length - 1; i++) {
+            p -= CATEGORY_WEIGHTS[i];
+            if (p < 0) {
+                return i;
+            }
+        }
+        return CATEGORY_WEIGHTS.length - 1;
+    }
+
+    private static BigDecimal pickAmount(SplittableRandom random, int category) {
+        double gaussian = gaussian(random);
+        double amount = AMOUNT_MEDIANS[category] * Math.exp(AMOUNT_SIGMAS[category] * gaussian);
+        BigDecimal value = BigDecimal.valueOf(amount).setScale(2, RoundingMode.HALF_UP);
+        return value.max(MIN_AMOUNT).min(MAX_AMOUNT);
+    }
+
+    // Bills cluster at the start of the month; food and entertainment lean towards weekends.
+    private static LocalDate pickDate(SplittableRandom random, LocalDate from, long days, ExpenseCategory category) {
+        while (true) {
+            LocalDate date = from.plusDays(random.nextLong(days));
+            if (category == ExpenseCategory.BILLS && date.getDayOfMonth() > 5 && random.nextDouble() < 0.7) {
+                continue;
+            }
+            boolean weekend = date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY;
+            boolean leisure = category == ExpenseCategory.FOOD || category == ExpenseCategory.ENTERTAINMENT;
+            if (leisure && !weekend && random.nextDouble() < 0.3) {
+                continue;
+            }
+            return date;
+        }
+    }
+
+    // Box-Muller; SplittableRandom has no nextGaussian on Java 17.
+    private static double gaussian(SplittableRandom random) {
+        double u = 1.0 - random.nextDouble();
+        double v = random.nextDouble();
+        return Math.sqrt(-2.0 * Math.log(u)) * Math.cos(2.0 * Math.PI * v);
+    }
+}
@@ -0,0 +1,90 @@
+package com.expensetracker.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent calls with the same key into one computation: the first caller runs it and
+ * everyone who arrives while it is in flight waits for and shares its result (or exception). Nothing
+ * is cached once the computation finishes.
+ * <p>
+ * Keys are tagged with a generation that {@link #invalidate()} bumps after every write, so a caller
+ * that starts after a write never joins a computation that may have read the data before it. There is
+ * no global lock; callers only meet on the per-key slot in a {@link ConcurrentHashMap}.
+ */
+public class SingleFlight<K, V> {
+
+    private record Slot<K>(long generation, K key) {
+    }
+
+    private final ConcurrentHashMap<Slot<K>, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder collapsed = new LongAdder();
+
+    public V execute(K key, Supplier<V> computation) {
+        calls.increment();
+        Slot<K> slot = new Slot<>(generation.get(), key);
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(slot, mine);
+        if (existing != null) {
+            collapsed.increment();
+            return await(existing);
+        }
+        try {
+            V value = computation.get();
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException | Error ex) {
+            mine.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(slot, mine);
+        }
+    }
+
+    /** Call after a write commits; later callers start a fresh computation. */
+    public void invalidate() {
+        generation.incrementAndGet();
+    }
+
+    /**
+     * Like {@link #invalidate()} for the keys a write can affect: their in-flight computations stop
+     * accepting new callers, while computations for every other key keep collapsing.
+     */
+    public void invalidateIf(Predicate<? super K> affected) {
+        inFlight.keySet().removeIf(slot -> affected.test(slot.key()));
+    }
+
+    public Map<String, Object> getMetrics() {
+        long total = calls.sum();
+        long shared = collapsed.sum();
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("calls", total);
+        metrics.put("executions", total - shared);
+        metrics.put("collapsed", shared);
+        metrics.put("inFlight", inFlight.size());
+        return metrics;
+    }
+
+    private static <V> V await(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (ex.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw ex;
+        }
+    }
+}
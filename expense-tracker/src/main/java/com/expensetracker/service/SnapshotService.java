@@ -0,0 +1,280 @@
+package com.expensetracker.service;
+
+import com.expensetracker.config.TenantContext;
+import com.expensetracker.exception.InvalidInputException;
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.ExpensePartition;
+import com.expensetracker.repository.ArchiveSegment;
+import com.expensetracker.repository.ExpenseBulkRepository;
+import com.expensetracker.repository.ExpenseJournal;
+import com.expensetracker.repository.ExpenseRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Saves the hot expense table to a single snapshot file and bulk-loads it back on startup.
+ * <p>
+ * The snapshot uses the {@link ArchiveSegment} format: rows are streamed from the table one month at a
+ * time and only compressed blocks are held in memory. Restores decode one month at a time and insert
+ * it with JDBC batches, keeping the original ids. Archived rows are not included, because their
+ * segments already live on disk.
+ * <p>
+ * A snapshot is the checkpoint of the {@link ExpenseJournal}: it records the last entry it reflects,
+ * and a restore replays the entries recorded after it, so changes made since the last snapshot survive
+ * a crash. Without a snapshot, a journal that starts at its first entry is replayed in full.
+ * <p>
+ * Each batch the restore writes, and each row a replayed entry replaces or deletes, is published as it
+ * is written, so derived state follows the restore instead of rescanning the table. A restore that
+ * fails publishes a bulk change to undo what it announced.
+ */
+@Service
+public class SnapshotService {
+
+    private static final Logger log = LoggerFactory.getLogger(SnapshotService.class);
+
+    static final int MAX_JOURNAL_ENTRIES = 1000;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private ExpenseBulkRepository expenseBulkRepository;
+
+    @Autowired
+    private ExpenseJournal expenseJournal;
+
+    @Autowired
+    private DuplicateDetector duplicateDetector;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${expense.snapshot.file:}")
+    private String file = "";
+
+    @Value("${expense.snapshot.on-shutdown:true}")
+    private boolean snapshotOnShutdown = true;
+
+    @Value("${expense.snapshot.batch-size:5000}")
+    private int batchSize = 5000;
+
+    // The journal sequence of the snapshot last written or restored.
+    private volatile long checkpoint;
+
+    public boolean isEnabled() {
+        return !file.isBlank();
+    }
+
+    public synchronized Map<String, Object> writeSnapshot() {
+        if (!isEnabled()) {
+            throw new InvalidInputException("Snapshots are disabled; set expense.snapshot.file to enable them");
+        }
+        long start = System.nanoTime();
+        Path path = Paths.get(file).toAbsolutePath();
+        try {
+            Files.createDirectories(path.getParent());
+            // Entries up to here were committed before the scan starts, so the scan sees their rows.
+            // Later ones may be seen too; replaying them again on restore is harmless.
+            long journalSequence = expenseJournal.getLastSequence();
+            ArchiveSegment.Writer writer = ArchiveSegment.writer(path).journalSequence(journalSequence);
+            List<Expense> month = new ArrayList<>();
+            expenseBulkRepository.forEachInPartitionOrder(batchSize, row -> {
+                if (!month.isEmpty() && (ExpensePartition.monthKey(month.get(0).getDate()) != ExpensePartition.monthKey(row.getDate())
+                        || !month.get(0).getTenantId().equals(row.getTenantId()))) {
+                    writer.append(month);
+                    month.clear();
+                }
+                month.add(row);
+            });
+            writer.append(month);
+            ArchiveSegment snapshot = writer.finish();
+            checkpoint = journalSequence;
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("file", path.toString());
+            result.put("rows", snapshot.getRowCount());
+            result.put("sizeInBytes", snapshot.getSizeInBytes());
+            result.put("journalSequence", journalSequence);
+            result.put("millis", (System.nanoTime() - start) / 1_000_000);
+            log.info("Wrote snapshot of {} expenses ({} bytes) to {}", snapshot.getRowCount(), snapshot.getSizeInBytes(), path);
+            return result;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Loads the snapshot into an empty table and replays the journal entries recorded after it. Returns
+     * the number of rows restored, or 0 when there is nothing to restore or the table already has data.
+     */
+    public long restoreIfEmpty() {
+        boolean hasSnapshot = isEnabled() && Files.exists(Paths.get(file));
+        if ((!hasSnapshot && expenseJournal.getLastSequence() == 0) || expenseBulkRepository.count() > 0) {
+            return 0;
+        }
+        long start = System.nanoTime();
+        try {
+            ArchiveSegment snapshot = hasSnapshot ? ArchiveSegment.open(Paths.get(file)) : null;
+            checkpoint = snapshot == null ? 0 : snapshot.getJournalSequence();
+            long replayed;
+            try {
+                replayed = restore(snapshot);
+            } catch (RuntimeException ex) {
+                eventPublisher.publishEvent(ExpenseChangedEvent.bulk());
+                throw ex;
+            }
+            long rows = expenseBulkRepository.count();
+            if (rows == 0) {
+                return 0;
+            }
+            expenseBulkRepository.restartIdentity();
+            log.info("Restored {} expenses from snapshot {} and {} journal entries in {} ms",
+                    rows, snapshot == null ? "(none)" : file, replayed, (System.nanoTime() - start) / 1_000_000);
+            return rows;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private long restore(ArchiveSegment snapshot) {
+        return transactionTemplate.execute(status -> {
+            // Fingerprints are restored with their rows; any left belong to expenses that are gone.
+            duplicateDetector.forgetAll();
+            if (snapshot != null) {
+                List<Expense> batch = new ArrayList<>(batchSize);
+                for (ArchiveSegment.MonthBlock month : snapshot.getMonths()) {
+                    month.forEach(row -> {
+                        batch.add(row);
+                        if (batch.size() == batchSize) {
+                            insert(batch);
+                            batch.clear();
+                        }
+                    });
+                }
+                if (!batch.isEmpty()) {
+                    insert(batch);
+                }
+            }
+            return replayJournal(checkpoint);
+        });
+    }
+
+    /** Up to {@code limit} journal entries after {@code afterSequence}, oldest first: the audit trail of changes. */
+    public List<Map<String, Object>> getJournalEntries(long afterSequence, int limit) {
+        if (!expenseJournal.isEnabled()) {
+            throw new InvalidInputException("The journal is disabled; set expense.journal.dir to enable it");
+        }
+        if (afterSequence < 0 || limit < 1 || limit > MAX_JOURNAL_ENTRIES) {
+            throw new InvalidInputException("after must not be negative and limit must be between 1 and " + MAX_JOURNAL_ENTRIES);
+        }
+        String tenantId = TenantContext.getTenantId();
+        return expenseJournal.read(afterSequence, limit, entry -> tenantId.equals(entry.expense().getTenantId())).stream().map(entry -> {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("sequence", entry.sequence());
+            row.put("time", entry.time());
+            row.put("type", entry.type());
+            row.put("tenantId", entry.expense().getTenantId());
+            row.put("expense", entry.expense());
+            return row;
+        }).toList();
+    }
+
+    public Map<String, Object> getJournalStats() {
+        Map<String, Object> stats = expenseJournal.getStats();
+        if (expenseJournal.isEnabled()) {
+            stats.put("checkpoint", checkpoint);
+        }
+        return stats;
+    }
+
+    /**
+     * Applies the journal entries after {@code checkpoint} in batches. An id is created once and then only
+     * updated or deleted, so each batch writes the last state of each id it touched; entries the
+     * snapshot already reflects are rewritten to the same state.
+     */
+    private long replayJournal(long checkpoint) {
+        if (expenseJournal.getLastSequence() <= checkpoint) {
+            // A journal that was emptied or replaced must not hand out sequences the snapshot already covers.
+            expenseJournal.advanceTo(checkpoint);
+            return 0;
+        }
+        if (expenseJournal.getFirstSequence() > checkpoint + 1) {
+            log.warn("Journal starts at entry {} but the snapshot only covers entries up to {}; not replaying it",
+                    expenseJournal.getFirstSequence(), checkpoint);
+            return 0;
+        }
+        Map<Long, Expense> upserts = new LinkedHashMap<>();
+        Set<Long> deletes = new HashSet<>();
+        long[] replayed = {0};
+        expenseJournal.forEach(checkpoint, entry -> {
+            Long id = entry.expense().getId();
+            if (entry.type() == ExpenseJournal.Type.DELETED) {
+                upserts.remove(id);
+                deletes.add(id);
+            } else {
+                upserts.put(id, entry.expense());
+            }
+            replayed[0]++;
+            if (upserts.size() + deletes.size() >= batchSize) {
+                apply(upserts, deletes);
+            }
+        });
+        apply(upserts, deletes);
+        return replayed[0];
+    }
+
+    private void apply(Map<Long, Expense> upserts, Set<Long> deletes) {
+        deletes.addAll(upserts.keySet());
+        if (!deletes.isEmpty()) {
+            List<Expense> replaced = expenseBulkRepository.findByIds(deletes);
+            expenseBulkRepository.deleteByIds(deletes);
+            duplicateDetector.forget(deletes);
+            if (!replaced.isEmpty()) {
+                eventPublisher.publishEvent(ExpenseChangedEvent.deleted(replaced));
+            }
+        }
+        if (!upserts.isEmpty()) {
+            insert(new ArrayList<>(upserts.values()));
+        }
+        upserts.clear();
+        deletes.clear();
+    }
+
+    private void insert(List<Expense> rows) {
+        expenseBulkRepository.insertWithIds(rows);
+        duplicateDetector.registerInserted(rows);
+        eventPublisher.publishEvent(ExpenseChangedEvent.created(rows));
+    }
+
+    @PreDestroy
+    public void snapshotOnShutdown() {
+        if (isEnabled() && snapshotOnShutdown) {
+            try {
+                writeSnapshot();
+            } catch (RuntimeException ex) {
+                log.error("Could not write snapshot on shutdown", ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,337 @@
+package com.expensetracker.service;
+
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.ExpenseCategory;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Connects nodes on one host over loopback TCP. Each node listens on {@code expense.cluster.port}
+ * and keeps one connection to every address in {@code expense.cluster.peers}; a sender thread per
+ * peer drains a bounded queue so publishing never blocks a request.
+ * <p>
+ * Events sent while a peer is unreachable, or dropped because its queue is full, are not replayed.
+ * The peer is sent a {@link ExpenseChangedEvent.Type#BULK} event instead as soon as it can be
+ * reached again, which makes it rebuild its derived state from the shared database.
+ */
+@Component
+@ConditionalOnProperty(name = "expense.cluster.bus", havingValue = "socket")
+public class SocketInvalidationBus implements InvalidationBus {
+
+    private static final Logger log = LoggerFactory.getLogger(SocketInvalidationBus.class);
+
+    private static final int QUEUE_CAPACITY = 10_000;
+
+    @Value("${expense.cluster.bind-address:127.0.0.1}")
+    private String bindAddress = "127.0.0.1";
+
+    @Value("${expense.cluster.port:9400}")
+    private int port = 9400;
+
+    @Value("${expense.cluster.peers:}")
+    private List<String> peerAddresses = List.of();
+
+    @Value("${expense.cluster.reconnect-interval:PT1S}")
+    private Duration reconnectInterval = Duration.ofSeconds(1);
+
+    // Frames carry their sender, so a node that lists itself as a peer ignores its own events.
+    private final long nodeId = ThreadLocalRandom.current().nextLong();
+    private final List<Consumer<ExpenseChangedEvent>> listeners = new CopyOnWriteArrayList<>();
+    private final List<Peer> peers = new ArrayList<>();
+    private final List<Socket> inbound = new CopyOnWriteArrayList<>();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder received = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder resyncs = new LongAdder();
+    private volatile boolean running;
+    private ServerSocket server;
+
+    @PostConstruct
+    public void start() throws IOException {
+        running = true;
+        server = new ServerSocket();
+        server.bind(new InetSocketAddress(bindAddress, port));
+        daemon("cluster-accept", this::accept).start();
+        for (String address : peerAddresses) {
+            if (address.isBlank()) {
+                continue;
+            }
+            int colon = address.lastIndexOf(':');
+            Peer peer = new Peer(new InetSocketAddress(address.substring(0, colon).trim(),
+                    Integer.parseInt(address.substring(colon + 1).trim())));
+            peers.add(peer);
+            daemon("cluster-peer-" + address.trim(), peer::run).start();
+        }
+        log.info("Cluster bus listening on {}:{} with peers {}", bindAddress, server.getLocalPort(), peerAddresses);
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        running = false;
+        server.close();
+        for (Socket socket : inbound) {
+            socket.close();
+        }
+        peers.forEach(Peer::close);
+    }
+
+    @Override
+    public void publish(ExpenseChangedEvent event) {
+        byte[] frame = encode(nodeId, event);
+        for (Peer peer : peers) {
+            peer.offer(frame);
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<ExpenseChangedEvent> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("bus", "socket");
+        metrics.put("port", server.getLocalPort());
+        metrics.put("peers", peers.size());
+        metrics.put("connectedPeers", peers.stream().filter(peer -> peer.connected).count());
+        metrics.put("sent", sent.sum());
+        metrics.put("received", received.sum());
+        metrics.put("dropped", dropped.sum());
+        metrics.put("resyncs", resyncs.sum());
+        return metrics;
+    }
+
+    private void accept() {
+        while (running) {
+            try {
+                Socket socket = server.accept();
+                inbound.add(socket);
+                daemon("cluster-receive-" + socket.getPort(), () -> receive(socket)).start();
+            } catch (IOException ex) {
+                if (running) {
+                    log.warn("Cluster bus stopped accepting connections", ex);
+                }
+                return;
+            }
+        }
+    }
+
+    private void receive(Socket socket) {
+        try (socket; DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()))) {
+            while (running) {
+                long sender = in.readLong();
+                ExpenseChangedEvent event = decode(in);
+                if (sender == nodeId) {
+                    continue;
+                }
+                received.increment();
+                for (Consumer<ExpenseChangedEvent> listener : listeners) {
+                    try {
+                        listener.accept(event);
+                    } catch (RuntimeException ex) {
+                        log.warn("Failed to apply a {} event from another node", event.type(), ex);
+                    }
+                }
+            }
+        } catch (EOFException ex) {
+            // The peer shut down; it reconnects on its own when it comes back.
+        } catch (IOException ex) {
+            if (running) {
+                log.warn("Lost cluster connection from {}", socket.getRemoteSocketAddress(), ex);
+            }
+        } finally {
+            inbound.remove(socket);
+        }
+    }
+
+    /** Sender id, event type and row count, then for each row the fields derived state needs. */
+    static byte[] encode(long sender, ExpenseChangedEvent event) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + 64 * event.expenses().size());
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(sender);
+            out.writeByte(event.type().ordinal());
+            out.writeInt(event.expenses().size());
+            for (Expense expense : event.expenses()) {
+                out.writeLong(expense.getId());
+                out.writeUTF(expense.getTenantId());
+                out.writeUTF(expense.getAmount().toPlainString());
+                out.writeUTF(expense.getCurrency());
+                out.writeByte(expense.getCategory().ordinal());
+                out.writeLong(expense.getDate().toEpochDay());
+                out.writeBoolean(expense.getDescription() != null);
+                if (expense.getDescription() != null) {
+                    out.writeUTF(expense.getDescription());
+                }
+                out.writeByte(expense.getTags().size());
+                for (String tag : expense.getTags()) {
+                    out.writeUTF(tag);
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return bytes.toByteArray();
+    }
+
+    /** Reads what {@link #encode} wrote after the sender id. */
+    static ExpenseChangedEvent decode(DataInput in) throws IOException {
+        ExpenseChangedEvent.Type type = ExpenseChangedEvent.Type.values()[in.readByte()];
+        int count = in.readInt();
+        List<Expense> expenses = new ArrayList<>(count);
+        for (int row = 0; row < count; row++) {
+            long id = in.readLong();
+            String tenantId = in.readUTF();
+            BigDecimal amount = new BigDecimal(in.readUTF());
+            String currency = in.readUTF();
+            ExpenseCategory category = ExpenseCategory.values()[in.readByte()];
+            LocalDate date = LocalDate.ofEpochDay(in.readLong());
+            String description = in.readBoolean() ? in.readUTF() : null;
+            String[] tags = new String[in.readByte()];
+            for (int i = 0; i < tags.length; i++) {
+                tags[i] = in.readUTF();
+            }
+            Expense expense = new Expense(amount, category, description, date);
+            expense.setId(id);
+            expense.setTenantId(tenantId);
+            expense.setCurrency(currency);
+            expense.setTags(List.of(tags));
+            expenses.add(expense);
+        }
+        return new ExpenseChangedEvent(type, expenses, true);
+    }
+
+    private static Thread daemon(String name, Runnable task) {
+        Thread thread = new Thread(task, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private final class Peer {
+
+        private final InetSocketAddress address;
+        private final BlockingQueue<byte[]> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        private volatile boolean connected;
+        // Set when events may have been lost; cleared by sending a resync.
+        private volatile boolean missed;
+        private volatile Socket socket;
+
+        Peer(InetSocketAddress address) {
+            this.address = address;
+        }
+
+        void offer(byte[] frame) {
+            if (!connected || !queue.offer(frame)) {
+                missed = true;
+                dropped.increment();
+            }
+        }
+
+        void run() {
+            while (running) {
+                try (Socket connection = new Socket()) {
+                    socket = connection;
+                    connection.connect(address, (int) reconnectInterval.toMillis());
+                    connection.setTcpNoDelay(true);
+                    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(connection.getOutputStream()));
+                    connected = true;
+                    log.info("Connected to cluster peer {}", address);
+                    send(out);
+                } catch (IOException ex) {
+                    if (connected) {
+                        log.warn("Lost connection to cluster peer {}: {}", address, ex.getMessage());
+                    }
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } finally {
+                    if (connected) {
+                        // Whatever was queued or in the socket buffer may never have arrived.
+                        connected = false;
+                        missed = true;
+                        queue.clear();
+                    }
+                }
+                if (!pause()) {
+                    return;
+                }
+            }
+        }
+
+        private void send(DataOutputStream out) throws IOException, InterruptedException {
+            while (running) {
+                if (missed) {
+                    missed = false;
+                    resyncs.increment();
+                    out.write(encode(nodeId, ExpenseChangedEvent.bulk()));
+                    out.flush();
+                }
+                byte[] frame = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (frame == null) {
+                    continue;
+                }
+                out.write(frame);
+                sent.increment();
+                // Batch whatever else is already queued into the same flush.
+                while ((frame = queue.poll()) != null) {
+                    out.write(frame);
+                    sent.increment();
+                }
+                out.flush();
+            }
+        }
+
+        void close() {
+            Socket current = socket;
+            if (current != null) {
+                try {
+                    current.close();
+                } catch (IOException ex) {
+                    // Shutting down anyway.
+                }
+            }
+        }
+
+        private boolean pause() {
+            try {
+                Thread.sleep(reconnectInterval.toMillis());
+                return true;
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+    }
+}
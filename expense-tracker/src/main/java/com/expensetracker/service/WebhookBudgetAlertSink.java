@@ -0,0 +1,57 @@
+package com.expensetracker.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/** Posts each alert as a JSON object to {@code expense.budget.webhook-url}; failures are logged, not retried. */
+@Component
+@ConditionalOnProperty(name = "expense.budget.alert-sink", havingValue = "webhook")
+public class WebhookBudgetAlertSink implements BudgetAlertSink {
+
+    private static final Logger log = LoggerFactory.getLogger(WebhookBudgetAlertSink.class);
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${expense.budget.webhook-url}")
+    private URI webhookUrl;
+
+    @Value("${expense.budget.webhook-timeout:PT5S}")
+    private Duration timeout = Duration.ofSeconds(5);
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+    @Override
+    public void send(BudgetAlert alert) {
+        String body;
+        try {
+            body = objectMapper.writeValueAsString(alert);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException(ex);
+        }
+        HttpRequest request = HttpRequest.newBuilder(webhookUrl)
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+            if (error != null) {
+                log.warn("Budget webhook {} failed: {}", webhookUrl, error.toString());
+            } else if (response.statusCode() >= 300) {
+                log.warn("Budget webhook {} answered {}", webhookUrl, response.statusCode());
+            }
+        });
+    }
+}
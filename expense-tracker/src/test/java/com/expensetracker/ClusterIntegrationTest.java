@@ -0,0 +1,145 @@
+package com.expensetracker;
+
+import com.expensetracker.config.TenantContext;
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.ExpenseCategory;
+import com.expensetracker.repository.ExpenseJournal;
+import com.expensetracker.service.ClusterService;
+import com.expensetracker.service.ExpenseAnalyticsService;
+import com.expensetracker.service.ExpenseService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.ServerSocket;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Two nodes sharing one database, each started as its own application context. */
+public class ClusterIntegrationTest {
+
+    private static final String TENANT = "cluster";
+
+    @Test
+    void testLocalBusKeepsAnalyticsInStepAcrossNodes() throws Exception {
+        try (ConfigurableApplicationContext first = startNode("local-bus", "--expense.cluster.bus=local");
+             ConfigurableApplicationContext second = startNode("local-bus", "--expense.cluster.bus=local")) {
+            assertNodesStayInStep(first, second);
+        }
+    }
+
+    @Test
+    void testSocketBusKeepsAnalyticsInStepAcrossNodes() throws Exception {
+        int firstPort = freePort();
+        int secondPort = freePort();
+        try (ConfigurableApplicationContext first = startNode("socket-bus", "--expense.cluster.bus=socket",
+                "--expense.cluster.port=" + firstPort, "--expense.cluster.peers=127.0.0.1:" + secondPort);
+             ConfigurableApplicationContext second = startNode("socket-bus", "--expense.cluster.bus=socket",
+                     "--expense.cluster.port=" + secondPort, "--expense.cluster.peers=127.0.0.1:" + firstPort)) {
+            awaitTrue(() -> connectedPeers(first) == 1 && connectedPeers(second) == 1);
+
+            assertNodesStayInStep(first, second);
+            assertThat(second.getBean(ClusterService.class).getMetrics()).containsEntry("dropped", 0L);
+        }
+    }
+
+    @Test
+    void testNodesRacingOnAnIdempotencyKeyJournalAndFingerprintOneExpense(@TempDir Path dir) throws Exception {
+        try (ConfigurableApplicationContext first = startNode("key-race", "--expense.journal.dir=" + dir.resolve("first"));
+             ConfigurableApplicationContext second = startNode("key-race", "--expense.journal.dir=" + dir.resolve("second"))) {
+            int keys = 20;
+            ExecutorService pool = Executors.newFixedThreadPool(2);
+            try {
+                for (int i = 0; i < keys; i++) {
+                    String key = "race-" + i;
+                    CountDownLatch start = new CountDownLatch(1);
+                    List<Future<Expense>> results = new ArrayList<>();
+                    for (ConfigurableApplicationContext node : List.of(first, second)) {
+                        ExpenseService service = node.getBean(ExpenseService.class);
+                        results.add(pool.submit(() -> {
+                            start.await();
+                            return TenantContext.callAs(TENANT, () -> service.createExpense(new Expense(
+                                    new BigDecimal("10.00"), ExpenseCategory.FOOD, "Order " + key, LocalDate.of(2025, 5, 2)), key));
+                        }));
+                    }
+                    start.countDown();
+                    assertThat(results.get(1).get().getId()).isEqualTo(results.get(0).get().getId());
+                }
+            } finally {
+                pool.shutdown();
+            }
+
+            int journaled = first.getBean(ExpenseJournal.class).read(0, 1000).size()
+                    + second.getBean(ExpenseJournal.class).read(0, 1000).size();
+            Long fingerprints = first.getBean(JdbcTemplate.class).queryForObject(
+                    "SELECT COUNT(*) FROM expense_fingerprint WHERE tenant_id = ?", Long.class, TENANT);
+            assertThat(journaled).isEqualTo(keys);
+            assertThat(fingerprints).isEqualTo(keys);
+        }
+    }
+
+    private void assertNodesStayInStep(ConfigurableApplicationContext first, ConfigurableApplicationContext second)
+            throws InterruptedException {
+        ExpenseService writer = first.getBean(ExpenseService.class);
+        ExpenseAnalyticsService reader = second.getBean(ExpenseAnalyticsService.class);
+        // Loads the tenant's sketches on the second node before anything is written.
+        assertThat(expensesSeenBy(reader)).isZero();
+
+        Expense created = TenantContext.callAs(TENANT, () -> writer.createExpense(
+                new Expense(new BigDecimal("12.00"), ExpenseCategory.FOOD, "Team lunch", LocalDate.of(2025, 5, 2))));
+        awaitTrue(() -> expensesSeenBy(reader) == 1);
+
+        TenantContext.callAs(TENANT, () -> {
+            writer.deleteExpense(created.getId());
+            return null;
+        });
+        awaitTrue(() -> expensesSeenBy(reader) == 0);
+    }
+
+    private static long expensesSeenBy(ExpenseAnalyticsService analytics) {
+        return (long) TenantContext.callAs(TENANT, () -> analytics.getDescriptionStats(null, null, null, 5)).get("expenses");
+    }
+
+    private static long connectedPeers(ConfigurableApplicationContext node) {
+        return (long) node.getBean(ClusterService.class).getMetrics().get("connectedPeers");
+    }
+
+    private static ConfigurableApplicationContext startNode(String database, String... args) {
+        String[] common = {
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:" + database,
+                "--spring.main.banner-mode=off"
+        };
+        String[] all = new String[common.length + args.length];
+        System.arraycopy(common, 0, all, 0, common.length);
+        System.arraycopy(args, 0, all, common.length, args.length);
+        return new SpringApplicationBuilder(PersonalExpenseTrackerApplication.class).run(all);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static void awaitTrue(Supplier<Boolean> condition) throws InterruptedException {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (!condition.get()) {
+            assertThat(System.nanoTime()).as("condition not met within 10 s").isLessThan(deadline);
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.expensetracker;
+
+import com.expensetracker.config.TenantContext;
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.ExpenseCategory;
+import com.expensetracker.repository.ExpenseRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+public class ExpenseArchiveIntegrationTest {
+
+    @TempDir
+    static Path archiveDir;
+
+    @DynamicPropertySource
+    static void archiveProperties(DynamicPropertyRegistry registry) {
+        registry.add("expense.archive.dir", () -> archiveDir.resolve("segments").toString());
+        registry.add("expense.archive.horizon-months", () -> "12");
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    private final LocalDate old = LocalDate.now().minusYears(2).withDayOfMonth(10);
+    private final LocalDate recent = LocalDate.now().withDayOfMonth(1);
+
+    @BeforeEach
+    void setUp() {
+        expenseRepository.deleteAll();
+    }
+
+    @Test
+    void testArchiveMovesOldPartitionsAndReadsMergeThem() throws Exception {
+        Expense archived = expenseRepository.save(new Expense(new BigDecimal("100.00"), ExpenseCategory.FOOD, "Old dinner", old));
+        expenseRepository.save(new Expense(new BigDecimal("40.00"), ExpenseCategory.BILLS, "Old bill", old.plusDays(1)));
+        expenseRepository.save(new Expense(new BigDecimal("25.00"), ExpenseCategory.FOOD, "Recent lunch", recent));
+
+        mockMvc.perform(post("/api/admin/archive"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].rows").value(2));
+
+        assertThat(expenseRepository.findAll()).extracting(Expense::getDescription).containsExactly("Recent lunch");
+
+        mockMvc.perform(get("/api/expenses"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(3))
+                .andExpect(jsonPath("$.content[0].description").value("Old dinner"))
+                .andExpect(jsonPath("$.content[2].description").value("Recent lunch"));
+
+        mockMvc.perform(get("/api/expenses?size=1&page=2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].description").value("Recent lunch"));
+
+        mockMvc.perform(get("/api/expenses?category=FOOD"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(2));
+
+        mockMvc.perform(get("/api/expenses/" + archived.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.description").value("Old dinner"));
+
+        mockMvc.perform(get("/api/expenses/summary?startDate=" + old.withDayOfMonth(1) + "&endDate=" + recent))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].month").value(old.getMonthValue()))
+                .andExpect(jsonPath("$[0].total").value(140.00))
+                .andExpect(jsonPath("$[1].total").value(25.00));
+
+        mockMvc.perform(get("/api/expenses/category-summary"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.category == 'FOOD')].total").value(125.00))
+                .andExpect(jsonPath("$[?(@.category == 'BILLS')].total").value(40.00));
+
+        mockMvc.perform(delete("/api/expenses/" + archived.getId()))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/api/admin/archive"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].rows").value(2));
+    }
+
+    @Test
+    void testSortedPagesMergeArchivedAndRecentRows() throws Exception {
+        // A tenant of its own, as the segments of the other test stay in the shared archive directory.
+        TenantContext.callAs("sorted", () -> {
+            expenseRepository.save(new Expense(new BigDecimal("100.00"), ExpenseCategory.FOOD, "Old dinner", old));
+            expenseRepository.save(new Expense(new BigDecimal("40.00"), ExpenseCategory.BILLS, "Old bill", old.plusDays(1)));
+            return null;
+        });
+        mockMvc.perform(post("/api/admin/archive"))
+                .andExpect(status().isOk());
+        TenantContext.callAs("sorted", () -> {
+            expenseRepository.save(new Expense(new BigDecimal("25.00"), ExpenseCategory.FOOD, "Recent lunch", recent));
+            expenseRepository.save(new Expense(new BigDecimal("60.00"), ExpenseCategory.OTHER, "Recent gift", recent));
+            // Entered late for an archived month, so it sits in the table among archived dates.
+            expenseRepository.save(new Expense(new BigDecimal("5.00"), ExpenseCategory.FOOD, "Late receipt", old.plusDays(2)));
+            return null;
+        });
+
+        try {
+            mockMvc.perform(get("/api/expenses?sort=amount,desc&size=2").header("X-Tenant-Id", "sorted"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.totalElements").value(5))
+                    .andExpect(jsonPath("$.content[0].description").value("Old dinner"))
+                    .andExpect(jsonPath("$.content[1].description").value("Recent gift"));
+            mockMvc.perform(get("/api/expenses?sort=amount,desc&size=2&page=1").header("X-Tenant-Id", "sorted"))
+                    .andExpect(jsonPath("$.content[0].description").value("Old bill"))
+                    .andExpect(jsonPath("$.content[1].description").value("Recent lunch"));
+            mockMvc.perform(get("/api/expenses?sort=date&sort=description&size=3").header("X-Tenant-Id", "sorted"))
+                    .andExpect(jsonPath("$.content[0].description").value("Old dinner"))
+                    .andExpect(jsonPath("$.content[1].description").value("Old bill"))
+                    .andExpect(jsonPath("$.content[2].description").value("Late receipt"));
+            mockMvc.perform(get("/api/expenses?category=FOOD&sort=description&size=2&page=1").header("X-Tenant-Id", "sorted"))
+                    .andExpect(jsonPath("$.totalElements").value(3))
+                    .andExpect(jsonPath("$.content.length()").value(1))
+                    .andExpect(jsonPath("$.content[0].description").value("Recent lunch"));
+        } finally {
+            TenantContext.callAs("sorted", () -> {
+                expenseRepository.deleteAll();
+                return null;
+            });
+        }
+    }
+}
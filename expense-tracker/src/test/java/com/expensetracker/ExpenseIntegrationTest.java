@@ -1,10 +1,15 @@
 package com.expensetracker;
 
+import com.expensetracker.config.SqlStatementBudget;
+import com.expensetracker.config.TenantContext;
 import com.expensetracker.model.Expense;
 import com.expensetracker.model.ExpenseCategory;
 import com.expensetracker.repository.ExpenseRepository;
+import com.expensetracker.service.ExpenseAnalyticsService;
+import com.expensetracker.service.ExpenseService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -13,13 +18,18 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -34,6 +44,12 @@ public class ExpenseIntegrationTest {
     @Autowired
     private ExpenseRepository expenseRepository;
 
+    @Autowired
+    private ExpenseAnalyticsService expenseAnalyticsService;
+
+    @Autowired
+    private ExpenseService expenseService;
+
     private ObjectMapper objectMapper;
 
     @BeforeEach
@@ -58,6 +74,29 @@ public class ExpenseIntegrationTest {
         assertThat(expenseRepository.findAll()).hasSize(1);
     }
 
+    @Test
+    void testCreateExpenseWithSameIdempotencyKeyInsertsOnce() throws Exception {
+        Expense expense = new Expense(new BigDecimal("50.00"), ExpenseCategory.FOOD, "Dinner", LocalDate.now());
+        String body = objectMapper.writeValueAsString(expense);
+
+        String first = mockMvc.perform(post("/api/expenses")
+                .header("Idempotency-Key", "dinner-retry")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+
+        String retried = mockMvc.perform(post("/api/expenses")
+                .header("Idempotency-Key", "dinner-retry")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(objectMapper.readTree(retried).get("id")).isEqualTo(objectMapper.readTree(first).get("id"));
+        assertThat(expenseRepository.findAll()).hasSize(1);
+    }
+
     @Test
     void testGetAllExpenses() throws Exception {
         expenseRepository.save(new Expense(new BigDecimal("10.00"), ExpenseCategory.FOOD, "Lunch", LocalDate.now()));
@@ -70,6 +109,31 @@ public class ExpenseIntegrationTest {
                 .andExpect(jsonPath("$.totalElements").value(2));
     }
 
+    @Test
+    void testGetAllExpensesInCompactFormats() throws Exception {
+        expenseRepository.save(new Expense(new BigDecimal("10.00"), ExpenseCategory.FOOD, "Lunch", LocalDate.of(2025, 6, 1)));
+        expenseRepository.save(new Expense(new BigDecimal("20.00"), ExpenseCategory.TRANSPORTATION, "Bus", LocalDate.of(2025, 6, 2)));
+
+        mockMvc.perform(get("/api/expenses?sort=date").accept("application/vnd.expense.columnar+json"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/vnd.expense.columnar+json"))
+                .andExpect(jsonPath("$.columns.amount[1]").value(20.00))
+                .andExpect(jsonPath("$.columns.category[0]").value("FOOD"))
+                .andExpect(jsonPath("$.columns.date[1]").value("2025-06-02"))
+                .andExpect(jsonPath("$.totalElements").value(2));
+
+        byte[] cbor = mockMvc.perform(get("/api/expenses?sort=date").accept("application/cbor"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/cbor"))
+                .andReturn().getResponse().getContentAsByteArray();
+        var tree = new ObjectMapper(new CBORFactory()).readTree(cbor);
+        assertThat(tree.get("content").get(0).get("description").asText()).isEqualTo("Lunch");
+
+        mockMvc.perform(get("/api/expenses").accept("*/*"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+
     @Test
     void testGetExpenseById() throws Exception {
         Expense savedExpense = expenseRepository.save(new Expense(new BigDecimal("100.00"), ExpenseCategory.ENTERTAINMENT, "Movie", LocalDate.now()));
@@ -159,6 +223,463 @@ public class ExpenseIntegrationTest {
                 .andExpect(jsonPath("$[?(@.category == 'TRANSPORTATION')].total").value(200.00));
     }
 
+    @Test
+    void testGetAnalyticsFollowsWrites() throws Exception {
+        for (int i = 1; i <= 9; i++) {
+            expenseRepository.save(new Expense(new BigDecimal(i + ".00"), ExpenseCategory.FOOD, i % 3 == 0 ? "Coffee" : "Lunch " + i, LocalDate.of(2025, 3, i)));
+        }
+        expenseAnalyticsService.rebuild();
+
+        mockMvc.perform(get("/api/expenses/analytics/percentiles?startDate=2025-03-01&endDate=2025-03-31"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].category").value("FOOD"))
+                .andExpect(jsonPath("$[0].count").value(9))
+                .andExpect(jsonPath("$[0].median").value(5.00))
+                .andExpect(jsonPath("$[0].max").value(9.00));
+
+        Expense coffee = new Expense(new BigDecimal("4.50"), ExpenseCategory.FOOD, "Coffee", LocalDate.of(2025, 3, 20));
+        mockMvc.perform(post("/api/expenses")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(coffee)))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/api/expenses/analytics/descriptions?category=FOOD&top=1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.expenses").value(10))
+                .andExpect(jsonPath("$.distinctDescriptions").value(7))
+                .andExpect(jsonPath("$.topDescriptions[0].description").value("Coffee"))
+                .andExpect(jsonPath("$.topDescriptions[0].count").value(4));
+
+        mockMvc.perform(get("/api/expenses/analytics/percentiles?groupBy=week"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testAnalyticsRefreshRebuildsOnlyMonthsWithDeletes() throws Exception {
+        for (int i = 1; i <= 9; i++) {
+            expenseRepository.save(new Expense(new BigDecimal(i + ".00"), ExpenseCategory.FOOD, "Lunch " + i, LocalDate.of(2025, 3, i)));
+        }
+        expenseAnalyticsService.rebuild();
+        mockMvc.perform(get("/api/expenses/analytics/percentiles?startDate=2025-04-01&endDate=2025-04-30"))
+                .andExpect(status().isOk());
+        // Saved without an event once the tenant is loaded, so only a rescan of its month would count it.
+        expenseRepository.save(new Expense(new BigDecimal("50.00"), ExpenseCategory.FOOD, "Unannounced", LocalDate.of(2025, 4, 1)));
+        Long largest = expenseRepository.findAll().stream()
+                .filter(expense -> expense.getAmount().compareTo(new BigDecimal("9.00")) == 0)
+                .findFirst().orElseThrow().getId();
+
+        mockMvc.perform(delete("/api/expenses/" + largest))
+                .andExpect(status().isNoContent());
+        expenseAnalyticsService.refresh();
+
+        mockMvc.perform(get("/api/expenses/analytics/percentiles?startDate=2025-03-01&endDate=2025-03-31"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].count").value(8))
+                .andExpect(jsonPath("$[0].max").value(8.00));
+        mockMvc.perform(get("/api/expenses/analytics/percentiles?startDate=2025-04-01&endDate=2025-04-30"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    void testTrendsFollowWrites() throws Exception {
+        expenseRepository.save(new Expense(new BigDecimal("100.00"), ExpenseCategory.FOOD, "Groceries", LocalDate.of(2025, 2, 10)));
+        expenseRepository.save(new Expense(new BigDecimal("150.00"), ExpenseCategory.FOOD, "Groceries", LocalDate.of(2025, 3, 5)));
+        expenseRepository.save(new Expense(new BigDecimal("60.00"), ExpenseCategory.FOOD, "Groceries", LocalDate.of(2025, 4, 2)));
+        expenseRepository.save(new Expense(new BigDecimal("30.00"), ExpenseCategory.TRANSPORTATION, "Taxi", LocalDate.of(2025, 4, 10)));
+        expenseAnalyticsService.rebuild();
+
+        mockMvc.perform(get("/api/expenses/trends?asOf=2025-04-10&months=2&window=2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.daysRemaining").value(20))
+                .andExpect(jsonPath("$.months.length()").value(2))
+                .andExpect(jsonPath("$.months[0].month").value(3))
+                .andExpect(jsonPath("$.months[0].total").value(150.00))
+                .andExpect(jsonPath("$.months[0].changePercent").value(50.0))
+                .andExpect(jsonPath("$.months[0].movingAverage").value(125.00))
+                .andExpect(jsonPath("$.months[1].total").value(90.00))
+                .andExpect(jsonPath("$.months[1].count").value(2))
+                .andExpect(jsonPath("$.months[1].change").value(-60.00))
+                .andExpect(jsonPath("$.months[1].partial").value(true))
+                .andExpect(jsonPath("$.categories[0].category").value("FOOD"))
+                .andExpect(jsonPath("$.categories[0].runRate").value(2.00))
+                .andExpect(jsonPath("$.categories[0].forecast").value(100.00))
+                .andExpect(jsonPath("$.forecast.monthToDate").value(90.00))
+                .andExpect(jsonPath("$.forecast.forecast").value(150.00));
+
+        Expense dinner = new Expense(new BigDecimal("30.00"), ExpenseCategory.FOOD, "Dinner", LocalDate.of(2025, 4, 8));
+        String created = mockMvc.perform(post("/api/expenses")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(dinner)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        mockMvc.perform(get("/api/expenses/trends?asOf=2025-04-10&months=1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.categories[0].monthToDate").value(90.00))
+                .andExpect(jsonPath("$.categories[0].forecast").value(150.00));
+
+        mockMvc.perform(delete("/api/expenses/{id}", objectMapper.readTree(created).get("id").asLong()))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/expenses/trends?asOf=2025-04-10&months=1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.categories[0].monthToDate").value(60.00));
+
+        mockMvc.perform(get("/api/expenses/trends?months=0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testTrendsFollowImportedRowsWithoutRescanning() throws Exception {
+        expenseAnalyticsService.rebuild();
+        // Loads both tenants before the writes below.
+        mockMvc.perform(get("/api/expenses/trends?asOf=2025-04-10&months=1").header("X-Tenant-Id", "globex"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.months[0].count").value(0));
+        mockMvc.perform(get("/api/expenses/trends?asOf=2025-04-10&months=1"))
+                .andExpect(status().isOk());
+        // Saved without an event, so only a rescan of the tenant would count it.
+        expenseRepository.save(new Expense(new BigDecimal("500.00"), ExpenseCategory.FOOD, "Unannounced", LocalDate.of(2025, 4, 1)));
+        String rows = """
+                [{"amount": 40.00, "category": "FOOD", "description": "Groceries", "date": "2025-04-03"},
+                 {"amount": 20.00, "category": "FOOD", "description": "Lunch", "date": "2025-04-04"}]""";
+        mockMvc.perform(post("/api/expenses/import").header("X-Tenant-Id", "globex")
+                .contentType(MediaType.APPLICATION_JSON).content(rows))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/expenses/trends?asOf=2025-04-10&months=1").header("X-Tenant-Id", "globex"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.months[0].total").value(60.00))
+                .andExpect(jsonPath("$.months[0].count").value(2));
+        mockMvc.perform(get("/api/expenses/trends?asOf=2025-04-10&months=1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.months[0].count").value(0));
+    }
+
+    @Test
+    void testBudgetStatusFollowsWrites() throws Exception {
+        mockMvc.perform(put("/api/budgets/FOOD")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"monthlyLimit\": 100.00}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.category").value("FOOD"));
+        expenseRepository.save(new Expense(new BigDecimal("45.00"), ExpenseCategory.FOOD, "Groceries", LocalDate.of(2025, 6, 3)));
+
+        Expense dinner = new Expense(new BigDecimal("40.00"), ExpenseCategory.FOOD, "Dinner", LocalDate.of(2025, 6, 20));
+        mockMvc.perform(post("/api/expenses")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(dinner)))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/api/budgets/status?month=2025-06"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].category").value("FOOD"))
+                .andExpect(jsonPath("$[0].spent").value(85.00))
+                .andExpect(jsonPath("$[0].remaining").value(15.00))
+                .andExpect(jsonPath("$[0].thresholdsReached.length()").value(2));
+
+        mockMvc.perform(put("/api/budgets/FOOD")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"monthlyLimit\": -5}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(delete("/api/budgets/SHOPPING"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testSummariesConvertToReportCurrency() throws Exception {
+        mockMvc.perform(put("/api/fx-rates/EUR/2025-06-01")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"rate\": 1.10}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(put("/api/fx-rates/EUR/2025-06-15")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"rate\": 1.20}"))
+                .andExpect(status().isOk());
+        for (String[] row : new String[][]{{"100.00", "EUR", "FOOD", "2025-06-10"}, {"100.00", "EUR", "FOOD", "2025-06-20"},
+                {"50.00", "USD", "BILLS", "2025-06-20"}}) {
+            mockMvc.perform(post("/api/expenses")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"amount\": " + row[0] + ", \"currency\": \"" + row[1] + "\", \"category\": \"" + row[2]
+                            + "\", \"description\": \"Trip\", \"date\": \"" + row[3] + "\"}"))
+                    .andExpect(status().isCreated())
+                    .andExpect(jsonPath("$.currency").value(row[1]));
+        }
+
+        try {
+            mockMvc.perform(get("/api/expenses/summary?startDate=2025-06-01&endDate=2025-06-30&reportCurrency=USD"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[0].total").value(280.00))
+                    .andExpect(jsonPath("$[0].currency").value("USD"));
+            mockMvc.perform(get("/api/expenses/summary?startDate=2025-06-01&endDate=2025-06-30&reportCurrency=EUR"))
+                    .andExpect(jsonPath("$[0].total").value(241.67));
+            mockMvc.perform(get("/api/expenses/category-summary?reportCurrency=USD"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[?(@.category == 'FOOD')].total").value(230.00))
+                    .andExpect(jsonPath("$[?(@.category == 'BILLS')].total").value(50.00));
+            mockMvc.perform(get("/api/expenses/category-summary?reportCurrency=GBP"))
+                    .andExpect(status().isBadRequest());
+            mockMvc.perform(post("/api/expenses")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"amount\": 1.00, \"currency\": \"eur\", \"category\": \"FOOD\", \"description\": \"Gum\", "
+                            + "\"date\": \"2025-06-20\"}"))
+                    .andExpect(status().isBadRequest());
+        } finally {
+            // Rates are shared by every tenant and outlive this test's context.
+            mockMvc.perform(delete("/api/fx-rates/EUR/2025-06-01")).andExpect(status().isNoContent());
+            mockMvc.perform(delete("/api/fx-rates/EUR/2025-06-15")).andExpect(status().isNoContent());
+        }
+    }
+
+    @Test
+    void testTenantsSeeOnlyTheirOwnExpenses() throws Exception {
+        Expense lunch = new Expense(new BigDecimal("12.00"), ExpenseCategory.FOOD, "Lunch", LocalDate.of(2025, 4, 2));
+        String acmeBody = mockMvc.perform(post("/api/expenses")
+                .header("X-Tenant-Id", "acme")
+                .header("Idempotency-Key", "order-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(lunch)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.tenantId").doesNotExist())
+                .andReturn().getResponse().getContentAsString();
+        long acmeId = objectMapper.readTree(acmeBody).get("id").asLong();
+
+        // The same key in another tenant is a different request.
+        String globexBody = mockMvc.perform(post("/api/expenses")
+                .header("X-Tenant-Id", "globex")
+                .header("Idempotency-Key", "order-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(lunch)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        assertThat(objectMapper.readTree(globexBody).get("id").asLong()).isNotEqualTo(acmeId);
+
+        mockMvc.perform(get("/api/expenses/" + acmeId).header("X-Tenant-Id", "acme"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/expenses/" + acmeId).header("X-Tenant-Id", "globex"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(delete("/api/expenses/" + acmeId))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/expenses/category-summary").header("X-Tenant-Id", "acme"))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].total").value(12.00));
+        mockMvc.perform(get("/api/expenses"))
+                .andExpect(jsonPath("$.totalElements").value(0));
+        mockMvc.perform(get("/api/expenses").header("X-Tenant-Id", "not a tenant"))
+                .andExpect(status().isBadRequest());
+
+        List<Expense> acmeRows = TenantContext.callAs("acme", expenseRepository::findAll);
+        assertThat(acmeRows).extracting(Expense::getTenantId).containsExactly("acme");
+        for (String tenant : new String[] {"acme", "globex"}) {
+            TenantContext.callAs(tenant, () -> {
+                expenseRepository.deleteAll();
+                return null;
+            });
+        }
+    }
+
+    @Test
+    void testDashboardCombinesListAndSummaries() throws Exception {
+        for (String[] row : new String[][]{{"30.00", "FOOD", "2025-03-05"}, {"20.00", "BILLS", "2025-03-20"},
+                {"15.00", "FOOD", "2025-04-01"}}) {
+            mockMvc.perform(post("/api/expenses")
+                    .header("X-Tenant-Id", "acme")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"amount\": " + row[0] + ", \"category\": \"" + row[1]
+                            + "\", \"description\": \"Dash\", \"date\": \"" + row[2] + "\"}"))
+                    .andExpect(status().isCreated());
+        }
+
+        try {
+            // The pool threads must run as the caller's tenant, or every section would be empty.
+            mockMvc.perform(get("/api/expenses/dashboard?startDate=2025-03-01&endDate=2025-03-31&size=1")
+                    .header("X-Tenant-Id", "acme"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.expenses.totalElements").value(2))
+                    .andExpect(jsonPath("$.expenses.content.length()").value(1))
+                    .andExpect(jsonPath("$.monthlySummary.length()").value(1))
+                    .andExpect(jsonPath("$.monthlySummary[0].total").value(50.00))
+                    .andExpect(jsonPath("$.categorySummary[?(@.category == 'FOOD')].total").value(45.00));
+            mockMvc.perform(get("/api/expenses/dashboard"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.expenses.totalElements").value(0));
+            mockMvc.perform(get("/api/expenses/dashboard?startDate=2025-03-31&endDate=2025-03-01")
+                    .header("X-Tenant-Id", "acme"))
+                    .andExpect(status().isBadRequest());
+        } finally {
+            TenantContext.callAs("acme", () -> {
+                expenseRepository.deleteAll();
+                return null;
+            });
+        }
+    }
+
+    @Test
+    void testTagFiltersCombineWithCategoryAndDates() throws Exception {
+        LocalDate day = LocalDate.of(2025, 3, 10);
+        Expense flight = new Expense(new BigDecimal("300.00"), ExpenseCategory.TRANSPORTATION, "Flight", day);
+        flight.setTags(List.of("Trip-Berlin", "client-acme"));
+        Expense hotel = new Expense(new BigDecimal("180.00"), ExpenseCategory.OTHER, "Hotel", day.plusDays(1));
+        hotel.setTags(List.of("trip-berlin", "client-acme"));
+        Expense dinner = new Expense(new BigDecimal("45.00"), ExpenseCategory.FOOD, "Dinner", day.plusDays(1));
+        dinner.setTags(List.of("trip-berlin", "personal"));
+        expenseRepository.saveAll(List.of(flight, hotel, dinner));
+        expenseRepository.save(new Expense(new BigDecimal("9.00"), ExpenseCategory.FOOD, "Untagged lunch", day));
+
+        mockMvc.perform(get("/api/expenses?tags=trip-berlin,CLIENT-ACME&sort=amount"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(2))
+                .andExpect(jsonPath("$.content[0].description").value("Hotel"))
+                .andExpect(jsonPath("$.content[1].tags[0]").value("client-acme"));
+        mockMvc.perform(get("/api/expenses?tags=trip-berlin&excludeTags=personal&category=TRANSPORTATION"))
+                .andExpect(jsonPath("$.totalElements").value(1))
+                .andExpect(jsonPath("$.content[0].description").value("Flight"));
+        mockMvc.perform(get("/api/expenses?anyTags=personal,client-acme&startDate=2025-03-11&endDate=2025-03-31"))
+                .andExpect(jsonPath("$.totalElements").value(2));
+
+        // Writes after the index is loaded are applied to it.
+        Expense taxi = new Expense(new BigDecimal("30.00"), ExpenseCategory.TRANSPORTATION, "Taxi", day.plusDays(2));
+        taxi.setTags(List.of("trip-berlin"));
+        mockMvc.perform(post("/api/expenses")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(taxi)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.tags[0]").value("trip-berlin"));
+        mockMvc.perform(delete("/api/expenses/" + dinner.getId()))
+                .andExpect(status().isNoContent());
+        // Resolved in the index, so only the page is read, and nothing at all when no expense matches.
+        SqlStatementBudget.assertAtMost(1, () -> mockMvc.perform(get("/api/expenses?tags=trip-berlin"))
+                .andExpect(jsonPath("$.totalElements").value(3)));
+        SqlStatementBudget.assertAtMost(0, () -> mockMvc.perform(get("/api/expenses?tags=trip-berlin,personal"))
+                .andExpect(jsonPath("$.totalElements").value(0)));
+        mockMvc.perform(get("/api/expenses/tags"))
+                .andExpect(jsonPath("$[0].tag").value("trip-berlin"))
+                .andExpect(jsonPath("$[0].count").value(3))
+                .andExpect(jsonPath("$.length()").value(2));
+
+        Expense invalid = new Expense(new BigDecimal("1.00"), ExpenseCategory.OTHER, "Bad tag", day);
+        invalid.setTags(List.of("no spaces allowed"));
+        mockMvc.perform(post("/api/expenses")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(invalid)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testTagMatchCapIsAppliedWithinTheDateRange() throws Exception {
+        ReflectionTestUtils.setField(expenseService, "maxTagMatches", 3L);
+        for (int month = 1; month <= 4; month++) {
+            for (int day = 1; day <= 2; day++) {
+                Expense groceries = new Expense(new BigDecimal("25.00"), ExpenseCategory.FOOD, "Groceries",
+                        LocalDate.of(2025, month, day * 10));
+                groceries.setTags(List.of("groceries"));
+                expenseRepository.save(groceries);
+            }
+        }
+
+        mockMvc.perform(get("/api/expenses?tags=groceries"))
+                .andExpect(status().isBadRequest())
+                .andExpect(result -> assertThat(result.getResolvedException())
+                        .hasMessageContaining("add tags, a category or a date range"));
+        mockMvc.perform(get("/api/expenses?tags=groceries&startDate=2025-02-01&endDate=2025-02-28"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(2));
+        mockMvc.perform(get("/api/expenses?tags=groceries&startDate=2025-03-15&endDate=2025-03-31"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(1));
+        // The cap counts whole months, so a range touching three of them is still too broad.
+        mockMvc.perform(get("/api/expenses?tags=groceries&startDate=2025-01-15&endDate=2025-03-05"))
+                .andExpect(status().isBadRequest())
+                .andExpect(result -> assertThat(result.getResolvedException()).hasMessageContaining("narrow the range"));
+    }
+
+    @Test
+    void testImportSkipsOrFlagsTransactionsAlreadyImported() throws Exception {
+        String january = """
+                [{"amount": 3.20, "category": "FOOD", "description": "COFFEE BAR  #12", "date": "2025-01-31"},
+                 {"amount": 3.20, "category": "FOOD", "description": "COFFEE BAR  #12", "date": "2025-01-31"},
+                 {"amount": 64.00, "category": "BILLS", "description": "Phone bill", "date": "2025-01-31"}]""";
+        mockMvc.perform(post("/api/expenses/import").contentType(MediaType.APPLICATION_JSON).content(january))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(3))
+                .andExpect(jsonPath("$.duplicates").value(0));
+
+        // The next export overlaps on the last day, formatted differently, and adds a third coffee.
+        String february = """
+                [{"amount": 3.2, "category": "FOOD", "description": "Coffee Bar #12", "date": "2025-01-31"},
+                 {"amount": 64, "category": "BILLS", "description": "PHONE BILL", "date": "2025-01-31"},
+                 {"amount": 3.2, "category": "FOOD", "description": "coffee bar 12", "date": "2025-01-31"},
+                 {"amount": 3.2, "category": "FOOD", "description": "coffee bar 12", "date": "2025-01-31"},
+                 {"amount": 41.90, "category": "SHOPPING", "description": "Books", "date": "2025-02-01"}]""";
+        mockMvc.perform(post("/api/expenses/import").contentType(MediaType.APPLICATION_JSON).content(february))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.skipped").value(3))
+                .andExpect(jsonPath("$.duplicateRows[*].index").value(contains(0, 1, 2)));
+        assertThat(expenseRepository.findAll()).hasSize(5);
+
+        mockMvc.perform(post("/api/expenses/import?duplicates=flag").contentType(MediaType.APPLICATION_JSON).content(february))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(5))
+                .andExpect(jsonPath("$.duplicates").value(5))
+                .andExpect(jsonPath("$.duplicateRows[4].id").isNumber());
+        assertThat(expenseRepository.findAll()).hasSize(10);
+
+        mockMvc.perform(post("/api/expenses/import").contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"amount\": 1, \"category\": \"FOOD\", \"date\": \"2025-02-01\"}]"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testEndpointsStayWithinStatementBudgets() throws Exception {
+        Expense lunch = new Expense(new BigDecimal("12.00"), ExpenseCategory.FOOD, "Lunch", LocalDate.of(2025, 4, 2));
+        String[] body = new String[1];
+        // Creating also fingerprints the expense and loads the tenant's budget limits, once.
+        SqlStatementBudget.assertAtMost(3, () -> body[0] = mockMvc.perform(post("/api/expenses")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(lunch)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString());
+        long id = objectMapper.readTree(body[0]).get("id").asLong();
+
+        SqlStatementBudget.assertAtMost(1, () -> mockMvc.perform(get("/api/expenses/" + id))
+                .andExpect(status().isOk()));
+        // The page and, once it is full, its count.
+        SqlStatementBudget.assertAtMost(2, () -> mockMvc.perform(get("/api/expenses?page=0&size=10"))
+                .andExpect(status().isOk()));
+        SqlStatementBudget.assertAtMost(1, () -> mockMvc.perform(get("/api/expenses/category-summary"))
+                .andExpect(status().isOk()));
+        // The lookup, the delete and its fingerprint's.
+        SqlStatementBudget.assertAtMost(3, () -> mockMvc.perform(delete("/api/expenses/" + id))
+                .andExpect(status().isNoContent()));
+    }
+
+    @Test
+    void testRecordingStartsDumpsAndCloses() throws Exception {
+        mockMvc.perform(get("/api/admin/recording/dump"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(post("/api/admin/recording?duration=PT1M"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.state").value("RUNNING"));
+        try {
+            mockMvc.perform(post("/api/admin/recording"))
+                    .andExpect(status().isBadRequest());
+            mockMvc.perform(get("/api/expenses"))
+                    .andExpect(status().isOk());
+
+            byte[] dump = mockMvc.perform(get("/api/admin/recording/dump"))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("Content-Disposition", containsString(".jfr")))
+                    .andReturn().getResponse().getContentAsByteArray();
+            // Every flight recording starts with the magic bytes "FLR\0".
+            assertThat(new String(dump, 0, 3, StandardCharsets.US_ASCII)).isEqualTo("FLR");
+        } finally {
+            mockMvc.perform(delete("/api/admin/recording"))
+                    .andExpect(status().isNoContent());
+        }
+        mockMvc.perform(get("/api/admin/recording"))
+                .andExpect(jsonPath("$.state").value("NONE"));
+    }
+
     @Test
     void testDeleteExpenseNotFound() throws Exception {
         mockMvc.perform(delete("/api/expenses/999"))
@@ -0,0 +1,70 @@
+package com.expensetracker;
+
+import com.expensetracker.repository.ExpenseRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("fast-startup")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+public class FastStartupIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ConfigurableApplicationContext context;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @AfterEach
+    void waitForDataInitializer() throws InterruptedException {
+        Thread initializer = dataInitializerThread();
+        if (initializer != null) {
+            initializer.join();
+        }
+    }
+
+    @Test
+    void testOnlyBeansThatMustRunFromTheStartAreCreatedEagerly() throws Exception {
+        ConfigurableListableBeanFactory beans = context.getBeanFactory();
+        assertThat(beans.containsSingleton("clusterService")).isTrue();
+        assertThat(beans.containsSingleton("budgetService")).isTrue();
+        assertThat(beans.containsSingleton("receiptService")).isFalse();
+        assertThat(beans.containsSingleton("receiptController")).isFalse();
+
+        mockMvc.perform(get("/api/expenses"))
+                .andExpect(status().isOk());
+        assertThat(beans.containsSingleton("receiptService")).isFalse();
+    }
+
+    @Test
+    void testSampleDataIsSeededOffTheStartupPath() throws Exception {
+        Thread initializer = dataInitializerThread();
+        if (initializer != null) {
+            initializer.join();
+        }
+
+        assertThat(expenseRepository.count()).isPositive();
+    }
+
+    private static Thread dataInitializerThread() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().equals("data-initializer"))
+                .findFirst().orElse(null);
+    }
+}
@@ -0,0 +1,67 @@
+package com.expensetracker;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {
+        "expense.rate-limit.endpoints.category-summary.rate=0.1",
+        "expense.rate-limit.endpoints.category-summary.burst=2",
+        "expense.rate-limit.trusted-proxies=127.0.0.1"
+})
+@AutoConfigureMockMvc
+@DirtiesContext
+public class RateLimitIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void testClientOverEndpointLimitGets429WithRetryAfter() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get("/api/expenses/category-summary").header("X-Client-Id", "dashboard"))
+                    .andExpect(status().isOk());
+        }
+
+        mockMvc.perform(get("/api/expenses/category-summary").header("X-Client-Id", "dashboard"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "10"));
+
+        // Other clients and other endpoints keep their own buckets.
+        mockMvc.perform(get("/api/expenses/category-summary").header("X-Client-Id", "mobile"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/expenses").header("X-Client-Id", "dashboard"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void testUntrustedClientCannotEscapeItsLimitByChangingHeaders() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get("/api/expenses/category-summary").with(from("10.0.0.5"))
+                            .header("X-Client-Id", "random-" + i).header("X-Forwarded-For", "192.0.2." + i))
+                    .andExpect(status().isOk());
+        }
+
+        mockMvc.perform(get("/api/expenses/category-summary").with(from("10.0.0.5"))
+                        .header("X-Client-Id", "random-2").header("X-Forwarded-For", "192.0.2.2"))
+                .andExpect(status().isTooManyRequests());
+
+        // Behind a trusted proxy the forwarded address identifies the client.
+        mockMvc.perform(get("/api/expenses/category-summary").header("X-Forwarded-For", "192.0.2.7, 127.0.0.1"))
+                .andExpect(status().isOk());
+    }
+
+    private static RequestPostProcessor from(String remoteAddress) {
+        return request -> {
+            request.setRemoteAddr(remoteAddress);
+            return request;
+        };
+    }
+}
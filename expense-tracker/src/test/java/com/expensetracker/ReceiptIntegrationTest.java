@@ -0,0 +1,109 @@
+package com.expensetracker;
+
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.ExpenseCategory;
+import com.expensetracker.repository.ExpenseRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+public class ReceiptIntegrationTest {
+
+    @TempDir
+    static Path receiptDir;
+
+    @DynamicPropertySource
+    static void receiptProperties(DynamicPropertyRegistry registry) {
+        registry.add("expense.receipts.dir", () -> receiptDir.resolve("receipts").toString());
+        registry.add("expense.receipts.max-size", () -> "1KB");
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    private final byte[] pdf = "%PDF-1.7\n1 0 obj << /Type /Catalog >> endobj\n%%EOF\n".getBytes(StandardCharsets.US_ASCII);
+
+    @BeforeEach
+    void setUp() {
+        expenseRepository.deleteAll();
+    }
+
+    @Test
+    void testReceiptIsStoredOnceAndDownloadedWithRanges() throws Exception {
+        Expense lunch = expenseRepository.save(new Expense(new BigDecimal("12.50"), ExpenseCategory.FOOD, "Lunch", LocalDate.now()));
+        Expense taxi = expenseRepository.save(new Expense(new BigDecimal("30.00"), ExpenseCategory.TRANSPORTATION, "Taxi", LocalDate.now()));
+
+        String hash = mockMvc.perform(put("/api/expenses/{id}/receipt", lunch.getId()).content(pdf))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.receiptHash").isString())
+                .andReturn().getResponse().getContentAsString().replaceAll(".*\"receiptHash\":\"([0-9a-f]+)\".*", "$1");
+        mockMvc.perform(put("/api/expenses/{id}/receipt", taxi.getId()).content(pdf))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.receiptHash").value(hash));
+        try (var files = Files.walk(receiptDir.resolve("receipts"))) {
+            assertThat(files.filter(Files::isRegularFile)).hasSize(1);
+        }
+
+        mockMvc.perform(get("/api/expenses/{id}/receipt", lunch.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/pdf"))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + hash + "\""))
+                .andExpect(content().bytes(pdf));
+        mockMvc.perform(get("/api/expenses/{id}/receipt", lunch.getId()).header(HttpHeaders.RANGE, "bytes=0-4"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 0-4/" + pdf.length))
+                .andExpect(content().bytes(Arrays.copyOf(pdf, 5)));
+        mockMvc.perform(get("/api/expenses/{id}/receipt", lunch.getId()).header(HttpHeaders.RANGE, "bytes=5000-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */" + pdf.length));
+        mockMvc.perform(get("/api/expenses/{id}/receipt", lunch.getId()).header(HttpHeaders.IF_NONE_MATCH, "\"" + hash + "\""))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(delete("/api/expenses/{id}/receipt", lunch.getId()))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/expenses/{id}/receipt", lunch.getId()))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/expenses/{id}/receipt", taxi.getId()))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void testUnsupportedOrOversizedReceiptIsRejected() throws Exception {
+        Expense lunch = expenseRepository.save(new Expense(new BigDecimal("12.50"), ExpenseCategory.FOOD, "Lunch", LocalDate.now()));
+
+        mockMvc.perform(put("/api/expenses/{id}/receipt", lunch.getId()).content("<html>not a receipt</html>"))
+                .andExpect(status().isBadRequest());
+        byte[] large = Arrays.copyOf(pdf, 2048);
+        mockMvc.perform(put("/api/expenses/{id}/receipt", lunch.getId()).content(large))
+                .andExpect(status().isPayloadTooLarge());
+        mockMvc.perform(put("/api/expenses/{id}/receipt", 999_999L).content(pdf))
+                .andExpect(status().isNotFound());
+
+        assertThat(expenseRepository.findById(lunch.getId()).orElseThrow().getReceiptHash()).isNull();
+    }
+}
@@ -0,0 +1,158 @@
+package com.expensetracker;
+
+import com.expensetracker.config.TenantContext;
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.ExpenseCategory;
+import com.expensetracker.model.RecurringExpense;
+import com.expensetracker.repository.ExpenseRepository;
+import com.expensetracker.repository.RecurringExpenseRepository;
+import com.expensetracker.service.RecurringExpenseService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = "expense.recurring.batch-size=7")
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+public class RecurringExpenseIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private RecurringExpenseRepository recurringExpenseRepository;
+
+    @Autowired
+    private RecurringExpenseService recurringExpenseService;
+
+    @BeforeEach
+    void setUp() {
+        expenseRepository.deleteAll();
+    }
+
+    // Other test classes share the in-memory database and expect every tenant's rows to be gone.
+    @AfterEach
+    void tearDown() {
+        for (String tenantId : List.of(TenantContext.DEFAULT_TENANT, "acme")) {
+            TenantContext.callAs(tenantId, () -> {
+                expenseRepository.deleteAll();
+                recurringExpenseRepository.deleteAll();
+                return null;
+            });
+        }
+    }
+
+    @Test
+    void testCreateRecurringExpenseComputesNextDue() throws Exception {
+        mockMvc.perform(post("/api/recurring-expenses")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"amount\": 15.99, \"category\": \"BILLS\", \"description\": \"Streaming\", " +
+                        "\"schedule\": \"FREQ=MONTHLY;BYMONTHDAY=-1\", \"startDate\": \"2025-02-10\"}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.nextDue").value("2025-02-28"));
+
+        mockMvc.perform(post("/api/recurring-expenses")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"amount\": 15.99, \"category\": \"BILLS\", \"description\": \"Streaming\", " +
+                        "\"schedule\": \"FREQ=FORTNIGHTLY\", \"startDate\": \"2025-02-10\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testColumnarFormatIsNotAcceptableForRecurringExpensePages() throws Exception {
+        mockMvc.perform(post("/api/recurring-expenses")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"amount\": 15.99, \"category\": \"BILLS\", \"description\": \"Streaming\", " +
+                        "\"schedule\": \"FREQ=MONTHLY\", \"startDate\": \"2025-02-10\"}"))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/api/recurring-expenses").accept("application/vnd.expense.columnar+json"))
+                .andExpect(status().isNotAcceptable());
+        mockMvc.perform(get("/api/recurring-expenses").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].description").value("Streaming"));
+    }
+
+    @Test
+    void testImportRecognisesMaterializedOccurrences() throws Exception {
+        recurringExpenseService.createRecurringExpense(new RecurringExpense(new BigDecimal("15.99"), ExpenseCategory.BILLS,
+                "Streaming", "FREQ=MONTHLY", LocalDate.of(2025, 1, 10)));
+        recurringExpenseService.materializeDue(LocalDate.of(2025, 3, 15));
+
+        // The bank export lists the February charge again, next to a new one.
+        mockMvc.perform(post("/api/expenses/import")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                        [{"amount": 15.99, "category": "BILLS", "description": "STREAMING", "date": "2025-02-10"},
+                         {"amount": 4.50, "category": "FOOD", "description": "Coffee", "date": "2025-02-10"}]"""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.duplicates").value(1));
+    }
+
+    @Test
+    void testConcurrentRunsCreateEachOccurrenceOnce() throws Exception {
+        LocalDate today = LocalDate.of(2025, 6, 15);
+        for (int i = 0; i < 20; i++) {
+            recurringExpenseService.createRecurringExpense(new RecurringExpense(new BigDecimal("10.00"), ExpenseCategory.BILLS,
+                    "Bill " + i, "FREQ=MONTHLY", LocalDate.of(2025, 1, 1 + i)));
+        }
+        RecurringExpense ended = new RecurringExpense(new BigDecimal("5.00"), ExpenseCategory.OTHER,
+                "Trial", "FREQ=WEEKLY", LocalDate.of(2025, 5, 1));
+        ended.setEndDate(LocalDate.of(2025, 5, 20));
+        recurringExpenseService.createRecurringExpense(ended);
+
+        // Two nodes catching up at the same time, then another tick on the same day.
+        CompletableFuture<?> first = CompletableFuture.runAsync(() -> recurringExpenseService.materializeDue(today));
+        CompletableFuture<?> second = CompletableFuture.runAsync(() -> recurringExpenseService.materializeDue(today));
+        CompletableFuture.allOf(first, second).join();
+        recurringExpenseService.materializeDue(today);
+
+        // January to June for bills due up to the 15th, January to May after it, and three trial weeks.
+        List<Expense> expenses = expenseRepository.findAll();
+        assertThat(expenses).hasSize(15 * 6 + 5 * 5 + 3);
+        assertThat(expenses).extracting(expense -> expense.getDescription() + "@" + expense.getDate()).doesNotHaveDuplicates();
+        assertThat(recurringExpenseRepository.findAll())
+                .filteredOn(recurring -> recurring.getDescription().equals("Bill 0"))
+                .extracting(RecurringExpense::getNextDue)
+                .containsExactly(LocalDate.of(2025, 7, 1));
+        assertThat(recurringExpenseRepository.findAll())
+                .filteredOn(recurring -> recurring.getDescription().equals("Trial"))
+                .extracting(RecurringExpense::getNextDue)
+                .containsOnlyNulls();
+
+        mockMvc.perform(get("/api/expenses/category-summary"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.category == 'BILLS')].total").value(1150.00));
+    }
+
+    @Test
+    void testOccurrencesBelongToTheDefinitionsTenant() {
+        TenantContext.callAs("acme", () -> recurringExpenseService.createRecurringExpense(new RecurringExpense(
+                new BigDecimal("99.00"), ExpenseCategory.BILLS, "Rent", "FREQ=MONTHLY", LocalDate.of(2025, 1, 1))));
+
+        recurringExpenseService.materializeDue(LocalDate.of(2025, 3, 1));
+
+        List<Expense> acme = TenantContext.callAs("acme", expenseRepository::findAll);
+        assertThat(acme).hasSize(3);
+        assertThat(expenseRepository.findAll()).isEmpty();
+    }
+}
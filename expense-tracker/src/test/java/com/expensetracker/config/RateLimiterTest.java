@@ -0,0 +1,89 @@
+package com.expensetracker.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final RateLimiter rateLimiter = new RateLimiter(1000);
+
+    @Test
+    public void whenBurstIsUsedUp_thenNextRequestWaitsOneInterval() {
+        // given
+        long now = 10 * SECOND;
+        for (int i = 0; i < 5; i++) {
+            assertThat(rateLimiter.tryAcquire("client", 10, 5, now)).isZero();
+        }
+
+        // when
+        long wait = rateLimiter.tryAcquire("client", 10, 5, now);
+
+        // then
+        assertThat(wait).isEqualTo(SECOND / 10);
+        assertThat(rateLimiter.tryAcquire("client", 10, 5, now + SECOND / 10)).isZero();
+        assertThat(rateLimiter.tryAcquire("other", 10, 5, now)).isZero();
+    }
+
+    @Test
+    public void whenRequestsArriveAtTheSustainedRate_thenNoneAreRejected() {
+        // when / then
+        for (int i = 0; i < 100; i++) {
+            assertThat(rateLimiter.tryAcquire("client", 10, 1, i * SECOND / 10)).isZero();
+        }
+    }
+
+    @Test
+    public void whenBucketHasRefilled_thenSweepDropsIt() {
+        // given
+        rateLimiter.tryAcquire("idle", 10, 5, 0);
+        rateLimiter.tryAcquire("busy", 1, 5, 0);
+
+        // when
+        rateLimiter.sweep(SECOND / 2);
+
+        // then
+        assertThat(rateLimiter.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void whenLatencyStaysAboveLimit_thenShedderStartsRejectingAndRecovers() {
+        // given
+        LoadShedder shedder = new LoadShedder();
+        for (int i = 0; i < 40; i++) {
+            if (shedder.tryEnter("summary", 0, 0)) {
+                shedder.exit("summary", 0, 0, SECOND, SECOND / 10);
+            }
+        }
+
+        // when
+        int admitted = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (shedder.tryEnter("summary", 0, 0)) {
+                admitted++;
+                shedder.exit("summary", 0, 0, 0, 0);
+            }
+        }
+
+        // then
+        assertThat(shedder.getShedCount("summary")).isPositive();
+        assertThat(admitted).isBetween(1, 500);
+    }
+
+    @Test
+    public void whenTooManyRequestsAreInFlight_thenShedderRejects() {
+        // given
+        LoadShedder shedder = new LoadShedder();
+        assertThat(shedder.tryEnter("list", 10, 2)).isTrue();
+        assertThat(shedder.tryEnter("list", 10, 2)).isTrue();
+
+        // when / then
+        assertThat(shedder.tryEnter("list", 10, 2)).isFalse();
+        shedder.exit("list", 10, 2, 0, 0);
+        assertThat(shedder.tryEnter("list", 10, 2)).isTrue();
+    }
+}
@@ -0,0 +1,111 @@
+package com.expensetracker.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class SqlInstrumentationTest {
+
+    private final SqlInstrumentation instrumentation = new SqlInstrumentation();
+
+    private JdbcTemplate jdbc;
+
+    @BeforeEach
+    void setUp() {
+        DataSource dataSource = instrumentation.wrap(new DriverManagerDataSource("jdbc:h2:mem:sqlinstrumentation;DB_CLOSE_DELAY=-1"));
+        jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE item (id BIGINT PRIMARY KEY, name VARCHAR(20))");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbc.execute("DROP TABLE item");
+    }
+
+    @Test
+    public void whenStatementsRun_thenLogGroupsThemWithParameterTypes() throws Exception {
+        // when
+        SqlStatementLog statements = SqlStatementBudget.record(() -> {
+            jdbc.batchUpdate("INSERT INTO item VALUES (?, ?)", List.of(new Object[] {1L, "a"}, new Object[] {2L, "b"}));
+            for (long id = 1; id <= 2; id++) {
+                jdbc.queryForObject("SELECT name FROM item WHERE id = ?", String.class, id);
+            }
+        });
+
+        // then
+        assertThat(statements.getCount()).isEqualTo(3);
+        assertThat(statements.getStatements()).extracting(SqlStatementLog.Statement::getSql)
+                .containsExactly("INSERT INTO item VALUES (?, ?)", "SELECT name FROM item WHERE id = ?");
+        assertThat(statements.getRepeated(2)).singleElement()
+                .satisfies(statement -> assertThat(statement.getParameters()).isEqualTo("[Long]"));
+        // Counted globally as well, with the CREATE TABLE of setUp.
+        assertThat(instrumentation.getMetrics().get("statements")).isEqualTo(4L);
+    }
+
+    @Test
+    public void whenLogsAreNested_thenOuterLogSeesInnerStatements() throws Exception {
+        // when
+        SqlStatementLog[] inner = new SqlStatementLog[1];
+        SqlStatementLog outer = SqlStatementBudget.record(() -> {
+            jdbc.queryForList("SELECT * FROM item");
+            inner[0] = SqlStatementBudget.record(() -> jdbc.update("DELETE FROM item"));
+        });
+
+        // then
+        assertThat(outer.getCount()).isEqualTo(2);
+        assertThat(inner[0].getCount()).isEqualTo(1);
+        assertThat(SqlStatementLog.current()).isNull();
+    }
+
+    @Test
+    public void whenOverBudget_thenAssertionListsStatements() {
+        // when & then
+        assertThatThrownBy(() -> SqlStatementBudget.assertAtMost(1, () -> {
+            jdbc.queryForList("SELECT * FROM item");
+            jdbc.queryForList("SELECT name FROM item");
+        }))
+                .isInstanceOf(AssertionError.class)
+                .hasMessageContaining("ran 2 statements")
+                .hasMessageContaining("SELECT name FROM item");
+    }
+
+    @Test
+    public void whenQueryIsSlow_thenItIsCountedAndStillAnswers() {
+        // given
+        ReflectionTestUtils.setField(instrumentation, "slowThreshold", Duration.ZERO);
+
+        // when
+        Integer count = jdbc.queryForObject("SELECT COUNT(*) FROM item WHERE name = ?", Integer.class, "a");
+
+        // then
+        assertThat(count).isZero();
+        assertThat(instrumentation.getMetrics().get("slowStatements")).isEqualTo(1L);
+    }
+
+    @Test
+    public void whenAWrappedPoolIsClosed_thenThePoolIsClosed() throws Exception {
+        // given
+        HikariDataSource pool = new HikariDataSource();
+        pool.setJdbcUrl("jdbc:h2:mem:sqlinstrumentation");
+        DataSource wrapped = instrumentation.wrap(pool);
+
+        // when
+        ((AutoCloseable) wrapped).close();
+
+        // then
+        assertThat(pool.isClosed()).isTrue();
+        assertThat(instrumentation.wrap(new DriverManagerDataSource("jdbc:h2:mem:sqlinstrumentation")))
+                .isNotInstanceOf(AutoCloseable.class);
+    }
+}
@@ -0,0 +1,36 @@
+package com.expensetracker.config;
+
+/**
+ * Test assertions on the number of SQL statements a block of code runs, for example one MockMvc
+ * request: {@code SqlStatementBudget.assertAtMost(2, () -> mockMvc.perform(get("/api/expenses")))}.
+ */
+public final class SqlStatementBudget {
+
+    @FunctionalInterface
+    public interface Action {
+        void run() throws Exception;
+    }
+
+    private SqlStatementBudget() {
+    }
+
+    /** Runs {@code action} and returns the statements it sent. */
+    public static SqlStatementLog record(Action action) throws Exception {
+        SqlStatementLog statements = SqlStatementLog.begin();
+        try {
+            action.run();
+        } finally {
+            statements.end();
+        }
+        return statements;
+    }
+
+    /** Fails, listing the statements, when {@code action} runs more than {@code budget} of them. */
+    public static SqlStatementLog assertAtMost(int budget, Action action) throws Exception {
+        SqlStatementLog statements = record(action);
+        if (statements.getCount() > budget) {
+            throw new AssertionError("Expected at most " + budget + " SQL statements but ran " + statements.describe());
+        }
+        return statements;
+    }
+}
@@ -2,6 +2,8 @@ package com.expensetracker.controller;
 
 import com.expensetracker.model.Expense;
 import com.expensetracker.model.ExpenseCategory;
+import com.expensetracker.service.DashboardService;
+import com.expensetracker.service.ExpenseAnalyticsService;
 import com.expensetracker.service.ExpenseService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
@@ -11,6 +13,7 @@ import com.expensetracker.exception.InvalidInputException;
 import com.expensetracker.exception.ResourceNotFoundException;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
 import org.springframework.data.domain.Page;
@@ -21,8 +24,11 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -37,6 +43,12 @@ public class ExpenseControllerTest {
     @MockBean
     private ExpenseService expenseService;
 
+    @MockitoBean
+    private ExpenseAnalyticsService expenseAnalyticsService;
+
+    @MockitoBean
+    private DashboardService dashboardService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -46,7 +58,7 @@ public class ExpenseControllerTest {
         Expense expense1 = new Expense(new BigDecimal("10.00"), ExpenseCategory.FOOD, "Lunch", LocalDate.now());
         Expense expense2 = new Expense(new BigDecimal("20.00"), ExpenseCategory.TRANSPORTATION, "Bus fare", LocalDate.now());
         Page<Expense> allExpensesPage = new PageImpl<>(Arrays.asList(expense1, expense2));
-        when(expenseService.getAllExpenses(any(Pageable.class))).thenReturn(allExpensesPage);
+        when(expenseService.getExpenses(isNull(), isNull(), isNull(), any(Pageable.class))).thenReturn(allExpensesPage);
 
         // when & then
         mockMvc.perform(get("/api/expenses"))
@@ -71,6 +83,21 @@ public class ExpenseControllerTest {
                 .andExpect(jsonPath("$.description").value("Lunch"));
     }
 
+    @Test
+    public void whenPostExpenseWithIdempotencyKey_thenUseIdempotentCreate() throws Exception {
+        // given
+        Expense expense = new Expense(new BigDecimal("10.00"), ExpenseCategory.FOOD, "Lunch", LocalDate.now());
+        when(expenseService.createExpense(any(Expense.class), eq("retry-123"))).thenReturn(expense);
+
+        // when & then
+        mockMvc.perform(post("/api/expenses")
+                .header("Idempotency-Key", "retry-123")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(expense)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.description").value("Lunch"));
+    }
+
     @Test
     public void whenPostExpense_thenReturnsBadRequest() throws Exception {
         // given
@@ -122,4 +149,41 @@ public class ExpenseControllerTest {
         mockMvc.perform(delete("/api/expenses/1"))
                 .andExpect(status().isNotFound());
     }
+
+    @Test
+    public void whenGetAmountPercentiles_thenReturnSketchSummary() throws Exception {
+        // given
+        when(expenseAnalyticsService.getAmountPercentiles(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 12, 31), "month"))
+                .thenReturn(List.of(Map.of("year", 2025, "month", 1, "count", 3, "median", new BigDecimal("12.50"))));
+
+        // when & then
+        mockMvc.perform(get("/api/expenses/analytics/percentiles?startDate=2025-01-01&endDate=2025-12-31&groupBy=month"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].month").value(1))
+                .andExpect(jsonPath("$[0].median").value(12.50));
+    }
+
+    @Test
+    public void whenGetDescriptionStatsWithInvalidTop_thenReturnsBadRequest() throws Exception {
+        // given
+        when(expenseAnalyticsService.getDescriptionStats(null, null, null, 100))
+                .thenThrow(new InvalidInputException("top must be between 1 and 32"));
+
+        // when & then
+        mockMvc.perform(get("/api/expenses/analytics/descriptions?top=100"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void whenGetTrendsWithDefaults_thenTwelveMonthsWithThreeMonthWindowAreRequested() throws Exception {
+        // given
+        when(expenseAnalyticsService.getTrends(null, 12, 3))
+                .thenReturn(Map.of("asOf", "2025-04-10", "forecast", Map.of("forecast", new BigDecimal("150.00"))));
+
+        // when & then
+        mockMvc.perform(get("/api/expenses/trends"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.asOf").value("2025-04-10"))
+                .andExpect(jsonPath("$.forecast.forecast").value(150.00));
+    }
 }
@@ -0,0 +1,168 @@
+package com.expensetracker.repository;
+
+import com.expensetracker.config.TenantContext;
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.ExpenseCategory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+public class ArchiveSegmentTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void whenWrittenAndReopened_thenRowsRoundTripInDateOrder() throws Exception {
+        // given
+        Expense lunch = expense(3L, "12.50", ExpenseCategory.FOOD, "Lunch café ☕", LocalDate.of(2024, 1, 20));
+        lunch.setCreatedAt(LocalDateTime.of(2024, 1, 20, 12, 30, 15, 123_456_000));
+        lunch.setTags(List.of("client-acme", "trip-berlin"));
+        lunch.setReceiptHash("9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08");
+        Expense rent = expense(1L, "1200.00", ExpenseCategory.BILLS, "Rent", LocalDate.of(2024, 1, 1));
+        Expense bus = expense(2L, "2.75", ExpenseCategory.TRANSPORTATION, "Bus", LocalDate.of(2024, 2, 3));
+
+        // when
+        ArchiveSegment.write(dir.resolve("test.seg"), List.of(lunch, rent, bus));
+        ArchiveSegment segment = ArchiveSegment.open(dir.resolve("test.seg"));
+
+        // then
+        assertThat(segment.getMonths()).extracting(ArchiveSegment.MonthBlock::getMonth).containsExactly(202401, 202402);
+        List<Expense> january = segment.getMonths().get(0).readRows();
+        assertThat(january).extracting(Expense::getId).containsExactly(1L, 3L);
+        assertThat(january.get(1).getDescription()).isEqualTo("Lunch café ☕");
+        assertThat(january.get(1).getAmount()).isEqualTo(new BigDecimal("12.50"));
+        assertThat(january.get(1).getCreatedAt()).isEqualTo(lunch.getCreatedAt());
+        assertThat(january.get(0).getCreatedAt()).isNull();
+        assertThat(january.get(1).getReceiptHash()).isEqualTo(lunch.getReceiptHash());
+        assertThat(january.get(0).getReceiptHash()).isNull();
+        assertThat(january.get(1).getTags()).containsExactly("client-acme", "trip-berlin");
+        assertThat(january.get(0).getTags()).isEmpty();
+        assertThat(Files.exists(dir.resolve("test.seg.tmp"))).isFalse();
+    }
+
+    @Test
+    public void whenOpened_thenHeaderCarriesMonthStatistics() throws Exception {
+        // given
+        List<Expense> rows = new ArrayList<>();
+        for (int day = 1; day <= 28; day++) {
+            rows.add(expense(day, "10.00", day % 2 == 0 ? ExpenseCategory.FOOD : ExpenseCategory.BILLS, "Row " + day,
+                    LocalDate.of(2024, 2, day)));
+        }
+
+        // when
+        ArchiveSegment.MonthBlock february = ArchiveSegment.write(dir.resolve("feb.seg"), rows).getMonths().get(0);
+
+        // then
+        assertThat(february.getRowCount()).isEqualTo(28);
+        assertThat(february.getMinId()).isEqualTo(1L);
+        assertThat(february.getMaxId()).isEqualTo(28L);
+        assertThat(february.getMinDate()).isEqualTo(LocalDate.of(2024, 2, 1));
+        assertThat(february.getMaxDate()).isEqualTo(LocalDate.of(2024, 2, 28));
+        assertThat(february.getCount(ExpenseCategory.FOOD)).isEqualTo(14);
+        assertThat(february.getTotal(ExpenseCategory.BILLS)).isEqualByComparingTo("140.00");
+        assertThat(february.getTotal(ExpenseCategory.OTHER)).isNull();
+        assertThat(february.getTotal()).isEqualByComparingTo("280.00");
+    }
+
+    @Test
+    public void whenArchiveRepositoryFilters_thenPartialMonthsAreDecodedAndWholeMonthsSkipped() throws Exception {
+        // given
+        ExpenseArchiveRepository archive = new ExpenseArchiveRepository();
+        org.springframework.test.util.ReflectionTestUtils.setField(archive, "directory", dir.toString());
+        List<Expense> rows = new ArrayList<>();
+        long id = 1;
+        for (int month = 1; month <= 3; month++) {
+            for (int day = 1; day <= 10; day++) {
+                rows.add(expense(id++, "1.00", ExpenseCategory.FOOD, "Row", LocalDate.of(2024, month, day)));
+            }
+        }
+        archive.register(archive.write(rows));
+
+        // when
+        ExpenseArchiveRepository.Filter range = ExpenseArchiveRepository.Filter.byDateRange(
+                TenantContext.DEFAULT_TENANT, LocalDate.of(2024, 1, 6), LocalDate.of(2024, 3, 5));
+
+        // then
+        assertThat(archive.count(range)).isEqualTo(20);
+        assertThat(archive.find(range, 5, 3, false)).extracting(Expense::getDate)
+                .containsExactly(LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 2), LocalDate.of(2024, 2, 3));
+        assertThat(archive.find(range, 0, 2, true)).extracting(Expense::getDate)
+                .containsExactly(LocalDate.of(2024, 3, 5), LocalDate.of(2024, 3, 4));
+        assertThat(archive.getMonthlySummary(TenantContext.DEFAULT_TENANT, LocalDate.of(2024, 1, 6), LocalDate.of(2024, 3, 5)))
+                .containsEntry(202401, new BigDecimal("5.00"))
+                .containsEntry(202402, new BigDecimal("10.00"))
+                .containsEntry(202403, new BigDecimal("5.00"));
+        assertThat(archive.findById(TenantContext.DEFAULT_TENANT, 25L)).get().extracting(Expense::getDate).isEqualTo(LocalDate.of(2024, 3, 5));
+    }
+
+    @Test
+    public void whenRowsBelongToSeveralTenants_thenEachTenantReadsOnlyItsOwnBlocks() throws Exception {
+        // given
+        ExpenseArchiveRepository archive = new ExpenseArchiveRepository();
+        org.springframework.test.util.ReflectionTestUtils.setField(archive, "directory", dir.toString());
+        Expense acme = expense(1L, "10.00", ExpenseCategory.FOOD, "Lunch", LocalDate.of(2024, 1, 5));
+        acme.setTenantId("acme");
+        Expense globex = expense(2L, "7.00", ExpenseCategory.FOOD, "Lunch", LocalDate.of(2024, 1, 3));
+        globex.setTenantId("globex");
+
+        // when
+        archive.register(archive.write(List.of(acme, globex)));
+
+        // then
+        assertThat(archive.getSegments().get(0).getMonths()).extracting(ArchiveSegment.MonthBlock::getTenantId)
+                .containsExactly("acme", "globex");
+        assertThat(archive.find(ExpenseArchiveRepository.Filter.all("globex"), 0, 10, false))
+                .extracting(Expense::getId, Expense::getTenantId).containsExactly(tuple(2L, "globex"));
+        assertThat(archive.getCategorySummary("acme")).containsEntry(ExpenseCategory.FOOD, new BigDecimal("10.00"));
+        assertThat(archive.findById("acme", 2L)).isEmpty();
+        assertThat(archive.count(ExpenseArchiveRepository.Filter.all(TenantContext.DEFAULT_TENANT))).isZero();
+    }
+
+    @Test
+    public void whenRowsHaveSeveralCurrencies_thenCurrenciesRoundTripAndSingleCurrencyBlocksUseTheHeader() throws Exception {
+        // given
+        ExpenseArchiveRepository archive = new ExpenseArchiveRepository();
+        org.springframework.test.util.ReflectionTestUtils.setField(archive, "directory", dir.toString());
+        Expense hotel = expense(1L, "90.00", ExpenseCategory.BILLS, "Hotel", LocalDate.of(2024, 1, 5));
+        hotel.setCurrency("EUR");
+        Expense taxi = expense(2L, "20.00", ExpenseCategory.TRANSPORTATION, "Taxi", LocalDate.of(2024, 1, 5));
+        Expense dinner = expense(3L, "30.00", ExpenseCategory.FOOD, "Dinner", LocalDate.of(2024, 1, 6));
+        dinner.setCurrency("EUR");
+        Expense lunch = expense(4L, "12.00", ExpenseCategory.FOOD, "Lunch", LocalDate.of(2024, 2, 1));
+
+        // when
+        archive.register(archive.write(List.of(hotel, taxi, dinner, lunch)));
+        List<ArchiveSegment.MonthBlock> blocks = archive.getSegments().get(0).getMonths();
+
+        // then
+        assertThat(blocks.get(0).getCurrencies()).containsExactly("EUR", "USD");
+        assertThat(blocks.get(0).readRows()).extracting(Expense::getId, Expense::getCurrency)
+                .containsExactly(tuple(1L, "EUR"), tuple(2L, "USD"), tuple(3L, "EUR"));
+        assertThat(archive.getCurrencyTotals(ExpenseArchiveRepository.Filter.all(TenantContext.DEFAULT_TENANT), "USD"))
+                .extracting(ExpenseArchiveRepository.CurrencyTotal::currency, ExpenseArchiveRepository.CurrencyTotal::date,
+                        ExpenseArchiveRepository.CurrencyTotal::total)
+                .containsExactlyInAnyOrder(
+                        tuple("EUR", LocalDate.of(2024, 1, 5), new BigDecimal("90.00")),
+                        tuple("USD", LocalDate.of(2024, 1, 5), new BigDecimal("20.00")),
+                        tuple("EUR", LocalDate.of(2024, 1, 6), new BigDecimal("30.00")),
+                        tuple("USD", null, new BigDecimal("12.00")));
+    }
+
+    private static Expense expense(long id, String amount, ExpenseCategory category, String description, LocalDate date) {
+        Expense expense = new Expense(new BigDecimal(amount), category, description, date);
+        expense.setId(id);
+        expense.setCreatedAt(null);
+        return expense;
+    }
+}
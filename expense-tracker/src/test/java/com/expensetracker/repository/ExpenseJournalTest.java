@@ -0,0 +1,192 @@
+package com.expensetracker.repository;
+
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.ExpenseCategory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ExpenseJournalTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void whenEntriesAreAppended_thenTheyReadBackInOrderWithTheirRows() throws Exception {
+        // given
+        ExpenseJournal journal = open(DataSize.ofMegabytes(1));
+        Expense lunch = expense(1L, "12.50", "Lunch café 🍜");
+        lunch.setCreatedAt(LocalDateTime.of(2024, 1, 20, 12, 30, 15, 123_456_000));
+        lunch.setTags(List.of("client-acme", "trip"));
+        Expense bus = expense(2L, "2.75", null);
+
+        // when
+        journal.append(ExpenseJournal.Type.CREATED, List.of(lunch, bus));
+        lunch.setReceiptHash("9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08");
+        journal.append(ExpenseJournal.Type.UPDATED, lunch);
+        long last = journal.append(ExpenseJournal.Type.DELETED, bus);
+
+        // then
+        assertThat(last).isEqualTo(4);
+        List<ExpenseJournal.Entry> entries = journal.read(0, 10);
+        assertThat(entries).extracting(ExpenseJournal.Entry::sequence).containsExactly(1L, 2L, 3L, 4L);
+        assertThat(entries).extracting(ExpenseJournal.Entry::type).containsExactly(ExpenseJournal.Type.CREATED,
+                ExpenseJournal.Type.CREATED, ExpenseJournal.Type.UPDATED, ExpenseJournal.Type.DELETED);
+        Expense read = entries.get(0).expense();
+        assertThat(read.getId()).isEqualTo(1L);
+        assertThat(read.getTenantId()).isEqualTo("acme");
+        assertThat(read.getAmount()).isEqualTo(new BigDecimal("12.50"));
+        assertThat(read.getDescription()).isEqualTo("Lunch café 🍜");
+        assertThat(read.getCreatedAt()).isEqualTo(lunch.getCreatedAt());
+        assertThat(read.getTags()).containsExactly("client-acme", "trip");
+        assertThat(read.getReceiptHash()).isNull();
+        assertThat(entries.get(2).expense().getReceiptHash()).isEqualTo(lunch.getReceiptHash());
+        assertThat(entries.get(1).expense().getDescription()).isNull();
+        assertThat(journal.read(2, 1)).extracting(ExpenseJournal.Entry::sequence).containsExactly(3L);
+    }
+
+    @Test
+    public void whenSegmentsFill_thenNewOnesAreStartedAndReplayCrossesThem() throws Exception {
+        // given
+        ExpenseJournal journal = open(DataSize.ofKilobytes(64));
+
+        // when
+        for (long id = 1; id <= 1000; id++) {
+            journal.append(ExpenseJournal.Type.CREATED, expense(id, "10.00", "Row " + id));
+        }
+        journal.close();
+        ExpenseJournal reopened = open(DataSize.ofKilobytes(64));
+        reopened.append(ExpenseJournal.Type.CREATED, expense(1001L, "10.00", "After reopening"));
+
+        // then
+        assertThat(segments()).hasSizeGreaterThan(1);
+        assertThat(reopened.getFirstSequence()).isEqualTo(1);
+        assertThat(reopened.getLastSequence()).isEqualTo(1001);
+        List<Long> ids = new ArrayList<>();
+        reopened.forEach(990, entry -> ids.add(entry.expense().getId()));
+        assertThat(ids).containsExactly(991L, 992L, 993L, 994L, 995L, 996L, 997L, 998L, 999L, 1000L, 1001L);
+    }
+
+    @Test
+    public void whenReadRepeatedly_thenEachSealedSegmentIsMappedOnce() throws Exception {
+        // given
+        ExpenseJournal journal = open(DataSize.ofKilobytes(64));
+        for (long id = 1; id <= 1000; id++) {
+            journal.append(ExpenseJournal.Type.CREATED, expense(id, "10.00", "Row " + id));
+        }
+        journal.close();
+        ExpenseJournal reopened = open(DataSize.ofKilobytes(64));
+
+        // when
+        List<ExpenseJournal.Entry> first = reopened.read(0, 2000);
+        List<ExpenseJournal.Entry> second = reopened.read(0, 2000);
+
+        // then
+        assertThat(first).hasSize(1000);
+        assertThat(second).hasSize(1000);
+        assertThat(reopened.sealedOpens()).isEqualTo(segments().size() - 1);
+    }
+
+    @Test
+    public void whenTheLastEntryIsTorn_thenReopeningDropsItAndAppendsOverIt() throws Exception {
+        // given
+        ExpenseJournal journal = open(DataSize.ofMegabytes(1));
+        journal.append(ExpenseJournal.Type.CREATED, expense(1L, "10.00", "Kept"));
+        journal.append(ExpenseJournal.Type.CREATED, expense(2L, "20.00", "Torn"));
+        journal.close();
+        Path segment = segments().get(0);
+        // Corrupt the last byte of the second entry, as a crash in the middle of writing it would.
+        int secondEnd = 16 + 2 * JournalSegment.RECORD_OVERHEAD + payloadLength("Kept") + payloadLength("Torn");
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            file.seek(secondEnd - 1);
+            file.write(file.read() ^ 0xFF);
+        }
+
+        // when
+        ExpenseJournal reopened = open(DataSize.ofMegabytes(1));
+        reopened.append(ExpenseJournal.Type.CREATED, expense(3L, "30.00", "Next"));
+
+        // then
+        assertThat(reopened.read(0, 10)).extracting(entry -> entry.expense().getDescription()).containsExactly("Kept", "Next");
+        assertThat(reopened.getLastSequence()).isEqualTo(2);
+    }
+
+    @Test
+    public void whenAdvancedPastItsEnd_thenTheNextEntryFollowsTheGivenSequence() throws Exception {
+        // given
+        ExpenseJournal journal = open(DataSize.ofMegabytes(1));
+
+        // when
+        journal.advanceTo(41);
+        long sequence = journal.append(ExpenseJournal.Type.CREATED, expense(1L, "10.00", "Lunch"));
+
+        // then
+        assertThat(sequence).isEqualTo(42);
+        assertThat(journal.getFirstSequence()).isEqualTo(42);
+        assertThat(segments()).hasSize(1);
+    }
+
+    @Test
+    public void whenACreateIsNotJournaledYet_thenADeleteOfItsRowWaitsForIt() throws Exception {
+        // given
+        ExpenseJournal journal = open(DataSize.ofMegabytes(1));
+        Expense lunch = expense(1L, "12.50", "Lunch");
+        journal.markInserted(List.of(lunch));
+        Thread delete = new Thread(() -> {
+            journal.awaitJournaled(1L);
+            journal.append(ExpenseJournal.Type.DELETED, lunch);
+        });
+
+        // when
+        delete.start();
+        delete.join(200);
+        boolean waited = delete.isAlive();
+        journal.append(ExpenseJournal.Type.CREATED, lunch);
+        delete.join(5000);
+
+        // then
+        assertThat(waited).isTrue();
+        assertThat(delete.isAlive()).isFalse();
+        assertThat(journal.read(0, 10)).extracting(ExpenseJournal.Entry::type)
+                .containsExactly(ExpenseJournal.Type.CREATED, ExpenseJournal.Type.DELETED);
+    }
+
+    private ExpenseJournal open(DataSize segmentSize) throws Exception {
+        ExpenseJournal journal = new ExpenseJournal();
+        ReflectionTestUtils.setField(journal, "directory", dir.toString());
+        ReflectionTestUtils.setField(journal, "segmentSize", segmentSize);
+        journal.open();
+        return journal;
+    }
+
+    private List<Path> segments() throws Exception {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.sorted().toList();
+        }
+    }
+
+    // Time, type, id, tenant, amount, currency, category, date, description, createdAt flag, receipt flag, tag count.
+    private static int payloadLength(String description) {
+        return 8 + 1 + 8 + (2 + 4) + (2 + 5) + (2 + 3) + 1 + 8 + (1 + 2 + description.length()) + 1 + 1 + 1;
+    }
+
+    private static Expense expense(long id, String amount, String description) {
+        Expense expense = new Expense(new BigDecimal(amount), ExpenseCategory.FOOD, description, LocalDate.of(2024, 1, 20));
+        expense.setId(id);
+        expense.setTenantId("acme");
+        return expense;
+    }
+}
@@ -0,0 +1,106 @@
+package com.expensetracker.repository;
+
+import com.expensetracker.config.TenantContext;
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.ExpenseCategory;
+import com.expensetracker.model.ExpensePartition;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import(ExpensePartitionRepository.class)
+public class ExpensePartitionRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private ExpensePartitionRepository expensePartitionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void whenPersisted_thenPartitionIsDerivedFromDate() {
+        // given
+        Expense expense = entityManager.persistFlushFind(
+                new Expense(new BigDecimal("10.00"), ExpenseCategory.FOOD, "Lunch", LocalDate.of(2025, 3, 31)));
+
+        // then
+        assertThat(expense.getPartitionMonth()).isEqualTo(202503);
+    }
+
+    @Test
+    public void whenFindAll_thenReturnOnePartitionPerMonth() {
+        // given
+        persist("100.00", LocalDate.of(2025, 1, 15));
+        persist("50.00", LocalDate.of(2025, 1, 20));
+        persist("200.00", LocalDate.of(2025, 2, 10));
+
+        // when
+        List<ExpensePartition> partitions = expensePartitionRepository.findAll(TenantContext.DEFAULT_TENANT);
+
+        // then
+        assertThat(partitions).extracting(ExpensePartition::month).containsExactly(202501, 202502);
+        assertThat(partitions.get(0).rows()).isEqualTo(2);
+        assertThat(partitions.get(0).total()).isEqualByComparingTo("150.00");
+    }
+
+    @Test
+    public void whenDrop_thenOnlyThatMonthIsRemoved() {
+        // given
+        persist("100.00", LocalDate.of(2025, 1, 15));
+        persist("200.00", LocalDate.of(2025, 2, 10));
+
+        // when
+        int dropped = expensePartitionRepository.drop(202501);
+
+        // then
+        assertThat(dropped).isEqualTo(1);
+        assertThat(expenseRepository.findAll()).extracting(Expense::getDescription).containsExactly("Expense 2025-02-10");
+    }
+
+    @Test
+    public void whenFindByDateBetweenAcrossMonths_thenReturnOnlyOverlappingRows() {
+        // given
+        persist("10.00", LocalDate.of(2024, 12, 31));
+        persist("20.00", LocalDate.of(2025, 1, 1));
+        persist("30.00", LocalDate.of(2025, 2, 28));
+        persist("40.00", LocalDate.of(2025, 3, 1));
+
+        // when
+        List<Expense> found = expenseRepository.findByDateBetween(
+                LocalDate.of(2025, 1, 1), LocalDate.of(2025, 2, 28), PageRequest.of(0, 10)).getContent();
+
+        // then
+        assertThat(found).extracting(Expense::getDate)
+                .containsExactlyInAnyOrder(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 2, 28));
+    }
+
+    @Test
+    public void whenQueryingByPartitionRange_thenPlanUsesPartitionIndex() {
+        String plan = jdbcTemplate.queryForObject(
+                "EXPLAIN SELECT id FROM expense WHERE partition_month BETWEEN 202501 AND 202502", String.class);
+
+        assertThat(plan).containsIgnoringCase("idx_expense_partition_date");
+    }
+
+    private void persist(String amount, LocalDate date) {
+        entityManager.persist(new Expense(new BigDecimal(amount), ExpenseCategory.FOOD, "Expense " + date, date));
+        entityManager.flush();
+    }
+}
@@ -0,0 +1,144 @@
+package com.expensetracker.service;
+
+import com.expensetracker.model.Budget;
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.ExpenseCategory;
+import com.expensetracker.repository.BudgetRepository;
+import com.expensetracker.repository.ExpenseArchiveRepository;
+import com.expensetracker.repository.ExpenseRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class BudgetServiceTest {
+
+    private static final YearMonth MAY = YearMonth.of(2025, 5);
+
+    @Mock
+    private BudgetRepository budgetRepository;
+
+    @Mock
+    private ExpenseRepository expenseRepository;
+
+    @Mock
+    private ExpenseArchiveRepository expenseArchiveRepository;
+
+    @Mock
+    private BudgetAlertSink alertSink;
+
+    @InjectMocks
+    private BudgetService budgetService;
+
+    @BeforeEach
+    void setUp() {
+        budgetService.init();
+        when(budgetRepository.findAllByOrderByCategory())
+                .thenReturn(List.of(new Budget(ExpenseCategory.FOOD, new BigDecimal("100.00"))));
+    }
+
+    @Test
+    public void whenSpendingCrossesThresholds_thenEachAlertsOnce() {
+        // given
+        when(expenseRepository.getMonthTotal(202505, ExpenseCategory.FOOD)).thenReturn(new BigDecimal("40.00"));
+
+        // when
+        budgetService.onExpenseChanged(ExpenseChangedEvent.created(food("40.00")));
+        budgetService.onExpenseChanged(ExpenseChangedEvent.created(food("20.00")));
+        budgetService.onExpenseChanged(ExpenseChangedEvent.created(food("30.00")));
+        budgetService.onExpenseChanged(ExpenseChangedEvent.deleted(food("30.00")));
+        budgetService.onExpenseChanged(ExpenseChangedEvent.created(food("30.00")));
+        budgetService.onExpenseChanged(ExpenseChangedEvent.created(food("15.00")));
+
+        // then
+        ArgumentCaptor<BudgetAlert> alerts = ArgumentCaptor.forClass(BudgetAlert.class);
+        verify(alertSink, times(3)).send(alerts.capture());
+        assertThat(alerts.getAllValues()).extracting(BudgetAlert::threshold).containsExactly(50, 80, 100);
+        assertThat(alerts.getAllValues().get(2).spent()).isEqualByComparingTo("105.00");
+        verify(expenseRepository, times(1)).getMonthTotal(anyInt(), any());
+    }
+
+    @Test
+    public void whenManyThreadsWrite_thenTotalIsExactAndEachThresholdAlertsOnce() throws Exception {
+        // given
+        budgetService.getStatus(MAY);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+
+        // when
+        for (int thread = 0; thread < 8; thread++) {
+            pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < 500; i++) {
+                    budgetService.onExpenseChanged(ExpenseChangedEvent.created(food("0.05")));
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        // then
+        Map<String, Object> status = budgetService.getStatus(MAY).get(0);
+        assertThat((BigDecimal) status.get("spent")).isEqualByComparingTo("200.00");
+        assertThat(status.get("thresholdsReached")).isEqualTo(List.of(50, 80, 100));
+        verify(alertSink, times(3)).send(any());
+    }
+
+    @Test
+    public void whenWriteCameFromAnotherNode_thenTotalUpdatesWithoutAlert() {
+        // given
+        budgetService.getStatus(MAY);
+
+        // when
+        budgetService.onExpenseChanged(ExpenseChangedEvent.created(food("60.00")).asRemote());
+        budgetService.onExpenseChanged(ExpenseChangedEvent.created(food("5.00")));
+
+        // then
+        assertThat((BigDecimal) budgetService.getStatus(MAY).get(0).get("spent")).isEqualByComparingTo("65.00");
+        verify(alertSink, never()).send(any());
+    }
+
+    @Test
+    public void whenCategoryHasNoBudget_thenWriteIsNotTracked() {
+        // given
+        Expense taxi = food("30.00");
+        taxi.setCategory(ExpenseCategory.TRANSPORTATION);
+
+        // when
+        budgetService.onExpenseChanged(ExpenseChangedEvent.created(taxi));
+
+        // then
+        assertThat(budgetService.getTrackedTotalCount()).isZero();
+        verify(expenseRepository, never()).getMonthTotal(anyInt(), any());
+    }
+
+    private static Expense food(String amount) {
+        Expense expense = new Expense(new BigDecimal(amount), ExpenseCategory.FOOD, "Groceries", LocalDate.of(2025, 5, 10));
+        expense.setTenantId("default");
+        return expense;
+    }
+}
@@ -0,0 +1,95 @@
+package com.expensetracker.service;
+
+import com.expensetracker.config.TenantContext;
+import com.expensetracker.exception.InvalidInputException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class DashboardServiceTest {
+
+    private static final LocalDate START = LocalDate.of(2025, 5, 1);
+    private static final LocalDate END = LocalDate.of(2025, 5, 31);
+
+    @Mock
+    private ExpenseService expenseService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private DashboardService dashboardService;
+
+    private final Set<String> tenants = ConcurrentHashMap.newKeySet();
+
+    @BeforeEach
+    void setUp() {
+        dashboardService.init();
+        when(expenseService.getExpenses(isNull(), any(), any(), any(Pageable.class)))
+                .thenAnswer(invocation -> slowly(new PageImpl<>(List.of())));
+        when(expenseService.getMonthlySummary(START, END, null))
+                .thenAnswer(invocation -> slowly(List.of(Map.of("month", "2025-05"))));
+        when(expenseService.getCategorySummary(null))
+                .thenAnswer(invocation -> slowly(List.of(Map.of("category", "FOOD"))));
+    }
+
+    @AfterEach
+    void tearDown() {
+        dashboardService.shutdown();
+    }
+
+    @Test
+    public void whenDashboardIsRequested_thenQueriesRunConcurrentlyAsTheCallersTenant() {
+        // when
+        long start = System.nanoTime();
+        Map<String, Object> dashboard = TenantContext.callAs("acme",
+                () -> dashboardService.getDashboard(null, START, END, null, PageRequest.of(0, 20)));
+        long millis = (System.nanoTime() - start) / 1_000_000;
+
+        // then
+        assertThat(dashboard).containsOnlyKeys("expenses", "monthlySummary", "categorySummary");
+        assertThat(millis).isLessThan(750);
+        assertThat(tenants).containsExactly("acme");
+    }
+
+    @Test
+    public void whenAQueryFails_thenItsExceptionIsRethrown() {
+        // given
+        when(expenseService.getCategorySummary(null)).thenThrow(new InvalidInputException("Unknown currency"));
+
+        // when & then
+        assertThatThrownBy(() -> dashboardService.getDashboard(null, START, END, null, PageRequest.of(0, 20)))
+                .isInstanceOf(InvalidInputException.class)
+                .hasMessage("Unknown currency");
+    }
+
+    private <T> T slowly(T result) throws InterruptedException {
+        tenants.add(TenantContext.getTenantId());
+        Thread.sleep(300);
+        return result;
+    }
+}
@@ -0,0 +1,163 @@
+package com.expensetracker.service;
+
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.ExpenseCategory;
+import com.expensetracker.repository.ExpenseFingerprintRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class DuplicateDetectorTest {
+
+    @Mock
+    private ExpenseFingerprintRepository expenseFingerprintRepository;
+
+    @InjectMocks
+    private DuplicateDetector duplicateDetector;
+
+    private final LocalDate day = LocalDate.of(2025, 5, 2);
+
+    @Test
+    public void whenExportsFormatTheSameLineDifferently_thenFingerprintsMatch() {
+        // given
+        Expense first = expense("12.50", "CARD PAYMENT -  Café Central, Vienna");
+        Expense second = expense("12.5", "card payment café central vienna");
+        Expense otherAmount = expense("12.51", "card payment café central vienna");
+
+        // when & then
+        assertThat(DuplicateDetector.contentHash(first)).isEqualTo(DuplicateDetector.contentHash(second));
+        assertThat(DuplicateDetector.contentHash(first)).isNotEqualTo(DuplicateDetector.contentHash(otherAmount));
+    }
+
+    @Test
+    public void whenRowsAreNew_thenTheFilterAnswersWithoutLookingThemUp() {
+        // given
+        List<Expense> rows = List.of(expense("3.20", "Coffee"), expense("3.20", "Coffee"), expense("8.00", "Lunch"));
+
+        // when
+        DuplicateDetector.Classification classification = duplicateDetector.classify("default", rows, false);
+
+        // then
+        assertThat(classification.getDuplicateCount()).isZero();
+        assertThat(classification.fingerprints()[0]).isNotEqualTo(classification.fingerprints()[1]);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<Long>> looked = ArgumentCaptor.forClass(Collection.class);
+        verify(expenseFingerprintRepository).findExpenseIds(eq("default"), looked.capture());
+        assertThat(looked.getValue()).isEmpty();
+    }
+
+    @Test
+    public void whenAnExportOverlapsAnEarlierOne_thenOnlyTheRepeatedOccurrencesAreDuplicates() {
+        // given: one coffee stored; the new export has two
+        Expense stored = expense("3.20", "Coffee");
+        stored.setId(41L);
+        duplicateDetector.register("default", List.of(new ExpenseFingerprintRepository.Entry(
+                DuplicateDetector.occurrence(DuplicateDetector.contentHash(stored), 1), 41L)));
+        when(expenseFingerprintRepository.findExpenseIds(eq("default"), anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> fingerprints = invocation.getArgument(1);
+            long first = DuplicateDetector.occurrence(DuplicateDetector.contentHash(stored), 1);
+            return fingerprints.contains(first) ? Map.of(first, 41L) : Map.of();
+        });
+
+        // when
+        DuplicateDetector.Classification classification = duplicateDetector.classify("default",
+                List.of(expense("3.20", "Coffee"), expense("3.20", "coffee"), expense("8.00", "Lunch")), false);
+
+        // then
+        assertThat(classification.duplicateOf()).containsExactly(41L, null, null);
+        assertThat(duplicateDetector.classify("other-tenant", List.of(expense("3.20", "Coffee")), false).getDuplicateCount())
+                .isZero();
+    }
+
+    @Test
+    public void whenSingleExpenseIsCreated_thenItTakesTheNextFreeOccurrence() {
+        // given
+        Expense coffee = expense("3.20", "Coffee");
+        coffee.setId(7L);
+        coffee.setTenantId("default");
+
+        // when
+        duplicateDetector.registerCreated(coffee);
+
+        // then
+        verify(expenseFingerprintRepository).insert("default", List.of(new ExpenseFingerprintRepository.Entry(
+                DuplicateDetector.occurrence(DuplicateDetector.contentHash(coffee), 1), 7L)));
+        verify(expenseFingerprintRepository, never()).findExpenseIds(any(), any());
+    }
+
+    @Test
+    public void whenBloomFilterIsFilledToCapacity_thenFalsePositivesStayNearTheTarget() {
+        // given
+        BloomFilter filter = new BloomFilter(100_000, 0.01);
+        for (long i = 0; i < 100_000; i++) {
+            filter.put(DuplicateDetector.occurrence(i, 1));
+        }
+
+        // when
+        int falsePositives = 0;
+        for (long i = 100_000; i < 200_000; i++) {
+            if (filter.mightContain(DuplicateDetector.occurrence(i, 1))) {
+                falsePositives++;
+            }
+        }
+
+        // then
+        assertThat(filter.mightContain(DuplicateDetector.occurrence(42, 1))).isTrue();
+        assertThat(falsePositives / 100_000.0).isCloseTo(0.01, within(0.005));
+        assertThat(filter.getExpectedFalsePositiveRate()).isCloseTo(0.01, within(0.002));
+    }
+
+    @Test
+    public void whenKeysArePutConcurrently_thenNoneIsLost() throws Exception {
+        // given
+        BloomFilter filter = new BloomFilter(100_000, 0.01);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+
+        // when
+        for (int t = 0; t < 8; t++) {
+            long first = t * 10_000L;
+            pool.submit(() -> {
+                for (long i = first; i < first + 10_000; i++) {
+                    filter.put(DuplicateDetector.occurrence(i, 1));
+                }
+            });
+        }
+        pool.shutdown();
+        assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        // then
+        assertThat(filter.getKeyCount()).isEqualTo(80_000);
+        for (long i = 0; i < 80_000; i++) {
+            assertThat(filter.mightContain(DuplicateDetector.occurrence(i, 1))).isTrue();
+        }
+    }
+
+    private Expense expense(String amount, String description) {
+        return new Expense(new BigDecimal(amount), ExpenseCategory.FOOD, description, day);
+    }
+}
@@ -0,0 +1,126 @@
+package com.expensetracker.service;
+
+import com.expensetracker.config.TenantContext;
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.ExpenseCategory;
+import com.expensetracker.repository.ExpenseArchiveRepository;
+import com.expensetracker.repository.ExpenseBulkRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class ExpenseAnalyticsServiceTest {
+
+    private static final String TENANT = "acme";
+
+    @Mock
+    private ExpenseBulkRepository expenseBulkRepository;
+
+    @Mock
+    private ExpenseArchiveRepository expenseArchiveRepository;
+
+    @InjectMocks
+    private ExpenseAnalyticsService expenseAnalyticsService;
+
+    @BeforeEach
+    void setUp() {
+        when(expenseArchiveRepository.getSegments()).thenReturn(List.of());
+    }
+
+    @Test
+    public void whenARowIsDeletedBeforeTheLoadReachesIt_thenOnlyTheScannedRowsAreCounted() {
+        // given
+        Expense deleted = expense(3L, "30.00");
+        doAnswer(invocation -> {
+            Consumer<Expense> action = invocation.getArgument(2);
+            action.accept(expense(5L, "50.00"));
+            // Committed before the scan reached its row, so the scan never sees it.
+            expenseAnalyticsService.onExpenseChanged(ExpenseChangedEvent.deleted(deleted));
+            action.accept(expense(7L, "70.00"));
+            return null;
+        }).when(expenseBulkRepository).forEachOfTenant(eq(TENANT), anyInt(), any());
+
+        // when
+        long seen = expensesSeen();
+
+        // then
+        assertThat(seen).isEqualTo(2L);
+    }
+
+    @Test
+    public void whenARowIsCreatedAndScannedDuringTheLoad_thenItIsCountedOnce() {
+        // given
+        Expense created = expense(6L, "60.00");
+        doAnswer(invocation -> {
+            Consumer<Expense> action = invocation.getArgument(2);
+            action.accept(expense(5L, "50.00"));
+            expenseAnalyticsService.onExpenseChanged(ExpenseChangedEvent.created(created));
+            action.accept(created);
+            return null;
+        }).when(expenseBulkRepository).forEachOfTenant(eq(TENANT), anyInt(), any());
+
+        // when
+        long seen = expensesSeen();
+
+        // then
+        assertThat(seen).isEqualTo(2L);
+    }
+
+    @Test
+    public void whenMoreTenantsAreQueriedThanKept_thenTheLeastRecentlyUsedAreDropped() {
+        // given
+        ReflectionTestUtils.setField(expenseAnalyticsService, "maxTenants", 2);
+
+        // when
+        for (String tenantId : List.of("acme", "globex", "initech", "acme")) {
+            TenantContext.callAs(tenantId, () -> expenseAnalyticsService.getDescriptionStats(null, null, null, 5));
+        }
+
+        // then
+        assertThat(expenseAnalyticsService.getLoadedTenantCount()).isEqualTo(2);
+        verify(expenseBulkRepository, times(2)).forEachOfTenant(eq("acme"), anyInt(), any());
+    }
+
+    @Test
+    public void whenATenantIsNotLoaded_thenItsWritesAreLeftToItsLoad() {
+        // given
+        Expense lunch = expense(5L, "50.00");
+
+        // when
+        expenseAnalyticsService.onExpenseChanged(ExpenseChangedEvent.created(lunch));
+
+        // then
+        assertThat(expenseAnalyticsService.getLoadedTenantCount()).isZero();
+        verifyNoInteractions(expenseBulkRepository);
+    }
+
+    private long expensesSeen() {
+        return (long) TenantContext.callAs(TENANT, () -> expenseAnalyticsService.getDescriptionStats(null, null, null, 5)).get("expenses");
+    }
+
+    private static Expense expense(long id, String amount) {
+        Expense expense = new Expense(new BigDecimal(amount), ExpenseCategory.FOOD, "Lunch " + id, LocalDate.of(2025, 3, (int) id));
+        expense.setId(id);
+        expense.setTenantId(TENANT);
+        return expense;
+    }
+}
@@ -4,17 +4,23 @@ import com.expensetracker.exception.InvalidInputException;
 import com.expensetracker.exception.ResourceNotFoundException;
 import com.expensetracker.model.Expense;
 import com.expensetracker.model.ExpenseCategory;
+import com.expensetracker.repository.ExpenseArchiveRepository;
+import com.expensetracker.repository.ExpenseJournal;
 import com.expensetracker.repository.ExpenseRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -28,6 +34,7 @@ import java.util.HashMap;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -36,6 +43,24 @@ public class ExpenseServiceTest {
     @Mock
     private ExpenseRepository expenseRepository;
 
+    @Mock
+    private ExpenseArchiveRepository expenseArchiveRepository;
+
+    @Mock
+    private IdempotencyService idempotencyService;
+
+    @Mock
+    private DuplicateDetector duplicateDetector;
+
+    @Mock
+    private ExpenseJournal expenseJournal;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
     @InjectMocks
     private ExpenseService expenseService;
 
@@ -86,6 +111,7 @@ public class ExpenseServiceTest {
         // given
         Expense expense = new Expense(new BigDecimal("10.00"), ExpenseCategory.FOOD, "Lunch", LocalDate.now());
         when(expenseRepository.save(any(Expense.class))).thenReturn(expense);
+        runTransactions();
 
         // when
         Expense createdExpense = expenseService.createExpense(expense);
@@ -93,33 +119,83 @@ public class ExpenseServiceTest {
         // then
         assertThat(createdExpense).isEqualTo(expense);
         verify(expenseRepository, times(1)).save(expense);
+        InOrder order = inOrder(expenseJournal, eventPublisher);
+        order.verify(expenseJournal).markInserted(List.of(expense));
+        order.verify(expenseJournal).append(ExpenseJournal.Type.CREATED, expense);
+        order.verify(eventPublisher).publishEvent(ExpenseChangedEvent.created(expense));
+    }
+
+    @Test
+    public void whenCreateExpenseWithIdempotencyKey_thenSaveThroughIdempotencyService() {
+        // given
+        Expense expense = new Expense(new BigDecimal("10.00"), ExpenseCategory.FOOD, "Lunch", LocalDate.now());
+        when(expenseRepository.save(expense)).thenReturn(expense);
+        runTransactions();
+        when(idempotencyService.execute(eq("retry-123"), any())).thenAnswer(invocation -> new IdempotencyService.Outcome(
+                invocation.<java.util.function.Supplier<Expense>>getArgument(1).get(), true));
+
+        // when
+        Expense createdExpense = expenseService.createExpense(expense, "retry-123");
+
+        // then
+        assertThat(createdExpense).isEqualTo(expense);
+        verify(idempotencyService, times(1)).execute(eq("retry-123"), any());
+        verify(expenseRepository, times(1)).save(expense);
+        verify(expenseJournal).append(ExpenseJournal.Type.CREATED, expense);
+        verify(eventPublisher).publishEvent(ExpenseChangedEvent.created(expense));
     }
 
-    
+    @Test
+    public void whenAnotherNodeRecordsTheKeyFirst_thenTheRolledBackInsertIsNotAnnounced() {
+        // given
+        Expense expense = new Expense(new BigDecimal("10.00"), ExpenseCategory.FOOD, "Lunch", LocalDate.now());
+        Expense original = new Expense(new BigDecimal("10.00"), ExpenseCategory.FOOD, "Lunch", LocalDate.now());
+        original.setId(1L);
+        when(expenseRepository.save(expense)).thenReturn(expense);
+        runTransactions();
+        when(idempotencyService.execute(eq("retry-123"), any())).thenAnswer(invocation -> {
+            invocation.<java.util.function.Supplier<Expense>>getArgument(1).get();
+            return new IdempotencyService.Outcome(original, false);
+        });
+
+        // when
+        Expense result = expenseService.createExpense(expense, "retry-123");
+
+        // then
+        assertThat(result).isSameAs(original);
+        verify(expenseJournal, never()).append(eq(ExpenseJournal.Type.CREATED), any(Expense.class));
+        verify(duplicateDetector, never()).registerCreated(any());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
 
     @Test
     public void whenDeleteExpense_thenDeleteSuccessfully() {
         // given
-        when(expenseRepository.existsById(1L)).thenReturn(true);
-        doNothing().when(expenseRepository).deleteById(1L);
+        Expense expense = new Expense(new BigDecimal("10.00"), ExpenseCategory.FOOD, "Lunch", LocalDate.now());
+        expense.setId(1L);
+        when(expenseRepository.findById(1L)).thenReturn(Optional.of(expense));
 
         // when
         expenseService.deleteExpense(1L);
 
         // then
-        verify(expenseRepository, times(1)).existsById(1L);
-        verify(expenseRepository, times(1)).deleteById(1L);
+        verify(expenseRepository, times(1)).findById(1L);
+        verify(expenseRepository, times(1)).delete(expense);
+        InOrder order = inOrder(expenseJournal, eventPublisher);
+        order.verify(expenseJournal).awaitJournaled(1L);
+        order.verify(expenseJournal).append(ExpenseJournal.Type.DELETED, expense);
+        order.verify(eventPublisher).publishEvent(ExpenseChangedEvent.deleted(expense));
     }
 
     @Test
     public void whenDeleteExpense_thenThrowResourceNotFoundException() {
         // given
-        when(expenseRepository.existsById(1L)).thenReturn(false);
+        when(expenseRepository.findById(1L)).thenReturn(Optional.empty());
 
         // when & then
         assertThrows(ResourceNotFoundException.class, () -> expenseService.deleteExpense(1L));
-        verify(expenseRepository, times(1)).existsById(1L);
-        verify(expenseRepository, never()).deleteById(anyLong());
+        verify(expenseRepository, times(1)).findById(1L);
+        verify(expenseRepository, never()).delete(any(Expense.class));
     }
 
     @Test
@@ -252,4 +328,9 @@ public class ExpenseServiceTest {
         assertThat(actualSummary).isEqualTo(expectedSummary);
         verify(expenseRepository, times(1)).getCategorySummary();
     }
-}
\ No newline at end of file
+
+    private void runTransactions() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+}
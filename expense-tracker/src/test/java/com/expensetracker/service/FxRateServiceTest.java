@@ -0,0 +1,83 @@
+package com.expensetracker.service;
+
+import com.expensetracker.exception.InvalidInputException;
+import com.expensetracker.model.FxRate;
+import com.expensetracker.repository.FxRateRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class FxRateServiceTest {
+
+    private static final LocalDate MAY_2 = LocalDate.of(2025, 5, 2);
+
+    @Mock
+    private FxRateRepository fxRateRepository;
+
+    @InjectMocks
+    private FxRateService fxRateService;
+
+    @BeforeEach
+    void setUp() {
+        when(fxRateRepository.findFirstByCurrencyAndEffectiveDateLessThanEqualOrderByEffectiveDateDesc(eq("EUR"), any()))
+                .thenReturn(Optional.of(new FxRate("EUR", LocalDate.of(2025, 5, 1), new BigDecimal("1.10"))));
+        when(fxRateRepository.findFirstByCurrencyAndEffectiveDateLessThanEqualOrderByEffectiveDateDesc(eq("GBP"), any()))
+                .thenReturn(Optional.of(new FxRate("GBP", LocalDate.of(2025, 5, 1), new BigDecimal("1.32"))));
+    }
+
+    @Test
+    public void whenConvertingBetweenTwoForeignCurrencies_thenCrossRateGoesThroughTheBase() {
+        // when
+        BigDecimal pounds = fxRateService.convert(new BigDecimal("110.00"), "EUR", MAY_2, "GBP");
+        BigDecimal dollars = fxRateService.convert(new BigDecimal("10.00"), "EUR", MAY_2, "USD");
+
+        // then
+        assertThat(pounds.setScale(2, RoundingMode.HALF_UP)).isEqualByComparingTo("91.67");
+        assertThat(dollars).isEqualByComparingTo("11.00");
+        assertThat(fxRateService.convert(new BigDecimal("5.00"), "EUR", null, "EUR")).isEqualByComparingTo("5.00");
+    }
+
+    @Test
+    public void whenSameDayAndPairAreConvertedAgain_thenRateComesFromCache() {
+        // when
+        for (int i = 0; i < 5; i++) {
+            fxRateService.getRate(MAY_2, "EUR", "GBP");
+        }
+        fxRateService.setRate("GBP", LocalDate.of(2025, 5, 2), new BigDecimal("1.30"));
+        fxRateService.getRate(MAY_2, "EUR", "GBP");
+
+        // then
+        assertThat(fxRateService.getCacheMetrics()).containsEntry("hits", 4L).containsEntry("misses", 2L);
+        verify(fxRateRepository, times(2)).findFirstByCurrencyAndEffectiveDateLessThanEqualOrderByEffectiveDateDesc(eq("GBP"), any());
+    }
+
+    @Test
+    public void whenNoRateIsInEffect_thenThrowInvalidInputException() {
+        // given
+        when(fxRateRepository.findFirstByCurrencyAndEffectiveDateLessThanEqualOrderByEffectiveDateDesc(eq("JPY"), any()))
+                .thenReturn(Optional.empty());
+
+        // when & then
+        assertThrows(InvalidInputException.class, () -> fxRateService.getRate(MAY_2, "JPY", "USD"));
+        assertThrows(InvalidInputException.class, () -> fxRateService.setRate("USD", MAY_2, BigDecimal.ONE));
+        assertThrows(InvalidInputException.class, () -> FxRateService.checkCurrency("eur"));
+    }
+}
@@ -0,0 +1,206 @@
+package com.expensetracker.service;
+
+import com.expensetracker.config.TenantContext;
+import com.expensetracker.exception.InvalidInputException;
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.ExpenseCategory;
+import com.expensetracker.model.IdempotencyKey;
+import com.expensetracker.repository.ExpenseRepository;
+import com.expensetracker.repository.IdempotencyKeyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class IdempotencyServiceTest {
+
+    @Mock
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Mock
+    private ExpenseRepository expenseRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private IdempotencyService idempotencyService;
+
+    @BeforeEach
+    void setUp() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(idempotencyKeyRepository.findById(any())).thenReturn(Optional.empty());
+    }
+
+    @Test
+    public void whenSameKeyIsRetried_thenCreateRunsOnce() {
+        // given
+        AtomicInteger creates = new AtomicInteger();
+        Expense expense = expense(1L);
+
+        // when
+        IdempotencyService.Outcome first = idempotencyService.execute("key-1", () -> { creates.incrementAndGet(); return expense; });
+        IdempotencyService.Outcome retried = idempotencyService.execute("key-1", () -> { creates.incrementAndGet(); return expense(2L); });
+
+        // then
+        assertThat(retried.expense()).isSameAs(first.expense());
+        assertThat(first.created()).isTrue();
+        assertThat(retried.created()).isFalse();
+        assertThat(creates).hasValue(1);
+        verify(idempotencyKeyRepository, times(1)).saveAndFlush(any(IdempotencyKey.class));
+    }
+
+    @Test
+    public void whenSameKeyArrivesConcurrently_thenCreateRunsOnce() throws Exception {
+        // given
+        AtomicInteger creates = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<Expense>> results = new ArrayList<>();
+
+        // when
+        for (int i = 0; i < 8; i++) {
+            results.add(pool.submit(() -> {
+                start.await();
+                return idempotencyService.execute("key-2", () -> {
+                    creates.incrementAndGet();
+                    return expense(7L);
+                }).expense();
+            }));
+        }
+        start.countDown();
+        pool.shutdown();
+        assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        // then
+        assertThat(creates).hasValue(1);
+        for (Future<Expense> result : results) {
+            assertThat(result.get().getId()).isEqualTo(7L);
+        }
+    }
+
+    @Test
+    public void whenKeyIsOnlyInTable_thenReturnRecordedExpense() {
+        // given
+        Expense recorded = expense(3L);
+        when(idempotencyKeyRepository.findById("default:key-3"))
+                .thenReturn(Optional.of(new IdempotencyKey("default:key-3", 3L, LocalDateTime.now())));
+        when(expenseRepository.findById(3L)).thenReturn(Optional.of(recorded));
+
+        // when
+        IdempotencyService.Outcome result = idempotencyService.execute("key-3", () -> expense(4L));
+
+        // then
+        assertThat(result.expense()).isSameAs(recorded);
+        assertThat(result.created()).isFalse();
+        verify(idempotencyKeyRepository, never()).saveAndFlush(any(IdempotencyKey.class));
+    }
+
+    @Test
+    public void whenAnotherNodeWinsTheRace_thenReturnItsExpense() {
+        // given
+        Expense winner = expense(5L);
+        when(idempotencyKeyRepository.saveAndFlush(any(IdempotencyKey.class)))
+                .thenThrow(new DataIntegrityViolationException("duplicate key"));
+        when(idempotencyKeyRepository.findById("default:key-5"))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(new IdempotencyKey("default:key-5", 5L, LocalDateTime.now())));
+        when(expenseRepository.findById(5L)).thenReturn(Optional.of(winner));
+
+        // when
+        IdempotencyService.Outcome result = idempotencyService.execute("key-5", () -> expense(6L));
+
+        // then
+        assertThat(result.expense()).isSameAs(winner);
+        assertThat(result.created()).isFalse();
+    }
+
+    @Test
+    public void whenCacheIsFull_thenEvictDownToBound() {
+        // given
+        ReflectionTestUtils.setField(idempotencyService, "maxEntries", 4);
+
+        // when
+        for (long i = 0; i < 10; i++) {
+            long id = i;
+            idempotencyService.execute("key-" + i, () -> expense(id));
+        }
+
+        // then
+        assertThat(idempotencyService.cachedEntries()).isLessThanOrEqualTo(5);
+    }
+
+    @Test
+    public void whenCacheStaysFull_thenEvictionPassesAreAmortizedOverManyInserts() {
+        // given
+        ReflectionTestUtils.setField(idempotencyService, "maxEntries", 100);
+
+        // when
+        for (long i = 0; i < 400; i++) {
+            long id = i;
+            idempotencyService.execute("key-" + i, () -> expense(id));
+        }
+
+        // then
+        assertThat(idempotencyService.cachedEntries()).isBetween(90, 100);
+        assertThat(idempotencyService.evictionPasses()).isLessThanOrEqualTo(30);
+    }
+
+    @Test
+    public void whenOneTenantFillsTheCache_thenOtherTenantsKeepTheirEntries() {
+        // given
+        ReflectionTestUtils.setField(idempotencyService, "maxEntries", 4);
+        TenantContext.callAs("globex", () -> idempotencyService.execute("key-1", () -> expense(1L)));
+
+        // when
+        for (long i = 0; i < 10; i++) {
+            long id = i + 2;
+            TenantContext.callAs("acme", () -> idempotencyService.execute("key-" + id, () -> expense(id)));
+        }
+
+        // then
+        assertThat(idempotencyService.cachedEntries("globex")).isEqualTo(1);
+        assertThat(idempotencyService.cachedEntries()).isLessThanOrEqualTo(5);
+        assertThat(IdempotencyService.fairShare(List.of(9, 1, 2), 6)).isEqualTo(3);
+    }
+
+    @Test
+    public void whenKeyIsBlank_thenThrowInvalidInputException() {
+        assertThrows(InvalidInputException.class, () -> idempotencyService.execute(" ", () -> expense(1L)));
+    }
+
+    private static Expense expense(Long id) {
+        Expense expense = new Expense(new BigDecimal("10.00"), ExpenseCategory.FOOD, "Lunch", LocalDate.now());
+        expense.setId(id);
+        return expense;
+    }
+}
@@ -0,0 +1,78 @@
+package com.expensetracker.service;
+
+import com.expensetracker.config.FlightEvents;
+import com.expensetracker.exception.InvalidInputException;
+import com.expensetracker.exception.ResourceNotFoundException;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ProfilingServiceTest {
+
+    private final ProfilingService profilingService = new ProfilingService();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(profilingService, "settings", "default");
+        ReflectionTestUtils.setField(profilingService, "serviceThreshold", Duration.ZERO);
+    }
+
+    @AfterEach
+    void tearDown() {
+        profilingService.close();
+    }
+
+    @Test
+    public void whenRecordingIsDumped_thenItHoldsServiceCallEvents() throws Exception {
+        // given
+        profilingService.start(Duration.ofMinutes(1));
+
+        // when
+        FlightEvents.service("getExpenses", "category", () -> List.of("lunch", "bus"));
+        Path dump = profilingService.dump();
+
+        // then
+        List<RecordedEvent> calls = RecordingFile.readAllEvents(dump).stream()
+                .filter(event -> event.getEventType().getName().equals("com.expensetracker.ServiceCall"))
+                .toList();
+        assertThat(calls).singleElement().satisfies(event -> {
+            assertThat(event.getString("method")).isEqualTo("getExpenses");
+            assertThat(event.getString("filter")).isEqualTo("category");
+            assertThat(event.getInt("rows")).isEqualTo(2);
+        });
+        assertThat(profilingService.getStatus().get("state")).isEqualTo("RUNNING");
+
+        profilingService.close();
+        assertThat(Files.exists(dump)).isFalse();
+    }
+
+    @Test
+    public void whenRecordingIsRunning_thenAnotherCannotStart() {
+        // given
+        profilingService.start(Duration.ofMinutes(1));
+
+        // when & then
+        assertThatThrownBy(() -> profilingService.start(Duration.ofMinutes(1)))
+                .isInstanceOf(InvalidInputException.class);
+        assertThatThrownBy(() -> profilingService.start(Duration.ofHours(1)))
+                .isInstanceOf(InvalidInputException.class)
+                .hasMessageContaining("at most");
+    }
+
+    @Test
+    public void whenNothingWasRecorded_thenDumpIsNotFound() {
+        assertThatThrownBy(profilingService::dump).isInstanceOf(ResourceNotFoundException.class);
+        assertThat(profilingService.getStatus()).containsEntry("state", "NONE");
+    }
+}
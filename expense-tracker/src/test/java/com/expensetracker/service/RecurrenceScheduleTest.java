@@ -0,0 +1,91 @@
+package com.expensetracker.service;
+
+import com.expensetracker.exception.InvalidInputException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class RecurrenceScheduleTest {
+
+    @Test
+    public void whenMonthlyOnLastDay_thenEveryMonthEndIsDue() {
+        // given
+        RecurrenceSchedule schedule = RecurrenceSchedule.parse("RRULE:FREQ=MONTHLY;BYMONTHDAY=-1", LocalDate.of(2024, 1, 15));
+
+        // when
+        List<LocalDate> dates = occurrences(schedule, 3);
+
+        // then
+        assertThat(dates).containsExactly(LocalDate.of(2024, 1, 31), LocalDate.of(2024, 2, 29), LocalDate.of(2024, 3, 31));
+    }
+
+    @Test
+    public void whenMonthlyOnThe31st_thenShortMonthsAreSkipped() {
+        // given
+        RecurrenceSchedule schedule = RecurrenceSchedule.parse("FREQ=MONTHLY", LocalDate.of(2025, 1, 31));
+
+        // when
+        List<LocalDate> dates = occurrences(schedule, 3);
+
+        // then
+        assertThat(dates).containsExactly(LocalDate.of(2025, 1, 31), LocalDate.of(2025, 3, 31), LocalDate.of(2025, 5, 31));
+    }
+
+    @Test
+    public void whenWeeklyEveryOtherWeek_thenOnlyListedDaysOfAlternateWeeks() {
+        // given: 2025-06-04 is a Wednesday
+        RecurrenceSchedule schedule = RecurrenceSchedule.parse("FREQ=WEEKLY;INTERVAL=2;BYDAY=MO,FR", LocalDate.of(2025, 6, 4));
+
+        // when
+        List<LocalDate> dates = occurrences(schedule, 4);
+
+        // then
+        assertThat(dates).containsExactly(LocalDate.of(2025, 6, 6), LocalDate.of(2025, 6, 16),
+                LocalDate.of(2025, 6, 20), LocalDate.of(2025, 6, 30));
+    }
+
+    @Test
+    public void whenNextIsAskedFarAhead_thenItLandsOnTheSchedule() {
+        // given
+        RecurrenceSchedule daily = RecurrenceSchedule.parse("FREQ=DAILY;INTERVAL=10", LocalDate.of(2025, 1, 1));
+        RecurrenceSchedule yearly = RecurrenceSchedule.parse("FREQ=YEARLY", LocalDate.of(2024, 2, 29));
+
+        // when / then
+        assertThat(daily.next(LocalDate.of(2025, 3, 1))).isEqualTo(LocalDate.of(2025, 3, 2));
+        assertThat(yearly.next(LocalDate.of(2024, 2, 29))).isEqualTo(LocalDate.of(2028, 2, 29));
+    }
+
+    @Test
+    public void whenScheduleIsCron_thenOnlyTheDateMatters() {
+        // given
+        RecurrenceSchedule schedule = RecurrenceSchedule.parse("@monthly", LocalDate.of(2025, 1, 1));
+
+        // when
+        List<LocalDate> dates = occurrences(schedule, 2);
+
+        // then
+        assertThat(dates).containsExactly(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 2, 1));
+    }
+
+    @Test
+    public void whenScheduleIsInvalid_thenThrowInvalidInput() {
+        LocalDate start = LocalDate.of(2025, 1, 1);
+        assertThrows(InvalidInputException.class, () -> RecurrenceSchedule.parse("FREQ=HOURLY", start));
+        assertThrows(InvalidInputException.class, () -> RecurrenceSchedule.parse("FREQ=MONTHLY;COUNT=3", start));
+        assertThrows(InvalidInputException.class, () -> RecurrenceSchedule.parse("FREQ=DAILY;BYDAY=XX", start));
+        assertThrows(InvalidInputException.class, () -> RecurrenceSchedule.parse("every month", start));
+    }
+
+    private static List<LocalDate> occurrences(RecurrenceSchedule schedule, int count) {
+        List<LocalDate> dates = new ArrayList<>();
+        for (LocalDate date = schedule.first(); dates.size() < count; date = schedule.next(date)) {
+            dates.add(date);
+        }
+        return dates;
+    }
+}
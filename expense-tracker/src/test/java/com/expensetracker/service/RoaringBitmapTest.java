@@ -0,0 +1,80 @@
+package com.expensetracker.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+import java.util.TreeSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RoaringBitmapTest {
+
+    @Test
+    public void whenSetOperationsRun_thenTheyMatchSortedSets() {
+        // given: sparse, dense and mixed containers over several keys
+        SplittableRandom random = new SplittableRandom(7);
+        RoaringBitmap a = new RoaringBitmap();
+        RoaringBitmap b = new RoaringBitmap();
+        TreeSet<Long> expectedA = new TreeSet<>();
+        TreeSet<Long> expectedB = new TreeSet<>();
+        for (int i = 0; i < 60_000; i++) {
+            long dense = random.nextLong(100_000);
+            long sparse = random.nextLong(1L << 36);
+            a.add(dense);
+            expectedA.add(dense);
+            if (i % 2 == 0) {
+                b.add(dense + 1);
+                expectedB.add(dense + 1);
+            }
+            if (i % 20 == 0) {
+                a.add(sparse);
+                expectedA.add(sparse);
+                b.add(sparse);
+                expectedB.add(sparse);
+            }
+        }
+
+        // when
+        RoaringBitmap and = RoaringBitmap.and(a, b);
+        RoaringBitmap or = RoaringBitmap.or(a, b);
+        RoaringBitmap andNot = RoaringBitmap.andNot(a, b);
+
+        // then
+        TreeSet<Long> expectedAnd = new TreeSet<>(expectedA);
+        expectedAnd.retainAll(expectedB);
+        TreeSet<Long> expectedOr = new TreeSet<>(expectedA);
+        expectedOr.addAll(expectedB);
+        TreeSet<Long> expectedAndNot = new TreeSet<>(expectedA);
+        expectedAndNot.removeAll(expectedB);
+        assertThat(a.toArray()).containsExactly(expectedA.stream().mapToLong(Long::longValue).toArray());
+        assertThat(and.toArray()).containsExactly(expectedAnd.stream().mapToLong(Long::longValue).toArray());
+        assertThat(or.toArray()).containsExactly(expectedOr.stream().mapToLong(Long::longValue).toArray());
+        assertThat(andNot.toArray()).containsExactly(expectedAndNot.stream().mapToLong(Long::longValue).toArray());
+        assertThat(a.getCardinality()).isEqualTo(expectedA.size());
+    }
+
+    @Test
+    public void whenContainerGrowsAndShrinks_thenItSwitchesRepresentationWithoutLosingIds() {
+        // given
+        RoaringBitmap ids = new RoaringBitmap();
+        for (long id = 0; id < 10_000; id++) {
+            ids.add(id * 2);
+        }
+        long dense = ids.getSizeInBytes();
+
+        // when
+        for (long id = 0; id < 9_000; id++) {
+            ids.remove(id * 2);
+        }
+
+        // then
+        assertThat(ids.getCardinality()).isEqualTo(1_000);
+        assertThat(ids.contains(18_000)).isTrue();
+        assertThat(ids.contains(17_998)).isFalse();
+        assertThat(ids.getSizeInBytes()).isLessThan(dense);
+        for (long id = 9_000; id < 10_000; id++) {
+            ids.remove(id * 2);
+        }
+        assertThat(ids.isEmpty()).isTrue();
+    }
+}
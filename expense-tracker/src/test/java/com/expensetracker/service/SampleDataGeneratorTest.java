@@ -0,0 +1,88 @@
+package com.expensetracker.service;
+
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.ExpenseCategory;
+import com.expensetracker.repository.ExpenseRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest(properties = {
+        "generate=2500",
+        "expense.generator.batch-size=1000",
+        "expense.generator.threads=3"
+})
+@DirtiesContext
+public class SampleDataGeneratorTest {
+
+    private static final LocalDate FROM = LocalDate.of(2024, 1, 1);
+    private static final LocalDate UNTIL = LocalDate.of(2024, 12, 31);
+
+    @Autowired
+    private SampleDataGenerator sampleDataGenerator;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Test
+    public void whenGeneratingIntoEmptyTable_thenAllRowsAreInsertedAndIdsContinueAfterThem() {
+        // given
+        expenseRepository.deleteAll();
+
+        // when
+        Map<String, Object> result = sampleDataGenerator.generateIfEmpty();
+
+        // then
+        List<Expense> all = expenseRepository.findAll();
+        assertThat(result.get("rows")).isEqualTo(2500L);
+        assertThat(all).hasSize(2500);
+        assertThat(all).allSatisfy(expense -> assertThat(expense.getAmount()).isPositive());
+
+        Expense created = expenseRepository.save(new Expense(new BigDecimal("5.00"), ExpenseCategory.FOOD, "After", LocalDate.now()));
+        assertThat(created.getId()).isEqualTo(2501L);
+    }
+
+    @Test
+    public void whenSameSeedAndChunk_thenRowsAreIdentical() {
+        // when
+        List<Expense> first = SampleDataGenerator.generateChunk(7, 3, 1, 500, FROM, UNTIL);
+        List<Expense> second = SampleDataGenerator.generateChunk(7, 3, 1, 500, FROM, UNTIL);
+        List<Expense> otherSeed = SampleDataGenerator.generateChunk(8, 3, 1, 500, FROM, UNTIL);
+
+        // then
+        assertThat(second).extracting(Expense::getAmount, Expense::getCategory, Expense::getDate, Expense::getDescription)
+                .isEqualTo(first.stream().map(e -> tuple(
+                        e.getAmount(), e.getCategory(), e.getDate(), e.getDescription())).toList());
+        assertThat(otherSeed).extracting(Expense::getAmount).isNotEqualTo(first.stream().map(Expense::getAmount).toList());
+    }
+
+    @Test
+    public void whenChunkIsGenerated_thenDistributionLooksLikeRealSpending() {
+        // when
+        List<Expense> rows = SampleDataGenerator.generateChunk(42, 0, 100, 20_000, FROM, UNTIL);
+        Map<ExpenseCategory, Long> perCategory = rows.stream()
+                .collect(Collectors.groupingBy(Expense::getCategory, Collectors.counting()));
+
+        // then
+        assertThat(rows.get(0).getId()).isEqualTo(100L);
+        assertThat(rows).allSatisfy(e -> assertThat(e.getDate()).isBetween(FROM, UNTIL));
+        assertThat(perCategory).containsOnlyKeys(ExpenseCategory.values());
+        assertThat(perCategory.get(ExpenseCategory.FOOD)).isGreaterThan(perCategory.get(ExpenseCategory.BILLS));
+        assertThat(average(rows, ExpenseCategory.BILLS)).isGreaterThan(average(rows, ExpenseCategory.FOOD));
+    }
+
+    private static double average(List<Expense> rows, ExpenseCategory category) {
+        return rows.stream().filter(e -> e.getCategory() == category)
+                .mapToDouble(e -> e.getAmount().doubleValue()).average().orElse(0);
+    }
+}
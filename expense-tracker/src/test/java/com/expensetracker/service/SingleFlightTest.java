@@ -0,0 +1,125 @@
+package com.expensetracker.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class SingleFlightTest {
+
+    private final SingleFlight<String, Integer> singleFlight = new SingleFlight<>();
+
+    @Test
+    public void whenConcurrentCallsShareKey_thenOneComputationServesAll() throws Exception {
+        // given
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // when
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(executor.submit(() -> singleFlight.execute("2025", () -> {
+                executions.incrementAndGet();
+                await(release);
+                return 42;
+            })));
+        }
+        while ((long) singleFlight.getMetrics().get("collapsed") < 7) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        // then
+        for (Future<Integer> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo(42);
+        }
+        executor.shutdown();
+        assertThat(executions).hasValue(1);
+        assertThat(singleFlight.getMetrics()).containsEntry("calls", 8L).containsEntry("executions", 1L)
+                .containsEntry("inFlight", 0);
+    }
+
+    @Test
+    public void whenInvalidatedWhileInFlight_thenLaterCallerComputesAgain() throws Exception {
+        // given
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<Integer> stale = executor.submit(() -> singleFlight.execute("2025", () -> {
+            started.countDown();
+            await(release);
+            return 1;
+        }));
+        started.await();
+
+        // when
+        singleFlight.invalidate();
+        int fresh = singleFlight.execute("2025", () -> 2);
+        release.countDown();
+
+        // then
+        assertThat(fresh).isEqualTo(2);
+        assertThat(stale.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+        assertThat(singleFlight.getMetrics()).containsEntry("collapsed", 0L);
+        executor.shutdown();
+    }
+
+    @Test
+    public void whenOneKeyIsInvalidated_thenOtherKeysKeepCollapsing() throws Exception {
+        // given
+        CountDownLatch started = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        for (String key : List.of("acme", "globex")) {
+            executor.submit(() -> singleFlight.execute(key, () -> {
+                started.countDown();
+                await(release);
+                return 1;
+            }));
+        }
+        started.await();
+
+        // when
+        singleFlight.invalidateIf("acme"::equals);
+        int fresh = singleFlight.execute("acme", () -> 2);
+        Future<Integer> shared = executor.submit(() -> singleFlight.execute("globex", () -> 3));
+        while ((long) singleFlight.getMetrics().get("collapsed") < 1) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        // then
+        assertThat(fresh).isEqualTo(2);
+        assertThat(shared.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+        executor.shutdown();
+    }
+
+    @Test
+    public void whenComputationFails_thenNothingIsRemembered() {
+        // when
+        assertThrows(IllegalStateException.class, () -> singleFlight.execute("2025", () -> {
+            throw new IllegalStateException("database down");
+        }));
+
+        // then
+        assertThat(singleFlight.execute("2025", () -> 7)).isEqualTo(7);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
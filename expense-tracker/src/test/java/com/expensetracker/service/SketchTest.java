@@ -0,0 +1,110 @@
+package com.expensetracker.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class SketchTest {
+
+    @Test
+    public void whenKllSketchesAreMerged_thenQuantilesStayWithinRankError() {
+        // given
+        KllSketch first = new KllSketch(200);
+        KllSketch second = new KllSketch(200);
+        for (int i = 0; i < 100_000; i++) {
+            (i % 2 == 0 ? first : second).add(i);
+        }
+
+        // when
+        first.merge(second);
+
+        // then
+        assertThat(first.getCount()).isEqualTo(100_000);
+        assertThat(first.getMin()).isEqualTo(0);
+        assertThat(first.getMax()).isEqualTo(99_999);
+        assertThat(first.quantile(0.5)).isCloseTo(50_000, within(2_500.0));
+        assertThat(first.quantile(0.99)).isCloseTo(99_000, within(2_500.0));
+        assertThat(first.retained()).isLessThan(1_000);
+    }
+
+    @Test
+    public void whenHyperLogLogsAreMerged_thenDistinctCountIsWithinFivePercent() {
+        // given
+        HyperLogLog first = new HyperLogLog(12);
+        HyperLogLog second = new HyperLogLog(12);
+        for (int i = 0; i < 60_000; i++) {
+            first.add(HyperLogLog.hash("description " + i));
+            second.add(HyperLogLog.hash("description " + (i + 40_000)));
+        }
+
+        // when
+        first.merge(second);
+
+        // then
+        assertThat(first.estimate()).isCloseTo(100_000L, within(5_000L));
+    }
+
+    @Test
+    public void whenHyperLogLogIsSmall_thenDistinctCountIsNearlyExact() {
+        // given
+        HyperLogLog sketch = new HyperLogLog(12);
+
+        // when
+        for (int i = 0; i < 3; i++) {
+            sketch.add(HyperLogLog.hash("Lunch"));
+            sketch.add(HyperLogLog.hash("Bus fare"));
+        }
+
+        // then
+        assertThat(sketch.estimate()).isEqualTo(2);
+    }
+
+    @Test
+    public void whenCountMinSeesSkewedStream_thenHeavyHittersAreReported() {
+        // given
+        CountMinSketch sketch = new CountMinSketch(512, 4, 8);
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < 20_000; i++) {
+            sketch.add("rare " + random.nextInt(5_000), 1);
+        }
+        for (int i = 0; i < 3_000; i++) {
+            sketch.add("Groceries", 1);
+            if (i % 2 == 0) {
+                sketch.add("Coffee", 1);
+            }
+        }
+
+        // when
+        sketch.add("Coffee", -500);
+
+        // then
+        assertThat(sketch.top(2)).extracting(Map.Entry::getKey).containsExactly("Groceries", "Coffee");
+        assertThat(sketch.estimate("Groceries")).isBetween(3_000L, 3_000L + 20_000L * 3 / 512);
+        assertThat(sketch.estimate("Coffee")).isBetween(1_000L, 1_000L + 20_000L * 3 / 512);
+    }
+
+    @Test
+    public void whenCountMinHasFewKeys_thenCountsAreExactUntilCapacity() {
+        // given
+        CountMinSketch small = new CountMinSketch(512, 4, 4);
+        CountMinSketch large = new CountMinSketch(512, 4, 4);
+        small.add("Coffee", 3);
+        small.add("Lunch", 1);
+        for (int i = 0; i < 100; i++) {
+            large.add("key " + i, 1);
+        }
+
+        // when
+        small.add("Lunch", -1);
+        large.merge(small);
+
+        // then
+        assertThat(small.top(5)).extracting(Map.Entry::getKey).containsExactly("Coffee");
+        assertThat(large.top(1)).extracting(Map.Entry::getKey).containsExactly("Coffee");
+        assertThat(large.estimate("Coffee")).isGreaterThanOrEqualTo(3);
+    }
+}
@@ -0,0 +1,173 @@
+package com.expensetracker.service;
+
+import com.expensetracker.config.TenantContext;
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.ExpenseCategory;
+import com.expensetracker.repository.ExpenseFingerprintRepository;
+import com.expensetracker.repository.ExpenseRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+public class SnapshotServiceTest {
+
+    @TempDir
+    static Path snapshotDir;
+
+    @DynamicPropertySource
+    static void snapshotProperties(DynamicPropertyRegistry registry) {
+        registry.add("expense.snapshot.file", () -> snapshotDir.resolve("expenses.snapshot").toString());
+        registry.add("expense.snapshot.on-shutdown", () -> "false");
+        registry.add("expense.snapshot.batch-size", () -> "2");
+        registry.add("expense.journal.dir", () -> snapshotDir.resolve("journal").toString());
+    }
+
+    @Autowired
+    private SnapshotService snapshotService;
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private ExpenseFingerprintRepository expenseFingerprintRepository;
+
+    @Autowired
+    private ExpenseTagIndex expenseTagIndex;
+
+    @BeforeEach
+    void setUp() {
+        expenseRepository.deleteAll();
+    }
+
+    @Test
+    public void whenSnapshotIsRestoredIntoEmptyTable_thenRowsAndIdsComeBack() {
+        // given
+        expenseRepository.save(new Expense(new BigDecimal("10.00"), ExpenseCategory.FOOD, "Lunch", LocalDate.of(2025, 1, 5)));
+        expenseRepository.save(new Expense(new BigDecimal("20.00"), ExpenseCategory.BILLS, "Phone", LocalDate.of(2025, 2, 1)));
+        expenseRepository.save(new Expense(new BigDecimal("30.00"), ExpenseCategory.OTHER, "Gift", LocalDate.of(2025, 2, 14)));
+        List<Expense> before = sortedById(expenseRepository.findAll());
+
+        // when
+        Map<String, Object> written = snapshotService.writeSnapshot();
+        expenseRepository.deleteAll();
+        long restored = snapshotService.restoreIfEmpty();
+
+        // then
+        assertThat(written.get("rows")).isEqualTo(3L);
+        assertThat(restored).isEqualTo(3);
+        List<Expense> after = sortedById(expenseRepository.findAll());
+        assertThat(after).extracting(Expense::getId).containsExactlyElementsOf(before.stream().map(Expense::getId).toList());
+        assertThat(after).extracting(Expense::getDescription).containsExactly("Lunch", "Phone", "Gift");
+        assertThat(after).extracting(Expense::getPartitionMonth).containsExactly(202501, 202502, 202502);
+
+        Expense created = expenseRepository.save(new Expense(new BigDecimal("5.00"), ExpenseCategory.FOOD, "After", LocalDate.now()));
+        assertThat(created.getId()).isGreaterThan(before.get(2).getId());
+    }
+
+    @Test
+    public void whenTableHasData_thenRestoreIsSkipped() {
+        // given
+        expenseRepository.save(new Expense(new BigDecimal("10.00"), ExpenseCategory.FOOD, "Lunch", LocalDate.of(2025, 1, 5)));
+        snapshotService.writeSnapshot();
+
+        // when
+        long restored = snapshotService.restoreIfEmpty();
+
+        // then
+        assertThat(restored).isZero();
+        assertThat(expenseRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    public void whenChangesFollowTheSnapshot_thenRestoreReplaysThemFromTheJournal() {
+        // given
+        Expense lunch = expenseService.createExpense(new Expense(new BigDecimal("10.00"), ExpenseCategory.FOOD, "Lunch", LocalDate.of(2025, 1, 5)));
+        expenseService.createExpense(new Expense(new BigDecimal("20.00"), ExpenseCategory.BILLS, "Phone", LocalDate.of(2025, 2, 1)));
+        Map<String, Object> written = snapshotService.writeSnapshot();
+        Expense gift = expenseService.createExpense(new Expense(new BigDecimal("30.00"), ExpenseCategory.OTHER, "Gift", LocalDate.of(2025, 2, 14)));
+        expenseService.deleteExpense(lunch.getId());
+
+        // when
+        expenseRepository.deleteAll();
+        long restored = snapshotService.restoreIfEmpty();
+
+        // then
+        assertThat(restored).isEqualTo(2);
+        assertThat(sortedById(expenseRepository.findAll())).extracting(Expense::getDescription).containsExactly("Phone", "Gift");
+        long checkpoint = (long) written.get("journalSequence");
+        List<Map<String, Object>> entries = snapshotService.getJournalEntries(checkpoint, 10);
+        assertThat(entries).extracting(entry -> entry.get("type").toString()).containsExactly("CREATED", "DELETED");
+        assertThat(entries).extracting(entry -> ((Expense) entry.get("expense")).getId()).containsExactly(gift.getId(), lunch.getId());
+        assertThat(TenantContext.callAs("globex", () -> snapshotService.getJournalEntries(checkpoint, 10))).isEmpty();
+    }
+
+    @Test
+    public void whenRowsAreRestoredAndReplayed_thenImportsRecogniseThem() {
+        // given
+        expenseService.createExpense(new Expense(new BigDecimal("10.00"), ExpenseCategory.FOOD, "Lunch", LocalDate.of(2025, 1, 5)));
+        snapshotService.writeSnapshot();
+        expenseService.createExpense(new Expense(new BigDecimal("30.00"), ExpenseCategory.OTHER, "Gift", LocalDate.of(2025, 2, 14)));
+        // A restart of the in-memory database loses the fingerprints along with the rows.
+        expenseRepository.deleteAll();
+        expenseFingerprintRepository.deleteAll();
+        snapshotService.restoreIfEmpty();
+
+        // when
+        Map<String, Object> result = expenseService.importExpenses(List.of(
+                new Expense(new BigDecimal("10.00"), ExpenseCategory.FOOD, "LUNCH", LocalDate.of(2025, 1, 5)),
+                new Expense(new BigDecimal("30.00"), ExpenseCategory.OTHER, "Gift", LocalDate.of(2025, 2, 14)),
+                new Expense(new BigDecimal("30.00"), ExpenseCategory.OTHER, "Gift", LocalDate.of(2025, 2, 14))), true);
+
+        // then
+        assertThat(result.get("duplicates")).isEqualTo(2);
+        assertThat(result.get("imported")).isEqualTo(1);
+    }
+
+    @Test
+    public void whenRowsAreRestoredAndReplayed_thenLoadedTagIndexesFollowWithoutReloading() {
+        // given
+        Expense lunch = new Expense(new BigDecimal("10.00"), ExpenseCategory.FOOD, "Lunch", LocalDate.of(2025, 1, 5));
+        lunch.setTags(List.of("trip"));
+        lunch = expenseService.createExpense(lunch);
+        snapshotService.writeSnapshot();
+        Expense gift = new Expense(new BigDecimal("30.00"), ExpenseCategory.OTHER, "Gift", LocalDate.of(2025, 2, 14));
+        gift.setTags(List.of("trip", "family"));
+        expenseService.createExpense(gift);
+        expenseService.deleteExpense(lunch.getId());
+        expenseRepository.deleteAll();
+        expenseTagIndex.rebuild();
+        assertThat(expenseTagIndex.getTagCounts(TenantContext.DEFAULT_TENANT)).isEmpty();
+
+        // when
+        snapshotService.restoreIfEmpty();
+
+        // then
+        assertThat(expenseTagIndex.getLoadedTenantCount()).isEqualTo(1);
+        assertThat(expenseTagIndex.getTagCounts(TenantContext.DEFAULT_TENANT))
+                .extracting(row -> row.get("tag") + "=" + row.get("count"))
+                .containsExactlyInAnyOrder("trip=1", "family=1");
+    }
+
+    private static List<Expense> sortedById(List<Expense> expenses) {
+        return expenses.stream().sorted(Comparator.comparing(Expense::getId)).toList();
+    }
+}